@@ -42,9 +42,8 @@ public class RuntimePV // TODO (Almost) remove. Use vtype.pv, only add setValue
     RuntimePV(final PV pv)
     {
         this.pv = pv;
-        value_flow = pv.onValueEvent()
-                .throttleLatest(Preferences.update_throttle_ms, TimeUnit.MILLISECONDS)
-                .subscribe(this::valueChanged);
+        value_flow = pv.onValueEvent(Preferences.update_throttle_ms, TimeUnit.MILLISECONDS)
+                       .subscribe(this::valueChanged);
         writable_flow = pv.onAccessRightsEvent()
                           .subscribe(this::writableChanged);
     }
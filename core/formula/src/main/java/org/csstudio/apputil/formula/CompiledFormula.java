@@ -0,0 +1,690 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula;
+
+import static org.csstudio.apputil.formula.FormulaCompiler.getKind;
+
+import java.util.Arrays;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+import org.epics.util.array.ArrayDouble;
+import org.epics.util.array.CollectionNumbers;
+import org.epics.util.array.ListNumber;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VDoubleArray;
+import org.epics.vtype.VNumber;
+import org.epics.vtype.VNumberArray;
+import org.epics.vtype.VType;
+import org.phoebus.core.vtypes.VTypeHelper;
+
+/** Formula compiled by the {@link FormulaCompiler}
+ *
+ *  <p>Each node of the formula is replaced by {@link Code}
+ *  that computes a plain <code>double</code>,
+ *  or fills a <code>double[]</code> for numeric arrays.
+ *  Only the final result is turned into a {@link VType}.
+ *
+ *  <p>All leaf values of one evaluation are kept in a <code>VType[]</code>,
+ *  and alarm, time and display of the result refer to
+ *  leaves by their index in that array.
+ *
+ *  @author Kay Kasemir
+ */
+class CompiledFormula
+{
+    /** Alarm, time and display, known when compiling
+     *
+     *  @param alarms Leaves that may provide the alarm, highest alarm wins, first one on tie
+     *  @param exact_alarm Use alarm of the single leaf even if it's 'none'?
+     *  @param times Leaves that may provide the time, latest time wins, last one on tie, -1 for 'now'
+     *  @param display Leaf that provides the display, -1 for none
+     *  @param source Leaf that is passed through unchanged, -1 for computed values
+     */
+    record Meta(int[] alarms, boolean exact_alarm, int[] times, int display, int source)
+    {
+        /** Result of a function: No alarm, current time, no display */
+        static final Meta FRESH = new Meta(new int[0], false, new int[] { -1 }, -1, -1);
+
+        /** @param leaf Index of variable leaf
+         *  @return Meta data of variable
+         */
+        static Meta ofVariable(final int leaf)
+        {
+            return new Meta(new int[] { leaf }, true, new int[] { leaf }, leaf, leaf);
+        }
+
+        /** @param leaf Index of constant leaf
+         *  @return Meta data of constant, which has no alarm
+         */
+        static Meta ofConstant(final int leaf)
+        {
+            return new Meta(new int[0], false, new int[] { leaf }, leaf, leaf);
+        }
+
+        /** @return Meta data for value computed from this one */
+        Meta computed()
+        {
+            return source < 0 ? this : new Meta(alarms, exact_alarm, times, display, -1);
+        }
+
+        /** @param other Meta data of second argument
+         *  @return Meta data for result of binary operation
+         */
+        Meta combine(final Meta other)
+        {
+            // Highest alarm prefers the first leaf, latest time the last one,
+            // so only the first resp. last use of a leaf matters
+            final int[] times = merge(reverse(other.times), reverse(this.times));
+            return new Meta(merge(alarms, other.alarms), false, reverse(times), display, -1);
+        }
+
+        /** @return Elements of a, followed by those of b that are not in a */
+        private static int[] merge(final int[] a, final int[] b)
+        {
+            final int[] result = Arrays.copyOf(a, a.length + b.length);
+            int size = a.length;
+            for (int leaf : b)
+                if (Arrays.stream(result, 0, size).noneMatch(known -> known == leaf))
+                    result[size++] = leaf;
+            return Arrays.copyOf(result, size);
+        }
+
+        private static int[] reverse(final int[] a)
+        {
+            final int[] result = new int[a.length];
+            for (int i=0; i<a.length; ++i)
+                result[i] = a[a.length - 1 - i];
+            return result;
+        }
+
+        Alarm getAlarm(final VType[] values)
+        {
+            if (exact_alarm)
+                return Alarm.alarmOf(values[alarms[0]]);
+            Alarm result = Alarm.none();
+            for (int leaf : alarms)
+                result = highestAlarmOf(result, Alarm.alarmOf(values[leaf]));
+            return result;
+        }
+
+        Time getTime(final VType[] values)
+        {
+            Time result = null;
+            for (int leaf : times)
+            {
+                final Time time = leaf < 0 ? Time.now() : Time.timeOf(values[leaf]);
+                result = result == null ? time : latestTimeOf(result, time);
+            }
+            return result;
+        }
+
+        Display getDisplay(final VType[] values)
+        {
+            return display < 0 ? Display.none() : Display.displayOf(values[display]);
+        }
+    }
+
+    /** @return Higher alarm, preferring the first one, but 'none' unless there is an alarm */
+    private static Alarm highestAlarmOf(final Alarm a, final Alarm b)
+    {
+        Alarm result = Alarm.none();
+        if (a.getSeverity().compareTo(result.getSeverity()) > 0)
+            result = a;
+        if (b.getSeverity().compareTo(result.getSeverity()) > 0)
+            result = b;
+        return result;
+    }
+
+    /** @return Later time, preferring the second one */
+    private static Time latestTimeOf(final Time a, final Time b)
+    {
+        return a.getTimestamp().isAfter(b.getTimestamp()) ? a : b;
+    }
+
+    /** Compiled node */
+    abstract static class Code
+    {
+        /** Alarm, time and display, <code>null</code> when they depend on a condition */
+        final Meta meta;
+
+        Code(final Meta meta)
+        {
+            this.meta = meta;
+        }
+
+        /** @param values Leaf values
+         *  @return Scalar value, first element of an array
+         */
+        abstract double eval(VType[] values);
+
+        /** @param values Leaf values
+         *  @return Array size
+         */
+        int getSize(final VType[] values)
+        {
+            return 1;
+        }
+
+        /** @param values Leaf values
+         *  @param index Array index
+         *  @return Array element
+         */
+        double getElement(final VType[] values, final int index)
+        {
+            return eval(values);
+        }
+
+        /** @param values Leaf values
+         *  @return Code that provides the result, same unless this is a condition
+         */
+        Code select(final VType[] values)
+        {
+            return this;
+        }
+
+        /** @param values Leaf values
+         *  @return Leaf value that is passed through, <code>null</code> for computed value
+         */
+        VType getSource(final VType[] values)
+        {
+            return meta.source < 0 ? null : values[meta.source];
+        }
+
+        Alarm getAlarm(final VType[] values)
+        {
+            return meta.getAlarm(values);
+        }
+
+        Time getTime(final VType[] values)
+        {
+            return meta.getTime(values);
+        }
+
+        Display getDisplay(final VType[] values)
+        {
+            return meta.getDisplay(values);
+        }
+    }
+
+    /** Numeric leaf */
+    static class ScalarLeaf extends Code
+    {
+        private final int leaf;
+
+        ScalarLeaf(final int leaf)
+        {
+            super(Meta.ofVariable(leaf));
+            this.leaf = leaf;
+        }
+
+        @Override
+        double eval(final VType[] values)
+        {
+            return ((VNumber) values[leaf]).getValue().doubleValue();
+        }
+    }
+
+    /** Constant number */
+    static class Constant extends Code
+    {
+        private final double value;
+
+        Constant(final int leaf, final double value)
+        {
+            super(Meta.ofConstant(leaf));
+            this.value = value;
+        }
+
+        @Override
+        double eval(final VType[] values)
+        {
+            return value;
+        }
+    }
+
+    /** Base for array code */
+    abstract static class ArrayCode extends Code
+    {
+        ArrayCode(final Meta meta)
+        {
+            super(meta);
+        }
+
+        @Override
+        double eval(final VType[] values)
+        {
+            return getSize(values) > 0 ? getElement(values, 0) : Double.NaN;
+        }
+
+        @Override
+        abstract int getSize(VType[] values);
+
+        @Override
+        abstract double getElement(VType[] values, int index);
+
+        /** @param values Leaf values
+         *  @param result Array to fill, length is the size of the result
+         */
+        abstract void fill(VType[] values, double[] result);
+    }
+
+    /** Numeric array leaf */
+    static class ArrayLeaf extends ArrayCode
+    {
+        private final int leaf;
+
+        ArrayLeaf(final int leaf)
+        {
+            super(Meta.ofVariable(leaf));
+            this.leaf = leaf;
+        }
+
+        @Override
+        double eval(final VType[] values)
+        {
+            return getElement(values, 0);
+        }
+
+        @Override
+        int getSize(final VType[] values)
+        {
+            return VTypeHelper.getArraySize(values[leaf]);
+        }
+
+        /** @param values Leaf values
+         *  @return Array data of this leaf
+         */
+        ListNumber getData(final VType[] values)
+        {
+            return ((VNumberArray) values[leaf]).getData();
+        }
+
+        @Override
+        double getElement(final VType[] values, final int index)
+        {
+            final ListNumber data = getData(values);
+            return index < data.size() ? data.getDouble(index) : Double.NaN;
+        }
+
+        @Override
+        void fill(final VType[] values, final double[] result)
+        {
+            final ListNumber data = getData(values);
+            if (data.size() == result.length)
+                CollectionNumbers.arrayCopy(data, result, 0);
+            else
+            {
+                final int available = Math.min(data.size(), result.length);
+                for (int i=0; i<available; ++i)
+                    result[i] = data.getDouble(i);
+                Arrays.fill(result, available, result.length, Double.NaN);
+            }
+        }
+    }
+
+    /** Unary operation on scalar */
+    static class Unary extends Code
+    {
+        private final Code arg;
+        private final DoubleUnaryOperator operator;
+
+        Unary(final Code arg, final DoubleUnaryOperator operator)
+        {
+            super(arg.meta == null ? null : arg.meta.computed());
+            this.arg = arg;
+            this.operator = operator;
+        }
+
+        @Override
+        double eval(final VType[] values)
+        {
+            return operator.applyAsDouble(arg.eval(values));
+        }
+
+        @Override
+        VType getSource(final VType[] values)
+        {
+            return null;
+        }
+
+        @Override
+        Alarm getAlarm(final VType[] values)
+        {
+            return meta != null ? meta.getAlarm(values) : arg.getAlarm(values);
+        }
+
+        @Override
+        Time getTime(final VType[] values)
+        {
+            return meta != null ? meta.getTime(values) : arg.getTime(values);
+        }
+
+        @Override
+        Display getDisplay(final VType[] values)
+        {
+            return meta != null ? meta.getDisplay(values) : arg.getDisplay(values);
+        }
+    }
+
+    /** Element-wise unary operation on array */
+    static class ArrayUnary extends ArrayCode
+    {
+        private final ArrayCode arg;
+        private final DoubleUnaryOperator operator;
+
+        ArrayUnary(final ArrayCode arg, final DoubleUnaryOperator operator)
+        {
+            super(arg.meta.computed());
+            this.arg = arg;
+            this.operator = operator;
+        }
+
+        @Override
+        int getSize(final VType[] values)
+        {
+            return arg.getSize(values);
+        }
+
+        @Override
+        double getElement(final VType[] values, final int index)
+        {
+            return operator.applyAsDouble(arg.getElement(values, index));
+        }
+
+        @Override
+        void fill(final VType[] values, final double[] result)
+        {
+            arg.fill(values, result);
+            for (int i=0; i<result.length; ++i)
+                result[i] = operator.applyAsDouble(result[i]);
+        }
+    }
+
+    /** Binary operation on scalars, using first element of arrays */
+    static class Binary extends Code
+    {
+        private final Code left, right;
+        private final DoubleBinaryOperator operator;
+
+        Binary(final Code left, final Code right, final DoubleBinaryOperator operator)
+        {
+            super(left.meta == null  ||  right.meta == null ? null : left.meta.combine(right.meta));
+            this.left = left;
+            this.right = right;
+            this.operator = operator;
+        }
+
+        @Override
+        double eval(final VType[] values)
+        {
+            return operator.applyAsDouble(left.eval(values), right.eval(values));
+        }
+
+        @Override
+        VType getSource(final VType[] values)
+        {
+            return null;
+        }
+
+        @Override
+        Alarm getAlarm(final VType[] values)
+        {
+            return meta != null ? meta.getAlarm(values) : highestAlarmOf(left.getAlarm(values), right.getAlarm(values));
+        }
+
+        @Override
+        Time getTime(final VType[] values)
+        {
+            return meta != null ? meta.getTime(values) : latestTimeOf(left.getTime(values), right.getTime(values));
+        }
+
+        @Override
+        Display getDisplay(final VType[] values)
+        {
+            return meta != null ? meta.getDisplay(values) : left.getDisplay(values);
+        }
+    }
+
+    /** Element-wise binary operation on arrays */
+    static class ArrayBinary extends ArrayCode
+    {
+        private final ArrayCode left, right;
+        private final DoubleBinaryOperator operator;
+
+        ArrayBinary(final ArrayCode left, final ArrayCode right, final DoubleBinaryOperator operator)
+        {
+            super(left.meta.combine(right.meta));
+            this.left = left;
+            this.right = right;
+            this.operator = operator;
+        }
+
+        @Override
+        int getSize(final VType[] values)
+        {
+            return Math.min(left.getSize(values), right.getSize(values));
+        }
+
+        @Override
+        double getElement(final VType[] values, final int index)
+        {
+            return operator.applyAsDouble(left.getElement(values, index), right.getElement(values, index));
+        }
+
+        @Override
+        void fill(final VType[] values, final double[] result)
+        {
+            left.fill(values, result);
+            if (right instanceof ArrayLeaf leaf)
+            {   // Read leaf data without copying it
+                final ListNumber data = leaf.getData(values);
+                final int available = Math.min(data.size(), result.length);
+                for (int i=0; i<available; ++i)
+                    result[i] = operator.applyAsDouble(result[i], data.getDouble(i));
+                for (int i=available; i<result.length; ++i)
+                    result[i] = operator.applyAsDouble(result[i], Double.NaN);
+            }
+            else
+            {
+                final double[] other = new double[result.length];
+                right.fill(values, other);
+                for (int i=0; i<result.length; ++i)
+                    result[i] = operator.applyAsDouble(result[i], other[i]);
+            }
+        }
+    }
+
+    /** Condition 'cond ? yes : no' on scalars */
+    static class Condition extends Code
+    {
+        private final Code cond, yes, no;
+
+        Condition(final Code cond, final Code yes, final Code no)
+        {
+            super(null);
+            this.cond = cond;
+            this.yes = yes;
+            this.no = no;
+        }
+
+        @Override
+        double eval(final VType[] values)
+        {
+            final double c = cond.eval(values);
+            if (! Double.isFinite(c))
+                return c;
+            return c != 0.0 ? yes.eval(values) : no.eval(values);
+        }
+
+        @Override
+        Code select(final VType[] values)
+        {
+            final double c = cond.eval(values);
+            // Result is the undefined condition
+            if (! Double.isFinite(c))
+                return cond.select(values);
+            return c != 0.0 ? yes.select(values) : no.select(values);
+        }
+
+        @Override
+        VType getSource(final VType[] values)
+        {
+            return select(values).getSource(values);
+        }
+
+        @Override
+        Alarm getAlarm(final VType[] values)
+        {
+            return select(values).getAlarm(values);
+        }
+
+        @Override
+        Time getTime(final VType[] values)
+        {
+            return select(values).getTime(values);
+        }
+
+        @Override
+        Display getDisplay(final VType[] values)
+        {
+            return select(values).getDisplay(values);
+        }
+    }
+
+    /** Reduce scalars to one, using first element of arrays */
+    static class Reduce extends Code
+    {
+        private final Code[] args;
+        private final DoubleBinaryOperator operator;
+
+        Reduce(final Code[] args, final DoubleBinaryOperator operator)
+        {
+            super(Meta.FRESH);
+            this.args = args;
+            this.operator = operator;
+        }
+
+        @Override
+        double eval(final VType[] values)
+        {
+            if (args.length <= 0)
+                return Double.NaN;
+            double result = args[0].eval(values);
+            for (int i=1; i<args.length; ++i)
+                result = operator.applyAsDouble(result, args[i].eval(values));
+            return result;
+        }
+    }
+
+    /** Function with one scalar argument, using first element of an array */
+    static class Function1 extends Code
+    {
+        private final Code arg;
+        private final DoubleUnaryOperator function;
+
+        Function1(final Code arg, final DoubleUnaryOperator function)
+        {
+            super(Meta.FRESH);
+            this.arg = arg;
+            this.function = function;
+        }
+
+        @Override
+        double eval(final VType[] values)
+        {
+            return function.applyAsDouble(arg.eval(values));
+        }
+    }
+
+    /** Function with two scalar arguments, using first element of arrays */
+    static class Function2 extends Code
+    {
+        private final Code a, b;
+        private final DoubleBinaryOperator function;
+
+        Function2(final Code a, final Code b, final DoubleBinaryOperator function)
+        {
+            super(Meta.FRESH);
+            this.a = a;
+            this.b = b;
+            this.function = function;
+        }
+
+        @Override
+        double eval(final VType[] values)
+        {
+            return function.applyAsDouble(a.eval(values), b.eval(values));
+        }
+    }
+
+    /** Code for the complete formula */
+    private final Code code;
+
+    /** Constants by leaf index, <code>null</code> for variables */
+    private final VType[] constants;
+
+    /** Variables by leaf index, <code>null</code> for constants */
+    private final VariableNode[] variables;
+
+    /** Expected kind of each variable's value */
+    private final byte[] kinds;
+
+    /** @param code Code for the complete formula
+     *  @param leaves Constant {@link VType} or {@link VariableNode} for each leaf index
+     */
+    CompiledFormula(final Code code, final Object[] leaves)
+    {
+        this.code = code;
+        constants = new VType[leaves.length];
+        variables = new VariableNode[leaves.length];
+        kinds = new byte[leaves.length];
+        for (int i=0; i<leaves.length; ++i)
+        {
+            if (leaves[i] instanceof VariableNode variable)
+            {
+                variables[i] = variable;
+                kinds[i] = getKind(variable.eval());
+            }
+            else
+                constants[i] = (VType) leaves[i];
+        }
+    }
+
+    /** @return Value of the formula or <code>null</code> if variables changed their type */
+    VType eval()
+    {
+        final VType[] values = constants.clone();
+        for (int i=0; i<variables.length; ++i)
+            if (variables[i] != null)
+            {
+                values[i] = variables[i].eval();
+                if (getKind(values[i]) != kinds[i])
+                    return null;
+            }
+
+        // Pass leaf through, or create VType for computed result
+        final Code result = code.select(values);
+        final VType source = result.getSource(values);
+        if (source != null)
+            return source;
+        final Alarm alarm = result.getAlarm(values);
+        final Time time = result.getTime(values);
+        final Display display = result.getDisplay(values);
+        if (result instanceof ArrayCode array)
+        {
+            final double[] data = new double[array.getSize(values)];
+            array.fill(values, data);
+            return VDoubleArray.of(ArrayDouble.of(data), alarm, time, display);
+        }
+        return VDouble.of(result.eval(values), alarm, time, display);
+    }
+}
@@ -76,6 +76,9 @@ import org.epics.vtype.VType;
  *  <p>The formula string is parsed into a tree, so that subsequent
  *  evaluations, possibly with modified values for input variables,
  *  are reasonably fast.
+ *  For numeric values and arrays, the tree is further compiled
+ *  into a {@link CompiledFormula} that avoids creating
+ *  intermediate values for each node of the tree.
  *
  *  <p>Functions can be provided via the {@link FormulaFunction} SPI.
  *
@@ -118,6 +121,14 @@ public class Formula implements Node
     /** Variables that can be used in the formula */
     final private ArrayList<VariableNode> variables;
 
+    /** Kinds of variable values for which the formula was last compiled,
+     *  <code>null</code> if not attempted
+     */
+    private volatile byte[] compiled_kinds = null;
+
+    /** Compiled formula, <code>null</code> if the formula cannot be compiled */
+    private volatile CompiledFormula compiled = null;
+
     /** Create formula from string.
      *  @param formula The formula to parse
      *  @throws Exception on parse error
@@ -179,9 +190,63 @@ public class Formula implements Node
     @Override
     public VType eval()
     {
+        CompiledFormula code = compiled;
+        if (code == null  &&  haveKindsChanged())
+            code = compile();
+        if (code != null)
+        {
+            final VType value = code.eval();
+            if (value != null)
+                return value;
+            // Variables changed their type, compile for the new types
+            compile();
+        }
         return tree.eval();
     }
 
+    /** Evaluate the formula without compiling it
+     *  @return The value of the formula
+     */
+    VType interpret()
+    {
+        return tree.eval();
+    }
+
+    /** @return Have the kinds of variable values changed since the formula was last compiled? */
+    private boolean haveKindsChanged()
+    {
+        final byte[] kinds = compiled_kinds;
+        if (kinds == null)
+            return true;
+        for (int i=0; i<kinds.length; ++i)
+            if (FormulaCompiler.getKind(variables.get(i).eval()) != kinds[i])
+                return true;
+        return false;
+    }
+
+    /** Compile formula for the current kinds of variable values
+     *  @return Compiled formula or <code>null</code>
+     */
+    private synchronized CompiledFormula compile()
+    {
+        final int N = variables == null ? 0 : variables.size();
+        final byte[] kinds = new byte[N];
+        for (int i=0; i<N; ++i)
+            kinds[i] = FormulaCompiler.getKind(variables.get(i).eval());
+        final CompiledFormula code = FormulaCompiler.compile(tree);
+        logger.log(Level.FINE, () -> "Formula " + formula + (code == null ? " cannot be compiled" : " compiled"));
+        compiled = code;
+        compiled_kinds = kinds;
+        return code;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean compile(final FormulaCompiler compiler)
+    {
+        return tree.compile(compiler);
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean hasSubnode(final Node node)
@@ -0,0 +1,243 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+import org.csstudio.apputil.formula.CompiledFormula.ArrayBinary;
+import org.csstudio.apputil.formula.CompiledFormula.ArrayCode;
+import org.csstudio.apputil.formula.CompiledFormula.ArrayLeaf;
+import org.csstudio.apputil.formula.CompiledFormula.ArrayUnary;
+import org.csstudio.apputil.formula.CompiledFormula.Binary;
+import org.csstudio.apputil.formula.CompiledFormula.Code;
+import org.csstudio.apputil.formula.CompiledFormula.Condition;
+import org.csstudio.apputil.formula.CompiledFormula.Constant;
+import org.csstudio.apputil.formula.CompiledFormula.Function1;
+import org.csstudio.apputil.formula.CompiledFormula.Function2;
+import org.csstudio.apputil.formula.CompiledFormula.Reduce;
+import org.csstudio.apputil.formula.CompiledFormula.ScalarLeaf;
+import org.csstudio.apputil.formula.CompiledFormula.Unary;
+import org.epics.vtype.VNumber;
+import org.epics.vtype.VNumberArray;
+import org.epics.vtype.VType;
+
+/** Compiler that turns a tree of {@link Node}s into a {@link CompiledFormula}
+ *
+ *  <p>Nodes emit their code via {@link Node#compile(FormulaCompiler)}.
+ *  The result operates on <code>double</code> values,
+ *  or on <code>double[]</code> buffers for numeric arrays,
+ *  and only creates a {@link VType} for the final result.
+ *
+ *  <p>Whether a node produces a scalar or an array is
+ *  determined while compiling, based on the types
+ *  of the variables' current values.
+ *  The compiled formula is thus only valid
+ *  while the variables keep those types.
+ *
+ *  <p>Alarm, time and display of the result
+ *  follow the same rules as the evaluation of the node tree:
+ *  Binary operations use the highest alarm and latest time
+ *  of their arguments and the display of the first argument,
+ *  unary operations keep those of their argument,
+ *  functions like min, max or sqrt have no alarm, the current time and no display,
+ *  and a condition returns the value of the selected branch.
+ *  Without conditions, the leaves that provide alarm, time and display
+ *  are known when compiling, so they are only checked once for the result.
+ *
+ *  @author Kay Kasemir
+ */
+public class FormulaCompiler
+{
+    /** Variable value is a number */
+    static final byte SCALAR = 0;
+    /** Variable value is a numeric array */
+    static final byte ARRAY = 1;
+    /** Variable value cannot be compiled */
+    static final byte OTHER = 2;
+
+    /** Constant {@link VType} or {@link VariableNode} for each leaf */
+    private final List<Object> leaves = new ArrayList<>();
+
+    /** Code for the nodes compiled so far */
+    private final List<Code> stack = new ArrayList<>();
+
+    /** @param value Value
+     *  @return Kind of value, {@link #SCALAR}, {@link #ARRAY} or {@link #OTHER}
+     */
+    static byte getKind(final VType value)
+    {
+        if (value instanceof VNumber)
+            return SCALAR;
+        if (value instanceof VNumberArray)
+            return ARRAY;
+        return OTHER;
+    }
+
+    /** @param tree Node to compile
+     *  @return {@link CompiledFormula} or <code>null</code> if the node cannot be compiled
+     */
+    static CompiledFormula compile(final Node tree)
+    {
+        final FormulaCompiler compiler = new FormulaCompiler();
+        if (! tree.compile(compiler)  ||  compiler.stack.size() != 1)
+            return null;
+        return new CompiledFormula(compiler.pop(), compiler.leaves.toArray());
+    }
+
+    private FormulaCompiler()
+    {
+    }
+
+    private Code pop()
+    {
+        return stack.remove(stack.size() - 1);
+    }
+
+    /** @param node Node to compile
+     *  @return Code for the node or <code>null</code> if it cannot be compiled
+     */
+    private Code compileNode(final Node node)
+    {
+        return node.compile(this) ? pop() : null;
+    }
+
+    private int addLeaf(final Object leaf)
+    {
+        // Variables may be used more than once, re-use their leaf
+        for (int i=0; i<leaves.size(); ++i)
+            if (leaves.get(i) == leaf)
+                return i;
+        leaves.add(leaf);
+        return leaves.size() - 1;
+    }
+
+    /** @param value Constant value
+     *  @return <code>true</code> if compiled
+     */
+    public boolean constant(final VType value)
+    {
+        if (getKind(value) != SCALAR)
+            return false;
+        stack.add(new Constant(addLeaf(value), ((VNumber) value).getValue().doubleValue()));
+        return true;
+    }
+
+    /** @param variable Variable
+     *  @return <code>true</code> if compiled
+     */
+    public boolean variable(final VariableNode variable)
+    {
+        final byte kind = getKind(variable.eval());
+        if (kind == OTHER)
+            return false;
+        final int leaf = addLeaf(variable);
+        stack.add(kind == ARRAY ? new ArrayLeaf(leaf) : new ScalarLeaf(leaf));
+        return true;
+    }
+
+    /** Unary operation, element-wise for arrays
+     *  @param arg Argument
+     *  @param operator Operator
+     *  @return <code>true</code> if compiled
+     */
+    public boolean unary(final Node arg, final DoubleUnaryOperator operator)
+    {
+        final Code a = compileNode(arg);
+        if (a == null)
+            return false;
+        stack.add(a instanceof ArrayCode array ? new ArrayUnary(array, operator) : new Unary(a, operator));
+        return true;
+    }
+
+    /** Binary operation, element-wise if both arguments are arrays
+     *
+     *  <p>An array mixed with a scalar uses the first array element.
+     *
+     *  @param left First argument
+     *  @param right Second argument
+     *  @param operator Operator
+     *  @return <code>true</code> if compiled
+     */
+    public boolean binary(final Node left, final Node right, final DoubleBinaryOperator operator)
+    {
+        final Code a = compileNode(left), b = compileNode(right);
+        if (a == null  ||  b == null)
+            return false;
+        if (a instanceof ArrayCode array_a  &&  b instanceof ArrayCode array_b)
+            stack.add(new ArrayBinary(array_a, array_b, operator));
+        else
+            stack.add(new Binary(a, b, operator));
+        return true;
+    }
+
+    /** Condition 'cond ? yes : no'
+     *
+     *  <p>Only supported for scalars.
+     *
+     *  @param cond Condition
+     *  @param yes Result if condition is non-zero
+     *  @param no Result if condition is zero
+     *  @return <code>true</code> if compiled
+     */
+    public boolean condition(final Node cond, final Node yes, final Node no)
+    {
+        final Code c = compileNode(cond), y = compileNode(yes), n = compileNode(no);
+        if (c == null  ||  y == null  ||  n == null  ||
+            c instanceof ArrayCode  ||  y instanceof ArrayCode  ||  n instanceof ArrayCode)
+            return false;
+        stack.add(new Condition(c, y, n));
+        return true;
+    }
+
+    /** Reduce arguments to one scalar
+     *  @param args Arguments, using first element of arrays
+     *  @param operator Operator that combines result so far with next argument
+     *  @return <code>true</code> if compiled
+     */
+    public boolean reduce(final Node[] args, final DoubleBinaryOperator operator)
+    {
+        final Code[] codes = new Code[args.length];
+        for (int i=0; i<args.length; ++i)
+            if ((codes[i] = compileNode(args[i])) == null)
+                return false;
+        stack.add(new Reduce(codes, operator));
+        return true;
+    }
+
+    /** Function with one scalar argument
+     *  @param arg Argument, using first element of an array
+     *  @param function Function
+     *  @return <code>true</code> if compiled
+     */
+    public boolean function(final Node arg, final DoubleUnaryOperator function)
+    {
+        final Code a = compileNode(arg);
+        if (a == null)
+            return false;
+        stack.add(new Function1(a, function));
+        return true;
+    }
+
+    /** Function with two scalar arguments
+     *  @param a First argument, using first element of an array
+     *  @param b Second argument, using first element of an array
+     *  @param function Function
+     *  @return <code>true</code> if compiled
+     */
+    public boolean function(final Node a, final Node b, final DoubleBinaryOperator function)
+    {
+        final Code first = compileNode(a), second = compileNode(b);
+        if (first == null  ||  second == null)
+            return false;
+        stack.add(new Function2(first, second, function));
+        return true;
+    }
+}
@@ -31,4 +31,19 @@ public interface Node
      *  @return <code>true</code> if given node name was found under this one.
      */
     public boolean hasSubnode(String name);
+
+    /** Compile the node
+     *
+     *  <p>Nodes that support compilation emit their code
+     *  via the {@link FormulaCompiler}.
+     *  Formulas with nodes that cannot be compiled
+     *  are evaluated via {@link #eval()}.
+     *
+     *  @param compiler {@link FormulaCompiler}
+     *  @return <code>true</code> if node was compiled
+     */
+    public default boolean compile(final FormulaCompiler compiler)
+    {
+        return false;
+    }
 }
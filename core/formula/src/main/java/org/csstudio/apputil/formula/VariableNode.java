@@ -97,6 +97,13 @@ public class VariableNode implements Node
         return this.name.equals(name);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean compile(final FormulaCompiler compiler)
+    {
+        return compiler.variable(this);
+    }
+
     @Override
     public String toString()
     {
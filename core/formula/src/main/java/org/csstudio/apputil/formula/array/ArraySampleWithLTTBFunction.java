@@ -1,6 +1,7 @@
 package org.csstudio.apputil.formula.array;
 
 import org.csstudio.apputil.formula.Formula;
+import org.csstudio.apputil.formula.spi.StreamingFormulaFunction;
 import org.epics.util.array.CollectionNumbers;
 import org.epics.util.array.ListNumber;
 import org.epics.vtype.Alarm;
@@ -16,7 +17,7 @@ import java.util.logging.Level;
 /**
  * @author Kunal Shroff
  */
-public class ArraySampleWithLTTBFunction extends BaseArrayFunction {
+public class ArraySampleWithLTTBFunction extends BaseArrayFunction implements StreamingFormulaFunction {
 
     @Override
     public String getName() {
@@ -50,14 +51,45 @@ public class ArraySampleWithLTTBFunction extends BaseArrayFunction {
         if (threshold == 1) return CollectionNumbers.toListDouble(data.getDouble(0));
         if (threshold == 2) return CollectionNumbers.toListDouble(data.getDouble(0), data.getDouble(1));
 
-        final double[] out = new double[(int) threshold];
-        out[0] = data.getDouble(0); // keep first
-        out[(int) (threshold-1)] = data.getDouble(n-1);
+        final double[] values = new double[n];
+        CollectionNumbers.arrayCopy(data, values, 0);
+        final int[] selected = new int[bucketCount(threshold)];
+        selectLTTB(values, n, threshold, selected, 0, selected.length);
+        return CollectionNumbers.toList(toSamples(values, n, threshold, selected));
+    }
+
+    /** @param threshold Number of points to keep
+     *  @return Number of buckets between the first and last point
+     */
+    private static int bucketCount(final double threshold) {
+        return (int) Math.ceil(threshold - 2);
+    }
 
-        int aIdx = 0; // index of last selected point
+    /** Select the point with the largest triangle area in each bucket
+     *
+     *  <p>The point selected for a bucket depends on the point selected
+     *  for the previous bucket and on the data in the current and next bucket.
+     *  When only some of the data changed, the selection is thus re-computed
+     *  from the first bucket that might be affected by the change until
+     *  it again matches the previous selection after the last affected bucket.
+     *
+     *  @param data Data
+     *  @param n Number of data elements
+     *  @param threshold Number of points to keep
+     *  @param selected Index of selected point for each bucket, updated
+     *  @param start First bucket to compute
+     *  @param stable First bucket that is not affected by data changes
+     */
+    private static void selectLTTB(final double[] data, final int n, final double threshold,
+                                   final int[] selected, final int start, final int stable) {
+        int aIdx = start > 0 ? selected[start - 1] : 0; // index of last selected point
         double bucketSize = (double)(n - 2) / (threshold - 2);
+        boolean changed = true;
+
+        for (int i = start; i < threshold - 2; i++) {
+            // Rest of the selection remains the same?
+            if (i >= stable && !changed) break;
 
-        for (int i = 0; i < threshold - 2; i++) {
             // range of current bucket
             int cs = (int)Math.floor(i * bucketSize) + 1;
             int ce = (int)Math.floor((i + 1) * bucketSize) + 1;
@@ -73,24 +105,24 @@ public class ArraySampleWithLTTBFunction extends BaseArrayFunction {
             double avgY;
             if (ns == ne && ns < n) {
                 avgX = ns;
-                avgY = data.getDouble(ns);
+                avgY = data[ns];
             } else if (ns >= ne) {
                 avgX = ns;
-                avgY = data.getDouble(Math.min(ns, n - 2));
+                avgY = data[Math.min(ns, n - 2)];
             } else {
                 double sx = 0, sy = 0;
-                for (int j = ns; j < ne; j++) { sx += j; sy += data.getDouble(j); }
+                for (int j = ns; j < ne; j++) { sx += j; sy += data[j]; }
                 int cnt = ne - ns;
                 avgX = sx / cnt;
                 avgY = sy / cnt;
             }
 
             // find point in current bucket with max triangle area
-            double ax = aIdx, ay = data.getDouble(aIdx);
+            double ax = aIdx, ay = data[aIdx];
             double bestArea = -1;
             int bestIdx = cs;
             for (int j = cs; j < ce; j++) {
-                double bx = j, by = data.getDouble(j);
+                double bx = j, by = data[j];
                 double area = Math.abs(
                         (bx - ax) * (avgY - ay) - (avgX - ax) * (by - ay)
                 );
@@ -100,11 +132,63 @@ public class ArraySampleWithLTTBFunction extends BaseArrayFunction {
                 }
             }
 
-            out[i+1] = data.getDouble(bestIdx);
+            changed = selected[i] != bestIdx;
+            selected[i] = bestIdx;
             aIdx = bestIdx;
         }
+    }
+
+    private static double[] toSamples(final double[] data, final int n, final double threshold, final int[] selected) {
+        final double[] out = new double[(int) threshold];
+        out[0] = data[0]; // keep first
+        out[(int) (threshold-1)] = data[n-1];
+        for (int i = 0; i < selected.length; i++) {
+            out[i+1] = data[selected[i]];
+        }
+        return out;
+    }
+
+    /** When used in a formula, only the buckets affected by changed data are re-computed */
+    @Override
+    public State createState() {
+        final ArrayTracker tracker = new ArrayTracker();
+        return new State() {
+            private double threshold = Double.NaN;
+            private int[] selected = null;
+
+            @Override
+            public VType compute(VType... args) throws Exception {
+                if (args.length != 2 || !VTypeHelper.isNumericArray(args[0])) {
+                    return ArraySampleWithLTTBFunction.this.compute(args);
+                }
+                final VNumberArray array = (VNumberArray) args[0];
+                final double buckets = VTypeHelper.toDouble(args[1]);
+                final boolean changed = tracker.update(array);
+                final int n = tracker.size();
+                if (buckets >= n || buckets <= 2) {
+                    selected = null;
+                    return getArrayData(array, buckets);
+                }
 
-        return CollectionNumbers.toList(out);
+                final double[] data = tracker.getCurrent();
+                if (selected == null || buckets != threshold || tracker.isResized()) {
+                    threshold = buckets;
+                    selected = new int[bucketCount(threshold)];
+                    selectLTTB(data, n, threshold, selected, 0, selected.length);
+                } else if (changed) {
+                    // Bucket i uses the data of buckets i-1 (last selected point), i and i+1.
+                    // Include one more bucket on each end to allow for rounding.
+                    final double bucketSize = (double)(n - 2) / (threshold - 2);
+                    final int first = (int) ((tracker.getFirst() - 1) / bucketSize);
+                    final int last = (int) ((tracker.getLast() - 2) / bucketSize);
+                    selectLTTB(data, n, threshold, selected,
+                               Math.max(0, first - 2),
+                               Math.min(selected.length, Math.max(0, last) + 3));
+                }
+                return VNumberArray.of(CollectionNumbers.toList(toSamples(data, n, threshold, selected)),
+                                       Alarm.none(), array.getTime(), Display.none());
+            }
+        };
     }
 
     @Override
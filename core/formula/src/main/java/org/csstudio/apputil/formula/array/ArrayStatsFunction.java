@@ -19,9 +19,11 @@
 
 package org.csstudio.apputil.formula.array;
 
+import org.csstudio.apputil.formula.spi.StreamingFormulaFunction;
 import org.epics.vtype.Alarm;
 import org.epics.vtype.Display;
 import org.epics.vtype.Time;
+import org.epics.vtype.VNumberArray;
 import org.epics.vtype.VStatistics;
 import org.epics.vtype.VType;
 import org.phoebus.core.vtypes.VTypeHelper;
@@ -33,8 +35,11 @@ import java.util.List;
 /**
  * Returns the statistic of the given array
  * average, min, max, element count
+ *
+ * When used in a formula, the sum, min and max are updated
+ * for the changed elements of the array.
  */
-public class ArrayStatsFunction extends BaseArrayFunction {
+public class ArrayStatsFunction extends BaseArrayFunction implements StreamingFormulaFunction {
 
     @Override
     public String getName()
@@ -60,18 +65,47 @@ public class ArrayStatsFunction extends BaseArrayFunction {
         if (VTypeHelper.isNumericArray(args[0]))
         {
             DoubleSummaryStatistics stats = Arrays.stream(VTypeHelper.toDoubles(args[0])).summaryStatistics();
-            return VStatistics.of(stats.getAverage(),
-                    Double.NaN,
-                    stats.getMin(),
-                    stats.getMax(),
-                    (int) stats.getCount(),
-                    Alarm.none(),
-                    Time.now(),
-                    Display.none());
+            return statisticsOf(stats);
         }
         else
         {
             return DEFAULT_NAN_DOUBLE_ARRAY;
         }
     }
+
+    private static VType statisticsOf(final DoubleSummaryStatistics stats)
+    {
+        return statisticsOf(stats.getAverage(), stats.getMin(), stats.getMax(), (int) stats.getCount());
+    }
+
+    private static VType statisticsOf(final double average, final double min, final double max, final int count)
+    {
+        return VStatistics.of(average,
+                Double.NaN,
+                min,
+                max,
+                count,
+                Alarm.none(),
+                Time.now(),
+                Display.none());
+    }
+
+    @Override
+    public State createState()
+    {
+        final ArrayTracker tracker = new ArrayTracker();
+        final RunningStats stats = new RunningStats();
+        return args ->
+        {
+            if (! VTypeHelper.isNumericArray(args[0]))
+                return DEFAULT_NAN_DOUBLE_ARRAY;
+            if (tracker.update((VNumberArray) args[0]))
+                stats.update(tracker);
+            final int count = tracker.size();
+            if (stats.isFinite()  &&  count > 0)
+                return statisticsOf(stats.getSum() / count, stats.getMin(), stats.getMax(), count);
+            // NaN, infinite or empty
+            return statisticsOf(Arrays.stream(tracker.getCurrent(), 0, count).summaryStatistics());
+        };
+    }
 }
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula.array;
+
+import java.util.Arrays;
+
+import org.epics.util.array.ListNumber;
+import org.epics.vtype.VNumberArray;
+
+/** Tracks which elements of an array changed between evaluations
+ *
+ *  <p>Keeps a copy of the current and the previous array data
+ *  in buffers that are re-used for the next update.
+ *  Changes are located with {@link Arrays#mismatch(double[], int, int, double[], int, int)},
+ *  which the JDK implements with vectorized instructions,
+ *  so for example a waveform that is used as a circular buffer
+ *  and only receives a few new samples will
+ *  only report the range of the new samples as changed.
+ */
+class ArrayTracker
+{
+    /** Block size used to search backwards for the last change */
+    private static final int BLOCK = 1024;
+
+    private VNumberArray input = null;
+    private double[] previous = new double[0], current = new double[0];
+    private int previous_size = -1, size = -1;
+    private int first = 0, last = 0;
+
+    /** @param input New input value
+     *  @return <code>true</code> if the data changed
+     */
+    public boolean update(final VNumberArray input)
+    {
+        // Same value as last time?
+        if (input == this.input)
+        {
+            previous_size = size;
+            first = last = 0;
+            return false;
+        }
+        this.input = input;
+
+        // Swap buffers, copy new data
+        final double[] swap = previous;
+        previous = current;
+        current = swap;
+        previous_size = size;
+        final ListNumber data = input.getData();
+        size = data.size();
+        // ArrayDouble copies via System.arraycopy, re-using the buffer if large enough
+        current = data.toArray(current);
+
+        // Locate first and last change
+        if (previous_size != size)
+        {   // Elements that are still at the same index may remain valid
+            final int common = Math.max(0, Math.min(previous_size, size));
+            final int mismatch = Arrays.mismatch(previous, 0, common, current, 0, common);
+            first = mismatch < 0 ? common : mismatch;
+            last = size;
+            return true;
+        }
+        first = Arrays.mismatch(previous, 0, size, current, 0, size);
+        if (first < 0)
+        {
+            first = last = 0;
+            return false;
+        }
+        int end = size;
+        while (true)
+        {
+            final int start = Math.max(first, end - BLOCK);
+            if (Arrays.mismatch(previous, start, end, current, start, end) >= 0)
+            {
+                last = end - 1;
+                while (Double.doubleToLongBits(previous[last]) == Double.doubleToLongBits(current[last]))
+                    --last;
+                ++last;
+                return true;
+            }
+            end = start;
+        }
+    }
+
+    /** @return <code>true</code> if the array size changed, which includes the first update */
+    public boolean isResized()
+    {
+        return previous_size != size;
+    }
+
+    /** @return Number of array elements */
+    public int size()
+    {
+        return size;
+    }
+
+    /** @return Index of first changed element */
+    public int getFirst()
+    {
+        return first;
+    }
+
+    /** @return Index after the last changed element */
+    public int getLast()
+    {
+        return last;
+    }
+
+    /** @return Previous data, valid up to the previous size. Must not be modified. */
+    public double[] getPrevious()
+    {
+        return previous;
+    }
+
+    /** @return Current data, valid up to {@link #size()}. Must not be modified. */
+    public double[] getCurrent()
+    {
+        return current;
+    }
+}
@@ -19,6 +19,7 @@
 
 package org.csstudio.apputil.formula.array;
 
+import org.csstudio.apputil.formula.spi.StreamingFormulaFunction;
 
 import org.epics.util.array.ArrayInteger;
 import org.epics.util.array.IteratorNumber;
@@ -39,8 +40,11 @@ import java.util.List;
 
 /**
  * Computes a histogram from the input array.
+ *
+ * When used in a formula and the range of the data stays the same,
+ * only the bins of the changed array elements are updated.
  */
-public class HistogramOfFunction extends BaseArrayFunction {
+public class HistogramOfFunction extends BaseArrayFunction implements StreamingFormulaFunction {
 
     @Override
     public String getName() {
@@ -108,10 +112,7 @@ public class HistogramOfFunction extends BaseArrayFunction {
                 // Check value in range
                 if (xRange.contains(value)) {
 
-                    int bin = (int) Math.floor(xRange.normalize(value) * nBins);
-                    if (bin == nBins) {
-                        bin--;
-                    }
+                    int bin = binOf(xRange, value, nBins);
 
                     binData[bin]++;
                     if (binData[bin] > maxCount) {
@@ -124,15 +125,79 @@ public class HistogramOfFunction extends BaseArrayFunction {
                 maxCount = previousMaxCount;
             }
 
-            Display display = Display.of(Range.of(0.0, maxCount), Range.of(0.0, maxCount), Range.of(0.0, maxCount),
-                    Range.of(0.0, maxCount), "count", NumberFormats.precisionFormat(0));
-
-            return VNumberArray.of(ArrayInteger.of(binData), Alarm.none(), Time.now(), display);
+            return histogramOf(binData, maxCount);
         } else {
             return BaseArrayFunction.DEFAULT_NAN_DOUBLE_ARRAY;
         }
     }
 
+    private static int binOf(final Range xRange, final double value, final int nBins) {
+        int bin = (int) Math.floor(xRange.normalize(value) * nBins);
+        if (bin == nBins) {
+            bin--;
+        }
+        return bin;
+    }
+
+    private static VType histogramOf(final int[] binData, final double maxCount) {
+        Display display = Display.of(Range.of(0.0, maxCount), Range.of(0.0, maxCount), Range.of(0.0, maxCount),
+                Range.of(0.0, maxCount), "count", NumberFormats.precisionFormat(0));
+
+        return VNumberArray.of(ArrayInteger.of(binData), Alarm.none(), Time.now(), display);
+    }
+
+    @Override
+    public State createState() {
+        final ArrayTracker tracker = new ArrayTracker();
+        final RunningStats stats = new RunningStats();
+        return new State() {
+            /** Bins for all array elements, or null when they need to be re-computed */
+            private int[] bins = null;
+            private Range xRange = null;
+
+            @Override
+            public VType compute(VType... args) {
+                if (!VTypeHelper.isNumericArray(args[0])) {
+                    return BaseArrayFunction.DEFAULT_NAN_DOUBLE_ARRAY;
+                }
+                final int nBins = args.length == 1 ? 100 : ((VNumber) args[1]).getValue().intValue();
+                final boolean changed = tracker.update((VNumberArray) args[0]);
+                if (changed) {
+                    stats.update(tracker);
+                }
+                if (!stats.isFinite() || tracker.size() == 0) {
+                    // NaN, infinite or empty
+                    bins = null;
+                    return HistogramOfFunction.this.compute(args);
+                }
+
+                final double[] data = tracker.getCurrent();
+                if (bins == null || bins.length != nBins || tracker.isResized() ||
+                    xRange.getMinimum() != stats.getMin() || xRange.getMaximum() != stats.getMax()) {
+                    // Range is that of the data, so every value is in range
+                    xRange = Range.of(stats.getMin(), stats.getMax());
+                    bins = new int[nBins];
+                    for (int i = 0; i < tracker.size(); i++) {
+                        bins[binOf(xRange, data[i], nBins)]++;
+                    }
+                } else if (changed) {
+                    final double[] previous = tracker.getPrevious();
+                    for (int i = tracker.getFirst(); i < tracker.getLast(); i++) {
+                        bins[binOf(xRange, previous[i], nBins)]--;
+                        bins[binOf(xRange, data[i], nBins)]++;
+                    }
+                }
+
+                int maxCount = 0;
+                for (int count : bins) {
+                    maxCount = Math.max(maxCount, count);
+                }
+                // The returned value must not change, so it gets a copy of the bins
+                return histogramOf(bins.clone(), maxCount);
+            }
+        };
+    }
+
     private Range aggregateRange(Range dataRange, Range aggregatedRange) {
         if (aggregatedRange == null) {
             return dataRange;
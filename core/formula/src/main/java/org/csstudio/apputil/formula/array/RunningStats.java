@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula.array;
+
+/** Sum, minimum and maximum of an array, updated for the changed elements
+ *
+ *  <p>Only supports finite values.
+ *  When the array contains NaN or infinite values,
+ *  {@link #isFinite()} returns <code>false</code>
+ *  and the caller needs to fall back to a complete computation.
+ */
+class RunningStats
+{
+    /** Number of incremental updates before the sum is re-computed to avoid rounding errors */
+    private static final int FULL_UPDATE_PERIOD = 100;
+
+    private double sum = 0, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+    private boolean finite = false;
+    private int updates = 0;
+
+    /** Update for changed elements
+     *  @param tracker Tracker that has been updated with a changed array
+     */
+    public void update(final ArrayTracker tracker)
+    {
+        final int first = tracker.getFirst(), last = tracker.getLast(), size = tracker.size();
+        if (! finite  ||  tracker.isResized()  ||  ++updates > FULL_UPDATE_PERIOD  ||
+            last - first > size / 4)
+        {
+            compute(tracker.getCurrent(), size);
+            return;
+        }
+
+        final double[] previous = tracker.getPrevious(), current = tracker.getCurrent();
+        boolean rescan = false;
+        for (int i=first; i<last; ++i)
+        {
+            final double old = previous[i], value = current[i];
+            sum += value - old;
+            // When the old min or max is replaced, the new one could be anywhere
+            if (value < min)
+                min = value;
+            else if (old == min  &&  value > old)
+                rescan = true;
+            if (value > max)
+                max = value;
+            else if (old == max  &&  value < old)
+                rescan = true;
+        }
+        // NaN or infinite values make the sum non-finite
+        if (rescan  ||  ! Double.isFinite(sum))
+            compute(current, size);
+    }
+
+    private void compute(final double[] data, final int size)
+    {
+        // Loop without branches or dependencies between min, max, sum
+        // for the JIT to unroll and vectorize
+        double s = 0, lo = Double.POSITIVE_INFINITY, hi = Double.NEGATIVE_INFINITY;
+        for (int i=0; i<size; ++i)
+        {
+            final double value = data[i];
+            s += value;
+            lo = Math.min(lo, value);
+            hi = Math.max(hi, value);
+        }
+        sum = s;
+        min = lo;
+        max = hi;
+        finite = Double.isFinite(s);
+        updates = 0;
+    }
+
+    /** @return <code>true</code> if all values are finite and the statistics are valid */
+    public boolean isFinite()
+    {
+        return finite;
+    }
+
+    /** @return Sum of all elements */
+    public double getSum()
+    {
+        return sum;
+    }
+
+    /** @return Minimum */
+    public double getMin()
+    {
+        return min;
+    }
+
+    /** @return Maximum */
+    public double getMax()
+    {
+        return max;
+    }
+}
@@ -8,6 +8,7 @@
 package org.csstudio.apputil.formula.math;
 
 import java.util.List;
+import java.util.function.DoubleUnaryOperator;
 
 import org.csstudio.apputil.formula.spi.FormulaFunction;
 import org.epics.vtype.Alarm;
@@ -63,6 +64,12 @@ class OneArgMathFunction implements FormulaFunction
         return List.of("x");
     }
 
+    @Override
+    public DoubleUnaryOperator getUnaryOperator()
+    {
+        return function::calc;
+    }
+
     @Override
     public VType compute(final VType... args) throws Exception
     {
@@ -7,6 +7,7 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import org.csstudio.apputil.formula.FormulaCompiler;
 import org.csstudio.apputil.formula.Node;
 import org.epics.util.array.ArrayDouble;
 import org.epics.vtype.Alarm;
@@ -80,6 +81,13 @@ abstract class AbstractBinaryNode implements Node
      */
     abstract protected double calc(double a, double b);
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean compile(final FormulaCompiler compiler)
+    {
+        return compiler.binary(left, right, this::calc);
+    }
+
     /** {@inheritDoc} */
     @Override
     final public boolean hasSubnode(final Node node)
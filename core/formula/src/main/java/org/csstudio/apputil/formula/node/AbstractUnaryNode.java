@@ -7,6 +7,7 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import org.csstudio.apputil.formula.FormulaCompiler;
 import org.csstudio.apputil.formula.Node;
 import org.epics.util.array.ArrayDouble;
 import org.epics.vtype.Alarm;
@@ -46,6 +47,13 @@ abstract class AbstractUnaryNode implements Node
 
     abstract protected double calc(double a);
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean compile(final FormulaCompiler compiler)
+    {
+        return compiler.unary(n, this::calc);
+    }
+
     /** {@inheritDoc} */
     @Override
     final public boolean hasSubnode(final Node node)
@@ -7,6 +7,7 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import org.csstudio.apputil.formula.FormulaCompiler;
 import org.csstudio.apputil.formula.Node;
 import org.epics.vtype.Alarm;
 import org.epics.vtype.Display;
@@ -61,6 +62,13 @@ public class ConstantNode implements Node
         return false;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean compile(final FormulaCompiler compiler)
+    {
+        return compiler.constant(value);
+    }
+
     @Override
     public String toString()
     {
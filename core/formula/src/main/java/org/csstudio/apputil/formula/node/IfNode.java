@@ -7,6 +7,7 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import org.csstudio.apputil.formula.FormulaCompiler;
 import org.csstudio.apputil.formula.Node;
 import org.epics.vtype.VType;
 import org.phoebus.core.vtypes.VTypeHelper;
@@ -71,6 +72,13 @@ public class IfNode implements Node
                no.hasSubnode(name);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean compile(final FormulaCompiler compiler)
+    {
+        return compiler.condition(cond, yes, no);
+    }
+
     @Override
     public String toString()
     {
@@ -7,6 +7,7 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import org.csstudio.apputil.formula.FormulaCompiler;
 import org.csstudio.apputil.formula.Node;
 import org.epics.vtype.Alarm;
 import org.epics.vtype.Display;
@@ -67,6 +68,13 @@ public class MinNode implements Node
     }
 
     @SuppressWarnings("nls")
+    /** {@inheritDoc} */
+    @Override
+    public boolean compile(final FormulaCompiler compiler)
+    {
+        return compiler.reduce(args, (result, value) -> value < result ? value : result);
+    }
+
     @Override
     public String toString()
     {
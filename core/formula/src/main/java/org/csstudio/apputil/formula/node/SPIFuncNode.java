@@ -9,10 +9,14 @@ package org.csstudio.apputil.formula.node;
 
 import static org.csstudio.apputil.formula.Formula.logger;
 
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
 import java.util.logging.Level;
 
+import org.csstudio.apputil.formula.FormulaCompiler;
 import org.csstudio.apputil.formula.Node;
 import org.csstudio.apputil.formula.spi.FormulaFunction;
+import org.csstudio.apputil.formula.spi.StreamingFormulaFunction;
 import org.epics.vtype.Alarm;
 import org.epics.vtype.Display;
 import org.epics.vtype.Time;
@@ -27,6 +31,9 @@ public class SPIFuncNode implements Node
     final private FormulaFunction function;
     final private Node args[];
 
+    /** State of a streaming function, or <code>null</code> */
+    final private StreamingFormulaFunction.State state;
+
     /** Construct node for SPI function.
      *
      *  @param function {@link FormulaFunction}
@@ -39,6 +46,9 @@ public class SPIFuncNode implements Node
         // Should be called with the correct number of arguments
         if (!function.isVarArgs() && args.length != function.getArguments().size())
             throw new IllegalStateException("Wrong number of arguments for " + function.getSignature());
+        state = function instanceof StreamingFormulaFunction streaming
+              ? streaming.createState()
+              : null;
     }
 
     @Override
@@ -51,6 +61,11 @@ public class SPIFuncNode implements Node
 
         try
         {
+            if (state != null)
+                synchronized (state)
+                {
+                    return state.compute(arglist);
+                }
             return function.compute(arglist);
         }
         catch (Exception ex)
@@ -80,6 +95,19 @@ public class SPIFuncNode implements Node
         return false;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean compile(final FormulaCompiler compiler)
+    {
+        final DoubleUnaryOperator unary = function.getUnaryOperator();
+        if (unary != null  &&  args.length == 1)
+            return compiler.function(args[0], unary);
+        final DoubleBinaryOperator binary = function.getBinaryOperator();
+        if (binary != null  &&  args.length == 2)
+            return compiler.function(args[0], args[1], binary);
+        return false;
+    }
+
     @Override
     public String toString()
     {
@@ -8,6 +8,8 @@
 package org.csstudio.apputil.formula.spi;
 
 import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
 import java.util.stream.Collectors;
 
 import org.epics.vtype.VType;
@@ -70,4 +72,30 @@ public interface FormulaFunction
     {
         return false;
     }
+
+    /** Primitive implementation for compiled formulas
+     *
+     *  <p>A function with one numeric argument that returns a number
+     *  without alarm, time or display may provide this
+     *  so that formulas using it can be compiled.
+     *
+     *  @return Operator that computes the function's value, or <code>null</code>
+     */
+    public default DoubleUnaryOperator getUnaryOperator()
+    {
+        return null;
+    }
+
+    /** Primitive implementation for compiled formulas
+     *
+     *  <p>A function with two numeric arguments that returns a number
+     *  without alarm, time or display may provide this
+     *  so that formulas using it can be compiled.
+     *
+     *  @return Operator that computes the function's value, or <code>null</code>
+     */
+    public default DoubleBinaryOperator getBinaryOperator()
+    {
+        return null;
+    }
 }
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula.spi;
+
+import org.epics.vtype.VType;
+
+/** SPI for a formula function that keeps state between evaluations
+ *
+ *  <p>Functions are shared by all formulas.
+ *  Each use of a streaming function in a formula
+ *  obtains its own {@link State} which is then called
+ *  for each evaluation of that formula.
+ *  The state may remember the previous arguments and result,
+ *  for example to only re-compute the part of an array
+ *  that changed since the last evaluation.
+ *
+ *  <p>{@link #compute(VType...)} still needs to return the
+ *  complete result without any prior state.
+ *
+ *  @author Kay Kasemir
+ */
+public interface StreamingFormulaFunction extends FormulaFunction
+{
+    /** State of one use of the function */
+    public interface State
+    {
+        /** Compute the function's value
+         *
+         *  <p>Called by one thread at a time.
+         *
+         *  @param args Arguments, same as for {@link FormulaFunction#compute(VType...)}
+         *  @return Value, must not be changed by later calls
+         *  @throws Exception on error
+         */
+        public VType compute(VType... args) throws Exception;
+    }
+
+    /** @return New state for one use of the function */
+    public State createState();
+}
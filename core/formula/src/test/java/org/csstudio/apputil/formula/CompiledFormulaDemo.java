@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import org.epics.util.array.ArrayDouble;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.AlarmSeverity;
+import org.epics.vtype.AlarmStatus;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VDoubleArray;
+import org.epics.vtype.VType;
+import org.phoebus.core.vtypes.VTypeHelper;
+
+/** Compare compiled formulas with the interpreted node tree
+ *
+ *  <p>Prints time and bytes allocated per evaluation
+ *  for representative scalar and array formulas.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class CompiledFormulaDemo
+{
+    private static final int RUNS = 5;
+
+    private static void profile(final String name, final int evaluations, final Supplier<VType> eval)
+    {
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        double sum = 0;
+        long best_ns = Long.MAX_VALUE, bytes = 0;
+        // First run is warm-up
+        for (int run=0; run<=RUNS; ++run)
+        {
+            final long start_bytes = threads.getCurrentThreadAllocatedBytes();
+            final long start = System.nanoTime();
+            for (int i=0; i<evaluations; ++i)
+                sum += VTypeHelper.toDouble(eval.get());
+            final long ns = System.nanoTime() - start;
+            if (run > 0)
+            {
+                best_ns = Math.min(best_ns, ns);
+                bytes = threads.getCurrentThreadAllocatedBytes() - start_bytes;
+            }
+        }
+        System.out.format("  %-12s: %10.1f ns/eval, %10.1f bytes/eval\n",
+                          name, best_ns / (double) evaluations, bytes / (double) evaluations);
+        if (sum == 42.0)
+            System.out.println(sum);
+    }
+
+    private static void compare(final String expression, final VType a, final VType b, final VType c, final int evaluations) throws Exception
+    {
+        final Formula formula = new Formula(expression, new VariableNode[]
+        {
+            new VariableNode("a", a), new VariableNode("b", b), new VariableNode("c", c)
+        });
+        System.out.println(expression + (FormulaCompiler.compile(formula) == null ? " (not compiled)" : ""));
+        profile("Compiled", evaluations, formula::eval);
+        profile("Interpreted", evaluations, formula::interpret);
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        final Alarm minor = Alarm.of(AlarmSeverity.MINOR, AlarmStatus.RECORD, "HIGH");
+        final VType a = VDouble.of(3.0, minor, Time.now(), Display.none());
+        final VType b = VDouble.of(4.0, Alarm.none(), Time.now(), Display.none());
+        final VType c = VDouble.of(5.0, Alarm.none(), Time.now(), Display.none());
+
+        final int scalar_evals = 1_000_000;
+        compare("a*2 + b", a, b, c, scalar_evals);
+        compare("sqrt(a*a + b*b + c*c)", a, b, c, scalar_evals);
+        compare("(a + b)/2 > c ? (a - c) : b - c", a, b, c, scalar_evals);
+        compare("max(a, b, c) - min(a, b, c)", a, b, c, scalar_evals);
+        compare("a > 2 & b < 10 | !(c == 5)", a, b, c, scalar_evals);
+
+        final double[] data = new double[1000];
+        for (int i=0; i<data.length; ++i)
+            data[i] = Math.sin(i * 0.01);
+        final VType wave_a = VDoubleArray.of(ArrayDouble.of(data), minor, Time.now(), Display.none());
+        final VType wave_b = VDoubleArray.of(ArrayDouble.of(data.clone()), Alarm.none(), Time.now(), Display.none());
+        final int array_evals = 10_000;
+        compare("a + b", wave_a, wave_b, c, array_evals);
+        compare("(a - b) * (a + b)", wave_a, wave_b, c, array_evals);
+        compare("a*a + b*b - a*b", wave_a, wave_b, c, array_evals);
+        // Array mixed with scalar uses the first array element
+        compare("a*2 + b", wave_a, wave_b, c, scalar_evals);
+    }
+}
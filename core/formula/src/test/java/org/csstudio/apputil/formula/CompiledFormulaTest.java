@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.epics.util.array.ArrayDouble;
+import org.epics.util.stats.Range;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.AlarmSeverity;
+import org.epics.vtype.AlarmStatus;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VDoubleArray;
+import org.epics.vtype.VInt;
+import org.epics.vtype.VNumberArray;
+import org.epics.vtype.VString;
+import org.epics.vtype.VType;
+import org.junit.jupiter.api.Test;
+import org.phoebus.core.vtypes.VTypeHelper;
+
+/** Check that compiled formulas match the interpreted node tree
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class CompiledFormulaTest
+{
+    private static final Instant T0 = Instant.ofEpochSecond(1700000000);
+
+    private static final Display DISPLAY_A = Display.of(Range.of(0, 10), Range.undefined(), Range.undefined(), Range.undefined(), "mm", Display.defaultNumberFormat());
+    private static final Display DISPLAY_B = Display.of(Range.of(-5, 5), Range.undefined(), Range.undefined(), Range.undefined(), "V", Display.defaultNumberFormat());
+
+    /** Assert that compiled and interpreted formula yield the same value
+     *  @param formula Formula
+     */
+    private static void assertSameResult(final Formula formula)
+    {
+        final VType compiled = formula.eval();
+        final VType interpreted = formula.interpret();
+        final String info = formula.getFormula() + ": " + compiled + " vs. " + interpreted;
+        assertEquals(interpreted.getClass(), compiled.getClass(), info);
+        if (interpreted instanceof VNumberArray)
+            assertArrayEquals(VTypeHelper.toDoubles(interpreted), VTypeHelper.toDoubles(compiled), 0.0, info);
+        else
+            assertEquals(VTypeHelper.toDouble(interpreted), VTypeHelper.toDouble(compiled), 0.0, info);
+        assertEquals(Alarm.alarmOf(interpreted), Alarm.alarmOf(compiled), info);
+        assertEquals(Display.displayOf(interpreted), Display.displayOf(compiled), info);
+        final Instant time = Time.timeOf(interpreted).getTimestamp();
+        if (Duration.between(time, Instant.now()).toSeconds() < 10)
+            // 'now' is only close, not exactly the same
+            assertTrue(Duration.between(Time.timeOf(compiled).getTimestamp(), Instant.now()).toSeconds() < 10, info);
+        else
+            assertEquals(time, Time.timeOf(compiled).getTimestamp(), info);
+    }
+
+    private static Formula createFormula(final String expression, final VType a, final VType b) throws Exception
+    {
+        final Formula formula = new Formula(expression, new VariableNode[] { new VariableNode("a", a), new VariableNode("b", b) });
+        assertNotNull(FormulaCompiler.compile(formula), "Cannot compile " + expression);
+        return formula;
+    }
+
+    @Test
+    public void testScalars() throws Exception
+    {
+        final VType a = VDouble.of(3.0, Alarm.of(AlarmSeverity.MINOR, AlarmStatus.RECORD, "LOW"), Time.of(T0), DISPLAY_A);
+        final VType b = VInt.of(4, Alarm.of(AlarmSeverity.MAJOR, AlarmStatus.RECORD, "HIHI"), Time.of(T0.plusSeconds(1)), DISPLAY_B);
+        final VType c = VDouble.of(5.0, Alarm.of(AlarmSeverity.NONE, AlarmStatus.DEVICE, "Quiet"), Time.of(T0.plusSeconds(2)), DISPLAY_B);
+
+        for (String expression : new String[]
+        {
+            "a", "42", "-a", "a + b", "b - a", "a * b / 2", "a ^ 2 + b % 3",
+            "2 * a", "a * 2", "!a", "a > b", "a <= b", "a == 3 & b != 3 | 0",
+            "a < b ? (a) : b", "a > b ? (a) : b*2", "a ? (b ? 1 : 2) : 3",
+            "max(a, b, 2)", "min(a, b)",
+            "sqrt(a) + b", "atan2(a, b)", "abs(-b) + exp(0)",
+            "a + b + a + b", "PI * a", "(a+b)*(a-b)/(a*b)",
+            "(a < b ? (a) : b) * 2", "2 + (a > b ? (a) : b - 1)",
+        })
+        {
+            final Formula formula = createFormula(expression, a, b);
+            assertSameResult(formula);
+            // Alarm of b changes, c has no alarm but a status
+            formula.getVariables()[1].setValue(c);
+            assertSameResult(formula);
+        }
+
+        // Variable passed through: Same VType
+        final Formula formula = createFormula("1 > 0 ? (b) : a", a, b);
+        assertSame(b, formula.eval());
+    }
+
+    @Test
+    public void testUndefinedCondition() throws Exception
+    {
+        final VType a = VDouble.of(Double.NaN, Alarm.disconnected(), Time.of(T0), Display.none());
+        final VType b = VDouble.of(4.0, Alarm.none(), Time.of(T0), Display.none());
+        final Formula formula = createFormula("a ? (b) : 2*b", a, b);
+        assertSame(a, formula.eval());
+        assertSameResult(new Formula("a+1 ? (b) : 2*b", formula.getVariables()));
+    }
+
+    @Test
+    public void testArrays() throws Exception
+    {
+        final VType a = VDoubleArray.of(ArrayDouble.of(1, 2, 3, 4), Alarm.of(AlarmSeverity.MINOR, AlarmStatus.RECORD, "LOW"), Time.of(T0), DISPLAY_A);
+        final VType b = VDoubleArray.of(ArrayDouble.of(10, 20, 30), Alarm.none(), Time.of(T0.plusSeconds(1)), DISPLAY_B);
+        final VType s = VDouble.of(2.0, Alarm.none(), Time.of(T0.plusSeconds(2)), DISPLAY_B);
+
+        for (String expression : new String[]
+        {
+            "a", "-a", "a + b", "b * a - a", "!a", "(a + b) / (a - b)",
+            "a + 2", "2 * b", "max(a, b)", "sqrt(b)", "a + a + a", "!(a + b)"
+        })
+        {
+            final Formula formula = createFormula(expression, a, b);
+            assertSameResult(formula);
+            // Changing b from array to scalar re-compiles
+            formula.getVariables()[1].setValue(s);
+            assertSameResult(formula);
+            formula.getVariables()[1].setValue(b);
+            assertSameResult(formula);
+        }
+    }
+
+    @Test
+    public void testNotCompiled() throws Exception
+    {
+        final VType a = VDouble.of(3.0, Alarm.none(), Time.of(T0), Display.none());
+        final VType text = VString.of("Text", Alarm.none(), Time.of(T0));
+
+        // String constant
+        Formula formula = new Formula("\"Value: \" + a", new VariableNode[] { new VariableNode("a", a) });
+        assertNull(FormulaCompiler.compile(formula));
+        assertEquals("Value: 3.0", VTypeHelper.toString(formula.eval()));
+
+        // String variable, then numeric
+        final VariableNode var = new VariableNode("a", text);
+        formula = new Formula("a + a", new VariableNode[] { var });
+        assertEquals("TextText", VTypeHelper.toString(formula.eval()));
+        var.setValue(a);
+        assertEquals(6.0, VTypeHelper.toDouble(formula.eval()), 0.0);
+        assertNotNull(FormulaCompiler.compile(formula));
+    }
+}
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula.array;
+
+import java.util.Random;
+
+import org.csstudio.apputil.formula.spi.StreamingFormulaFunction;
+import org.epics.util.array.ArrayDouble;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VNumberArray;
+import org.epics.vtype.VType;
+
+/** Benchmark of streaming array functions
+ *
+ *  <p>1M element waveform used as a circular buffer,
+ *  each update adds 1000 new samples.
+ *  Compares the complete computation with the streaming update.
+ */
+@SuppressWarnings("nls")
+public class StreamingArrayFunctionDemo
+{
+    private static final int SIZE = 1_000_000, NEW_SAMPLES = 1000, UPDATES = 100;
+
+    private static VNumberArray[] createUpdates()
+    {
+        final Random random = new Random(42);
+        double[] data = new double[SIZE];
+        for (int i=0; i<SIZE; ++i)
+            data[i] = random.nextGaussian();
+        final VNumberArray[] updates = new VNumberArray[UPDATES];
+        int index = 0;
+        for (int u=0; u<UPDATES; ++u)
+        {
+            data = data.clone();
+            for (int i=0; i<NEW_SAMPLES; ++i)
+            {
+                data[index] = random.nextGaussian();
+                index = (index + 1) % SIZE;
+            }
+            updates[u] = VNumberArray.of(ArrayDouble.of(data), Alarm.none(), Time.now(), Display.none());
+        }
+        return updates;
+    }
+
+    private static void benchmark(final StreamingFormulaFunction function, final VNumberArray[] updates,
+                                  final VType... more_args) throws Exception
+    {
+        final VType[] args = new VType[1 + more_args.length];
+        System.arraycopy(more_args, 0, args, 1, more_args.length);
+
+        for (int run=0; run<3; ++run)
+        {
+            long start = System.nanoTime();
+            for (VNumberArray update : updates)
+            {
+                args[0] = update;
+                function.compute(args);
+            }
+            final double complete = (System.nanoTime() - start) / 1e6 / updates.length;
+
+            final StreamingFormulaFunction.State state = function.createState();
+            start = System.nanoTime();
+            for (VNumberArray update : updates)
+            {
+                args[0] = update;
+                state.compute(args);
+            }
+            final double streaming = (System.nanoTime() - start) / 1e6 / updates.length;
+
+            System.out.format("%-20s complete %8.3f ms, streaming %8.3f ms per update\n",
+                              function.getName(), complete, streaming);
+        }
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        final VNumberArray[] updates = createUpdates();
+        final VDouble bins = VDouble.of(100, Alarm.none(), Time.now(), Display.none());
+        final VDouble points = VDouble.of(1000, Alarm.none(), Time.now(), Display.none());
+        benchmark(new ArrayStatsFunction(), updates);
+        benchmark(new HistogramOfFunction(), updates, bins);
+        benchmark(new ArraySampleWithLTTBFunction(), updates, points);
+    }
+}
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula.array;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.csstudio.apputil.formula.Formula;
+import org.csstudio.apputil.formula.VariableNode;
+import org.csstudio.apputil.formula.spi.StreamingFormulaFunction;
+import org.epics.util.array.ArrayDouble;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VNumberArray;
+import org.epics.vtype.VStatistics;
+import org.epics.vtype.VType;
+import org.junit.jupiter.api.Test;
+import org.phoebus.core.vtypes.VTypeHelper;
+
+/** JUnit test of {@link StreamingFormulaFunction}s
+ *
+ *  <p>Compares the result of each streaming update
+ *  with the complete computation.
+ */
+@SuppressWarnings("nls")
+public class StreamingArrayFunctionTest
+{
+    /** Waveform that is updated like a circular buffer */
+    private static class Waveform
+    {
+        private final Random random = new Random(42);
+        private double[] data;
+        private int index = 0;
+
+        Waveform(final int size)
+        {
+            data = new double[size];
+            for (int i=0; i<size; ++i)
+                data[i] = random.nextGaussian();
+        }
+
+        /** @param count Number of new samples
+         *  @return Updated waveform
+         */
+        VNumberArray add(final int count)
+        {
+            data = data.clone();
+            for (int i=0; i<count; ++i)
+            {
+                data[index] = random.nextGaussian() * 2;
+                index = (index + 1) % data.length;
+            }
+            return get();
+        }
+
+        /** @param size New size */
+        VNumberArray resize(final int size)
+        {
+            data = Arrays.copyOf(data, size);
+            index = 0;
+            return get();
+        }
+
+        VNumberArray get()
+        {
+            return VNumberArray.of(ArrayDouble.of(data), Alarm.none(), Time.now(), Display.none());
+        }
+    }
+
+    /** @param function Function to check
+     *  @param more_args Arguments after the array
+     *  @param check Compares streaming with complete result
+     *  @throws Exception on error
+     */
+    private void check(final StreamingFormulaFunction function,
+                       final VType[] more_args,
+                       final Check check) throws Exception
+    {
+        final StreamingFormulaFunction.State state = function.createState();
+        final Waveform waveform = new Waveform(10000);
+        VNumberArray value = waveform.get();
+        for (int update=0; update<200; ++update)
+        {
+            final VType[] args = new VType[1 + more_args.length];
+            args[0] = value;
+            System.arraycopy(more_args, 0, args, 1, more_args.length);
+            check.compare(function.compute(args), state.compute(args));
+
+            if (update == 100)
+                value = waveform.resize(12000);
+            else if (update == 150)
+            {   // NaN falls back to complete computation
+                final double[] data = VTypeHelper.toDoubles(waveform.add(1));
+                data[7] = Double.NaN;
+                value = VNumberArray.of(ArrayDouble.of(data), Alarm.none(), Time.now(), Display.none());
+            }
+            else if (update % 10 != 5) // Sometimes same value
+                value = waveform.add(update % 3 == 0 ? 500 : 7);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Check
+    {
+        void compare(VType expected, VType actual);
+    }
+
+    private static void compareArrays(final VType expected, final VType actual)
+    {
+        assertArrayEquals(VTypeHelper.toDoubles(expected), VTypeHelper.toDoubles(actual));
+    }
+
+    @Test
+    public void testStats() throws Exception
+    {
+        check(new ArrayStatsFunction(), new VType[0], (expected, actual) ->
+        {
+            final VStatistics e = (VStatistics) expected, a = (VStatistics) actual;
+            assertEquals(e.getNSamples(), a.getNSamples());
+            assertEquals(e.getMin(), a.getMin());
+            assertEquals(e.getMax(), a.getMax());
+            assertEquals(e.getAverage(), a.getAverage(), 1e-9);
+        });
+    }
+
+    @Test
+    public void testHistogram() throws Exception
+    {
+        check(new HistogramOfFunction(), new VType[] { VDouble.of(50, Alarm.none(), Time.now(), Display.none()) },
+              StreamingArrayFunctionTest::compareArrays);
+    }
+
+    @Test
+    public void testLTTB() throws Exception
+    {
+        check(new ArraySampleWithLTTBFunction(), new VType[] { VDouble.of(100, Alarm.none(), Time.now(), Display.none()) },
+              StreamingArrayFunctionTest::compareArrays);
+    }
+
+    @Test
+    public void testFormula() throws Exception
+    {
+        final VariableNode x = new VariableNode("x");
+        final Formula formula = new Formula("arraySampleWithLTTB(x, 50)", new VariableNode[] { x });
+        final Waveform waveform = new Waveform(1000);
+        for (int update=0; update<10; ++update)
+        {
+            final VNumberArray value = waveform.add(10);
+            x.setValue(value);
+            compareArrays(new ArraySampleWithLTTBFunction().compute(value, VDouble.of(50, Alarm.none(), Time.now(), Display.none())),
+                          formula.eval());
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017 Oak Ridge National Laboratory.
+ * Copyright (c) 2017-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,8 @@ import static org.phoebus.pv.PV.logger;
 import java.util.Objects;
 import java.util.logging.Level;
 
+import org.phoebus.pv.EventBatcher;
+
 import com.cosylab.epics.caj.CAJContext;
 
 import gov.aps.jca.Channel;
@@ -35,6 +37,7 @@ public class JCAContext implements ContextMessageListener, ContextExceptionListe
     final private JCALibrary jca = JCALibrary.getInstance();
     final private Context context;
     final private boolean is_var_array_supported;
+    final private EventBatcher batcher;
 
     private JCAContext() throws Exception
     {
@@ -69,6 +72,11 @@ public class JCAContext implements ContextMessageListener, ContextExceptionListe
         else
             supported = JCA_Preferences.getInstance().isVarArraySupported();
         is_var_array_supported = supported;
+
+        final JCA_Preferences prefs = JCA_Preferences.getInstance();
+        batcher = prefs.getBatchDispatchThreads() > 0
+                ? new EventBatcher("ca", prefs.getBatchDispatchThreads(), prefs.getBatchQueueSize(), prefs.getBatchMaxLatency())
+                : null;
     }
 
     /** @return Singleton instance
@@ -87,6 +95,12 @@ public class JCAContext implements ContextMessageListener, ContextExceptionListe
         return context;
     }
 
+    /** @return {@link EventBatcher} for monitor events, <code>null</code> to handle them on the CA thread */
+    public EventBatcher getBatcher()
+    {
+        return batcher;
+    }
+
     /** Determine how many array elements to request
      *  @param channel Channel
      *  @return Array request count
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017-2023 Oak Ridge National Laboratory.
+ * Copyright (c) 2017-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 
 import org.epics.vtype.VType;
+import org.phoebus.pv.EventBatcher;
 import org.phoebus.pv.PV;
 
 import gov.aps.jca.CAStatus;
@@ -63,6 +64,9 @@ public class JCA_PV extends PV implements ConnectionListener, MonitorListener, A
     /** JCA Channel */
     private volatile Channel channel;
 
+    /** Batched dispatch of monitor events, <code>null</code> to handle them on the CA thread */
+    private final EventBatcher batcher;
+
     /** Meta data.
      *
      *  <p>May be
@@ -144,6 +148,7 @@ public class JCA_PV extends PV implements ConnectionListener, MonitorListener, A
     {
         super(name);
         logger.fine("JCA PV " + base_name);
+        batcher = JCAContext.getInstance().getBatcher();
         // Read-only until connected and we learn otherwise
         notifyListenersOfPermissions(true);
         base_name = base_name.trim();
@@ -209,7 +214,11 @@ public class JCA_PV extends PV implements ConnectionListener, MonitorListener, A
         else
         {
             logger.fine(getName() + " disconnected");
-            notifyListenersOfDisconnect();
+            // Keep in order with values that are still queued
+            if (batcher == null)
+                notifyListenersOfDisconnect();
+            else
+                batcher.submit(this, this::notifyListenersOfDisconnect);
             // On re-connect, fetch meta data
             // and maybe re-subscribe (possibly for changed type after IOC reboot)
         }
@@ -378,9 +387,15 @@ public class JCA_PV extends PV implements ConnectionListener, MonitorListener, A
             final CAStatus status = ev.getStatus();
             if (status != null  &&  status.isSuccessful())
             {
-                final VType value = DBRHelper.decodeValue(is_array, metadata, ev.getDBR());
-                logger.log(Level.FINE, "{0} = {1}", new Object[] { getName(), value });
-                notifyListenersOfValue(value);
+                if (batcher == null)
+                    handleValue(is_array, metadata, ev.getDBR());
+                else
+                {   // Decode later, using the current array flag and meta data
+                    final boolean array = is_array;
+                    final DBR meta = metadata;
+                    final DBR dbr = ev.getDBR();
+                    batcher.submit(this, () -> handleValue(array, meta, dbr));
+                }
             }
         }
         catch (Exception ex)
@@ -390,6 +405,24 @@ public class JCA_PV extends PV implements ConnectionListener, MonitorListener, A
         }
     }
 
+    /** @param array Is channel an array?
+     *  @param meta Meta data
+     *  @param dbr Received value
+     */
+    private void handleValue(final boolean array, final DBR meta, final DBR dbr)
+    {
+        try
+        {
+            final VType value = DBRHelper.decodeValue(array, meta, dbr);
+            logger.log(Level.FINE, "{0} = {1}", new Object[] { getName(), value });
+            notifyListenersOfValue(value);
+        }
+        catch (Exception ex)
+        {
+            logger.log(Level.WARNING, getName() + " monitor error", ex);
+        }
+    }
+
     /** {@link Future} that acts as JCA {@link GetListener}
      *  and provides the value or error to user of the {@link Future}
      */
@@ -42,6 +42,9 @@ public class JCA_Preferences
     private static final String DBE_PROPERTY_SUPPORTED = "dbe_property_supported";
     private static final String MONITOR_MASK = "monitor_mask";
     private static final String NAME_SERVERS = "name_servers";
+    private static final String BATCH_DISPATCH_THREADS = "batch_dispatch_threads";
+    private static final String BATCH_MAX_LATENCY_MS = "batch_max_latency_ms";
+    private static final String BATCH_QUEUE_SIZE = "batch_queue_size";
 
     private static final JCA_Preferences instance = new JCA_Preferences();
 
@@ -53,6 +56,12 @@ public class JCA_Preferences
 
     private int large_array_threshold = 100000;
 
+    private int batch_dispatch_threads = 0;
+
+    private double batch_max_latency_ms = 2.0;
+
+    private int batch_queue_size = 10000;
+
     /** Initialize */
     private JCA_Preferences()
     {
@@ -74,13 +83,19 @@ public class JCA_Preferences
      */
     public void installPreferences() throws Exception
     {
+        final PreferencesReader prefs = new PreferencesReader(JCA_PVFactory.class, "/pv_ca_preferences.properties");
+
+        // Batched dispatch is not a CA library setting, applies even with jca.use_env
+        batch_dispatch_threads = prefs.getInt(BATCH_DISPATCH_THREADS);
+        batch_max_latency_ms = prefs.getDouble(BATCH_MAX_LATENCY_MS);
+        batch_queue_size = prefs.getInt(BATCH_QUEUE_SIZE);
+
         if (Boolean.getBoolean("jca.use_env"))
         {
             logger.log(Level.INFO, "Found `jca.use_env=true`, ignoring preferences");
             logger.log(Level.INFO, "EPICS_CA_ADDR_LIST=" + System.getenv("EPICS_CA_ADDR_LIST"));
             return;
         }
-        final PreferencesReader prefs = new PreferencesReader(JCA_PVFactory.class, "/pv_ca_preferences.properties");
 
         String code = prefs.get(MONITOR_MASK);
         switch (code)
@@ -201,4 +216,22 @@ public class JCA_Preferences
     {
         return large_array_threshold;
     }
+
+    /** @return Number of threads for batched dispatch of monitor events, 0 to dispatch on the CA thread */
+    public int getBatchDispatchThreads()
+    {
+        return batch_dispatch_threads;
+    }
+
+    /** @return Maximum latency in milliseconds that batched dispatch may add */
+    public double getBatchMaxLatency()
+    {
+        return batch_max_latency_ms;
+    }
+
+    /** @return Size of the event queue for each batch dispatch thread */
+    public int getBatchQueueSize()
+    {
+        return batch_queue_size;
+    }
 }
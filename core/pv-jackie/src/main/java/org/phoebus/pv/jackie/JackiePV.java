@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017-2025 aquenos GmbH.
+ * Copyright (c) 2017-2026 aquenos GmbH.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -25,6 +25,7 @@ import com.aquenos.epics.jackie.common.value.ChannelAccessValueFactory;
 import com.aquenos.epics.jackie.common.value.ChannelAccessValueType;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.epics.vtype.VType;
+import org.phoebus.pv.EventBatcher;
 import org.phoebus.pv.PV;
 import org.phoebus.pv.jackie.util.SimpleJsonParser;
 import org.phoebus.pv.jackie.util.ValueConverter;
@@ -55,6 +56,8 @@ public class JackiePV extends PV {
     private static final Pattern RECORD_FIELD_AS_LONG_STRING_PATTERN = Pattern
             .compile(".+\\.[A-Z][A-Z0-9]*\\$");
 
+    private final EventBatcher batcher;
+
     private final String ca_name;
 
     private final ChannelAccessChannel channel;
@@ -157,7 +160,36 @@ public class JackiePV extends PV {
             JackiePreferences preferences,
             String name,
             String base_name) {
+        this(client, null, preferences, name, base_name);
+    }
+
+    /**
+     * Create a PV backed by a Channel Access channel, optionally dispatching
+     * its monitor events in batches.
+     * <p>
+     * Typically, this constructor should not be used directly. Instances
+     * should be received from {@link JackiePVFactory} through the
+     * {@link org.phoebus.pv.PVPool} instead.
+     *
+     * @param client      CA client that is used for connecting the PV to the
+     *                    CA channel.
+     * @param batcher     batcher that converts and publishes monitor events.
+     *                    <code>null</code> means that they are handled on the
+     *                    thread that receives them.
+     * @param preferences preferences for the Jackie client. This should be the
+     *                    same preferences that were also used when creating
+     *                    the <code>client</code>.
+     * @param name        name of the PV (possibly including a prefix).
+     * @param base_name   name of the PV without the prefix.
+     */
+    public JackiePV(
+            ChannelAccessClient client,
+            EventBatcher batcher,
+            JackiePreferences preferences,
+            String name,
+            String base_name) {
         super(name);
+        this.batcher = batcher;
         logger.fine(getName() + " creating EPICS Jackie PV.");
         var parse_name_result = parseName(base_name);
         this.ca_name = parse_name_result.ca_name;
@@ -459,8 +491,14 @@ public class JackiePV extends PV {
             if (controls_monitor != null) {
                 controls_monitor.destroy();
             }
-            // Let the listeners now that the PV is no longer connected.
-            this.notifyListenersOfDisconnect();
+            // Let the listeners now that the PV is no longer connected. When
+            // batching, this has to be queued behind the values that are
+            // still waiting to be published.
+            if (batcher == null) {
+                this.notifyListenersOfDisconnect();
+            } else {
+                batcher.submit(this, this::notifyListenersOfDisconnect);
+            }
             // As the channel is disconnected now, we consider it to not be
             // writable.
             this.notifyListenersOfPermissions(true);
@@ -672,6 +710,23 @@ public class JackiePV extends PV {
             // the notification.
             return;
         }
+        if (batcher == null) {
+            publishValue(controls_value, time_value, force_array);
+        } else {
+            // Each monitor event delivers new value objects that are not
+            // modified later on (we keep them as last_controls_value and
+            // last_time_value as well), so they can be converted later on a
+            // dispatcher thread.
+            batcher.submit(
+                    this,
+                    () -> publishValue(controls_value, time_value, force_array));
+        }
+    }
+
+    private void publishValue(
+            ChannelAccessControlsValue<?> controls_value,
+            ChannelAccessTimeValue<?> time_value,
+            boolean force_array) {
         var vtype = ValueConverter.channelAccessToVType(
                 controls_value,
                 time_value,
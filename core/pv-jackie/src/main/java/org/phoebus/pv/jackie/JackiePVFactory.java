@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2024 aquenos GmbH.
+ * Copyright (c) 2024-2026 aquenos GmbH.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,7 @@ import com.aquenos.epics.jackie.client.beacon.BeaconDetectorConfiguration;
 import com.aquenos.epics.jackie.client.resolver.ChannelNameResolverConfiguration;
 import com.aquenos.epics.jackie.common.exception.JavaUtilLoggingErrorHandler;
 import com.aquenos.epics.jackie.common.util.ListenerLockPolicy;
+import org.phoebus.pv.EventBatcher;
 import org.phoebus.pv.PV;
 import org.phoebus.pv.PVFactory;
 
@@ -37,6 +38,7 @@ import java.util.logging.Level;
  */
 public class JackiePVFactory implements PVFactory {
 
+    private final static EventBatcher BATCHER;
     private final static ChannelAccessClient CLIENT;
     private final static JackiePreferences PREFERENCES;
     private final static String TYPE = "jackie";
@@ -81,6 +83,16 @@ public class JackiePVFactory implements PVFactory {
         // locks, so the BLOCK policy could result in deadlocks.
         CLIENT = new DefaultChannelAccessClient(
                 client_config, ListenerLockPolicy.IGNORE);
+        // Batched dispatch of monitor events is optional.
+        if (PREFERENCES.batch_dispatch_threads() > 0) {
+            BATCHER = new EventBatcher(
+                    TYPE,
+                    PREFERENCES.batch_dispatch_threads(),
+                    PREFERENCES.batch_queue_size(),
+                    PREFERENCES.batch_max_latency_ms());
+        } else {
+            BATCHER = null;
+        }
     }
 
     @Override
@@ -90,7 +102,7 @@ public class JackiePVFactory implements PVFactory {
 
     @Override
     public PV createPV(String name, String base_name) throws Exception {
-        return new JackiePV(CLIENT, PREFERENCES, name, base_name);
+        return new JackiePV(CLIENT, BATCHER, PREFERENCES, name, base_name);
     }
 
 }
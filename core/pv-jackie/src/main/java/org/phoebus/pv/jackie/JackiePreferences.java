@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2024-2025 aquenos GmbH.
+ * Copyright (c) 2024-2026 aquenos GmbH.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -44,6 +44,15 @@ import java.util.stream.Collectors;
  * full list of available properties and their meanings.
  * </p>
  *
+ * @param batch_dispatch_threads
+ *  number of threads that convert and publish monitor events in batches.
+ *  <code>0</code> means that events are handled on the thread that receives
+ *  them.
+ * @param batch_max_latency_ms
+ *  maximum time (in milliseconds) that a batch dispatch thread waits for more
+ *  events before publishing a batch.
+ * @param batch_queue_size
+ *  number of events that can be queued for each batch dispatch thread.
  * @param ca_address_list
  *  EPICS servers that are contacted via UDP when resolving channel names.
  *  <code>null</code> means that the <code>EPICS_CA_ADDR_LIST</code>
@@ -118,6 +127,9 @@ import java.util.stream.Collectors;
  *  that the hostname should be determined automatically.
  */
 public record JackiePreferences(
+        int batch_dispatch_threads,
+        double batch_max_latency_ms,
+        int batch_queue_size,
         Set<Pair<Inet4Address, Integer>> ca_address_list,
         Boolean ca_auto_address_list,
         Boolean ca_auto_array_bytes,
@@ -223,6 +235,12 @@ public record JackiePreferences(
         final var preference_reader = new PreferencesReader(
                 JackiePreferences.class,
                 "/pv_jackie_preferences.properties");
+        final var batch_dispatch_threads = preference_reader.getInt(
+                "batch_dispatch_threads");
+        final var batch_max_latency_ms = preference_reader.getDouble(
+                "batch_max_latency_ms");
+        final var batch_queue_size = preference_reader.getInt(
+                "batch_queue_size");
         Set<Pair<Inet4Address, Integer>> ca_address_list = null;
         final var ca_address_list_string = preference_reader.get(
                 "ca_address_list");
@@ -563,6 +581,9 @@ public record JackiePreferences(
             logger.config("ca_repeater_port = " + ca_repeater_port);
             logger.config("ca_server_port = " + ca_server_port);
         }
+        logger.config("batch_dispatch_threads = " + batch_dispatch_threads);
+        logger.config("batch_max_latency_ms = " + batch_max_latency_ms);
+        logger.config("batch_queue_size = " + batch_queue_size);
         logger.config("charset = " + charset.name());
         logger.config("cid_block_reuse_time = " + cid_block_reuse_time);
         logger.config("dbe_property_supported = " + dbe_property_supported);
@@ -574,6 +595,9 @@ public record JackiePreferences(
         logger.config("use_env = " + use_env);
         logger.config("username = " + username);
         return new JackiePreferences(
+                batch_dispatch_threads,
+                batch_max_latency_ms,
+                batch_queue_size,
                 ca_address_list,
                 ca_auto_address_list,
                 ca_auto_array_bytes,
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018 Oak Ridge National Laboratory.
+ * Copyright (c) 2018-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -33,6 +33,12 @@ public class MQTT_PV extends PV
 
     private Class<? extends VType> type;
 
+    /** Encoding of written values */
+    private MQTT_Preferences.Payload payload = MQTT_Preferences.mqtt_payload;
+
+    /** Has a message been received? SYNC on message_lock */
+    private boolean received = false;
+    private final Object message_lock = new Object();
 
     protected MQTT_PV(final String name, final String base_name) throws Exception
     {
@@ -59,18 +65,28 @@ public class MQTT_PV extends PV
 
         if (ntv[1] != null) {
             //topicStr += ntv[1];
-            type = parseType(ntv[1]);
+            // "<type>", "<type,binary>", "<binary>"
+            for (String item : ntv[1].split(","))
+            {
+                item = item.trim();
+                if (item.equalsIgnoreCase("binary"))
+                    payload = MQTT_Preferences.Payload.BINARY;
+                else if (item.equalsIgnoreCase("text"))
+                    payload = MQTT_Preferences.Payload.TEXT;
+                else
+                    type = parseType(item);
+            }
         }
 
         if (ntv[2] == null)
         {
-            if (ntv[1] == null)
+            if (type == null)
                 type = VDouble.class;
         }
         else
         {
             final List<String> initial_value_items = VTypeToFromString.splitStringList(ntv[2]);
-            if (ntv[1] == null)
+            if (type == null)
                 type = VTypeToFromString.determineValueType(initial_value_items);
         }
 
@@ -148,11 +164,14 @@ public class MQTT_PV extends PV
         if (new_value == null)
             throw new Exception(getName() + " got null");
 
-        final String pubMsg;
+        final byte[] pubMsg;
         try
         {
             final VType value = VTypeToFromString.convert(new_value, type, read());
-            pubMsg = VTypeToFromString.ToString(value);
+            if (payload == MQTT_Preferences.Payload.BINARY)
+                pubMsg = VTypeToFromBytes.toBytes(value);
+            else
+                pubMsg = VTypeToFromString.ToString(value).getBytes();
         }
         catch (Exception ex)
         {
@@ -189,23 +208,48 @@ public class MQTT_PV extends PV
      */
     public void messageArrived(String topic, MqttMessage msg) throws Exception
     {
-        final String new_value = msg.toString();
+        synchronized (message_lock)
+        {
+            received = true;
+            handleMessage(msg);
+        }
+    }
 
-        if (!topic.equals(topicStr))
+    /** Called with the last message of a shared subscription
+     *  that was received before this PV subscribed
+     *  @param topic Topic
+     *  @param msg Message
+     */
+    void initialMessage(String topic, MqttMessage msg)
+    {
+        synchronized (message_lock)
         {
-            logger.log(Level.SEVERE, "Got message with topic " + topic + " != " + topicStr);
-            throw new Exception(getName() + " topic mismatch");
+            // Ignore if a newer message has already been received
+            if (received)
+                return;
+            received = true;
+            handleMessage(msg);
         }
+    }
 
+    /** @param msg Message to decode and send to listeners */
+    private void handleMessage(final MqttMessage msg)
+    {
+        // Topic may differ from topicStr if that is a wildcard filter
+        final byte[] data = msg.getPayload();
         try
         {
-            final VType value = VTypeToFromString.convert(new_value, type, read());
+            final VType value;
+            if (VTypeToFromBytes.isBinary(data))
+                value = VTypeToFromBytes.fromBytes(data, type);
+            else
+                value = VTypeToFromString.convert(new String(data), type, read());
             notifyListenersOfValue(value);
         }
         catch (Exception ex)
         {
             notifyListenersOfDisconnect();
-            logger.log(Level.WARNING, "Could not parse message: '" + new_value + "' to " + getName(), ex);
+            logger.log(Level.WARNING, "Could not parse message: '" + msg + "' to " + getName(), ex);
         }
     }
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018-2020 Oak Ridge National Laboratory.
+ * Copyright (c) 2018-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -9,9 +9,9 @@ package org.phoebus.pv.mqtt;
 
 import java.net.InetAddress;
 import java.net.NetworkInterface;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.logging.Level;
 
@@ -27,7 +27,13 @@ import org.phoebus.pv.PV;
 
 /** MQTT Topic subscription handler
  *
- *  <p>Dispatches MQTT data to {@link MQTT_PV}s
+ *  <p>Dispatches MQTT data to {@link MQTT_PV}s.
+ *  PVs with topics that match a shared subscription from the preferences
+ *  use one broker subscription for that wildcard filter,
+ *  and received messages are routed to the PVs via a {@link TopicTrie}.
+ *  Since the broker only sends retained messages when subscribing,
+ *  the last message of each topic in a shared subscription is kept
+ *  and passed to PVs that are added while the subscription already exists.
  *  @author Megan Grodowitz
  */
 @SuppressWarnings("nls")
@@ -36,8 +42,16 @@ public class MQTT_PVConn implements MqttCallback
     MqttClient myClient;
     MqttConnectOptions connOpt;
 
-    /** Mapping from topic to PVs */
-    final ConcurrentHashMap<String, CopyOnWriteArrayList<MQTT_PV>> subscribers = new ConcurrentHashMap<>();
+    /** Topic filters of PVs */
+    final TopicTrie<MQTT_PV> subscribers = new TopicTrie<>();
+
+    /** Reference count for each subscription to the broker
+     *  SYNC on this
+     */
+    final Map<String, Integer> subscriptions = new HashMap<>();
+
+    /** Last message for each topic received via a shared subscription */
+    final Map<String, MqttMessage> last_messages = new ConcurrentHashMap<>();
 
     volatile private String brokerURL = MQTT_Preferences.mqtt_broker;
     volatile private String clientID;
@@ -59,8 +73,37 @@ public class MQTT_PVConn implements MqttCallback
     @Override
     public void messageArrived(String topic, MqttMessage msg) throws Exception
     {
-        for (MQTT_PV pv : subscribers.get(topic))
-            pv.messageArrived(topic, msg);
+        if (! getSubscription(topic).equals(topic))
+        {   // Empty payload clears a retained message
+            if (msg.getPayload().length > 0)
+                last_messages.put(topic, msg);
+            else
+                last_messages.remove(topic);
+        }
+        // Exception would close the connection, so handle each PV's error
+        subscribers.match(topic, pv ->
+        {
+            try
+            {
+                pv.messageArrived(topic, msg);
+            }
+            catch (Exception ex)
+            {
+                PV.logger.log(Level.WARNING, "MQTT message for " + pv.getName() + " failed", ex);
+            }
+        });
+    }
+
+    /** @param topicStr Topic
+     *  @return Topic filter to subscribe for that topic, either the topic itself or a shared subscription
+     */
+    static String getSubscription(final String topicStr)
+    {
+        if (! TopicTrie.isWildcard(topicStr))
+            for (String filter : MQTT_Preferences.mqtt_shared_subscriptions)
+                if (TopicTrie.matches(filter, topicStr))
+                    return filter;
+        return topicStr;
     }
 
     /** @param topicStr Topic
@@ -76,20 +119,29 @@ public class MQTT_PVConn implements MqttCallback
             throw new Exception("MQTT subscribe failed: no broker connection");
         }
 
-        final List<MQTT_PV> pvs = subscribers.computeIfAbsent(topicStr, topic ->
+        subscribers.add(topicStr, pv);
+        final String subscription = getSubscription(topicStr);
+        synchronized (this)
         {
-            int subQoS = 0;
-            try
-            {
-                myClient.subscribe(topicStr, subQoS);
-            }
-            catch (Exception ex)
-            {
-                PV.logger.log(Level.WARNING, "Cannot subscribe to MQTT topic '" + topicStr + "'", ex);
+            if (subscriptions.merge(subscription, 1, Integer::sum) == 1)
+            {   // Broker sends retained messages for the new subscription
+                int subQoS = 0;
+                try
+                {
+                    myClient.subscribe(subscription, subQoS);
+                }
+                catch (Exception ex)
+                {
+                    PV.logger.log(Level.WARNING, "Cannot subscribe to MQTT topic '" + subscription + "'", ex);
+                }
+                return;
             }
-            return new CopyOnWriteArrayList<>();
-        });
-        pvs.add(pv);
+        }
+        // Existing shared subscription: Pass what the broker would have sent
+        // as a retained message if the PV had subscribed to its topic
+        final MqttMessage last = last_messages.get(topicStr);
+        if (last != null)
+            pv.initialMessage(topicStr, last);
     }
 
     /** @param topicStr Topic
@@ -105,20 +157,22 @@ public class MQTT_PVConn implements MqttCallback
             throw new Exception("MQTT unsubscribe failed: no broker connection");
         }
 
-        final CopyOnWriteArrayList<MQTT_PV> pvs = subscribers.get(topicStr);
-        if (pvs == null)
+        if (! subscribers.remove(topicStr, pv))
         {
             PV.logger.log(Level.WARNING, "Could not unsubscribe to mqtt topic \"" + topicStr
                     + "\" due to no internal record of topic");
             throw new Exception("MQTT unsubscribe failed: no topic record");
         }
 
-        pvs.remove(pv);
-        if (pvs.isEmpty())
+        final String subscription = getSubscription(topicStr);
+        synchronized (this)
         {
-            subscribers.remove(topicStr);
-            myClient.unsubscribe(topicStr);
-            if (subscribers.isEmpty())
+            if (subscriptions.merge(subscription, -1, Integer::sum) > 0)
+                return;
+            subscriptions.remove(subscription);
+            myClient.unsubscribe(subscription);
+            last_messages.keySet().removeIf(topic -> TopicTrie.matches(subscription, topic));
+            if (subscriptions.isEmpty())
                 disconnect();
         }
     }
@@ -130,6 +184,17 @@ public class MQTT_PVConn implements MqttCallback
      *  @throws Exception on error
      */
     public void publishTopic(String topicStr, String pubMsg, int pubQoS, boolean retained) throws Exception
+    {
+        publishTopic(topicStr, pubMsg.getBytes(), pubQoS, retained);
+    }
+
+    /** @param topicStr Topic
+     *  @param payload Message
+     *  @param pubQoS QOS
+     *  @param retained Retain message?
+     *  @throws Exception on error
+     */
+    public void publishTopic(String topicStr, byte[] payload, int pubQoS, boolean retained) throws Exception
     {
         if (!connect())
         {
@@ -139,7 +204,7 @@ public class MQTT_PVConn implements MqttCallback
         }
 
         MqttTopic topic = myClient.getTopic(topicStr);
-        MqttMessage message = new MqttMessage(pubMsg.getBytes());
+        MqttMessage message = new MqttMessage(payload);
         message.setQos(pubQoS);
         message.setRetained(retained);
 
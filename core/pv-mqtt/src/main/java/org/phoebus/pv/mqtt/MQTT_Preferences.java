@@ -17,9 +17,24 @@ import org.phoebus.framework.preferences.Preference;
 @SuppressWarnings("nls")
 public class MQTT_Preferences
 {
+    /** Payload encoding */
+    public enum Payload
+    {
+        /** Text, see {@link VTypeToFromString} */
+        TEXT,
+        /** Binary with alarm and time stamp, see {@link VTypeToFromBytes} */
+        BINARY
+    }
+
     /** Broker URL */
     @Preference public static String mqtt_broker;
 
+    /** Default encoding of written values */
+    @Preference public static Payload mqtt_payload;
+
+    /** Wildcard topic filters that are subscribed once for all PVs with matching topics */
+    @Preference public static String[] mqtt_shared_subscriptions;
+
     static
     {
     	AnnotatedPreferences.initialize(MQTT_Preferences.class, "/pv_mqtt_preferences.properties");
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.phoebus.pv.mqtt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/** Trie of MQTT topic filters
+ *
+ *  <p>Maps topic filters like "sensors/+/temp" or "sensors/#"
+ *  to the items that subscribed to them,
+ *  and locates the items for the topic of a received message
+ *  by walking the topic levels instead of checking every filter.
+ *
+ *  <p>Adding and removing items is synchronized,
+ *  looking them up does not lock.
+ *
+ *  @param <T> Item type
+ */
+@SuppressWarnings("nls")
+class TopicTrie<T>
+{
+    /** Wildcard for one level */
+    static final String SINGLE = "+";
+
+    /** Wildcard for remaining levels */
+    static final String MULTI = "#";
+
+    private static class Node<T>
+    {
+        final ConcurrentHashMap<String, Node<T>> children = new ConcurrentHashMap<>();
+        final List<T> items = new CopyOnWriteArrayList<>();
+
+        boolean isEmpty()
+        {
+            return children.isEmpty()  &&  items.isEmpty();
+        }
+    }
+
+    private final Node<T> root = new Node<>();
+
+    /** @param topic Topic or topic filter "a/b/c"
+     *  @return Levels "a", "b", "c"
+     */
+    static String[] split(final String topic)
+    {
+        final List<String> levels = new ArrayList<>();
+        int start = 0, sep;
+        while ((sep = topic.indexOf('/', start)) >= 0)
+        {
+            levels.add(topic.substring(start, sep));
+            start = sep + 1;
+        }
+        levels.add(topic.substring(start));
+        return levels.toArray(new String[levels.size()]);
+    }
+
+    /** @param filter Topic filter
+     *  @return <code>true</code> if filter contains wildcards
+     */
+    static boolean isWildcard(final String filter)
+    {
+        return filter.contains(SINGLE)  ||  filter.contains(MULTI);
+    }
+
+    /** @param filter Topic filter, may contain wildcards
+     *  @param topic Topic, no wildcards
+     *  @return <code>true</code> if topic matches the filter
+     */
+    static boolean matches(final String filter, final String topic)
+    {
+        final String[] f = split(filter), t = split(topic);
+        // Wildcards don't match topics like "$SYS/..."
+        if (topic.startsWith("$")  &&  (f[0].equals(SINGLE)  ||  f[0].equals(MULTI)))
+            return false;
+        for (int i=0; i<f.length; ++i)
+        {
+            if (f[i].equals(MULTI))
+                return true;
+            if (i >= t.length)
+                return false;
+            if (! (f[i].equals(SINGLE)  ||  f[i].equals(t[i])))
+                return false;
+        }
+        return f.length == t.length;
+    }
+
+    /** @param filter Topic filter
+     *  @param item Item to add for that filter
+     */
+    public synchronized void add(final String filter, final T item)
+    {
+        Node<T> node = root;
+        for (String level : split(filter))
+            node = node.children.computeIfAbsent(level, l -> new Node<>());
+        node.items.add(item);
+    }
+
+    /** @param filter Topic filter
+     *  @param item Item to remove for that filter
+     *  @return <code>true</code> if item was found and removed
+     */
+    public synchronized boolean remove(final String filter, final T item)
+    {
+        final String[] levels = split(filter);
+        final List<Node<T>> path = new ArrayList<>(levels.length + 1);
+        Node<T> node = root;
+        path.add(node);
+        for (String level : levels)
+        {
+            node = node.children.get(level);
+            if (node == null)
+                return false;
+            path.add(node);
+        }
+        if (! node.items.remove(item))
+            return false;
+        // Prune nodes that are no longer used
+        for (int i=levels.length; i>0  &&  path.get(i).isEmpty(); --i)
+            path.get(i-1).children.remove(levels[i-1]);
+        return true;
+    }
+
+    /** @return <code>true</code> if there are no items */
+    public boolean isEmpty()
+    {
+        return root.isEmpty();
+    }
+
+    /** @param topic Topic of a received message, no wildcards
+     *  @param action Action to call for each item with a matching filter
+     */
+    public void match(final String topic, final Consumer<T> action)
+    {
+        final String[] levels = split(topic);
+        match(root, levels, 0, ! topic.startsWith("$"), action);
+    }
+
+    private void match(final Node<T> node, final String[] levels, final int level,
+                       final boolean wildcards, final Consumer<T> action)
+    {
+        // "a/#" also matches "a"
+        final Node<T> multi = wildcards ? node.children.get(MULTI) : null;
+        if (multi != null)
+            multi.items.forEach(action);
+        if (level >= levels.length)
+        {
+            node.items.forEach(action);
+            return;
+        }
+        final Node<T> exact = node.children.get(levels[level]);
+        if (exact != null)
+            match(exact, levels, level + 1, true, action);
+        final Node<T> single = wildcards ? node.children.get(SINGLE) : null;
+        if (single != null)
+            match(single, levels, level + 1, true, action);
+    }
+}
@@ -0,0 +1,339 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.phoebus.pv.mqtt;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.epics.util.array.ArrayDouble;
+import org.epics.util.array.ArrayLong;
+import org.epics.util.array.ListNumber;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.AlarmSeverity;
+import org.epics.vtype.AlarmStatus;
+import org.epics.vtype.Display;
+import org.epics.vtype.EnumDisplay;
+import org.epics.vtype.Time;
+import org.epics.vtype.VBoolean;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VDoubleArray;
+import org.epics.vtype.VEnum;
+import org.epics.vtype.VFloat;
+import org.epics.vtype.VFloatArray;
+import org.epics.vtype.VLong;
+import org.epics.vtype.VLongArray;
+import org.epics.vtype.VNumber;
+import org.epics.vtype.VNumberArray;
+import org.epics.vtype.VString;
+import org.epics.vtype.VStringArray;
+import org.epics.vtype.VType;
+
+/** Binary MQTT payload
+ *
+ *  <p>Unlike {@link VTypeToFromString}, the binary payload
+ *  includes alarm and time stamp,
+ *  and numbers are sent without formatting and parsing.
+ *
+ *  <p>Layout, big endian:
+ *  <pre>
+ *  byte    MAGIC (0), which does not start any text payload
+ *  byte    Type code
+ *  byte    Alarm severity
+ *  byte    Alarm status
+ *  string  Alarm name
+ *  long    Epoch seconds
+ *  int     Nanoseconds
+ *  ...     Value
+ *  </pre>
+ *  A string is sent as an int length followed by UTF-8 bytes,
+ *  arrays as an int length followed by the elements.
+ */
+@SuppressWarnings("nls")
+public class VTypeToFromBytes
+{
+    /** First byte of a binary payload */
+    static final byte MAGIC = 0;
+
+    private static final byte DOUBLE = 1, LONG = 2, STRING = 3, ENUM = 4, BOOLEAN = 5,
+                              DOUBLE_ARRAY = 6, LONG_ARRAY = 7, STRING_ARRAY = 8;
+
+    /** Size of magic, type, severity, status, seconds, nanoseconds */
+    private static final int HEADER = 4 + 8 + 4;
+
+    private VTypeToFromBytes()
+    {
+    }
+
+    /** @param payload MQTT message payload
+     *  @return <code>true</code> if this is a binary payload
+     */
+    public static boolean isBinary(final byte[] payload)
+    {
+        return payload.length > 0  &&  payload[0] == MAGIC;
+    }
+
+    /** @param value Value
+     *  @return Binary payload
+     *  @throws Exception on error
+     */
+    public static byte[] toBytes(final VType value) throws Exception
+    {
+        final Alarm alarm = Alarm.alarmOf(value);
+        final Time time = Time.timeOf(value);
+        final Instant stamp = time == null ? Instant.now() : time.getTimestamp();
+        final byte[] name = alarm.getName().getBytes(UTF_8);
+
+        final ByteBuffer buffer;
+        if (value instanceof VDouble  ||  value instanceof VFloat)
+            buffer = header(DOUBLE, alarm, name, stamp, 8).putDouble(((VNumber) value).getValue().doubleValue());
+        else if (value instanceof VNumber number)
+            buffer = header(LONG, alarm, name, stamp, 8).putLong(number.getValue().longValue());
+        else if (value instanceof VString string)
+        {
+            final byte[] text = string.getValue().getBytes(UTF_8);
+            buffer = header(STRING, alarm, name, stamp, 4 + text.length);
+            putBytes(buffer, text);
+        }
+        else if (value instanceof VEnum enumerated)
+        {
+            final List<byte[]> labels = toBytes(enumerated.getDisplay().getChoices());
+            buffer = header(ENUM, alarm, name, stamp, 4 + size(labels)).putInt(enumerated.getIndex());
+            putStrings(buffer, labels);
+        }
+        else if (value instanceof VBoolean bool)
+            buffer = header(BOOLEAN, alarm, name, stamp, 1).put((byte) (bool.getValue() ? 1 : 0));
+        else if (value instanceof VDoubleArray  ||  value instanceof VFloatArray)
+        {
+            final ListNumber data = ((VNumberArray) value).getData();
+            final int n = data.size();
+            buffer = header(DOUBLE_ARRAY, alarm, name, stamp, 4 + 8*n).putInt(n);
+            for (int i=0; i<n; ++i)
+                buffer.putDouble(data.getDouble(i));
+        }
+        else if (value instanceof VNumberArray array)
+        {
+            final ListNumber data = array.getData();
+            final int n = data.size();
+            buffer = header(LONG_ARRAY, alarm, name, stamp, 4 + 8*n).putInt(n);
+            for (int i=0; i<n; ++i)
+                buffer.putLong(data.getLong(i));
+        }
+        else if (value instanceof VStringArray array)
+        {
+            final List<byte[]> items = toBytes(array.getData());
+            buffer = header(STRING_ARRAY, alarm, name, stamp, size(items));
+            putStrings(buffer, items);
+        }
+        else
+            throw new Exception ("Cannot encode " + value.getClass().getName());
+        return buffer.array();
+    }
+
+    private static ByteBuffer header(final byte type, final Alarm alarm, final byte[] name,
+                                     final Instant stamp, final int value_size)
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER + 4 + name.length + value_size);
+        buffer.put(MAGIC)
+              .put(type)
+              .put((byte) alarm.getSeverity().ordinal())
+              .put((byte) alarm.getStatus().ordinal());
+        putBytes(buffer, name);
+        buffer.putLong(stamp.getEpochSecond())
+              .putInt(stamp.getNano());
+        return buffer;
+    }
+
+    private static List<byte[]> toBytes(final List<String> strings)
+    {
+        final List<byte[]> result = new ArrayList<>(strings.size());
+        for (String string : strings)
+            result.add(string.getBytes(UTF_8));
+        return result;
+    }
+
+    /** @param strings Encoded strings
+     *  @return Size of count and strings
+     */
+    private static int size(final List<byte[]> strings)
+    {
+        int size = 4;
+        for (byte[] string : strings)
+            size += 4 + string.length;
+        return size;
+    }
+
+    private static void putBytes(final ByteBuffer buffer, final byte[] bytes)
+    {
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static void putStrings(final ByteBuffer buffer, final List<byte[]> strings)
+    {
+        buffer.putInt(strings.size());
+        for (byte[] string : strings)
+            putBytes(buffer, string);
+    }
+
+    private static String getString(final ByteBuffer buffer)
+    {
+        final int length = buffer.getInt();
+        final String string = new String(buffer.array(), buffer.position(), length, UTF_8);
+        buffer.position(buffer.position() + length);
+        return string;
+    }
+
+    private static List<String> getStrings(final ByteBuffer buffer)
+    {
+        final int n = buffer.getInt();
+        final List<String> strings = new ArrayList<>(n);
+        for (int i=0; i<n; ++i)
+            strings.add(getString(buffer));
+        return strings;
+    }
+
+    /** @param payload Binary payload
+     *  @return Value
+     *  @throws Exception on error
+     */
+    public static VType fromBytes(final byte[] payload) throws Exception
+    {
+        if (! isBinary(payload))
+            throw new Exception("Not a binary payload");
+        final ByteBuffer buffer = ByteBuffer.wrap(payload, 1, payload.length - 1);
+        final byte type = buffer.get();
+        final AlarmSeverity severity = AlarmSeverity.values()[buffer.get()];
+        final AlarmStatus status = AlarmStatus.values()[buffer.get()];
+        final Alarm alarm = Alarm.of(severity, status, getString(buffer));
+        final Time time = Time.of(Instant.ofEpochSecond(buffer.getLong(), buffer.getInt()));
+
+        switch (type)
+        {
+        case DOUBLE:
+            return VDouble.of(buffer.getDouble(), alarm, time, Display.none());
+        case LONG:
+            return VLong.of(buffer.getLong(), alarm, time, Display.none());
+        case STRING:
+            return VString.of(getString(buffer), alarm, time);
+        case ENUM:
+        {
+            final int index = buffer.getInt();
+            return VEnum.of(index, EnumDisplay.of(getStrings(buffer)), alarm, time);
+        }
+        case BOOLEAN:
+            return VBoolean.of(buffer.get() != 0, alarm, time);
+        case DOUBLE_ARRAY:
+        {
+            final double[] data = new double[buffer.getInt()];
+            buffer.asDoubleBuffer().get(data);
+            return VDoubleArray.of(ArrayDouble.of(data), alarm, time, Display.none());
+        }
+        case LONG_ARRAY:
+        {
+            final long[] data = new long[buffer.getInt()];
+            buffer.asLongBuffer().get(data);
+            return VLongArray.of(ArrayLong.of(data), alarm, time, Display.none());
+        }
+        case STRING_ARRAY:
+            return VStringArray.of(getStrings(buffer), alarm, time);
+        default:
+            throw new Exception("Unknown binary payload type " + type);
+        }
+    }
+
+    /** Decode binary payload as a specific type
+     *
+     *  <p>Like text payloads are parsed into the type of the PV,
+     *  the value is converted into that type,
+     *  keeping the alarm and time stamp.
+     *
+     *  @param payload Binary payload
+     *  @param type Desired type, <code>null</code> to use the type of the payload
+     *  @return Value
+     *  @throws Exception on error
+     */
+    public static VType fromBytes(final byte[] payload, final Class<? extends VType> type) throws Exception
+    {
+        final VType value = fromBytes(payload);
+        if (type == null  ||  type.isInstance(value))
+            return value;
+
+        final Alarm alarm = Alarm.alarmOf(value);
+        final Time time = Time.timeOf(value);
+        if (type == VDouble.class)
+            return VDouble.of(toNumber(value).doubleValue(), alarm, time, Display.none());
+        if (type == VLong.class)
+            return VLong.of(toNumber(value).longValue(), alarm, time, Display.none());
+        if (type == VString.class)
+            return VString.of(toString(value), alarm, time);
+        if (type == VDoubleArray.class)
+        {
+            if (value instanceof VNumberArray array)
+            {
+                final ListNumber data = array.getData();
+                final double[] numbers = new double[data.size()];
+                for (int i=0; i<numbers.length; ++i)
+                    numbers[i] = data.getDouble(i);
+                return VDoubleArray.of(ArrayDouble.of(numbers), alarm, time, Display.none());
+            }
+            return VDoubleArray.of(ArrayDouble.of(toNumber(value).doubleValue()), alarm, time, Display.none());
+        }
+        if (type == VStringArray.class)
+        {
+            final List<String> strings = new ArrayList<>();
+            if (value instanceof VNumberArray array)
+            {
+                final ListNumber data = array.getData();
+                for (int i=0; i<data.size(); ++i)
+                    strings.add(value instanceof VDoubleArray ? Double.toString(data.getDouble(i))
+                                                              : Long.toString(data.getLong(i)));
+            }
+            else
+                strings.add(toString(value));
+            return VStringArray.of(strings, alarm, time);
+        }
+        throw new Exception("Expected type " + type.getSimpleName() + " but got " + value.getClass().getName());
+    }
+
+    /** @param value Scalar value
+     *  @return Number for the value
+     *  @throws Exception if value has no numeric representation
+     */
+    private static Number toNumber(final VType value) throws Exception
+    {
+        if (value instanceof VNumber number)
+            return number.getValue();
+        if (value instanceof VEnum enumerated)
+            return enumerated.getIndex();
+        if (value instanceof VBoolean bool)
+            return bool.getValue() ? 1 : 0;
+        if (value instanceof VString string)
+            return Double.parseDouble(string.getValue().trim());
+        throw new Exception("Cannot convert " + value.getClass().getName() + " to number");
+    }
+
+    /** @param value Scalar value
+     *  @return Text for the value
+     *  @throws Exception if value has no text representation
+     */
+    private static String toString(final VType value) throws Exception
+    {
+        if (value instanceof VString string)
+            return string.getValue();
+        if (value instanceof VEnum enumerated)
+            return enumerated.getValue();
+        if (value instanceof VBoolean bool)
+            return Boolean.toString(bool.getValue());
+        if (value instanceof VNumber number)
+            return number.getValue().toString();
+        throw new Exception("Cannot convert " + value.getClass().getName() + " to text");
+    }
+}
@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.phoebus.pv.mqtt;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Minimal MQTT 3.1.1 broker for tests
+ *
+ *  <p>Handles connect, subscribe with wildcards, unsubscribe,
+ *  publish with QoS 0 and 1, retained messages and ping.
+ *  All messages are delivered with QoS 0.
+ */
+@SuppressWarnings("nls")
+class LocalBroker implements AutoCloseable
+{
+    private static final int CONNECT = 1, CONNACK = 2, PUBLISH = 3, PUBACK = 4,
+                             SUBSCRIBE = 8, SUBACK = 9, UNSUBSCRIBE = 10, UNSUBACK = 11,
+                             PINGREQ = 12, PINGRESP = 13, DISCONNECT = 14;
+
+    private final ServerSocket server;
+    private final TopicTrie<Client> subscriptions = new TopicTrie<>();
+    private final Map<String, byte[]> retained = new ConcurrentHashMap<>();
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+    private final AtomicInteger subscribe_count = new AtomicInteger();
+
+    private class Client
+    {
+        private final Socket socket;
+        private final OutputStream out;
+
+        Client(final Socket socket) throws IOException
+        {
+            this.socket = socket;
+            socket.setTcpNoDelay(true);
+            out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        synchronized void send(final int type, final int flags, final byte[] body) throws IOException
+        {
+            out.write((type << 4) | flags);
+            int length = body.length;
+            do
+            {
+                int digit = length % 128;
+                length /= 128;
+                if (length > 0)
+                    digit |= 0x80;
+                out.write(digit);
+            }
+            while (length > 0);
+            out.write(body);
+            out.flush();
+        }
+
+        void publish(final String topic, final byte[] payload)
+        {
+            final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            writeString(body, topic);
+            body.writeBytes(payload);
+            try
+            {
+                send(PUBLISH, 0, body.toByteArray());
+            }
+            catch (IOException ex)
+            {
+                close();
+            }
+        }
+
+        void run()
+        {
+            try
+            (
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))
+            )
+            {
+                while (true)
+                {
+                    final int header = in.read();
+                    if (header < 0)
+                        break;
+                    int length = 0, shift = 0, digit;
+                    do
+                    {
+                        digit = in.readUnsignedByte();
+                        length |= (digit & 0x7F) << shift;
+                        shift += 7;
+                    }
+                    while ((digit & 0x80) != 0);
+                    final byte[] body = new byte[length];
+                    in.readFully(body);
+                    if (! handle(header >> 4, header & 0x0F, new DataInputStream(new ByteArrayInputStream(body)), length))
+                        break;
+                }
+            }
+            catch (EOFException ex)
+            {
+                // Client closed connection
+            }
+            catch (Exception ex)
+            {
+                if (! server.isClosed())
+                    ex.printStackTrace();
+            }
+            close();
+        }
+
+        private boolean handle(final int type, final int flags, final DataInputStream body, final int length) throws Exception
+        {
+            switch (type)
+            {
+            case CONNECT:
+                send(CONNACK, 0, new byte[] { 0, 0 });
+                return true;
+            case SUBSCRIBE:
+            {
+                final int id = body.readUnsignedShort();
+                final ByteArrayOutputStream granted = new ByteArrayOutputStream();
+                granted.write(id >> 8);
+                granted.write(id & 0xFF);
+                while (body.available() > 0)
+                {
+                    final String filter = body.readUTF();
+                    body.readByte();
+                    subscriptions.add(filter, this);
+                    subscribe_count.incrementAndGet();
+                    granted.write(0);
+                }
+                send(SUBACK, 0, granted.toByteArray());
+                // Filters were added to the trie, so check each retained topic against it
+                for (Map.Entry<String, byte[]> entry : retained.entrySet())
+                    subscriptions.match(entry.getKey(), client ->
+                    {
+                        if (client == this)
+                            publish(entry.getKey(), entry.getValue());
+                    });
+                return true;
+            }
+            case UNSUBSCRIBE:
+            {
+                final int id = body.readUnsignedShort();
+                while (body.available() > 0)
+                    subscriptions.remove(body.readUTF(), this);
+                send(UNSUBACK, 0, new byte[] { (byte) (id >> 8), (byte) id });
+                return true;
+            }
+            case PUBLISH:
+            {
+                final String topic = body.readUTF();
+                final int qos = (flags >> 1) & 3;
+                int header = 2 + topic.getBytes(UTF_8).length;
+                if (qos > 0)
+                {
+                    final int id = body.readUnsignedShort();
+                    header += 2;
+                    send(PUBACK, 0, new byte[] { (byte) (id >> 8), (byte) id });
+                }
+                final byte[] payload = body.readNBytes(length - header);
+                if ((flags & 1) != 0)
+                {
+                    if (payload.length > 0)
+                        retained.put(topic, payload);
+                    else
+                        retained.remove(topic);
+                }
+                distribute(topic, payload);
+                return true;
+            }
+            case PINGREQ:
+                send(PINGRESP, 0, new byte[0]);
+                return true;
+            case DISCONNECT:
+            default:
+                return false;
+            }
+        }
+
+        void close()
+        {
+            clients.remove(this);
+            try
+            {
+                socket.close();
+            }
+            catch (IOException ex)
+            {
+                // Ignore
+            }
+        }
+    }
+
+    /** Start broker on a free port */
+    LocalBroker() throws IOException
+    {
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        final Thread thread = new Thread(this::accept, "LocalBroker");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** @return Broker URL */
+    String getURL()
+    {
+        return "tcp://localhost:" + server.getLocalPort();
+    }
+
+    /** @return Number of topic filters that clients subscribed */
+    int getSubscribeCount()
+    {
+        return subscribe_count.get();
+    }
+
+    private void accept()
+    {
+        while (! server.isClosed())
+        {
+            try
+            {
+                final Client client = new Client(server.accept());
+                clients.add(client);
+                final Thread thread = new Thread(client::run, "LocalBroker Client");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            catch (IOException ex)
+            {
+                // Closed
+            }
+        }
+    }
+
+    private void distribute(final String topic, final byte[] payload)
+    {
+        // Deliver once to each client, even if several of its filters match
+        final Set<Client> receivers = Collections.newSetFromMap(new IdentityHashMap<>());
+        subscriptions.match(topic, receivers::add);
+        for (Client client : receivers)
+            client.publish(topic, payload);
+    }
+
+    private static void writeString(final ByteArrayOutputStream out, final String text)
+    {
+        final byte[] bytes = text.getBytes(UTF_8);
+        out.write(bytes.length >> 8);
+        out.write(bytes.length & 0xFF);
+        out.writeBytes(bytes);
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        server.close();
+        for (Client client : clients)
+            client.close();
+    }
+}
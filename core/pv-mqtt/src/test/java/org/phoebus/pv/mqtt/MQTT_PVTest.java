@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.phoebus.pv.mqtt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.prefs.Preferences;
+
+import org.eclipse.paho.client.mqttv3.MqttClient;
+import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.AlarmSeverity;
+import org.epics.vtype.AlarmStatus;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VLong;
+import org.epics.vtype.VNumber;
+import org.epics.vtype.VType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.phoebus.pv.PV;
+import org.phoebus.pv.PVPool;
+
+import io.reactivex.rxjava3.disposables.Disposable;
+
+/** JUnit test of MQTT PVs with a local broker
+ *
+ *  <p>Configures the preferences for the local broker
+ *  before any MQTT PV is created.
+ */
+@SuppressWarnings("nls")
+public class MQTT_PVTest
+{
+    private static LocalBroker broker;
+
+    @BeforeAll
+    public static void startBroker() throws Exception
+    {
+        broker = new LocalBroker();
+        final Preferences prefs = Preferences.userNodeForPackage(MQTT_Preferences.class);
+        prefs.put("mqtt_broker", broker.getURL());
+        prefs.put("mqtt_shared_subscriptions", "bench/#");
+        prefs.flush();
+    }
+
+    @AfterAll
+    public static void stopBroker() throws Exception
+    {
+        final Preferences prefs = Preferences.userNodeForPackage(MQTT_Preferences.class);
+        prefs.remove("mqtt_broker");
+        prefs.remove("mqtt_shared_subscriptions");
+        prefs.flush();
+        broker.close();
+    }
+
+    /** @param value Value
+     *  @return Number or NaN
+     */
+    private static double toDouble(final VType value)
+    {
+        return value instanceof VNumber number ? number.getValue().doubleValue() : Double.NaN;
+    }
+
+    @Test
+    @Timeout(30)
+    public void testSharedSubscription() throws Exception
+    {
+        final int before = broker.getSubscribeCount();
+        final List<PV> pvs = new ArrayList<>();
+        for (int i=0; i<100; ++i)
+            pvs.add(PVPool.getPV("mqtt://bench/shared" + i));
+        // All topics are covered by the one "bench/#" subscription
+        assertEquals(before + 1, broker.getSubscribeCount());
+
+        // Binary value written by one PV is received by another PV for the same topic
+        final PV writer = PVPool.getPV("mqtt://bench/shared7<VDouble,binary>");
+        final CountDownLatch received = new CountDownLatch(1);
+        final Disposable flow = pvs.get(7).onValueEvent().subscribe(value ->
+        {
+            if (toDouble(value) == 3.5)
+                received.countDown();
+        });
+        writer.write(3.5);
+        assertTrue(received.await(10, TimeUnit.SECONDS));
+        assertEquals(3.5, toDouble(pvs.get(7).read()), 0.0);
+        // Other PVs didn't receive anything
+        assertTrue(PV.isDisconnected(pvs.get(8).read()));
+        flow.dispose();
+
+        PVPool.releasePV(writer);
+        for (PV pv : pvs)
+            PVPool.releasePV(pv);
+    }
+
+    @Test
+    @Timeout(30)
+    public void testLateSubscriber() throws Exception
+    {
+        // PV that activates the shared "bench/#" subscription
+        final PV first = PVPool.getPV("mqtt://bench/retained_a");
+        final CountDownLatch marker = new CountDownLatch(1);
+        final Disposable flow = first.onValueEvent().subscribe(value ->
+        {
+            if (toDouble(value) == 1.0)
+                marker.countDown();
+        });
+
+        // Retained binary VLong for a topic that has no PV, yet
+        final MqttClient client = new MqttClient(broker.getURL(), "bench" + System.nanoTime(), new MemoryPersistence());
+        client.connect();
+        client.publish("bench/retained_b", VTypeToFromBytes.toBytes(VLong.of(42L, Alarm.none(), Time.now(), Display.none())), 0, true);
+        // Messages arrive in order, so once the marker is received,
+        // the retained message has also been received
+        client.publish("bench/retained_a", "1".getBytes(), 0, false);
+        assertTrue(marker.await(10, TimeUnit.SECONDS));
+
+        // Broker won't send the retained message again for the existing subscription,
+        // but PV added later still gets the value, converted to its declared type
+        final PV late = PVPool.getPV("mqtt://bench/retained_b<VDouble>");
+        final CountDownLatch received = new CountDownLatch(1);
+        final Disposable late_flow = late.onValueEvent().subscribe(value ->
+        {
+            if (value instanceof VDouble  &&  toDouble(value) == 42.0)
+                received.countDown();
+        });
+        assertTrue(received.await(10, TimeUnit.SECONDS));
+
+        late_flow.dispose();
+        flow.dispose();
+        PVPool.releasePV(late);
+        PVPool.releasePV(first);
+        client.publish("bench/retained_b", new byte[0], 0, true);
+        client.disconnect();
+        client.close();
+    }
+
+    /** @param binary Use binary payload?
+     *  @param count Number of messages to send
+     *  @return Messages per second
+     */
+    private double measureRate(final boolean binary, final int count) throws Exception
+    {
+        final PV pv = PVPool.getPV("mqtt://bench/rate");
+        final CountDownLatch received = new CountDownLatch(1);
+        final Disposable flow = pv.onValueEvent().subscribe(value ->
+        {
+            if (toDouble(value) == count)
+                received.countDown();
+        });
+
+        final MqttClient client = new MqttClient(broker.getURL(), "bench" + System.nanoTime(), new MemoryPersistence());
+        final MqttConnectOptions options = new MqttConnectOptions();
+        options.setMaxInflight(1000);
+        client.connect(options);
+
+        final Alarm alarm = Alarm.of(AlarmSeverity.MINOR, AlarmStatus.DEVICE, "Bench");
+        final long start = System.nanoTime();
+        for (int i=1; i<=count; ++i)
+        {
+            final byte[] payload = binary
+                ? VTypeToFromBytes.toBytes(VDouble.of(i, alarm, Time.now(), Display.none()))
+                : Integer.toString(i).getBytes();
+            client.publish("bench/rate", payload, 0, false);
+        }
+        assertTrue(received.await(60, TimeUnit.SECONDS), "Received all messages");
+        final double rate = count / ((System.nanoTime() - start) / 1e9);
+
+        if (binary)
+            assertEquals(AlarmSeverity.MINOR, Alarm.alarmOf(pv.read()).getSeverity());
+
+        client.disconnect();
+        client.close();
+        flow.dispose();
+        PVPool.releasePV(pv);
+        return rate;
+    }
+
+    @Test
+    @Timeout(300)
+    public void testRate() throws Exception
+    {
+        final int count = 20000;
+        // Warm up
+        measureRate(false, count);
+        measureRate(true, count);
+
+        final double text = measureRate(false, count);
+        final double binary = measureRate(true, count);
+        System.out.format("Text payload  : %10.0f messages/sec\n", text);
+        System.out.format("Binary payload: %10.0f messages/sec\n", binary);
+    }
+}
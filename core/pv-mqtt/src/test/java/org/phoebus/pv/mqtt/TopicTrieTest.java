@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.phoebus.pv.mqtt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/** JUnit test of {@link TopicTrie} */
+@SuppressWarnings("nls")
+public class TopicTrieTest
+{
+    private static Set<String> match(final TopicTrie<String> trie, final String topic)
+    {
+        final Set<String> result = new TreeSet<>();
+        trie.match(topic, result::add);
+        return result;
+    }
+
+    @Test
+    public void testMatch()
+    {
+        final TopicTrie<String> trie = new TopicTrie<>();
+        trie.add("a/b/c", "exact");
+        trie.add("a/+/c", "single");
+        trie.add("a/#", "multi");
+        trie.add("#", "all");
+        trie.add("+/+", "two");
+
+        assertEquals(Set.of("exact", "single", "multi", "all"), match(trie, "a/b/c"));
+        assertEquals(Set.of("single", "multi", "all"), match(trie, "a/x/c"));
+        assertEquals(Set.of("multi", "all", "two"), match(trie, "a/b"));
+        // "a/#" includes the parent level
+        assertEquals(Set.of("multi", "all"), match(trie, "a"));
+        assertEquals(Set.of("all"), match(trie, "b/c/d"));
+        assertEquals(Set.of("all", "two"), match(trie, "b/c"));
+
+        // Wildcards at the first level don't match "$..." topics
+        assertEquals(Set.of(), match(trie, "$SYS/x"));
+        trie.add("$SYS/#", "sys");
+        assertEquals(Set.of("sys"), match(trie, "$SYS/x"));
+    }
+
+    @Test
+    public void testStaticMatch()
+    {
+        assertTrue(TopicTrie.matches("a/b", "a/b"));
+        assertTrue(TopicTrie.matches("a/+", "a/b"));
+        assertTrue(TopicTrie.matches("a/#", "a"));
+        assertTrue(TopicTrie.matches("a/#", "a/b/c"));
+        assertFalse(TopicTrie.matches("a/+", "a/b/c"));
+        assertFalse(TopicTrie.matches("a/b/c", "a/b"));
+        assertFalse(TopicTrie.matches("#", "$SYS/x"));
+
+        assertTrue(TopicTrie.isWildcard("a/+/c"));
+        assertFalse(TopicTrie.isWildcard("a/b/c"));
+    }
+
+    @Test
+    public void testRemove()
+    {
+        final TopicTrie<String> trie = new TopicTrie<>();
+        trie.add("a/b/c", "one");
+        trie.add("a/b/c", "two");
+        trie.add("a/+", "three");
+
+        assertFalse(trie.remove("a/b", "one"));
+        assertFalse(trie.remove("a/b/c", "three"));
+
+        assertTrue(trie.remove("a/b/c", "one"));
+        assertEquals(Set.of("two"), match(trie, "a/b/c"));
+        assertTrue(trie.remove("a/b/c", "two"));
+        assertEquals(Set.of(), match(trie, "a/b/c"));
+        assertEquals(Set.of("three"), match(trie, "a/b"));
+
+        assertFalse(trie.isEmpty());
+        assertTrue(trie.remove("a/+", "three"));
+        // Unused nodes have been pruned
+        assertTrue(trie.isEmpty());
+    }
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.phoebus.pv.mqtt;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.epics.util.array.ArrayDouble;
+import org.epics.util.array.ArrayInteger;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.AlarmSeverity;
+import org.epics.vtype.AlarmStatus;
+import org.epics.vtype.Display;
+import org.epics.vtype.EnumDisplay;
+import org.epics.vtype.Time;
+import org.epics.vtype.VBoolean;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VDoubleArray;
+import org.epics.vtype.VEnum;
+import org.epics.vtype.VInt;
+import org.epics.vtype.VIntArray;
+import org.epics.vtype.VLong;
+import org.epics.vtype.VLongArray;
+import org.epics.vtype.VString;
+import org.epics.vtype.VStringArray;
+import org.epics.vtype.VType;
+import org.junit.jupiter.api.Test;
+
+/** JUnit test of {@link VTypeToFromBytes} */
+@SuppressWarnings("nls")
+public class VTypeToFromBytesTest
+{
+    private static final Alarm alarm = Alarm.of(AlarmSeverity.MINOR, AlarmStatus.DEVICE, "Low");
+    private static final Time time = Time.of(Instant.ofEpochSecond(1700000000, 123456789));
+
+    private static VType roundtrip(final VType value) throws Exception
+    {
+        final byte[] bytes = VTypeToFromBytes.toBytes(value);
+        assertTrue(VTypeToFromBytes.isBinary(bytes));
+        final VType copy = VTypeToFromBytes.fromBytes(bytes);
+        assertEquals(alarm, Alarm.alarmOf(copy));
+        assertEquals(time.getTimestamp(), Time.timeOf(copy).getTimestamp());
+        return copy;
+    }
+
+    @Test
+    public void testScalars() throws Exception
+    {
+        VType copy = roundtrip(VDouble.of(3.14, alarm, time, Display.none()));
+        assertEquals(3.14, assertInstanceOf(VDouble.class, copy).getValue(), 0.0);
+
+        copy = roundtrip(VInt.of(42, alarm, time, Display.none()));
+        assertEquals(42L, assertInstanceOf(VLong.class, copy).getValue());
+
+        copy = roundtrip(VString.of("Hello, äöü", alarm, time));
+        assertEquals("Hello, äöü", assertInstanceOf(VString.class, copy).getValue());
+
+        copy = roundtrip(VEnum.of(1, EnumDisplay.of("Off", "On"), alarm, time));
+        assertEquals(1, assertInstanceOf(VEnum.class, copy).getIndex());
+        assertEquals(List.of("Off", "On"), ((VEnum) copy).getDisplay().getChoices());
+
+        copy = roundtrip(VBoolean.of(true, alarm, time));
+        assertTrue(assertInstanceOf(VBoolean.class, copy).getValue());
+    }
+
+    @Test
+    public void testArrays() throws Exception
+    {
+        VType copy = roundtrip(VDoubleArray.of(ArrayDouble.of(1.0, 2.5, -3.0), alarm, time, Display.none()));
+        assertArrayEquals(new double[] { 1.0, 2.5, -3.0 },
+                          assertInstanceOf(VDoubleArray.class, copy).getData().toArray(new double[0]));
+
+        copy = roundtrip(VIntArray.of(ArrayInteger.of(1, 2, 3), alarm, time, Display.none()));
+        assertArrayEquals(new long[] { 1, 2, 3 },
+                          assertInstanceOf(VLongArray.class, copy).getData().toArray(new long[0]));
+
+        copy = roundtrip(VStringArray.of(List.of("a", "", "c"), alarm, time));
+        assertEquals(List.of("a", "", "c"), assertInstanceOf(VStringArray.class, copy).getData());
+    }
+
+    @Test
+    public void testConversion() throws Exception
+    {
+        // Binary payload is converted to the type of the PV, keeping alarm and time
+        final byte[] number = VTypeToFromBytes.toBytes(VInt.of(42, alarm, time, Display.none()));
+        VType value = VTypeToFromBytes.fromBytes(number, VDouble.class);
+        assertEquals(42.0, assertInstanceOf(VDouble.class, value).getValue(), 0.0);
+        assertEquals(alarm, Alarm.alarmOf(value));
+        assertEquals(time.getTimestamp(), Time.timeOf(value).getTimestamp());
+
+        value = VTypeToFromBytes.fromBytes(number, VString.class);
+        assertEquals("42", assertInstanceOf(VString.class, value).getValue());
+
+        value = VTypeToFromBytes.fromBytes(number, VDoubleArray.class);
+        assertArrayEquals(new double[] { 42.0 },
+                          assertInstanceOf(VDoubleArray.class, value).getData().toArray(new double[0]));
+
+        value = VTypeToFromBytes.fromBytes(VTypeToFromBytes.toBytes(VString.of("3.5", alarm, time)), VDouble.class);
+        assertEquals(3.5, assertInstanceOf(VDouble.class, value).getValue(), 0.0);
+
+        value = VTypeToFromBytes.fromBytes(VTypeToFromBytes.toBytes(VEnum.of(1, EnumDisplay.of("Off", "On"), alarm, time)), VLong.class);
+        assertEquals(1L, assertInstanceOf(VLong.class, value).getValue());
+
+        value = VTypeToFromBytes.fromBytes(VTypeToFromBytes.toBytes(VIntArray.of(ArrayInteger.of(1, 2), alarm, time, Display.none())), VStringArray.class);
+        assertEquals(List.of("1", "2"), assertInstanceOf(VStringArray.class, value).getData());
+
+        // Without a type, or when types match, value is used as is
+        assertInstanceOf(VLong.class, VTypeToFromBytes.fromBytes(number, null));
+        assertInstanceOf(VLong.class, VTypeToFromBytes.fromBytes(number, VLong.class));
+
+        // Array can't be converted into scalar
+        assertThrows(Exception.class,
+                     () -> VTypeToFromBytes.fromBytes(VTypeToFromBytes.toBytes(VDoubleArray.of(ArrayDouble.of(1.0), alarm, time, Display.none())), VDouble.class));
+    }
+
+    @Test
+    public void testText() throws Exception
+    {
+        // Text payload is never mistaken for binary
+        assertFalse(VTypeToFromBytes.isBinary("3.14".getBytes()));
+        assertFalse(VTypeToFromBytes.isBinary(new byte[0]));
+    }
+}
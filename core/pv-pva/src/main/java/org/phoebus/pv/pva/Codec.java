@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 Oak Ridge National Laboratory.
+ * Copyright (c) 2022-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,7 @@ import static org.phoebus.pv.PV.logger;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Arrays;
 import java.util.logging.Level;
 
 import org.epics.pva.data.PVAByteArray;
@@ -45,6 +46,39 @@ abstract public class Codec
         Double.BYTES    // 10 double
     };
 
+    /** Buffers that one PV re-uses while decoding successive images
+     *
+     *  <p>De-compressed bytes that become the image data
+     *  are handed to the image and cannot be re-used,
+     *  but data that is converted into the actual
+     *  data type passes through these buffers.
+     *  Not thread safe, each PV decodes one image at a time.
+     */
+    public static class Buffers
+    {
+        private byte[] input = new byte[0], expanded = new byte[0];
+
+        /** @param size Minimum size
+         *  @return Buffer for compressed input
+         */
+        byte[] getInput(final int size)
+        {
+            if (input.length < size)
+                input = new byte[size];
+            return input;
+        }
+
+        /** @param size Minimum size
+         *  @return Buffer for de-compressed bytes before conversion
+         */
+        byte[] getExpanded(final int size)
+        {
+            if (expanded.length < size)
+                expanded = new byte[size];
+            return expanded;
+        }
+    }
+
     /** De-compress value
      *
      *  @param value Value with compressed value
@@ -56,20 +90,46 @@ abstract public class Codec
     public PVAData decompress(final PVAByteArray value, final int orig_data_type,
                               final int value_count) throws Exception
     {
+        final byte[] compressed = value.get();
+        return decompress(compressed, compressed.length, orig_data_type, value_count, null);
+    }
+
+    /** De-compress value
+     *
+     *  @param compressed Compressed data
+     *  @param length Number of compressed bytes, may be less than <code>compressed.length</code>
+     *  @param orig_data_type Original data type ID
+     *  @param value_count Value count of decoded data, i.e. number of 'int' or 'long', not byte size
+     *  @param buffers {@link Buffers} to re-use, or <code>null</code>
+     *  @return Array data of decoded image
+     *  @throws Exception on error
+     */
+    public PVAData decompress(final byte[] compressed, final int length, final int orig_data_type,
+                              final int value_count, final Buffers buffers) throws Exception
+    {
+        if (orig_data_type < 1  ||  orig_data_type >= BYTES_PER_SAMPLE.length)
+            throw new Exception("Cannot decode compressed data for orig data type  " + orig_data_type);
         final boolean unsigned = orig_data_type >= 5  &&  orig_data_type <= 8;
-        final byte[] compressed = ((PVAByteArray)value).get();
-        final byte[] expanded = decompress(compressed, BYTES_PER_SAMPLE[orig_data_type] * value_count);
-        logger.log(Level.FINE, () -> "Decompressed " + compressed.length + " into " + expanded.length + " bytes");
+        final int size = BYTES_PER_SAMPLE[orig_data_type] * value_count;
 
         // byte, ubyte: Done!
         if (orig_data_type == 1  ||  orig_data_type == 5)
+        {
+            // Expanded bytes become the image data, so cannot re-use a buffer
+            final byte[] expanded = decompress(compressed, length, null, size);
+            logger.log(Level.FINE, () -> "Decompressed " + length + " into " + expanded.length + " bytes");
             return new PVAByteArray(unsigned ? "ubyteValue" : "byteValue", unsigned, expanded);
+        }
+
+        // Expanded bytes are converted, so their buffer can be re-used
+        final byte[] expanded = decompress(compressed, length, buffers == null ? null : buffers.getExpanded(size), size);
+        logger.log(Level.FINE, () -> "Decompressed " + length + " into " + size + " bytes");
 
         // Need to 'cast' the expanded data from byte[] to orig_data_type[].
         // In C/C++, that's easy without copying the data:
         //   return new PVAIntArray("intValue", unsigned, (int *) expanded);
         // For Java, these similar looking constructs compile, but result in runtime errors:
-        final ByteBuffer cvt = ByteBuffer.wrap(expanded);
+        final ByteBuffer cvt = ByteBuffer.wrap(expanded, 0, size);
         //   int[] ints = (short []) (Object) expanded;
         //   int[] ints = cvt.asIntBuffer().array();
         //
@@ -128,6 +188,25 @@ abstract public class Codec
         }
     }
 
+    /** De-compress byte array into buffer
+     *
+     *  <p>Default implementation allocates the result
+     *  via {@link #decompress(byte[], int)}.
+     *
+     *  @param data Compressed data
+     *  @param length Number of compressed bytes, may be less than <code>data.length</code>
+     *  @param buffer Buffer for de-compressed data of at least <code>decompressed_size</code>,
+     *                or <code>null</code> to allocate
+     *  @param decompressed_size Expected de-compressed size in bytes
+     *  @return De-compressed data, either in <code>buffer</code> or a new array
+     *  @throws Exception on error
+     */
+    public byte[] decompress(final byte[] data, final int length, final byte[] buffer,
+                             final int decompressed_size) throws Exception
+    {
+        return decompress(length == data.length ? data : Arrays.copyOf(data, length), decompressed_size);
+    }
+
     /** De-compress byte array
      *
      *  @param data Compressed data
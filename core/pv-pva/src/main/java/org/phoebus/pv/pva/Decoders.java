@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019-2022 Oak Ridge National Laboratory.
+ * Copyright (c) 2019-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -33,16 +33,8 @@ import org.epics.pva.data.PVAShortArray;
 import org.epics.pva.data.PVAString;
 import org.epics.pva.data.PVAStringArray;
 import org.epics.pva.data.PVAStructure;
-import org.epics.util.array.ArrayByte;
-import org.epics.util.array.ArrayDouble;
-import org.epics.util.array.ArrayFloat;
-import org.epics.util.array.ArrayInteger;
 import org.epics.util.array.ArrayLong;
-import org.epics.util.array.ArrayShort;
-import org.epics.util.array.ArrayUByte;
-import org.epics.util.array.ArrayUInteger;
 import org.epics.util.array.ArrayULong;
-import org.epics.util.array.ArrayUShort;
 import org.epics.util.stats.Range;
 import org.epics.util.text.NumberFormats;
 import org.epics.vtype.Alarm;
@@ -91,6 +83,10 @@ public class Decoders
 
     private static final Display noDisplay = Display.none();
 
+    /** Alarm severities and states by ordinal, avoiding a new array from values() */
+    private static final AlarmSeverity[] SEVERITIES = AlarmSeverity.values();
+    private static final AlarmStatus[] STATUSES = AlarmStatus.values();
+
     /** Cache for formats */
     private static final Map<String, NumberFormat> formatterCache =
             new ConcurrentHashMap<>();
@@ -123,12 +119,12 @@ public class Decoders
             PVAInt code = alarm.get("severity");
             severity = code == null
                      ? AlarmSeverity.UNDEFINED
-                     : AlarmSeverity.values()[code.get()];
+                     : SEVERITIES[code.get()];
 
             code = alarm.get("status");
             status = code == null
                     ? AlarmStatus.UNDEFINED
-                    : AlarmStatus.values()[code.get()];
+                    : STATUSES[code.get()];
 
             final PVAString msg = alarm.get("message");
             message = (msg == null || msg.get() == null) ? "<null>" : msg.get();
@@ -243,7 +239,7 @@ public class Decoders
         }
     }
 
-    private static Display decodeDisplay(final PVAStructure struct)
+    static Display decodeDisplay(final PVAStructure struct)
     {
         String units;
         NumberFormat format;
@@ -437,7 +433,7 @@ public class Decoders
      */
     public static VType decodeDoubleArray(final PVAStructure struct, final PVADoubleArray field)
     {
-        return VDoubleArray.of(ArrayDouble.of(field.get()),
+        return VDoubleArray.of(PooledArrays.of(field),
                                decodeAlarm(struct), decodeTime(struct), decodeDisplay(struct));
     }
 
@@ -447,7 +443,7 @@ public class Decoders
      */
     public static VType decodeFloatArray(final PVAStructure struct, final PVAFloatArray field)
     {
-        return VFloatArray.of(ArrayFloat.of(field.get()),
+        return VFloatArray.of(PooledArrays.of(field),
                               decodeAlarm(struct), decodeTime(struct), decodeDisplay(struct));
     }
 
@@ -472,10 +468,10 @@ public class Decoders
     public static VType decodeIntArray(final PVAStructure struct, final PVAIntArray field)
     {
         if (field.isUnsigned())
-            return VUIntArray.of(ArrayUInteger.of(field.get()),
+            return VUIntArray.of(PooledArrays.ofUnsigned(field),
                                  decodeAlarm(struct), decodeTime(struct), decodeDisplay(struct));
         else
-            return VIntArray.of(ArrayInteger.of(field.get()),
+            return VIntArray.of(PooledArrays.of(field),
                                 decodeAlarm(struct), decodeTime(struct), decodeDisplay(struct));
     }
 
@@ -486,10 +482,10 @@ public class Decoders
     public static VType decodeShortArray(final PVAStructure struct, final PVAShortArray field)
     {
         if (field.isUnsigned())
-            return VUShortArray.of(ArrayUShort.of(field.get()),
+            return VUShortArray.of(PooledArrays.ofUnsigned(field),
                                    decodeAlarm(struct), decodeTime(struct), decodeDisplay(struct));
         else
-            return VShortArray.of(ArrayShort.of(field.get()),
+            return VShortArray.of(PooledArrays.of(field),
                                   decodeAlarm(struct), decodeTime(struct), decodeDisplay(struct));
     }
 
@@ -500,10 +496,10 @@ public class Decoders
     public static VType decodeByteArray(final PVAStructure struct, final PVAByteArray field)
     {
         if (field.isUnsigned())
-            return VUByteArray.of(ArrayUByte.of(field.get()),
+            return VUByteArray.of(PooledArrays.ofUnsigned(field),
                                   decodeAlarm(struct), decodeTime(struct), decodeDisplay(struct));
         else
-            return VByteArray.of(ArrayByte.of(field.get()),
+            return VByteArray.of(PooledArrays.of(field),
                                  decodeAlarm(struct), decodeTime(struct), decodeDisplay(struct));
     }
 
@@ -538,6 +534,38 @@ public class Decoders
         throw new Exception("Cannot handle " + field.getClass().getName());
     }
 
+    /** @param field Numeric field
+     *  @param alarm Alarm
+     *  @param time Time stamp
+     *  @param display Display info
+     *  @return VType for number
+     *  @throws Exception on error
+     */
+    static VType decodeNumber(final PVANumber field, final Alarm alarm, final Time time, final Display display) throws Exception
+    {
+        if (field instanceof PVADouble number)
+            return VDouble.of(number.get(), alarm, time, display);
+        if (field instanceof PVAFloat number)
+            return VFloat.of(number.get(), alarm, time, display);
+        if (field instanceof PVALong number)
+            return number.isUnsigned()
+                 ? VULong.of(number.get(), alarm, time, display)
+                 : VLong.of(number.get(), alarm, time, display);
+        if (field instanceof PVAInt number)
+            return number.isUnsigned()
+                 ? VUInt.of(number.get(), alarm, time, display)
+                 : VInt.of(number.get(), alarm, time, display);
+        if (field instanceof PVAShort number)
+            return number.isUnsigned()
+                 ? VUShort.of(number.get(), alarm, time, display)
+                 : VShort.of(number.get(), alarm, time, display);
+        if (field instanceof PVAByte number)
+            return number.isUnsigned()
+                 ? VUByte.of(number.get(), alarm, time, display)
+                 : VByte.of(number.get(), alarm, time, display);
+        throw new Exception("Cannot handle " + field.getClass().getName());
+    }
+
     /** @param struct Structure
      *  @param field Field for numeric array
      *  @return VType for number array
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.pva;
+
+import static org.phoebus.pv.PV.logger;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+import org.epics.vtype.Alarm;
+import org.epics.vtype.Time;
+import org.epics.vtype.VString;
+import org.epics.vtype.VType;
+import org.phoebus.pv.PVMetrics;
+
+/** Queue for de-compressing the images of one PV
+ *
+ *  <p>De-compressing LZ4 or JPEG images can take several milliseconds.
+ *  Doing that on the network receive thread would delay all other
+ *  PVs that are served by the same connection.
+ *  The receive thread thus only submits the compressed {@link ImageDecoder.Frame},
+ *  and a shared pool of {@link PVA_Preferences#image_decode_threads} decodes it.
+ *
+ *  <p>Each queue holds at most one pending frame.
+ *  When a new frame arrives before the pending one was decoded,
+ *  the stale frame is dropped.
+ *  Frames of one PV are decoded one at a time,
+ *  in order, re-using the PV's {@link Codec.Buffers}.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class ImageDecodeQueue implements Runnable
+{
+    private static final ExecutorService decoders;
+
+    private static final PVMetrics.Histogram decode_time = new PVMetrics.Histogram();
+    private static final LongAdder dropped = new LongAdder();
+
+    static
+    {
+        final int threads = Math.max(1, PVA_Preferences.image_decode_threads);
+        final AtomicInteger count = new AtomicInteger();
+        // Queue is bounded by the number of image PVs,
+        // since each queue submits itself at most once
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS,
+                                                               new LinkedBlockingQueue<>(),
+                                                               runnable ->
+        {
+            final Thread thread = new Thread(runnable, "PVAImageDecode-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        decoders = pool;
+    }
+
+    /** @return Should images be decoded by a {@link ImageDecodeQueue}? */
+    static boolean isEnabled()
+    {
+        return PVA_Preferences.image_decode_threads > 0;
+    }
+
+    /** @return Histogram of the time spent de-compressing images */
+    public static PVMetrics.Histogram getDecodeTime()
+    {
+        return decode_time;
+    }
+
+    /** @return Number of images that were dropped because a newer one arrived before they could be decoded */
+    public static long getDroppedFrames()
+    {
+        return dropped.sum();
+    }
+
+    private final String name;
+    private final Consumer<VType> consumer;
+    private final AtomicReference<ImageDecoder.Frame> pending = new AtomicReference<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Codec.Buffers buffers = new Codec.Buffers();
+
+    /** @param name Name used for messages
+     *  @param consumer Receives decoded images
+     */
+    ImageDecodeQueue(final String name, final Consumer<VType> consumer)
+    {
+        this.name = name;
+        this.consumer = consumer;
+    }
+
+    /** @param frame Frame to decode, replacing a pending frame */
+    void submit(final ImageDecoder.Frame frame)
+    {
+        if (pending.getAndSet(frame) != null)
+            dropped.increment();
+        if (scheduled.compareAndSet(false, true))
+            decoders.execute(this);
+    }
+
+    /** Drop pending frame, for example on disconnect */
+    void clear()
+    {
+        pending.set(null);
+    }
+
+    @Override
+    public void run()
+    {
+        ImageDecoder.Frame frame;
+        while ((frame = pending.getAndSet(null)) != null)
+        {
+            final long start = System.nanoTime();
+            VType value;
+            try
+            {
+                value = frame.decode(buffers);
+            }
+            catch (Exception ex)
+            {
+                logger.log(Level.WARNING, "Cannot decode image for " + name, ex);
+                value = VString.of("Cannot decode image", Alarm.noValue(), Time.now());
+            }
+            decode_time.record(System.nanoTime() - start);
+            consumer.accept(value);
+        }
+        scheduled.set(false);
+        // Frame might have been submitted after loop ended but before clearing 'scheduled'
+        if (pending.get() != null  &&  scheduled.compareAndSet(false, true))
+            decoders.execute(this);
+    }
+}
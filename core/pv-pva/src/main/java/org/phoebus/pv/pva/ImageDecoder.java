@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019-2025 Oak Ridge National Laboratory.
+ * Copyright (c) 2019-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -26,12 +26,9 @@ import org.epics.pva.data.PVAStructure;
 import org.epics.pva.data.PVAStructureArray;
 import org.epics.pva.data.PVAUnion;
 import org.epics.pva.data.PVAny;
+import org.epics.pva.data.PooledArray;
 import org.epics.util.array.ArrayByte;
-import org.epics.util.array.ArrayDouble;
-import org.epics.util.array.ArrayFloat;
-import org.epics.util.array.ArrayInteger;
 import org.epics.util.array.ArrayLong;
-import org.epics.util.array.ArrayShort;
 import org.epics.util.array.ListNumber;
 import org.epics.vtype.Alarm;
 import org.epics.vtype.Time;
@@ -62,11 +59,164 @@ public class ImageDecoder
         VImageType.TYPE_YUV411
     };
 
+    /** Image data of one NTNDArray update
+     *
+     *  <p>Uncompressed image data is decoded right away.
+     *  Compressed data is held until {@link #decode(Codec.Buffers)}
+     *  is called, which may happen on a different thread.
+     */
+    public static class Frame
+    {
+        private final int height, width, xoffset, yoffset;
+        private final boolean xreversed, yreversed;
+        private final VImageType image_type;
+        private final Alarm alarm;
+        private final Time time;
+
+        /** Decoded image, or <code>null</code> if still compressed */
+        private VImage image;
+
+        // Compressed data: Codec, original type and either Java array or pooled data
+        private Codec codec;
+        private int orig_type;
+        private byte[] compressed;
+        private PooledArray pooled;
+
+        private Frame(final int height, final int width, final int xoffset, final int yoffset,
+                      final boolean xreversed, final boolean yreversed, final VImageType image_type,
+                      final Alarm alarm, final Time time)
+        {
+            this.height = height;
+            this.width = width;
+            this.xoffset = xoffset;
+            this.yoffset = yoffset;
+            this.xreversed = xreversed;
+            this.yreversed = yreversed;
+            this.image_type = image_type;
+            this.alarm = alarm;
+            this.time = time;
+        }
+
+        /** @return Does the image still need to be de-compressed? */
+        public boolean isCompressed()
+        {
+            return image == null;
+        }
+
+        /** @param buffers {@link Codec.Buffers} to re-use, or <code>null</code>
+         *  @return Decoded image
+         *  @throws Exception on error
+         */
+        public VImage decode(final Codec.Buffers buffers) throws Exception
+        {
+            if (image != null)
+                return image;
+
+            final byte[] data;
+            final int length;
+            if (pooled != null)
+            {   // Copy from pooled direct buffer into (re-used) array for the codec
+                length = pooled.size();
+                data = buffers == null ? new byte[length] : buffers.getInput(length);
+                pooled.getBytes(0, data, 0, length);
+            }
+            else
+            {
+                data = compressed;
+                length = compressed.length;
+            }
+            return createImage(codec.decompress(data, length, orig_type, width * height, buffers));
+        }
+
+        /** @param value Uncompressed pixel data
+         *  @return VImage
+         *  @throws Exception on error
+         */
+        private VImage createImage(final PVAData value) throws Exception
+        {
+            // Get data and data type
+            final ListNumber data;
+            final VImageDataType data_type;
+            if (value instanceof PVAByteArray)
+            {
+                final PVAByteArray values = (PVAByteArray) value;
+                data = PooledArrays.of(values);
+                if (values.isUnsigned())
+                    data_type = VImageDataType.pvUByte;
+                else
+                    data_type = VImageDataType.pvByte;
+            }
+            else if (value instanceof PVAShortArray)
+            {
+                final PVAShortArray values = (PVAShortArray) value;
+                data = PooledArrays.of(values);
+                if (values.isUnsigned())
+                    data_type = VImageDataType.pvUShort;
+                else
+                    data_type = VImageDataType.pvShort;
+            }
+            else if (value instanceof PVAIntArray)
+            {
+                final PVAIntArray values = (PVAIntArray) value;
+                data = PooledArrays.of(values);
+                if (values.isUnsigned())
+                    data_type = VImageDataType.pvUInt;
+                else
+                    data_type = VImageDataType.pvInt;
+            }
+            else if (value instanceof PVALongArray)
+            {
+                final PVALongArray values = (PVALongArray) value;
+                data = ArrayLong.of(values.get());
+                if (values.isUnsigned())
+                    data_type = VImageDataType.pvULong;
+                else
+                    data_type = VImageDataType.pvLong;
+            }
+            else if (value instanceof PVAFloatArray)
+            {
+                final PVAFloatArray values = (PVAFloatArray) value;
+                data = PooledArrays.of(values);
+                data_type = VImageDataType.pvFloat;
+            }
+            else if (value instanceof PVADoubleArray)
+            {
+                final PVADoubleArray values = (PVADoubleArray) value;
+                data = PooledArrays.of(values);
+                data_type = VImageDataType.pvDouble;
+            }
+            else if (value == null)
+            {
+                data = ArrayByte.of();
+                data_type = VImageDataType.pvUByte;
+            }
+            else
+                throw new Exception("Cannot decode NTNDArray type of value " + value + ", sized " + width + " x " + height);
+
+            return VImage.of(height, width, xoffset, yoffset, xreversed, yreversed, data, data_type, image_type, alarm, time);
+        }
+    }
+
     /** @param struct Structure with image
      *  @return VType for image
      *  @throws Exception on error
      */
     public static VType decode(final PVAStructure struct) throws Exception
+    {
+        return prepare(struct).decode(null);
+    }
+
+    /** Extract image from structure
+     *
+     *  <p>Compressed image data is captured, but not de-compressed,
+     *  allowing the caller to do that on another thread
+     *  while the structure is updated with the next image.
+     *
+     *  @param struct Structure with image
+     *  @return {@link Frame} for image
+     *  @throws Exception on error
+     */
+    public static Frame prepare(final PVAStructure struct) throws Exception
     {
         // Get dimensions
         final PVAStructureArray dim = struct.get("dimension");
@@ -195,7 +345,7 @@ public class ImageDecoder
         // NTNDArray is defined with 'union value',
         // but PVXS 'group' demo generates 'any value'
         final PVAData value_field = struct.get("value");
-        PVAData value;
+        final PVAData value;
         if (value_field instanceof PVAUnion vf)
             value = vf.get();
         else if (value_field instanceof PVAny vf)
@@ -203,6 +353,9 @@ public class ImageDecoder
         else
             throw new Exception("NDArray expected with value of type 'union' or 'any', got '" + value_field.getType() + "'");
 
+        final Frame frame = new Frame(height, width, xoffset, yoffset, xreversed, yreversed, image_type,
+                                      Decoders.decodeAlarm(struct), Decoders.decodeTime(struct));
+
         // Value might be compressed, which means that a PVAByteArray
         // needs to be de-compressed and then converted into the
         // actual data type
@@ -227,8 +380,17 @@ public class ImageDecoder
 
                 if (codec != null)
                 {
-                    if (value instanceof PVAByteArray)
-                        value = codec.decompress((PVAByteArray)value, orig_type.get(), width * height);
+                    if (value instanceof PVAByteArray bytes)
+                    {
+                        // Keep the received bytes, not the PVAByteArray,
+                        // since the next update decodes into the same PVAByteArray
+                        frame.codec = codec;
+                        frame.orig_type = orig_type.get();
+                        frame.pooled = bytes.getPooled();
+                        if (frame.pooled == null)
+                            frame.compressed = bytes.get();
+                        return frame;
+                    }
                     else
                         logger.log(Level.WARNING, "Expected PVAByteArray for data compressed with codec '" + name.get() +
                                    "' but got " + value.getClass().getName());
@@ -236,67 +398,8 @@ public class ImageDecoder
             }
         }
 
-        // Get data and data type
-        final ListNumber data;
-        final VImageDataType data_type;
-        if (value instanceof PVAByteArray)
-        {
-            final PVAByteArray values = (PVAByteArray) value;
-            data = ArrayByte.of(values.get());
-            if (values.isUnsigned())
-                data_type = VImageDataType.pvUByte;
-            else
-                data_type = VImageDataType.pvByte;
-        }
-        else if (value instanceof PVAShortArray)
-        {
-            final PVAShortArray values = (PVAShortArray) value;
-            data = ArrayShort.of(values.get());
-            if (values.isUnsigned())
-                data_type = VImageDataType.pvUShort;
-            else
-                data_type = VImageDataType.pvShort;
-        }
-        else if (value instanceof PVAIntArray)
-        {
-            final PVAIntArray values = (PVAIntArray) value;
-            data = ArrayInteger.of(values.get());
-            if (values.isUnsigned())
-                data_type = VImageDataType.pvUInt;
-            else
-                data_type = VImageDataType.pvInt;
-        }
-        else if (value instanceof PVALongArray)
-        {
-            final PVALongArray values = (PVALongArray) value;
-            data = ArrayLong.of(values.get());
-            if (values.isUnsigned())
-                data_type = VImageDataType.pvULong;
-            else
-                data_type = VImageDataType.pvLong;
-        }
-        else if (value instanceof PVAFloatArray)
-        {
-            final PVAFloatArray values = (PVAFloatArray) value;
-            data = ArrayFloat.of(values.get());
-            data_type = VImageDataType.pvFloat;
-        }
-        else if (value instanceof PVADoubleArray)
-        {
-            final PVADoubleArray values = (PVADoubleArray) value;
-            data = ArrayDouble.of(values.get());
-            data_type = VImageDataType.pvDouble;
-        }
-        else if (value == null)
-        {
-            data = ArrayByte.of();
-            data_type = VImageDataType.pvUByte;
-        }
-        else
-            throw new Exception("Cannot decode NTNDArray type of value " + value + ", sized " + width + " x " + height);
-
-        final Alarm alarm = Decoders.decodeAlarm(struct);
-        final Time time = Decoders.decodeTime(struct);
-        return VImage.of(height, width, xoffset, yoffset, xreversed, yreversed, data, data_type, image_type, alarm, time);
+        // Uncompressed data is decoded right away
+        frame.image = frame.createImage(value);
+        return frame;
     }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 Oak Ridge National Laboratory.
+ * Copyright (c) 2022-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,7 @@ import static org.phoebus.pv.PV.logger;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferByte;
 import java.io.ByteArrayInputStream;
+import java.util.Arrays;
 import java.util.logging.Level;
 
 import javax.imageio.ImageIO;
@@ -27,14 +28,15 @@ import org.epics.pva.data.PVAData;
 public class JPEGCodec extends Codec
 {
     @Override
-    public PVAData decompress(PVAByteArray value, int orig_data_type, int value_count) throws Exception
+    public PVAData decompress(final byte[] compressed, final int length, final int orig_data_type,
+                              final int value_count, final Buffers buffers) throws Exception
     {
         // Area detector codec plugin only supports JPEG for 8 bit data types
         if (orig_data_type == 1  ||  orig_data_type == 5)
-            return super.decompress(value, orig_data_type, value_count);
+            return super.decompress(compressed, length, orig_data_type, value_count, buffers);
 
         logger.log(Level.WARNING, "JPEG decoding is only supported for original data types byte and ubyte, not " + orig_data_type);
-        return value;
+        return new PVAByteArray("value", true, length == compressed.length ? compressed : Arrays.copyOf(compressed, length));
     }
 
     //private static int updates = 0;
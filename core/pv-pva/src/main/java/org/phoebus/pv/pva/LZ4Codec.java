@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 Oak Ridge National Laboratory.
+ * Copyright (c) 2022-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -27,12 +27,19 @@ public class LZ4Codec extends Codec
     @Override
     public byte[] decompress(final byte[] data, final int decompressed_size) throws Exception
     {
-        final byte[] result = new byte[decompressed_size];
+        return decompress(data, data.length, null, decompressed_size);
+    }
+
+    @Override
+    public byte[] decompress(final byte[] data, final int length, final byte[] buffer,
+                             final int decompressed_size) throws Exception
+    {
+        final byte[] result = buffer == null ? new byte[decompressed_size] : buffer;
         int expanded = 0;
 
         try
         ( final BlockLZ4CompressorInputStream in =
-            new BlockLZ4CompressorInputStream(new ByteArrayInputStream(data))
+            new BlockLZ4CompressorInputStream(new ByteArrayInputStream(data, 0, length))
         )
         {
             while (expanded < decompressed_size)
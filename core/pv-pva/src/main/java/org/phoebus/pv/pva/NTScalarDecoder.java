@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.pva;
+
+import java.util.BitSet;
+
+import org.epics.pva.data.PVAData;
+import org.epics.pva.data.PVANumber;
+import org.epics.pva.data.PVAStructure;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.Display;
+import org.epics.vtype.VType;
+
+/** Decoder for monitor updates of a numeric NTScalar
+ *
+ *  <p>Keeps the {@link Alarm} and {@link Display} of the last update
+ *  and only decodes them again when the 'changes' of an update
+ *  include the corresponding structure elements.
+ *  A typical update where only the value and time stamp changed
+ *  then creates nothing but the time stamp and the VType.
+ *
+ *  <p>Relies on the monitor re-using the same {@link PVAStructure}
+ *  for each update, so element indices are determined once.
+ *
+ *  <p>Not thread safe, to be called by the monitor's thread.
+ *
+ *  @author Kay Kasemir
+ */
+class NTScalarDecoder
+{
+    /** Structure for which indices were determined */
+    private PVAStructure struct = null;
+
+    /** 'value' of the structure, <code>null</code> if not a numeric scalar */
+    private PVANumber value;
+
+    /** Start (inclusive), end (exclusive) indices of structure elements for alarm */
+    private int[] alarm_indices;
+
+    /** Start, end indices for display, control, valueAlarm */
+    private int[] display_indices;
+
+    private Alarm alarm;
+    private Display display;
+
+    /** @param struct Data of a monitor update
+     *  @param changes Elements that changed, <code>null</code> if unknown
+     *  @return Decoded value or <code>null</code> when struct is not a numeric NTScalar
+     *  @throws Exception on error
+     */
+    VType decode(final PVAStructure struct, final BitSet changes) throws Exception
+    {
+        if (struct != this.struct)
+        {
+            this.struct = struct;
+            value = null;
+            if (! struct.getStructureName().endsWith("NTScalar:1.0"))
+                return null;
+            if (! (struct.get("value") instanceof PVANumber number))
+                return null;
+            value = number;
+            alarm_indices = getIndices(struct, "alarm");
+            display_indices = getIndices(struct, "display", "control", "valueAlarm");
+            alarm = null;
+            display = null;
+        }
+        if (value == null)
+            return null;
+
+        if (alarm == null  ||  changed(changes, alarm_indices))
+            alarm = Decoders.decodeAlarm(struct);
+        if (display == null  ||  changed(changes, display_indices))
+            display = Decoders.decodeDisplay(struct);
+        return Decoders.decodeNumber(value, alarm, Decoders.decodeTime(struct), display);
+    }
+
+    /** @param struct Structure
+     *  @param names Names of sub-structures
+     *  @return Start, end indices of the existing sub-structures and their elements
+     *  @throws Exception on error
+     */
+    private static int[] getIndices(final PVAStructure struct, final String... names) throws Exception
+    {
+        final int[] indices = new int[2 * names.length];
+        int i = 0;
+        for (String name : names)
+        {
+            final PVAData element = struct.get(name);
+            if (element == null)
+                continue;
+            final int index = struct.getIndex(element);
+            indices[i++] = index;
+            indices[i++] = index + 1 + getElementCount(element);
+        }
+        // Unused entries remain 0, 0, i.e. an empty range
+        return indices;
+    }
+
+    /** @param element Structure element
+     *  @return Number of elements within a sub-structure, including nested elements
+     */
+    private static int getElementCount(final PVAData element)
+    {
+        if (! (element instanceof PVAStructure sub))
+            return 0;
+        int count = 0;
+        for (PVAData e : sub.get())
+            count += 1 + getElementCount(e);
+        return count;
+    }
+
+    /** @param changes Elements that changed, <code>null</code> if unknown
+     *  @param indices Start, end indices of elements to check
+     *  @return <code>true</code> if the whole structure or an element within the indices changed
+     */
+    private static boolean changed(final BitSet changes, final int[] indices)
+    {
+        if (changes == null  ||  changes.get(0))
+            return true;
+        for (int i=0; i<indices.length; i+=2)
+        {
+            final int next = changes.nextSetBit(indices[i]);
+            if (next >= 0  &&  next < indices[i+1])
+                return true;
+        }
+        return false;
+    }
+}
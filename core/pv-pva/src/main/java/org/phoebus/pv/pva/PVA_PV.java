@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019-2025 Oak Ridge National Laboratory.
+ * Copyright (c) 2019-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -7,7 +7,6 @@
  ******************************************************************************/
 package org.phoebus.pv.pva;
 
-import java.util.BitSet;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -15,12 +14,8 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 
-import org.epics.pva.client.ClientChannelState;
 import org.epics.pva.client.PVAChannel;
 import org.epics.pva.data.PVAStructure;
-import org.epics.vtype.Alarm;
-import org.epics.vtype.Time;
-import org.epics.vtype.VString;
 import org.epics.vtype.VType;
 import org.phoebus.pv.PV;
 
@@ -30,9 +25,14 @@ import org.phoebus.pv.PV;
 @SuppressWarnings("nls")
 public class PVA_PV extends PV
 {
-    private final PVAChannel channel;
     final PVNameHelper name_helper;
 
+    /** Channel shared with other PVs for the same channel name */
+    private final SharedChannel shared;
+
+    /** Underlying PVA channel */
+    private final PVAChannel channel;
+
     /** @param name Full PV name with prefix and initializer
      *  @param base_name Base name
      *  @throws Exception on error
@@ -44,64 +44,28 @@ public class PVA_PV extends PV
         // Analyze base_name, determine channel and request
         name_helper = PVNameHelper.forName(base_name);
         logger.log(Level.FINE, () -> "PVA '" + base_name + "' -> " + name_helper);
-        channel = PVA_Context.getInstance().getClient().getChannel(name_helper.getChannel(),
-                                                                   this::channelStateChanged,
-                                                                   this::accessRightsChanged);
+        shared = SharedChannel.add(this);
+        channel = shared.getChannel();
     }
 
-    private void channelStateChanged(final PVAChannel channel, final ClientChannelState state)
+    /** @param is_writable Is the channel writable? */
+    void accessRightsChanged(final boolean is_writable)
     {
-        if (state == ClientChannelState.CONNECTED)
-        {   // When connected, subscribe to updates
-            try
-            {
-                channel.subscribe(name_helper.getRequest(), this::handleMonitor);
-            }
-            catch (Exception ex)
-            {
-                logger.log(Level.WARNING, "Cannot subscribe to " + channel, ex);
-            }
-        }
-        else if (! isDisconnected(super.read()))
-        {
-            // Was connected, so now disconnected
-            notifyListenersOfDisconnect();
-        }
+        notifyListenersOfPermissions(! is_writable);
     }
 
-    private void accessRightsChanged(final PVAChannel channel, final boolean is_writable)
+    /** @param value Value decoded by the {@link SharedChannel} */
+    void handleValue(final VType value)
     {
-        notifyListenersOfPermissions(! is_writable);
+        notifyListenersOfValue(value);
     }
 
-    private void handleMonitor(final PVAChannel channel,
-                               final BitSet changes,
-                               final BitSet overruns,
-                               final PVAStructure data)
+    /** Channel disconnected or server ended the subscription */
+    void handleDisconnect()
     {
-        if (data == null)
-        {
-            // The PVA protocol allows the server to 'destroy' a monitor.
-            // This higher-level client library aims to establish only
-            // one subscription per PV, and when the server cancels it,
-            // all we can do is indicate this similar to a disconnect,
-            // since the client won't receive any more data,
-            // with a log message that explains what happened.
-            logger.log(Level.WARNING, "Server ends subscription for " + this);
+        if (! isDisconnected(super.read()))
             notifyListenersOfDisconnect();
-        }
-        else
-            try
-            {
-                final VType value = PVAStructureHelper.getVType(data, name_helper);
-                notifyListenersOfValue(value);
-            }
-            catch (Exception ex)
-            {
-                logger.log(Level.WARNING, "Cannot decode " + channel + " = " + data, ex);
-                notifyListenersOfValue(VString.of("Cannot decode " + data.formatType(), Alarm.noValue(), Time.now()));
-            }
-        }
+    }
 
     @Override
     public CompletableFuture<VType> asyncRead() throws Exception
@@ -240,6 +204,6 @@ public class PVA_PV extends PV
     @Override
     protected void close()
     {
-        channel.close();
+        shared.remove(this);
     }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017-2022 Oak Ridge National Laboratory.
+ * Copyright (c) 2017-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -45,6 +45,8 @@ public class PVA_Preferences
 
     public static int epics_pva_write_reply_timeout_ms;
 
+    public static int image_decode_threads;
+
     /** Prevent direct instantiation */
     private PVA_Preferences()
     {
@@ -62,13 +64,19 @@ public class PVA_Preferences
                                 "epics_pva_addr_list",
                                 "epics_pva_auto_addr_list",
                                 "epics_pva_name_servers",
+                                "epics_pva_search_cache",
                                 "epics_pva_enable_ipv6",
                                 "epics_pva_server_port",
                                 "epics_pva_broadcast_port",
                                 "epics_pva_conn_tmo",
                                 "epics_pva_tcp_socket_tmo",
                                 "epics_pva_max_array_formatting",
-                                "epics_pva_send_buffer_size"
+                                "epics_pva_send_buffer_size",
+                                "epics_pva_send_batch_bytes",
+                                "epics_pva_send_batch_latency_us",
+                                "epics_pva_pooled_array_threshold",
+                                "epics_pva_virtual_threads",
+                                "epics_pva_max_search_packets"
                             })
         {
             final String value = prefs.get(setting);
@@ -82,6 +90,7 @@ public class PVA_Preferences
         }
 
         epics_pva_write_reply_timeout_ms = prefs.getInt("epics_pva_write_reply_timeout_ms");
+        image_decode_threads = prefs.getInt("image_decode_threads");
     }
 
     /** @return Singleton instance */
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.pva;
+
+import org.epics.pva.data.PVAByteArray;
+import org.epics.pva.data.PVADoubleArray;
+import org.epics.pva.data.PVAFloatArray;
+import org.epics.pva.data.PVAIntArray;
+import org.epics.pva.data.PVAShortArray;
+import org.epics.pva.data.PooledArray;
+import org.epics.util.array.ArrayByte;
+import org.epics.util.array.ArrayDouble;
+import org.epics.util.array.ArrayFloat;
+import org.epics.util.array.ArrayInteger;
+import org.epics.util.array.ArrayShort;
+import org.epics.util.array.ArrayUByte;
+import org.epics.util.array.ArrayUInteger;
+import org.epics.util.array.ArrayUShort;
+import org.epics.util.array.ListByte;
+import org.epics.util.array.ListDouble;
+import org.epics.util.array.ListFloat;
+import org.epics.util.array.ListInteger;
+import org.epics.util.array.ListShort;
+import org.epics.util.array.ListUByte;
+import org.epics.util.array.ListUInteger;
+import org.epics.util.array.ListUShort;
+
+/** Access to PVA array data as {@link org.epics.util.array.ListNumber}
+ *
+ *  <p>When the PVA array was decoded into a {@link PooledArray},
+ *  the returned list reads from that pooled buffer without copying it
+ *  into a Java array.
+ *  The list holds a reference to the pooled array,
+ *  so its buffer is only re-used once the list is no longer referenced.
+ *  Otherwise the Java array of the PVA data is wrapped.
+ *
+ *  @author Kay Kasemir
+ */
+public class PooledArrays
+{
+    /** @param field PVA array
+     *  @return {@link ListDouble}
+     */
+    public static ListDouble of(final PVADoubleArray field)
+    {
+        final PooledArray pooled = field.getPooled();
+        if (pooled == null)
+            return ArrayDouble.of(field.get());
+        return new ListDouble()
+        {
+            @Override
+            public int size()
+            {
+                return pooled.size();
+            }
+
+            @Override
+            public double getDouble(final int index)
+            {
+                return pooled.getDouble(index);
+            }
+        };
+    }
+
+    /** @param field PVA array
+     *  @return {@link ListFloat}
+     */
+    public static ListFloat of(final PVAFloatArray field)
+    {
+        final PooledArray pooled = field.getPooled();
+        if (pooled == null)
+            return ArrayFloat.of(field.get());
+        return new ListFloat()
+        {
+            @Override
+            public int size()
+            {
+                return pooled.size();
+            }
+
+            @Override
+            public float getFloat(final int index)
+            {
+                return pooled.getFloat(index);
+            }
+        };
+    }
+
+    /** @param field PVA array, signed
+     *  @return {@link ListInteger}
+     */
+    public static ListInteger of(final PVAIntArray field)
+    {
+        final PooledArray pooled = field.getPooled();
+        if (pooled == null)
+            return ArrayInteger.of(field.get());
+        return new ListInteger()
+        {
+            @Override
+            public int size()
+            {
+                return pooled.size();
+            }
+
+            @Override
+            public int getInt(final int index)
+            {
+                return pooled.getInt(index);
+            }
+        };
+    }
+
+    /** @param field PVA array, unsigned
+     *  @return {@link ListUInteger}
+     */
+    public static ListUInteger ofUnsigned(final PVAIntArray field)
+    {
+        final PooledArray pooled = field.getPooled();
+        if (pooled == null)
+            return ArrayUInteger.of(field.get());
+        return new ListUInteger()
+        {
+            @Override
+            public int size()
+            {
+                return pooled.size();
+            }
+
+            @Override
+            public int getInt(final int index)
+            {
+                return pooled.getInt(index);
+            }
+        };
+    }
+
+    /** @param field PVA array, signed
+     *  @return {@link ListShort}
+     */
+    public static ListShort of(final PVAShortArray field)
+    {
+        final PooledArray pooled = field.getPooled();
+        if (pooled == null)
+            return ArrayShort.of(field.get());
+        return new ListShort()
+        {
+            @Override
+            public int size()
+            {
+                return pooled.size();
+            }
+
+            @Override
+            public short getShort(final int index)
+            {
+                return pooled.getShort(index);
+            }
+        };
+    }
+
+    /** @param field PVA array, unsigned
+     *  @return {@link ListUShort}
+     */
+    public static ListUShort ofUnsigned(final PVAShortArray field)
+    {
+        final PooledArray pooled = field.getPooled();
+        if (pooled == null)
+            return ArrayUShort.of(field.get());
+        return new ListUShort()
+        {
+            @Override
+            public int size()
+            {
+                return pooled.size();
+            }
+
+            @Override
+            public short getShort(final int index)
+            {
+                return pooled.getShort(index);
+            }
+        };
+    }
+
+    /** @param field PVA array, signed
+     *  @return {@link ListByte}
+     */
+    public static ListByte of(final PVAByteArray field)
+    {
+        final PooledArray pooled = field.getPooled();
+        if (pooled == null)
+            return ArrayByte.of(field.get());
+        return new ListByte()
+        {
+            @Override
+            public int size()
+            {
+                return pooled.size();
+            }
+
+            @Override
+            public byte getByte(final int index)
+            {
+                return pooled.getByte(index);
+            }
+        };
+    }
+
+    /** @param field PVA array, unsigned
+     *  @return {@link ListUByte}
+     */
+    public static ListUByte ofUnsigned(final PVAByteArray field)
+    {
+        final PooledArray pooled = field.getPooled();
+        if (pooled == null)
+            return ArrayUByte.of(field.get());
+        return new ListUByte()
+        {
+            @Override
+            public int size()
+            {
+                return pooled.size();
+            }
+
+            @Override
+            public byte getByte(final int index)
+            {
+                return pooled.getByte(index);
+            }
+        };
+    }
+}
@@ -0,0 +1,520 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.pva;
+
+import static org.phoebus.pv.PV.logger;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+import org.epics.pva.client.ClientChannelState;
+import org.epics.pva.client.PVAChannel;
+import org.epics.pva.data.PVAStructure;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.Time;
+import org.epics.vtype.VString;
+import org.epics.vtype.VType;
+
+/** PVA channel shared by all {@link PVA_PV}s for the same channel name
+ *
+ *  <p>"pva://X", "pva://X/value" and "pva://X?request=field(value,alarm)"
+ *  all read from channel "X".
+ *  Instead of each PV opening its own channel and monitor,
+ *  they share one channel with one monitor
+ *  for the union of the fields that the PVs request.
+ *  When a PV is added that requests fields not covered by the current monitor,
+ *  the monitor is replaced by one for the extended union.
+ *
+ *  <p>PVs that decode the same field, for example "pva://X" and "pva://X?request=field()",
+ *  form a group which decodes each update once.
+ *
+ *  <p>PV listeners are never invoked while holding a lock,
+ *  since they may in turn add or remove PVs.
+ *  Values, disconnects and access rights are determined while holding the lock
+ *  and then delivered to the PVs after releasing it.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+class SharedChannel
+{
+    /** Shared channels by channel name, SYNC on channels */
+    private static final Map<String, SharedChannel> channels = new HashMap<>();
+
+    /** Number of active monitors */
+    private static final AtomicInteger monitors = new AtomicInteger();
+
+    /** PVs that decode the same field of the data */
+    private static class Group
+    {
+        final PVNameHelper name_helper;
+        /** Decoder for NTScalar updates, <code>null</code> when PVs address a sub-field or array element */
+        final NTScalarDecoder scalar_decoder;
+        final List<PVA_PV> pvs = new ArrayList<>();
+        /** Queue for de-compressing images, created when needed */
+        ImageDecodeQueue images = null;
+        /** Last value, <code>null</code> while unknown */
+        VType value = null;
+
+        Group(final PVNameHelper name_helper)
+        {
+            this.name_helper = name_helper;
+            scalar_decoder = name_helper.getField().equals("value")  &&  name_helper.getElementIndex().isEmpty()
+                           ? new NTScalarDecoder()
+                           : null;
+        }
+
+        /** @param data Received data
+         *  @return Does group decode an image from that data?
+         */
+        boolean isImage(final PVAStructure data)
+        {
+            return name_helper.getField().equals("value")  &&
+                   name_helper.getElementIndex().isEmpty()  &&
+                   data.getStructureName().endsWith("NTNDArray:1.0");
+        }
+
+        VType decode(final PVAStructure data, final BitSet changes) throws Exception
+        {
+            // Use fast path for NTScalar, falling back to generic decoder
+            VType value = scalar_decoder == null ? null : scalar_decoder.decode(data, changes);
+            if (value == null)
+                value = PVAStructureHelper.getVType(data, name_helper);
+            return value;
+        }
+    }
+
+    private final String name;
+    private final PVAChannel channel;
+
+    // SYNC on this
+    /** Groups by decoded field */
+    private final Map<String, Group> groups = new LinkedHashMap<>();
+    private boolean connected = false;
+    private boolean writable = false;
+    /** Request of the current monitor, <code>null</code> when not subscribed */
+    private String request = null;
+    private AutoCloseable subscription = null;
+    /** Data of the current monitor, <code>null</code> until the first update */
+    private PVAStructure monitor_data = null;
+
+    /** Set when the last PV has been removed. Closed channel is no longer used */
+    private volatile boolean closed = false;
+
+    /** @param pv PV to add
+     *  @return {@link SharedChannel} for the PV's channel
+     *  @throws Exception on error
+     */
+    static SharedChannel add(final PVA_PV pv) throws Exception
+    {
+        final String name = pv.name_helper.getChannel();
+        while (true)
+        {
+            SharedChannel shared;
+            synchronized (channels)
+            {
+                shared = channels.get(name);
+                if (shared == null  ||  shared.closed)
+                {
+                    shared = new SharedChannel(name);
+                    channels.put(name, shared);
+                }
+            }
+            // Last PV of the channel may have been removed since the lookup,
+            // closing the channel. In that case, try again with a new one
+            if (shared.addPV(pv))
+                return shared;
+        }
+    }
+
+    /** @param pv PV to remove */
+    void remove(final PVA_PV pv)
+    {
+        if (! removePV(pv))
+            return;
+        synchronized (channels)
+        {
+            channels.remove(name, this);
+        }
+        close();
+    }
+
+    /** @return Number of open PVA channels used by PVs */
+    static int getChannelCount()
+    {
+        synchronized (channels)
+        {
+            return channels.size();
+        }
+    }
+
+    /** @return Number of active PVA monitors used by PVs */
+    static int getMonitorCount()
+    {
+        return monitors.get();
+    }
+
+    private SharedChannel(final String name) throws Exception
+    {
+        this.name = name;
+        channel = PVA_Context.getInstance().getClient().getChannel(name,
+                                                                   this::channelStateChanged,
+                                                                   this::accessRightsChanged);
+    }
+
+    /** @return Underlying {@link PVAChannel} */
+    PVAChannel getChannel()
+    {
+        return channel;
+    }
+
+    /** @param name_helper Name of PV
+     *  @return Key for the group that decodes the same data
+     */
+    private static String getKey(final PVNameHelper name_helper)
+    {
+        return name_helper.getField() + name_helper.getElementIndex().map(i -> "[" + i + "]").orElse("");
+    }
+
+    /** @param requests Requests "field()", "field(a.b)", "field(value,alarm)", ...
+     *  @return Request for the union of all fields
+     */
+    static String union(final Collection<String> requests)
+    {
+        final TreeSet<String> fields = new TreeSet<>();
+        for (String request : requests)
+        {
+            String spec = request.trim();
+            if (spec.startsWith("field("))
+                spec = spec.substring(6, spec.lastIndexOf(')') < 0 ? spec.length() : spec.lastIndexOf(')'));
+            if (spec.isBlank())
+                return "field()";
+            for (String field : spec.split(","))
+                if (! field.isBlank())
+                    fields.add(field.trim());
+        }
+        // Sorted, so "a" is followed by "a.b", which it already covers
+        final List<String> covering = new ArrayList<>();
+        for (String field : fields)
+        {
+            final String last = covering.isEmpty() ? null : covering.get(covering.size()-1);
+            if (last == null  ||  ! field.startsWith(last + "."))
+                covering.add(field);
+        }
+        return "field(" + String.join(",", covering) + ")";
+    }
+
+    /** @return Union of the requests of all PVs */
+    private String getUnion()
+    {
+        // PVs in the same group may still use different requests,
+        // for example "pva://X" with "field()" and "pva://X/value" with "field(value)"
+        final List<String> requests = new ArrayList<>();
+        for (Group group : groups.values())
+            for (PVA_PV pv : group.pvs)
+                requests.add(pv.name_helper.getRequest());
+        return union(requests);
+    }
+
+    /** @param pvs PVs to update
+     *  @param value Value to send to PVs, outside of lock
+     */
+    private static void notifyValue(final List<PVA_PV> pvs, final VType value)
+    {
+        for (PVA_PV pv : pvs)
+            pv.handleValue(value);
+    }
+
+    /** @param pv PV to add
+     *  @return <code>false</code> if this channel has been closed
+     */
+    private boolean addPV(final PVA_PV pv)
+    {
+        final boolean is_writable;
+        VType initial_value = null;
+        synchronized (this)
+        {
+            if (closed)
+                return false;
+            final String key = getKey(pv.name_helper);
+            Group group = groups.get(key);
+            final boolean new_group = group == null;
+            if (new_group)
+            {
+                group = new Group(pv.name_helper);
+                groups.put(key, group);
+            }
+            group.pvs.add(pv);
+            is_writable = writable;
+
+            if (connected)
+            {
+                // Is the new request covered by the current monitor?
+                final String union = getUnion();
+                if (! union.equals(request))
+                    subscribe(union);
+                else if (! new_group)
+                    // Use last value of group
+                    initial_value = group.value;
+                else
+                    readInitialValue(group, pv.name_helper.getRequest());
+            }
+        }
+        pv.accessRightsChanged(is_writable);
+        if (initial_value != null)
+            pv.handleValue(initial_value);
+        return true;
+    }
+
+    /** Fields are in the monitor, but nobody decoded them, yet.
+     *  Monitor data may be updated by another thread, so read once for the initial value.
+     *  If the read fails, decode the latest monitor data.
+     *  @param group Group that needs a value
+     *  @param request Request for reading the group's data
+     */
+    private void readInitialValue(final Group group, final String request)
+    {
+        channel.read(request).whenComplete((read_data, error) ->
+        {
+            VType value;
+            final List<PVA_PV> pvs;
+            synchronized (SharedChannel.this)
+            {
+                if (group.value != null  ||  group.pvs.isEmpty())
+                    return;
+                PVAStructure data = read_data;
+                if (error != null)
+                {
+                    logger.log(Level.WARNING, "Cannot read initial value of " + channel + " for " + request, error);
+                    // Receive thread might be updating the monitor data right now,
+                    // but then handleMonitor() will decode the complete update next
+                    data = monitor_data;
+                    if (data == null)
+                        return;
+                }
+                try
+                {
+                    value = group.decode(data, null);
+                }
+                catch (Exception ex)
+                {
+                    logger.log(Level.WARNING, "Cannot decode " + channel + " = " + data, ex);
+                    value = VString.of("Cannot decode " + data.formatType(), Alarm.noValue(), Time.now());
+                }
+                group.value = value;
+                pvs = List.copyOf(group.pvs);
+            }
+            notifyValue(pvs, value);
+        });
+    }
+
+    /** @param pv PV to remove
+     *  @return <code>true</code> if that was the last PV, so channel needs to be closed
+     */
+    private synchronized boolean removePV(final PVA_PV pv)
+    {
+        final String key = getKey(pv.name_helper);
+        final Group group = groups.get(key);
+        if (group != null  &&  group.pvs.remove(pv)  &&  group.pvs.isEmpty())
+            groups.remove(key);
+        // Keep monitor for the remaining PVs, even if they need fewer fields
+        if (! groups.isEmpty()  ||  closed)
+            return false;
+        closed = true;
+        return true;
+    }
+
+    /** @param union Request for the new monitor */
+    private void subscribe(final String union)
+    {
+        unsubscribe();
+        try
+        {
+            request = union;
+            subscription = channel.subscribe(union, this::handleMonitor);
+            monitors.incrementAndGet();
+            logger.log(Level.FINE, () -> "PVA channel " + name + " subscribed to " + union);
+        }
+        catch (Exception ex)
+        {
+            logger.log(Level.WARNING, "Cannot subscribe to " + channel, ex);
+        }
+    }
+
+    private void unsubscribe()
+    {
+        if (subscription == null)
+            return;
+        try
+        {
+            subscription.close();
+        }
+        catch (Exception ex)
+        {
+            logger.log(Level.WARNING, "Cannot unsubscribe from " + channel, ex);
+        }
+        subscription = null;
+        request = null;
+        monitor_data = null;
+        monitors.decrementAndGet();
+    }
+
+    private void channelStateChanged(final PVAChannel channel, final ClientChannelState state)
+    {
+        List<PVA_PV> disconnected = List.of();
+        synchronized (this)
+        {
+            if (state == ClientChannelState.CONNECTED)
+            {   // When connected, subscribe to updates
+                connected = true;
+                if (! groups.isEmpty())
+                    subscribe(getUnion());
+            }
+            else if (connected)
+            {   // Was connected, so now disconnected
+                connected = false;
+                unsubscribe();
+                disconnected = disconnectAll();
+            }
+        }
+        for (PVA_PV pv : disconnected)
+            pv.handleDisconnect();
+    }
+
+    /** Clear values of all groups
+     *  @return PVs to notify of the disconnect once outside of lock
+     */
+    private List<PVA_PV> disconnectAll()
+    {
+        monitor_data = null;
+        final List<PVA_PV> pvs = new ArrayList<>();
+        for (Group group : groups.values())
+        {
+            if (group.images != null)
+                group.images.clear();
+            group.value = null;
+            pvs.addAll(group.pvs);
+        }
+        return pvs;
+    }
+
+    private void accessRightsChanged(final PVAChannel channel, final boolean is_writable)
+    {
+        final List<PVA_PV> pvs = new ArrayList<>();
+        synchronized (this)
+        {
+            writable = is_writable;
+            for (Group group : groups.values())
+                pvs.addAll(group.pvs);
+        }
+        for (PVA_PV pv : pvs)
+            pv.accessRightsChanged(is_writable);
+    }
+
+    private void handleMonitor(final PVAChannel channel,
+                               final BitSet changes,
+                               final BitSet overruns,
+                               final PVAStructure data)
+    {
+        if (data == null)
+        {
+            // The PVA protocol allows the server to 'destroy' a monitor.
+            // This higher-level client library aims to establish only
+            // one subscription per channel, and when the server cancels it,
+            // all we can do is indicate this similar to a disconnect,
+            // since the client won't receive any more data,
+            // with a log message that explains what happened.
+            logger.log(Level.WARNING, "Server ends subscription for " + channel);
+            final List<PVA_PV> disconnected;
+            synchronized (this)
+            {
+                disconnected = disconnectAll();
+            }
+            for (PVA_PV pv : disconnected)
+                pv.handleDisconnect();
+            return;
+        }
+
+        // Decode value of each group, then notify PVs outside of lock
+        final List<List<PVA_PV>> group_pvs = new ArrayList<>();
+        final List<VType> group_values = new ArrayList<>();
+        synchronized (this)
+        {
+            monitor_data = data;
+            for (Group group : groups.values())
+            {
+                try
+                {
+                    if (ImageDecodeQueue.isEnabled()  &&  group.isImage(data))
+                    {
+                        final ImageDecoder.Frame frame = ImageDecoder.prepare(data);
+                        if (frame.isCompressed())
+                        {   // Decode off the receive thread, deliver when done
+                            if (group.images == null)
+                            {
+                                final Group image_group = group;
+                                group.images = new ImageDecodeQueue(name, image -> handleImage(image_group, image));
+                            }
+                            group.images.submit(frame);
+                            continue;
+                        }
+                        group.value = frame.decode(null);
+                    }
+                    else
+                        group.value = group.decode(data, changes);
+                }
+                catch (Exception ex)
+                {
+                    logger.log(Level.WARNING, "Cannot decode " + channel + " = " + data, ex);
+                    group.value = VString.of("Cannot decode " + data.formatType(), Alarm.noValue(), Time.now());
+                }
+                group_pvs.add(List.copyOf(group.pvs));
+                group_values.add(group.value);
+            }
+        }
+        for (int i=0; i<group_pvs.size(); ++i)
+            notifyValue(group_pvs.get(i), group_values.get(i));
+    }
+
+    /** @param group Group that requested the image
+     *  @param image Image decoded by {@link ImageDecodeQueue}
+     */
+    private void handleImage(final Group group, final VType image)
+    {
+        final List<PVA_PV> pvs;
+        synchronized (this)
+        {
+            // Ignore image that arrives after disconnect or last PV of group was closed
+            if (! connected  ||  group.pvs.isEmpty())
+                return;
+            group.value = image;
+            pvs = List.copyOf(group.pvs);
+        }
+        notifyValue(pvs, image);
+    }
+
+    private synchronized void close()
+    {
+        unsubscribe();
+        channel.close();
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return "Shared PVA channel " + name + ", request " + request + ", " + groups.size() + " groups";
+    }
+}
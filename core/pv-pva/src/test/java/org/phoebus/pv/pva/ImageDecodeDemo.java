@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.pva;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.compress.compressors.lz4.BlockLZ4CompressorOutputStream;
+import org.epics.pva.data.PVABool;
+import org.epics.pva.data.PVAByteArray;
+import org.epics.pva.data.PVADouble;
+import org.epics.pva.data.PVAInt;
+import org.epics.pva.data.PVAString;
+import org.epics.pva.data.PVAStructure;
+import org.epics.pva.data.PVAStructureArray;
+import org.epics.pva.data.PVAUnion;
+import org.epics.pva.data.PVAny;
+import org.epics.pva.data.nt.PVAAlarm;
+import org.epics.pva.data.nt.PVATimeStamp;
+import org.epics.pva.server.PVAServer;
+import org.epics.pva.server.ServerPV;
+import org.epics.vtype.VImage;
+import org.phoebus.pv.PV;
+import org.phoebus.pv.PVMetrics;
+import org.phoebus.pv.PVPool;
+
+/** Demo of de-compressing NTNDArray images off the receive thread
+ *
+ *  <p>Serves LZ4-compressed 16 bit images at 30 Hz
+ *  together with a counter that updates at 100 Hz
+ *  on the same connection.
+ *  The counter should keep updating at its full rate
+ *  while images are decoded by the image decode threads,
+ *  with stale images dropped when the decoder falls behind.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class ImageDecodeDemo
+{
+    private static final int WIDTH = 2048, HEIGHT = 2048;
+    private static final int SECONDS = 5;
+
+    /** @param frame Frame number
+     *  @return LZ4-compressed little endian ushort pixels
+     */
+    private static byte[] createImage(final int frame) throws Exception
+    {
+        final ByteBuffer pixels = ByteBuffer.allocate(WIDTH * HEIGHT * Short.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int y=0; y<HEIGHT; ++y)
+            for (int x=0; x<WIDTH; ++x)
+                pixels.putShort((short) ((x + y + frame) % 4096));
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (BlockLZ4CompressorOutputStream out = new BlockLZ4CompressorOutputStream(compressed))
+        {
+            out.write(pixels.array());
+        }
+        return compressed.toByteArray();
+    }
+
+    private static PVAStructure createDimension(final int size)
+    {
+        return new PVAStructure("", "dimension_t",
+                                new PVAInt("size", size),
+                                new PVAInt("offset", 0),
+                                new PVAInt("fullSize", size),
+                                new PVAInt("binning", 1),
+                                new PVABool("reverse", false));
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        System.setProperty("EPICS_PVA_ADDR_LIST", "127.0.0.1");
+        System.setProperty("EPICS_PVA_AUTO_ADDR_LIST", "NO");
+
+        // A few pre-compressed images to cycle through
+        final byte[][] images = new byte[4][];
+        for (int i=0; i<images.length; ++i)
+            images[i] = createImage(i * 100);
+        System.out.println("Image of " + WIDTH + " x " + HEIGHT + " ushort compressed into " + images[0].length + " bytes");
+
+        final PVAByteArray pixels = new PVAByteArray("ubyteValue", true, images[0]);
+        final PVATimeStamp image_time = new PVATimeStamp();
+        final PVAStructure image = new PVAStructure("", "epics:nt/NTNDArray:1.0",
+                                                    new PVAUnion("value", "", 0, pixels),
+                                                    new PVAStructure("codec", "codec_t",
+                                                                     new PVAString("name", "lz4"),
+                                                                     // Original data type 6 = ushort
+                                                                     new PVAny("parameters", new PVAInt("", false, 6))),
+                                                    new PVAStructureArray("dimension", createDimension(WIDTH),
+                                                                          createDimension(WIDTH), createDimension(HEIGHT)),
+                                                    new PVAAlarm(),
+                                                    image_time);
+
+        final PVADouble counter = new PVADouble("value", 0.0);
+        final PVATimeStamp counter_time = new PVATimeStamp();
+        final PVAStructure count = new PVAStructure("", "epics:nt/NTScalar:1.0",
+                                                    counter,
+                                                    new PVAAlarm(),
+                                                    counter_time);
+        try
+        (
+            PVAServer server = new PVAServer();
+            ServerPV served_image = server.createPV("image_demo", image);
+            ServerPV served_counter = server.createPV("counter_demo", count);
+        )
+        {
+            final AtomicInteger received_images = new AtomicInteger(), received_counts = new AtomicInteger();
+            final PV image_pv = PVPool.getPV("pva://image_demo");
+            image_pv.onValueEvent().subscribe(value ->
+            {
+                if (value instanceof VImage)
+                    received_images.incrementAndGet();
+            });
+            final PV counter_pv = PVPool.getPV("pva://counter_demo");
+            counter_pv.onValueEvent().subscribe(value -> received_counts.incrementAndGet());
+            TimeUnit.SECONDS.sleep(1);
+            received_images.set(0);
+            received_counts.set(0);
+
+            final long end = System.currentTimeMillis() + SECONDS * 1000;
+            int ticks = 0, sent_images = 0;
+            while (System.currentTimeMillis() < end)
+            {
+                counter.set(ticks);
+                counter_time.set(Instant.now());
+                served_counter.update(count);
+                if (ticks % 3 == 0)
+                {
+                    pixels.set(images[sent_images % images.length]);
+                    image_time.set(Instant.now());
+                    served_image.update(image);
+                    ++sent_images;
+                }
+                ++ticks;
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+            TimeUnit.SECONDS.sleep(1);
+
+            final PVMetrics.Histogram decode = ImageDecodeQueue.getDecodeTime();
+            System.out.format("Counter: Sent %d, received %d updates\n", ticks, received_counts.get());
+            System.out.format("Images : Sent %d, received %d, dropped %d\n",
+                              sent_images, received_images.get(), ImageDecodeQueue.getDroppedFrames());
+            System.out.format("Decode : %.1f ms average, %.1f ms max, 99%% below %.1f ms\n",
+                              decode.getAverage(), decode.getMax(), decode.getPercentile(0.99));
+
+            PVPool.releasePV(counter_pv);
+            PVPool.releasePV(image_pv);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.pva;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.BitSet;
+
+import org.epics.pva.data.PVABitSet;
+import org.epics.pva.data.PVADouble;
+import org.epics.pva.data.PVAStructure;
+import org.epics.pva.data.PVATypeRegistry;
+import org.epics.pva.data.nt.PVAAlarm;
+import org.epics.pva.data.nt.PVAControl;
+import org.epics.pva.data.nt.PVADisplay;
+import org.epics.pva.data.nt.PVATimeStamp;
+import org.epics.vtype.VType;
+
+/** Allocation profile of NTScalar monitor updates
+ *
+ *  <p>Decodes pre-encoded monitor updates that change value and time stamp,
+ *  as a PV receives them from a typical IOC record,
+ *  and reports bytes allocated per update
+ *  for the generic decode path and the {@link NTScalarDecoder}.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class MonitorDecodeAllocationDemo
+{
+    private static final int UPDATES = 1000;
+    private static final int RUNS = 2000;
+
+    @FunctionalInterface
+    private interface Decoder
+    {
+        VType decode(ByteBuffer buffer) throws Exception;
+    }
+
+    private static PVAStructure createData()
+    {
+        return new PVAStructure("", "epics:nt/NTScalar:1.0",
+                                new PVADouble("value", 3.14),
+                                new PVAAlarm(),
+                                new PVATimeStamp(),
+                                new PVADisplay(0, 10, "Demo", "mm", 3, PVADisplay.Form.DEFAULT),
+                                new PVAControl(0, 10, 0.1));
+    }
+
+    /** @return Buffer with encoded monitor updates */
+    private static ByteBuffer encodeUpdates() throws Exception
+    {
+        final PVAStructure source = createData();
+        final PVAStructure sent = source.cloneData();
+        final ByteBuffer buffer = ByteBuffer.allocate(UPDATES * 100);
+        final BitSet no_overrun = new BitSet();
+        for (int i=0; i<UPDATES; ++i)
+        {
+            final PVADouble value = source.get("value");
+            value.set(i);
+            final PVATimeStamp time = source.get("timeStamp");
+            time.set(Instant.ofEpochSecond(1700000000L + i, i));
+            final BitSet changes = sent.update(source);
+            PVABitSet.encodeBitSet(changes, buffer);
+            for (int index = changes.nextSetBit(0); index >= 0; index = changes.nextSetBit(index + 1))
+                sent.get(index).encode(buffer);
+            PVABitSet.encodeBitSet(no_overrun, buffer);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void profile(final String name, final Decoder decoder) throws Exception
+    {
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final ByteBuffer buffer = encodeUpdates();
+        double last = 0;
+        // Warm up, then measure
+        for (int pass=0; pass<2; ++pass)
+        {
+            final long bytes = threads.getCurrentThreadAllocatedBytes();
+            final long start = System.nanoTime();
+            for (int run=0; run<RUNS; ++run)
+            {
+                buffer.rewind();
+                for (int i=0; i<UPDATES; ++i)
+                    last += ((org.epics.vtype.VNumber) decoder.decode(buffer)).getValue().doubleValue();
+            }
+            final long ns = System.nanoTime() - start;
+            final long allocated = threads.getCurrentThreadAllocatedBytes() - bytes;
+            if (pass > 0)
+                System.out.format("%-30s: %6.1f bytes/update, %6.1f ns/update\n",
+                                  name,
+                                  allocated / (double) (RUNS * UPDATES),
+                                  ns / (double) (RUNS * UPDATES));
+        }
+        if (last < 0)
+            System.out.println(last);
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        final PVATypeRegistry types = new PVATypeRegistry();
+        final PVNameHelper name_helper = PVNameHelper.forName("demo");
+
+        // Generic path: New bit sets, decode all of the VType
+        final PVAStructure generic_data = createData();
+        profile("Generic decode", buffer ->
+        {
+            final BitSet changes = PVABitSet.decodeBitSet(buffer);
+            generic_data.decodeElements(changes, types, buffer);
+            PVABitSet.decodeBitSet(buffer);
+            return PVAStructureHelper.getVType(generic_data, name_helper);
+        });
+
+        // Re-used bit sets, cached alarm and display
+        final PVAStructure data = createData();
+        final BitSet changes = new BitSet(), overrun = new BitSet();
+        final NTScalarDecoder scalar_decoder = new NTScalarDecoder();
+        profile("NTScalar decode", buffer ->
+        {
+            PVABitSet.decodeBitSet(buffer, changes);
+            data.decodeElements(changes, types, buffer);
+            PVABitSet.decodeBitSet(buffer, overrun);
+            return scalar_decoder.decode(data, changes);
+        });
+    }
+}
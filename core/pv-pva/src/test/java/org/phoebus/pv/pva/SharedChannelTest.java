@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.pva;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.epics.pva.data.PVADouble;
+import org.epics.pva.data.PVAStructure;
+import org.epics.pva.data.nt.PVAAlarm;
+import org.epics.pva.data.nt.PVATimeStamp;
+import org.epics.pva.server.PVAServer;
+import org.epics.pva.server.ServerPV;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.AlarmSeverity;
+import org.epics.vtype.VType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.phoebus.core.vtypes.VTypeHelper;
+import org.phoebus.pv.PV;
+import org.phoebus.pv.PVPool;
+
+import io.reactivex.rxjava3.disposables.Disposable;
+
+/** JUnit test of the {@link SharedChannel}
+ *
+ *  <p>Serves data from a local PVA server.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class SharedChannelTest
+{
+    private static PVAServer server;
+    private static PVADouble value;
+    private static PVAStructure data;
+    private static ServerPV served;
+
+    @BeforeAll
+    public static void startServer() throws Exception
+    {
+        System.setProperty("EPICS_PVA_ADDR_LIST", "127.0.0.1");
+        System.setProperty("EPICS_PVA_AUTO_ADDR_LIST", "NO");
+        value = new PVADouble("value", 0.0);
+        data = new PVAStructure("test", "epics:nt/NTScalar:1.0",
+                                value,
+                                new PVAAlarm(),
+                                new PVATimeStamp());
+        server = new PVAServer();
+        served = server.createPV("shared_test", data);
+    }
+
+    @AfterAll
+    public static void stopServer()
+    {
+        served.close();
+        server.close();
+    }
+
+    private static void update(final double number) throws Exception
+    {
+        value.set(number);
+        served.update(data);
+    }
+
+    private static void await(final BooleanSupplier condition, final String what) throws Exception
+    {
+        final long end = System.currentTimeMillis() + 10000;
+        while (! condition.getAsBoolean())
+        {
+            if (System.currentTimeMillis() > end)
+                throw new Exception("Timeout waiting for " + what);
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    @Test
+    public void testUnion()
+    {
+        assertEquals("field()", SharedChannel.union(List.of("field()")));
+        assertEquals("field()", SharedChannel.union(List.of("field(value)", "")));
+        assertEquals("field()", SharedChannel.union(List.of("field(value)", "field()")));
+        // Sorted, duplicates removed
+        assertEquals("field(alarm,value)", SharedChannel.union(List.of("field(value)", "field(alarm, value)")));
+        // Field covers its sub-fields
+        assertEquals("field(timeStamp,value)",
+                     SharedChannel.union(List.of("field(timeStamp.nanoseconds)", "field(value)", "field(timeStamp)")));
+        assertEquals("field(display.limitHigh,display.limitLow)",
+                     SharedChannel.union(List.of("field(display.limitLow)", "field(display.limitHigh)")));
+        // .. but not other fields that start with the same characters
+        assertEquals("field(value,valueAlarm)", SharedChannel.union(List.of("field(valueAlarm)", "field(value)")));
+    }
+
+    @Test
+    @Timeout(60)
+    public void testSharing() throws Exception
+    {
+        update(1.0);
+        final Map<String, VType> values = new ConcurrentHashMap<>();
+        final List<PV> pvs = new ArrayList<>();
+        final List<Disposable> flows = new ArrayList<>();
+        try
+        {
+            // These PVs all decode the 'value' field
+            for (String name : List.of("pva://shared_test", "pva://shared_test/value", "pva://shared_test?request=field()"))
+            {
+                final PV pv = PVPool.getPV(name);
+                pvs.add(pv);
+                flows.add(pv.onValueEvent().subscribe(v -> values.put(name, v)));
+            }
+            await(() -> values.size() == 3, "initial values");
+            for (VType v : values.values())
+                assertEquals(1.0, VTypeHelper.toDouble(v));
+            assertEquals(1, SharedChannel.getChannelCount());
+            assertEquals(1, SharedChannel.getMonitorCount());
+
+            // Each update reaches all PVs
+            update(2.0);
+            await(() -> values.values().stream().allMatch(v -> VTypeHelper.toDouble(v) == 2.0), "update");
+
+            // PV for a sub-field extends the monitor, still one channel and monitor
+            final String time_name = "pva://shared_test/timeStamp/userTag";
+            final PV time = PVPool.getPV(time_name);
+            pvs.add(time);
+            flows.add(time.onValueEvent().subscribe(v -> values.put(time_name, v)));
+            await(() -> values.containsKey(time_name), "sub-field value");
+            assertEquals(1, SharedChannel.getChannelCount());
+            assertEquals(1, SharedChannel.getMonitorCount());
+
+            // New member of existing group gets the last value
+            final String late_name = "pva://shared_test?request=field(value)";
+            final PV late = PVPool.getPV(late_name);
+            pvs.add(late);
+            flows.add(late.onValueEvent().subscribe(v -> values.put(late_name, v)));
+            await(() -> values.containsKey(late_name), "value for PV added later");
+            assertEquals(2.0, VTypeHelper.toDouble(values.get(late_name)));
+
+            // New group for a field that cannot be decoded still gets a value
+            final String bad_name = "pva://shared_test/no_such_field";
+            final PV bad = PVPool.getPV(bad_name);
+            pvs.add(bad);
+            flows.add(bad.onValueEvent().subscribe(v -> values.put(bad_name, v)));
+            await(() -> values.containsKey(bad_name), "value for field that cannot be decoded");
+            assertEquals(AlarmSeverity.INVALID, Alarm.alarmOf(values.get(bad_name)).getSeverity());
+        }
+        finally
+        {
+            for (Disposable flow : flows)
+                flow.dispose();
+            for (PV pv : pvs)
+                PVPool.releasePV(pv);
+        }
+        assertEquals(0, SharedChannel.getChannelCount());
+        assertEquals(0, SharedChannel.getMonitorCount());
+    }
+
+    @Test
+    @Timeout(60)
+    public void testListenerAddsPVs() throws Exception
+    {
+        // Listener that adds and removes a PV for the same channel,
+        // while another thread also adds and removes PVs for that channel.
+        // Must not deadlock.
+        final int updates = 200;
+        final AtomicInteger received = new AtomicInteger();
+        final AtomicBoolean run = new AtomicBoolean(true);
+        final PV pv = PVPool.getPV("pva://shared_test");
+        final Disposable flow = pv.onValueEvent().subscribe(v ->
+        {
+            final PV other = PVPool.getPV("pva://shared_test/timeStamp/nanoseconds");
+            PVPool.releasePV(other);
+            if (VTypeHelper.toDouble(v) >= 1000.0)
+                received.incrementAndGet();
+        });
+        final Thread thread = new Thread(() ->
+        {
+            try
+            {
+                while (run.get())
+                {
+                    final PV other = PVPool.getPV("pva://shared_test?request=field(alarm)");
+                    PVPool.releasePV(other);
+                }
+            }
+            catch (Exception ex)
+            {
+                ex.printStackTrace();
+            }
+        });
+        thread.start();
+        try
+        {
+            for (int i=0; i<updates; ++i)
+            {
+                update(1000.0 + i);
+                TimeUnit.MILLISECONDS.sleep(5);
+            }
+            await(() -> VTypeHelper.toDouble(pv.read()) == 1000.0 + updates - 1, "last update");
+            assertTrue(received.get() > 0);
+        }
+        finally
+        {
+            run.set(false);
+            thread.join();
+            flow.dispose();
+            PVPool.releasePV(pv);
+        }
+        assertEquals(0, SharedChannel.getChannelCount());
+    }
+}
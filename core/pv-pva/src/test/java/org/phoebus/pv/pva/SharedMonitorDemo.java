@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.pva;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.epics.pva.data.PVADouble;
+import org.epics.pva.data.PVAStructure;
+import org.epics.pva.data.nt.PVAAlarm;
+import org.epics.pva.data.nt.PVADisplay;
+import org.epics.pva.data.nt.PVATimeStamp;
+import org.epics.pva.server.PVAServer;
+import org.epics.pva.server.ServerPV;
+import org.phoebus.pv.PV;
+import org.phoebus.pv.PVPool;
+
+/** Demo of PVs that share one PVA channel and monitor
+ *
+ *  <p>Serves an NTScalar from a local PVA server
+ *  and reads it via several PVs that use different requests.
+ *  All of them share one channel, and the monitor
+ *  is extended as PVs with additional fields are added.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class SharedMonitorDemo
+{
+    public static void main(String[] args) throws Exception
+    {
+        System.setProperty("EPICS_PVA_ADDR_LIST", "127.0.0.1");
+        System.setProperty("EPICS_PVA_AUTO_ADDR_LIST", "NO");
+
+        final PVADouble value = new PVADouble("value", 0.0);
+        final PVATimeStamp time = new PVATimeStamp();
+        final PVAStructure data = new PVAStructure("demo", "epics:nt/NTScalar:1.0",
+                                                   value,
+                                                   new PVAAlarm(),
+                                                   time,
+                                                   new PVADisplay(0, 10, "Demo", "mm", 3, PVADisplay.Form.DEFAULT));
+        try
+        (
+            PVAServer server = new PVAServer();
+            ServerPV served = server.createPV("shared_demo", data);
+        )
+        {
+            final List<String> names = List.of("pva://shared_demo/value",
+                                               "pva://shared_demo?request=field()",
+                                               "pva://shared_demo",
+                                               "pva://shared_demo/timeStamp/secondsPastEpoch",
+                                               "pva://shared_demo?request=field(display.limitHigh)");
+            final List<PV> pvs = new ArrayList<>();
+            for (String name : names)
+            {
+                final PV pv = PVPool.getPV(name);
+                pvs.add(pv);
+                pv.onValueEvent().subscribe(v -> System.out.println(pv.getName() + " = " + v));
+                TimeUnit.MILLISECONDS.sleep(500);
+                System.out.println("Channels: " + SharedChannel.getChannelCount() +
+                                   ", monitors: " + SharedChannel.getMonitorCount());
+            }
+
+            for (int i=1; i<=3; ++i)
+            {
+                value.set(i);
+                time.set(Instant.now());
+                served.update(data);
+                TimeUnit.SECONDS.sleep(1);
+            }
+
+            for (PV pv : pvs)
+                PVPool.releasePV(pv);
+            TimeUnit.MILLISECONDS.sleep(500);
+            System.out.println("Channels: " + SharedChannel.getChannelCount() +
+                               ", monitors: " + SharedChannel.getMonitorCount());
+        }
+    }
+}
@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv;
+
+import static org.phoebus.pv.PV.logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+
+import org.epics.vtype.VType;
+import org.phoebus.pv.PVPool.TypedName;
+
+import io.reactivex.rxjava3.disposables.Disposable;
+
+/** Read the current value of many PVs
+ *
+ *  <p>Obtains PVs from the {@link PVPool},
+ *  waits for the first value that is not disconnected,
+ *  then releases the PV.
+ *
+ *  <p>PVs are created by a few shared threads,
+ *  with at most {@link PVPool#bulk_read_concurrency}
+ *  PVs per type connecting at the same time.
+ *  When a PV receives its value, it is released and the next PV of that type is created.
+ *  A PV that has no value after {@link PVPool#bulk_read_connect_timeout}
+ *  gives up its place to the next PV of that type,
+ *  so PVs that don't connect cannot block the remaining PVs,
+ *  but it is kept until the deadline in case it still receives a value.
+ *  One shared timer handles the connect timeouts and the deadline of each read:
+ *  PVs that have not received a value by the deadline are released
+ *  and PVs that have not been created, yet, are skipped.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+class BulkRead
+{
+    private static final AtomicInteger thread_count = new AtomicInteger();
+
+    /** Threads that create and release PVs */
+    private static final ExecutorService threads = Executors.newFixedThreadPool(
+        Math.max(1, PVPool.bulk_read_threads),
+        target ->
+        {
+            final Thread thread = new Thread(target, "PVBulkRead-" + thread_count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    /** Timer for the deadline of all reads */
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(target ->
+    {
+        final Thread thread = new Thread(target, "PVBulkReadTimer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Read of one PV */
+    private class Read
+    {
+        final int index;
+        final Protocol protocol;
+        // SYNC on this
+        PV pv = null;
+        Disposable flow = null;
+        ScheduledFuture<?> connect_timeout = null;
+        /** Does the read count towards the active PVs of its protocol? */
+        boolean connecting = true;
+        boolean released = false;
+
+        Read(final int index, final Protocol protocol)
+        {
+            this.index = index;
+            this.protocol = protocol;
+        }
+
+        /** @param value Value received from PV */
+        void handleValue(final VType value)
+        {
+            if (PV.isDisconnected(value)  ||  ! values.compareAndSet(index, null, value))
+                return;
+            // Release PV on other thread, not in PV's value notification
+            threads.execute(() -> release(this, true));
+        }
+    }
+
+    /** PVs of one type */
+    private static class Protocol
+    {
+        // SYNC on this
+        final Queue<Integer> pending = new ArrayDeque<>();
+        int active = 0;
+    }
+
+    /** Unique PV names */
+    private final List<String> names;
+
+    /** Value for each name, <code>null</code> until received */
+    private final AtomicReferenceArray<VType> values;
+
+    /** PVs that are not released */
+    private final Set<Read> active = ConcurrentHashMap.newKeySet();
+
+    /** Number of PVs that are not done */
+    private final AtomicInteger remaining;
+
+    private final CompletableFuture<Map<String, VType>> result = new CompletableFuture<>();
+
+    private final ScheduledFuture<?> deadline;
+
+    /** Set when deadline has passed to stop creating PVs */
+    private volatile boolean expired = false;
+
+    /** @param names PV names
+     *  @param timeout Time until the values must be received
+     *  @param unit Units of the timeout
+     *  @return {@link CompletableFuture} for map of PV name to value, <code>null</code> for PVs that did not provide a value
+     */
+    static CompletableFuture<Map<String, VType>> read(final Collection<String> names, final long timeout, final TimeUnit unit)
+    {
+        return new BulkRead(names, timeout, unit).result;
+    }
+
+    private BulkRead(final Collection<String> names, final long timeout, final TimeUnit unit)
+    {
+        this.names = new ArrayList<>(new LinkedHashSet<>(names));
+        values = new AtomicReferenceArray<>(this.names.size());
+        remaining = new AtomicInteger(this.names.size());
+
+        // Group PVs by type
+        final Map<String, Protocol> protocols = new HashMap<>();
+        for (int i=0; i<this.names.size(); ++i)
+        {
+            final String type = TypedName.analyze(this.names.get(i).trim()).type;
+            protocols.computeIfAbsent(type, t -> new Protocol()).pending.add(i);
+        }
+
+        deadline = timer.schedule(() -> threads.execute(this::expire), timeout, unit);
+        // Caller may cancel
+        result.whenComplete((map, error) ->
+        {
+            if (result.isCancelled())
+                threads.execute(this::expire);
+        });
+
+        if (this.names.isEmpty())
+            complete();
+        else
+            for (Protocol protocol : protocols.values())
+                threads.execute(() -> startNext(protocol));
+    }
+
+    /** Start reading PVs of a type until its limit is reached
+     *  @param protocol Protocol
+     */
+    private void startNext(final Protocol protocol)
+    {
+        while (! expired)
+        {
+            final Integer index;
+            synchronized (protocol)
+            {
+                if (protocol.active >= PVPool.bulk_read_concurrency)
+                    return;
+                index = protocol.pending.poll();
+                if (index == null)
+                    return;
+                ++protocol.active;
+            }
+            start(new Read(index, protocol));
+        }
+    }
+
+    /** @param read PV to read */
+    private void start(final Read read)
+    {
+        synchronized (read)
+        {
+            active.add(read);
+            // Deadline may have passed since startNext() checked
+            if (! expired)
+            {
+                final String name = names.get(read.index);
+                try
+                {
+                    read.pv = PVPool.getPV(name);
+                    // Value may already arrive in subscribe(),
+                    // but is released on other thread once this lock is released
+                    read.flow = read.pv.onValueEvent().subscribe(read::handleValue);
+                    read.connect_timeout = timer.schedule(() -> threads.execute(() -> stopConnecting(read)),
+                                                          Math.round(PVPool.bulk_read_connect_timeout * 1000),
+                                                          TimeUnit.MILLISECONDS);
+                    return;
+                }
+                catch (Exception ex)
+                {
+                    logger.log(Level.WARNING, "Cannot read PV '" + name + "'", ex);
+                }
+            }
+        }
+        release(read, false);
+    }
+
+    /** Connect timeout: Let next PV of the type start, but keep this one until the deadline
+     *  @param read PV that has no value, yet
+     */
+    private void stopConnecting(final Read read)
+    {
+        synchronized (read)
+        {
+            if (read.released  ||  ! read.connecting)
+                return;
+            read.connecting = false;
+        }
+        synchronized (read.protocol)
+        {
+            --read.protocol.active;
+        }
+        startNext(read.protocol);
+    }
+
+    /** @param read PV to release
+     *  @param next Start next PV of that type?
+     */
+    private void release(final Read read, final boolean next)
+    {
+        final boolean was_connecting;
+        synchronized (read)
+        {
+            if (read.released)
+                return;
+            read.released = true;
+            was_connecting = read.connecting;
+            read.connecting = false;
+            if (read.connect_timeout != null)
+                read.connect_timeout.cancel(false);
+            if (read.flow != null)
+                read.flow.dispose();
+            if (read.pv != null)
+                PVPool.releasePV(read.pv);
+        }
+        active.remove(read);
+        if (was_connecting)
+            synchronized (read.protocol)
+            {
+                --read.protocol.active;
+            }
+        if (remaining.decrementAndGet() <= 0)
+            complete();
+        else if (next  &&  was_connecting)
+            startNext(read.protocol);
+    }
+
+    /** Deadline passed or read was cancelled */
+    private void expire()
+    {
+        if (expired)
+            return;
+        expired = true;
+        final int missing = remaining.get();
+        if (missing > 0)
+            logger.log(Level.FINE, () -> "Bulk read of " + names.size() + " PVs timed out, " + missing + " PVs without value");
+        for (Read read : active)
+            release(read, false);
+        complete();
+    }
+
+    private void complete()
+    {
+        deadline.cancel(false);
+        final Map<String, VType> map = new LinkedHashMap<>();
+        for (int i=0; i<names.size(); ++i)
+            map.put(names.get(i), values.get(i));
+        result.complete(map);
+    }
+}
@@ -0,0 +1,322 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv;
+
+import static org.phoebus.pv.PV.logger;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+import javax.management.ObjectName;
+
+/** Dispatches PV events in batches
+ *
+ *  <p>Network client libraries invoke a callback for each received
+ *  monitor event.
+ *  Converting the received data into a VType and notifying
+ *  the PV's subscribers on that callback thread
+ *  delays the reception of the following events.
+ *  With an {@link EventBatcher}, the callback only places
+ *  an event into a ring buffer, and dispatcher threads
+ *  then convert and publish the events in batches.
+ *
+ *  <p>Events are partitioned by key, typically the PV,
+ *  and each partition is handled by one dispatcher thread,
+ *  so events for the same key are handled in the order
+ *  in which they were submitted.
+ *
+ *  <p>Batching adapts to the load:
+ *  When a dispatcher finds only a few queued events,
+ *  it waits up to the maximum latency for more events
+ *  before handling them all.
+ *  When many events are queued, it handles them right away.
+ *  When a ring buffer is full, the submitting thread
+ *  waits for the dispatcher, pushing back on the network
+ *  client as if it handled the events itself.
+ *
+ *  <p>Metrics of batch sizes and delays are published via JMX as
+ *  <code>org.phoebus.pv:type=EventBatcher,name=...</code>
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class EventBatcher
+{
+    /** Number of batch size buckets */
+    public static final int BATCH_BUCKETS = 20;
+
+    /** JMX interface for batch metrics */
+    public interface BatchMetricsMXBean
+    {
+        /** @return Number of dispatched events */
+        long getEvents();
+
+        /** @return Number of dispatched batches */
+        long getBatches();
+
+        /** @return Average number of events per batch */
+        double getAverageBatchSize();
+
+        /** @return Largest batch */
+        long getMaxBatchSize();
+
+        /** @return Count of batches by size: Bucket 0 for 1 event, bucket i for 2^i .. 2^(i+1)-1 events */
+        long[] getBatchSizeHistogram();
+
+        /** @return Average time between a dispatcher receiving the first event of a batch and handling the batch in milliseconds */
+        double getAverageDelayMillis();
+
+        /** @return Longest delay of a batch in milliseconds */
+        double getMaxDelayMillis();
+
+        /** @return Number of times that a submitter had to wait because a ring buffer was full */
+        long getProducerWaits();
+
+        /** @return Number of currently queued events */
+        int getQueued();
+    }
+
+    /** One ring buffer and its dispatcher thread */
+    private class Partition implements Runnable
+    {
+        private final ArrayBlockingQueue<Runnable> queue;
+        private final Thread thread;
+
+        Partition(final int index)
+        {
+            queue = new ArrayBlockingQueue<>(capacity);
+            thread = new Thread(this, name + "-batch-" + index);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void submit(final Runnable event)
+        {
+            if (queue.offer(event))
+                return;
+            // Full: Wake dispatcher, then wait for room
+            producer_waits.increment();
+            LockSupport.unpark(thread);
+            try
+            {
+                queue.put(event);
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+                logger.log(Level.WARNING, name + " event dropped on interrupt");
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            final List<Runnable> batch = new ArrayList<>();
+            while (! closed)
+            {
+                try
+                {
+                    batch.add(queue.take());
+                }
+                catch (InterruptedException ex)
+                {
+                    continue;
+                }
+                final long start = System.nanoTime();
+                // Few events queued? Give more events a chance to arrive
+                if (queue.size() < capacity / 2)
+                    LockSupport.parkNanos(this, max_latency_nanos);
+                queue.drainTo(batch);
+                final long delay = System.nanoTime() - start;
+                delay_nanos.add(delay);
+                max_delay_nanos.accumulate(delay);
+                // Update metrics before handling the events, so they're current
+                // once the (last) event has been handled
+                final int size = batch.size();
+                events.add(size);
+                batches.increment();
+                max_batch.accumulate(size);
+                batch_sizes[Math.min(BATCH_BUCKETS-1, 31 - Integer.numberOfLeadingZeros(size))].increment();
+
+                for (Runnable event : batch)
+                {
+                    try
+                    {
+                        event.run();
+                    }
+                    catch (Throwable ex)
+                    {
+                        logger.log(Level.WARNING, name + " event error", ex);
+                    }
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private final String name;
+    private final int capacity;
+    private final long max_latency_nanos;
+    private final Partition[] partitions;
+    private volatile boolean closed = false;
+
+    private final LongAdder events = new LongAdder(), batches = new LongAdder(), producer_waits = new LongAdder();
+    private final LongAdder delay_nanos = new LongAdder();
+    private final LongAccumulator max_batch = new LongAccumulator(Math::max, 0),
+                                  max_delay_nanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] batch_sizes = new LongAdder[BATCH_BUCKETS];
+    private final BatchMetricsMXBean metrics = new BatchMetricsMXBean()
+    {
+        @Override
+        public long getEvents()
+        {
+            return events.sum();
+        }
+
+        @Override
+        public long getBatches()
+        {
+            return batches.sum();
+        }
+
+        @Override
+        public double getAverageBatchSize()
+        {
+            final long n = batches.sum();
+            return n > 0 ? (double) events.sum() / n : 0.0;
+        }
+
+        @Override
+        public long getMaxBatchSize()
+        {
+            return max_batch.get();
+        }
+
+        @Override
+        public long[] getBatchSizeHistogram()
+        {
+            final long[] counts = new long[BATCH_BUCKETS];
+            for (int i=0; i<BATCH_BUCKETS; ++i)
+                counts[i] = batch_sizes[i].sum();
+            return counts;
+        }
+
+        @Override
+        public double getAverageDelayMillis()
+        {
+            final long n = batches.sum();
+            return n > 0 ? delay_nanos.sum() / 1e6 / n : 0.0;
+        }
+
+        @Override
+        public double getMaxDelayMillis()
+        {
+            return max_delay_nanos.get() / 1e6;
+        }
+
+        @Override
+        public long getProducerWaits()
+        {
+            return producer_waits.sum();
+        }
+
+        @Override
+        public int getQueued()
+        {
+            int queued = 0;
+            for (Partition partition : partitions)
+                queued += partition.queue.size();
+            return queued;
+        }
+    };
+    private ObjectName jmx_name = null;
+
+    /** @param name Name used for threads and JMX, for example the PV type "ca"
+     *  @param threads Number of dispatcher threads
+     *  @param capacity Size of the ring buffer for each thread
+     *  @param max_latency_ms Maximum time that a dispatcher waits for more events
+     */
+    public EventBatcher(final String name, final int threads, final int capacity, final double max_latency_ms)
+    {
+        this.name = name;
+        this.capacity = Math.max(2, capacity);
+        max_latency_nanos = Math.round(max_latency_ms * 1e6);
+        for (int i=0; i<BATCH_BUCKETS; ++i)
+            batch_sizes[i] = new LongAdder();
+        partitions = new Partition[Math.max(1, threads)];
+        for (int i=0; i<partitions.length; ++i)
+            partitions[i] = new Partition(i+1);
+
+        try
+        {
+            final ObjectName jmx = new ObjectName("org.phoebus.pv:type=EventBatcher,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, jmx);
+            jmx_name = jmx;
+        }
+        catch (Exception ex)
+        {
+            logger.log(Level.WARNING, "Cannot publish " + name + " event batcher metrics", ex);
+        }
+        logger.log(Level.CONFIG, () -> name + " events are dispatched by " + partitions.length +
+                                       " threads with up to " + max_latency_ms + " ms added latency");
+    }
+
+    /** @param key Key, typically the PV, that determines the partition
+     *  @param event Event to handle on a dispatcher thread, in order with other events for the same key
+     */
+    public void submit(final Object key, final Runnable event)
+    {
+        // Spread identity hash codes over partitions
+        final int hash = System.identityHashCode(key) * 0x9E3779B9;
+        partitions[(hash >>> 1) % partitions.length].submit(event);
+    }
+
+    /** @return Batch metrics */
+    public BatchMetricsMXBean getMetrics()
+    {
+        return metrics;
+    }
+
+    /** Stop dispatcher threads.
+     *  Events that are still queued are dropped.
+     */
+    public void close()
+    {
+        closed = true;
+        for (Partition partition : partitions)
+        {
+            partition.thread.interrupt();
+            try
+            {
+                partition.thread.join(TimeUnit.SECONDS.toMillis(5));
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (jmx_name != null)
+        {
+            try
+            {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(jmx_name);
+            }
+            catch (Exception ex)
+            {
+                logger.log(Level.WARNING, "Cannot remove " + name + " event batcher metrics", ex);
+            }
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017-2020 Oak Ridge National Laboratory.
+ * Copyright (c) 2017-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,7 @@ import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
@@ -70,6 +71,32 @@ public class PV
 
     final private List<ValueEventHandler.Subscription> value_subs = new CopyOnWriteArrayList<>();
 
+    /** Throttled subscriptions, grouped by update period.
+     *  SYNC on throttled_subs for add/remove
+     */
+    final private List<ThrottledValueDispatch> throttled_subs = new CopyOnWriteArrayList<>();
+
+    /** Number of values delivered to subscribers */
+    final AtomicLong delivered = new AtomicLong();
+
+    /** Number of values that throttled subscribers skipped because a newer value replaced them */
+    final AtomicLong conflated = new AtomicLong();
+
+    /** Number of value updates */
+    final AtomicLong updates = new AtomicLong();
+
+    /** Number of values that could not be delivered to a subscriber */
+    final AtomicLong dropped = new AtomicLong();
+
+    /** Metrics for the type of this PV */
+    final PVMetrics.Protocol metrics;
+
+    /** Time when PV was created, for {@link PVMetrics} of the connect time */
+    private final long created = System.nanoTime();
+
+    /** Has PV received a connected value? SYNC on value_notification_lock */
+    private boolean was_connected = false;
+
     final private List<AccessRightsEventHandler.Subscription> access_subs = new CopyOnWriteArrayList<>();
 
     /** Is PV read-only?
@@ -88,6 +115,7 @@ public class PV
     protected PV(final String name)
     {
         this.name = name;
+        metrics = PVMetrics.forPV(name);
     }
 
     /** @return PV name */
@@ -123,7 +151,10 @@ public class PV
         try
         {
             // Register subscription so we get notified of value updates
-            value_subs.add(value_sub);
+            if (value_sub.getPeriod() < 0)
+                value_subs.add(value_sub);
+            else
+                addThrottledSubscription(value_sub);
 
             // Lock prevents notifications right now,
             // avoiding double updates for an initial value
@@ -131,7 +162,10 @@ public class PV
             // If there is a known value, perform initial update
             final VType value = last_value;
             if (value != null)
+            {
                 value_sub.update(value);
+                delivered.incrementAndGet();
+            }
 
             // Lock also asserts that this initial update completes
             // before another update happens,
@@ -144,10 +178,42 @@ public class PV
         }
     }
 
+    /** @param value_sub Listener to add to the throttled dispatch for its period, which is created as needed */
+    private void addThrottledSubscription(final ValueEventHandler.Subscription value_sub)
+    {
+        final long period_ms = value_sub.getPeriod();
+        // Locate or create dispatch and add subscription while holding the lock,
+        // so removeSubscription() cannot remove the dispatch in between
+        synchronized (throttled_subs)
+        {
+            for (ThrottledValueDispatch dispatch : throttled_subs)
+                if (dispatch.getPeriod() == period_ms)
+                {
+                    dispatch.subs.add(value_sub);
+                    return;
+                }
+            final ThrottledValueDispatch dispatch = new ThrottledValueDispatch(name, period_ms, delivered, conflated);
+            dispatch.subs.add(value_sub);
+            throttled_subs.add(dispatch);
+        }
+    }
+
     /** @param value_sub Listener that will no longer receive value updates */
     void removeSubscription(final ValueEventHandler.Subscription value_sub)
     {
-        value_subs.remove(value_sub);
+        if (value_sub.getPeriod() < 0)
+            value_subs.remove(value_sub);
+        else
+            synchronized (throttled_subs)
+            {
+                for (ThrottledValueDispatch dispatch : throttled_subs)
+                    if (dispatch.subs.remove(value_sub))
+                    {
+                        if (dispatch.subs.isEmpty())
+                            throttled_subs.remove(dispatch);
+                        break;
+                    }
+            }
     }
 
     /** @param access_sub Listener that will receive permission updates
@@ -190,6 +256,40 @@ public class PV
         return Flowable.create(new ValueEventHandler(this), mode);
     }
 
+    /** Obtain throttled {@link Flowable} for PV's values.
+     *
+     *  <p>Similar to <code>onValueEvent().throttleLatest(period, unit)</code>,
+     *  the {@link Flowable} will receive at most one update per period,
+     *  always using the most recent value.
+     *  Values that arrive faster are conflated.
+     *
+     *  <p>Unlike a per-subscriber throttle, the PV performs the conflation once
+     *  for all subscribers that use the same period and sends updates
+     *  on a shared thread pool, which is more efficient for PVs
+     *  that update at a high rate and have several subscribers.
+     *
+     *  @param period Update period, 0 to receive the latest value as soon as possible
+     *  @param unit Units of the period
+     *  @return {@link Flowable} that receives {@link VType} updates of the PV
+     *  @see #onValueEvent()
+     */
+    public Flowable<VType> onValueEvent(final long period, final TimeUnit unit)
+    {
+        return Flowable.create(new ValueEventHandler(this, Math.max(0, unit.toMillis(period))), BackpressureStrategy.LATEST);
+    }
+
+    /** @return Number of values that have been delivered to subscribers */
+    public long getDeliveredUpdates()
+    {
+        return delivered.get();
+    }
+
+    /** @return Number of values that throttled subscribers skipped because they were replaced by a newer value */
+    public long getConflatedUpdates()
+    {
+        return conflated.get();
+    }
+
     /** Obtain {@link Flowable} for PV's write access.
      *
      *  <p>The {@link Flowable} will receive <code>true</code> when the PV permits write access.
@@ -298,23 +398,36 @@ public class PV
         catch (Exception ex)
         {
             logger.log(Level.SEVERE, "Cannot lock " + name, ex);
+            dropped.addAndGet(value_subs.size() + throttled_subs.size());
             return;
         }
 
         try
         {
+            final long start = System.nanoTime();
+            updates.incrementAndGet();
+            if (! was_connected  &&  ! isDisconnected(value))
+            {
+                was_connected = true;
+                metrics.connect_time.record(start - created);
+            }
             last_value = value;
             for (ValueEventHandler.Subscription sub : value_subs)
             {
                 try
                 {
                     sub.update(value);
+                    delivered.incrementAndGet();
                 }
                 catch (Throwable ex)
                 {
+                    dropped.incrementAndGet();
                     logger.log(Level.WARNING, name + " value update error", ex);
                 }
             }
+            for (ThrottledValueDispatch dispatch : throttled_subs)
+                dispatch.offer(value);
+            metrics.callback_time.record(System.nanoTime() - start);
         }
         finally
         {
@@ -0,0 +1,589 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv;
+
+import static org.phoebus.pv.PV.logger;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+import javax.management.ObjectName;
+
+import org.phoebus.pv.PVPool.TypedName;
+
+/** Runtime metrics of PVs, per PV type
+ *
+ *  <p>For each PV type like "ca" or "pva", and in total,
+ *  tracks the number of channels in the {@link PVPool}, how many of them are connected,
+ *  value updates, deliveries to subscribers,
+ *  updates that throttled subscribers conflated
+ *  and updates that could not be delivered,
+ *  as well as histograms of the time spent notifying subscribers
+ *  and the time from creating a PV to its first connected value,
+ *  which includes the search.
+ *
+ *  <p>Counts are kept by each {@link PV} and summed once per second,
+ *  so the PV's value update only adds the timing of its subscriber notification.
+ *
+ *  <p>Published via JMX as <code>org.phoebus.pv:type=PVMetrics,name=...</code>
+ *  and via <code>sys://pv_...</code> PVs.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class PVMetrics
+{
+    /** Name used for the metrics of all PV types */
+    public static final String TOTAL = "all";
+
+    /** Histogram of durations
+     *
+     *  <p>Bucket 0 counts durations below 1 microsecond,
+     *  bucket i counts durations of 2^(i-1) to 2^i microseconds,
+     *  the last bucket counts all longer durations.
+     */
+    public static class Histogram
+    {
+        /** Number of buckets */
+        public static final int BUCKETS = 28;
+
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder count = new LongAdder(), sum_ns = new LongAdder();
+        private final LongAccumulator max_ns = new LongAccumulator(Math::max, 0);
+
+        /** Create empty histogram */
+        public Histogram()
+        {
+            for (int i=0; i<BUCKETS; ++i)
+                buckets[i] = new LongAdder();
+        }
+
+        /** @param nanos Duration to add */
+        public void record(final long nanos)
+        {
+            final long micros = nanos / 1000;
+            final int bucket = Math.min(BUCKETS-1, 64 - Long.numberOfLeadingZeros(micros));
+            buckets[bucket].increment();
+            count.increment();
+            sum_ns.add(nanos);
+            max_ns.accumulate(nanos);
+        }
+
+        /** @return Count for each bucket */
+        public long[] getCounts()
+        {
+            final long[] counts = new long[BUCKETS];
+            for (int i=0; i<BUCKETS; ++i)
+                counts[i] = buckets[i].sum();
+            return counts;
+        }
+
+        /** @param bucket Bucket index
+         *  @return Upper limit of the bucket in milliseconds
+         */
+        public static double getBucketLimit(final int bucket)
+        {
+            return bucket >= BUCKETS-1 ? Double.POSITIVE_INFINITY : (1L << bucket) / 1000.0;
+        }
+
+        /** @return Number of recorded durations */
+        public long getCount()
+        {
+            return count.sum();
+        }
+
+        /** @return Sum of recorded durations in nanoseconds */
+        public long getSum()
+        {
+            return sum_ns.sum();
+        }
+
+        /** @return Average duration in milliseconds */
+        public double getAverage()
+        {
+            final long n = count.sum();
+            return n > 0 ? sum_ns.sum() / 1e6 / n : 0.0;
+        }
+
+        /** @return Longest duration in milliseconds */
+        public double getMax()
+        {
+            return max_ns.get() / 1e6;
+        }
+
+        /** @param fraction Fraction 0..1, for example 0.99
+         *  @return Upper limit of the bucket that contains that percentile in milliseconds
+         */
+        public double getPercentile(final double fraction)
+        {
+            return getPercentile(getCounts(), fraction);
+        }
+
+        /** @param counts Bucket counts
+         *  @param fraction Fraction 0..1, for example 0.99
+         *  @return Upper limit of the bucket that contains that percentile in milliseconds
+         */
+        public static double getPercentile(final long[] counts, final double fraction)
+        {
+            long total = 0;
+            for (long c : counts)
+                total += c;
+            final double threshold = fraction * total;
+            long sum = 0;
+            for (int i=0; i<counts.length; ++i)
+            {
+                sum += counts[i];
+                if (sum > 0  &&  sum >= threshold)
+                    return getBucketLimit(i);
+            }
+            return 0.0;
+        }
+
+        /** Clear all counts */
+        public void reset()
+        {
+            for (LongAdder bucket : buckets)
+                bucket.reset();
+            count.reset();
+            sum_ns.reset();
+            max_ns.reset();
+        }
+    }
+
+    /** JMX interface for the metrics of one PV type */
+    public interface ProtocolMetricsMXBean
+    {
+        /** @return PV type, or "all" */
+        String getType();
+        /** @return Number of PVs in the pool */
+        int getChannels();
+        /** @return Number of connected PVs in the pool */
+        int getConnected();
+        /** @return Total number of value updates */
+        long getUpdates();
+        /** @return Value updates per second */
+        double getUpdatesPerSecond();
+        /** @return Values delivered to subscribers per second */
+        double getDeliveredPerSecond();
+        /** @return Values that throttled subscribers conflated per second */
+        double getConflatedPerSecond();
+        /** @return Values per second that could not be delivered, because a subscriber failed or was blocked */
+        double getDroppedPerSecond();
+        /** @return Total number of values that could not be delivered */
+        long getDropped();
+        /** @return Average time in milliseconds to notify subscribers of a value during the last second */
+        double getCallbackTime();
+        /** @return Longest time in milliseconds to notify subscribers of a value */
+        double getCallbackTimeMax();
+        /** @return 99th percentile of the time in milliseconds to notify subscribers of a value */
+        double getCallbackTime99();
+        /** @return Count of callback times in each bucket, see {@link Histogram} */
+        long[] getCallbackTimeHistogram();
+        /** @return Average time in milliseconds from creating a PV to its first connected value */
+        double getConnectTime();
+        /** @return Longest time in milliseconds from creating a PV to its first connected value */
+        double getConnectTimeMax();
+        /** @return Count of connect times in each bucket, see {@link Histogram} */
+        long[] getConnectTimeHistogram();
+        /** @return PVs with the most updates per second, "name: rate" */
+        String[] getBusiestPVs();
+        /** Reset the histograms */
+        void resetHistograms();
+    }
+
+    /** Metrics for one PV type */
+    public static class Protocol implements ProtocolMetricsMXBean
+    {
+        private final String type;
+
+        /** Time spent notifying subscribers of a value */
+        final Histogram callback_time = new Histogram();
+
+        /** Time from creating a PV to its first connected value */
+        final Histogram connect_time = new Histogram();
+
+        /** Counts of PVs that have been released */
+        final LongAdder retired_updates = new LongAdder(),
+                        retired_delivered = new LongAdder(),
+                        retired_conflated = new LongAdder(),
+                        retired_dropped = new LongAdder();
+
+        // Updated once per second by the sampler
+        private volatile int channels, connected;
+        private volatile long updates, dropped;
+        private volatile double updates_per_sec, delivered_per_sec, conflated_per_sec, dropped_per_sec, callback_ms;
+        private volatile String[] busiest = new String[0];
+
+        // Only accessed by the sampler
+        private long last_updates, last_delivered, last_conflated, last_dropped, last_callbacks, last_callback_ns;
+
+        private Protocol(final String type)
+        {
+            this.type = type;
+        }
+
+        @Override
+        public String getType()
+        {
+            return type;
+        }
+
+        @Override
+        public int getChannels()
+        {
+            return channels;
+        }
+
+        @Override
+        public int getConnected()
+        {
+            return connected;
+        }
+
+        @Override
+        public long getUpdates()
+        {
+            return updates;
+        }
+
+        @Override
+        public double getUpdatesPerSecond()
+        {
+            return updates_per_sec;
+        }
+
+        @Override
+        public double getDeliveredPerSecond()
+        {
+            return delivered_per_sec;
+        }
+
+        @Override
+        public double getConflatedPerSecond()
+        {
+            return conflated_per_sec;
+        }
+
+        @Override
+        public double getDroppedPerSecond()
+        {
+            return dropped_per_sec;
+        }
+
+        @Override
+        public long getDropped()
+        {
+            return dropped;
+        }
+
+        @Override
+        public double getCallbackTime()
+        {
+            return callback_ms;
+        }
+
+        /** @return Protocols whose histograms are combined for this one */
+        private Collection<Protocol> parts()
+        {
+            return this == total ? protocols.values() : List.of(this);
+        }
+
+        @Override
+        public double getCallbackTimeMax()
+        {
+            double max = 0;
+            for (Protocol part : parts())
+                max = Math.max(max, part.callback_time.getMax());
+            return max;
+        }
+
+        @Override
+        public double getCallbackTime99()
+        {
+            return Histogram.getPercentile(getCallbackTimeHistogram(), 0.99);
+        }
+
+        @Override
+        public long[] getCallbackTimeHistogram()
+        {
+            final long[] counts = new long[Histogram.BUCKETS];
+            for (Protocol part : parts())
+            {
+                final long[] part_counts = part.callback_time.getCounts();
+                for (int i=0; i<counts.length; ++i)
+                    counts[i] += part_counts[i];
+            }
+            return counts;
+        }
+
+        @Override
+        public double getConnectTime()
+        {
+            long count = 0, sum = 0;
+            for (Protocol part : parts())
+            {
+                count += part.connect_time.getCount();
+                sum += part.connect_time.getSum();
+            }
+            return count > 0 ? sum / 1e6 / count : 0.0;
+        }
+
+        @Override
+        public double getConnectTimeMax()
+        {
+            double max = 0;
+            for (Protocol part : parts())
+                max = Math.max(max, part.connect_time.getMax());
+            return max;
+        }
+
+        @Override
+        public long[] getConnectTimeHistogram()
+        {
+            final long[] counts = new long[Histogram.BUCKETS];
+            for (Protocol part : parts())
+            {
+                final long[] part_counts = part.connect_time.getCounts();
+                for (int i=0; i<counts.length; ++i)
+                    counts[i] += part_counts[i];
+            }
+            return counts;
+        }
+
+        @Override
+        public String[] getBusiestPVs()
+        {
+            return busiest;
+        }
+
+        @Override
+        public void resetHistograms()
+        {
+            for (Protocol part : parts())
+            {
+                part.callback_time.reset();
+                part.connect_time.reset();
+            }
+        }
+
+        /** Update snapshot of counts and the rates since the previous snapshot */
+        private void update(final double seconds, final Sums sums, final long callbacks, final long callback_ns)
+        {
+            final long updates = sums.updates, delivered = sums.delivered,
+                       conflated = sums.conflated, dropped = sums.dropped;
+            channels = sums.channels;
+            connected = sums.connected;
+            busiest = sums.getBusiest(seconds);
+            this.updates = updates;
+            this.dropped = dropped;
+            updates_per_sec = Math.max(0, updates - last_updates) / seconds;
+            delivered_per_sec = Math.max(0, delivered - last_delivered) / seconds;
+            conflated_per_sec = Math.max(0, conflated - last_conflated) / seconds;
+            dropped_per_sec = Math.max(0, dropped - last_dropped) / seconds;
+            final long n = callbacks - last_callbacks;
+            callback_ms = n > 0 ? (callback_ns - last_callback_ns) / 1e6 / n : 0.0;
+            last_updates = updates;
+            last_delivered = delivered;
+            last_conflated = conflated;
+            last_dropped = dropped;
+            last_callbacks = callbacks;
+            last_callback_ns = callback_ns;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s: %d channels, %d connected, %.1f updates/sec, %.3f ms callback time",
+                                 type, channels, connected, updates_per_sec, callback_ms);
+        }
+    }
+
+    /** Number of PVs listed as 'busiest' */
+    private static final int BUSIEST = 10;
+
+    /** Metrics by PV type */
+    private static final Map<String, Protocol> protocols = new ConcurrentHashMap<>();
+
+    /** Metrics for all PV types */
+    private static final Protocol total = get(TOTAL);
+
+    /** Updates of each PV at last sample, only accessed by sampler */
+    private static Map<PV, Long> last_pv_updates = new IdentityHashMap<>();
+
+    private static long last_sample = System.nanoTime();
+
+    static
+    {
+        final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(target ->
+        {
+            final Thread thread = new Thread(target, "PVMetrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(PVMetrics::sample, 1, 1, TimeUnit.SECONDS);
+    }
+
+    private PVMetrics()
+    {
+    }
+
+    /** @param type PV type, or {@link #TOTAL}
+     *  @return Metrics for that type
+     */
+    public static Protocol get(final String type)
+    {
+        return protocols.computeIfAbsent(type, PVMetrics::create);
+    }
+
+    /** @return Metrics for all known PV types, including {@link #TOTAL} */
+    public static Collection<Protocol> getAll()
+    {
+        return protocols.values();
+    }
+
+    private static Protocol create(final String type)
+    {
+        final Protocol protocol = new Protocol(type);
+        try
+        {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(protocol,
+                new ObjectName("org.phoebus.pv:type=PVMetrics,name=" + ObjectName.quote(type)));
+        }
+        catch (Exception ex)
+        {
+            logger.log(Level.WARNING, "Cannot register PV metrics for " + type, ex);
+        }
+        return protocol;
+    }
+
+    /** @param name PV name
+     *  @return Metrics for the type of that PV
+     */
+    static Protocol forPV(final String name)
+    {
+        return get(TypedName.analyze(name).type);
+    }
+
+    /** @param pv PV that was closed, so its counts are retired */
+    static void closed(final PV pv)
+    {
+        final Protocol protocol = pv.metrics;
+        protocol.retired_updates.add(pv.updates.get());
+        protocol.retired_delivered.add(pv.delivered.get());
+        protocol.retired_conflated.add(pv.conflated.get());
+        protocol.retired_dropped.add(pv.dropped.get());
+    }
+
+    /** Per-type sums while sampling */
+    private static class Sums
+    {
+        int channels, connected;
+        long updates, delivered, conflated, dropped;
+        final PriorityQueue<Map.Entry<PV, Long>> busiest = new PriorityQueue<>(BUSIEST+1, Map.Entry.comparingByValue());
+
+        void add(final PV pv, final boolean connected, final long updates, final long recent)
+        {
+            ++channels;
+            if (connected)
+                ++this.connected;
+            this.updates += updates;
+            delivered += pv.delivered.get();
+            conflated += pv.conflated.get();
+            dropped += pv.dropped.get();
+            if (recent > 0)
+            {
+                busiest.add(Map.entry(pv, recent));
+                if (busiest.size() > BUSIEST)
+                    busiest.poll();
+            }
+        }
+
+        void addRetired(final Protocol protocol)
+        {
+            updates += protocol.retired_updates.sum();
+            delivered += protocol.retired_delivered.sum();
+            conflated += protocol.retired_conflated.sum();
+            dropped += protocol.retired_dropped.sum();
+        }
+
+        /** @param seconds Sample period
+         *  @return Busiest PVs, "name: rate"
+         */
+        String[] getBusiest(final double seconds)
+        {
+            final String[] names = new String[busiest.size()];
+            for (int i=names.length-1; i>=0; --i)
+            {
+                final Map.Entry<PV, Long> entry = busiest.poll();
+                names[i] = String.format("%s: %.1f", entry.getKey().getName(), entry.getValue() / seconds);
+            }
+            return names;
+        }
+    }
+
+    /** Sum counts of PVs in pool, update rates */
+    private static void sample()
+    {
+        try
+        {
+            final long now = System.nanoTime();
+            final double seconds = (now - last_sample) / 1e9;
+            last_sample = now;
+
+            final Map<Protocol, Sums> sums = new HashMap<>();
+            for (Protocol protocol : protocols.values())
+                sums.put(protocol, new Sums());
+            final Sums all = sums.get(total);
+
+            final Map<PV, Long> pv_updates = new IdentityHashMap<>();
+            for (var ref : PVPool.getPVReferences())
+            {
+                final PV pv = ref.getEntry();
+                final boolean connected = ! PV.isDisconnected(pv.read());
+                final long updates = pv.updates.get();
+                final long recent = updates - last_pv_updates.getOrDefault(pv, 0L);
+                pv_updates.put(pv, updates);
+                sums.computeIfAbsent(pv.metrics, p -> new Sums()).add(pv, connected, updates, recent);
+                all.add(pv, connected, updates, recent);
+            }
+            last_pv_updates = pv_updates;
+
+            long callbacks = 0, callback_ns = 0;
+            for (var entry : sums.entrySet())
+            {
+                final Protocol protocol = entry.getKey();
+                if (protocol == total)
+                    continue;
+                final Sums sum = entry.getValue();
+                sum.addRetired(protocol);
+                all.addRetired(protocol);
+                final long n = protocol.callback_time.getCount(), ns = protocol.callback_time.getSum();
+                callbacks += n;
+                callback_ns += ns;
+                protocol.update(seconds, sum, n, ns);
+            }
+            total.update(seconds, all, callbacks, callback_ns);
+        }
+        catch (Throwable ex)
+        {
+            logger.log(Level.WARNING, "PV metrics error", ex);
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017-2022 Oak Ridge National Laboratory.
+ * Copyright (c) 2017-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -9,14 +9,19 @@ package org.phoebus.pv;
 
 import static org.phoebus.pv.PV.logger;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
+import org.epics.vtype.VType;
 import org.phoebus.framework.preferences.AnnotatedPreferences;
 import org.phoebus.framework.preferences.Preference;
 import org.phoebus.pv.RefCountMap.ReferencedEntry;
@@ -65,6 +70,15 @@ public class PVPool
     /** Default PV name type prefix */
     @Preference(name="default") public static String default_type;
 
+    /** Maximum number of PVs per type that connect at the same time for {@link #readValues} */
+    @Preference public static int bulk_read_concurrency;
+
+    /** Seconds after which a PV without value lets the next PV of its type connect for {@link #readValues} */
+    @Preference public static double bulk_read_connect_timeout;
+
+    /** Number of threads that create and release PVs for {@link #readValues} */
+    @Preference public static int bulk_read_threads;
+
     static
     {
         try
@@ -174,8 +188,9 @@ public class PVPool
     }
 
     /** PV Pool
-     *  SYNC on 'pool':
-     *  Otherwise, two threads concurrently looking for a new PV would both add it.
+     *
+     *  <p>Thread-safe, creates each PV at most once.
+     *  A slow {@link PVFactory} only delays callers that ask for the same PV.
      */
     final private static RefCountMap<String, PV> pool = new RefCountMap<>();
 
@@ -229,6 +244,33 @@ public class PVPool
         return null;
     }
 
+    /** Obtain several PVs
+     *
+     *  <p>If any of the PVs cannot be obtained,
+     *  those already obtained are released.
+     *
+     *  @param names PV names
+     *  @return {@link PV}s in the order of the provided names
+     *  @throws Exception on error
+     *  @see #getPV(String)
+     *  @see #releasePVs(Collection)
+     */
+    public static List<PV> getPVs(final Collection<String> names) throws Exception
+    {
+        final List<PV> pvs = new ArrayList<>(names.size());
+        try
+        {
+            for (String name : names)
+                pvs.add(getPV(name));
+        }
+        catch (Exception ex)
+        {
+            releasePVs(pvs);
+            throw ex;
+        }
+        return pvs;
+    }
+
     /** @param pv PV to be released */
     public static void releasePV(final PV pv)
     {
@@ -236,18 +278,42 @@ public class PVPool
         if (references <= 0)
         {
             pv.close();
+            PVMetrics.closed(pv);
             logger.log(Level.CONFIG, () -> "PV '" + pv.getName() + "' closed");
         }
         else
             logger.log(Level.CONFIG, () -> "PV '" + pv.getName() + "' remaining references: " + references);
     }
 
+    /** @param pvs PVs to be released */
+    public static void releasePVs(final Collection<PV> pvs)
+    {
+        for (PV pv : pvs)
+            releasePV(pv);
+    }
+
+    /** Read the current value of several PVs
+     *
+     *  <p>Obtains each PV, waits for its first value that is not disconnected,
+     *  and releases it.
+     *  All PVs are released once the deadline has passed
+     *  or the returned {@link CompletableFuture} is cancelled.
+     *
+     *  @param names PV names
+     *  @param timeout Time until all values must be received
+     *  @param unit Units of the timeout
+     *  @return {@link CompletableFuture} for a map of PV name to value,
+     *          with <code>null</code> values for PVs that could not be read by the deadline
+     */
+    public static CompletableFuture<Map<String, VType>> readValues(final Collection<String> names,
+                                                                   final long timeout, final TimeUnit unit)
+    {
+        return BulkRead.read(names, timeout, unit);
+    }
+
     /** @return PVs currently in the pool with reference count information */
     public static Collection<ReferencedEntry<PV>> getPVReferences()
     {
-        synchronized (pool)
-        {
-            return pool.getEntries();
-        }
+        return pool.getEntries();
     }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017-2020 Oak Ridge National Laboratory.
+ * Copyright (c) 2017-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -9,11 +9,12 @@ package org.phoebus.pv;
 
 import static org.phoebus.pv.PV.logger;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.logging.Level;
@@ -22,6 +23,10 @@ import java.util.logging.Level;
  *
  *  <p>Thread-safe.
  *
+ *  <p>Entries are created at most once per key.
+ *  The creator is called without holding any lock on the map,
+ *  so a slow creator only delays other callers that ask for the same key.
+ *
  *  @param <K> Key data type
  *  @param <E> Entry data type
  *  @author Kay Kasemir
@@ -32,12 +37,16 @@ public class RefCountMap<K, E>
     /** Wrapper for an entry with reference count */
     public static class ReferencedEntry<E>
     {
-        private final E entry;
+        /** Thread that creates the entry, <code>null</code> once created */
+        private volatile Thread creator;
+        private final CountDownLatch created = new CountDownLatch(1);
+        private volatile E entry;
+        private volatile Throwable error;
         private final AtomicInteger references = new AtomicInteger(0);
 
-        private ReferencedEntry(final E entry)
+        private ReferencedEntry()
         {
-            this.entry = Objects.requireNonNull(entry);
+            creator = Thread.currentThread();
         }
 
         /** @return Item */
@@ -62,6 +71,28 @@ public class RefCountMap<K, E>
             return references.decrementAndGet();
         }
 
+        private void complete(final E entry, final Throwable error)
+        {
+            this.entry = entry;
+            this.error = error;
+            creator = null;
+            created.countDown();
+        }
+
+        /** Wait for entry that's created by another thread
+         *  @return Item
+         *  @throws Exception on error, including a recursive request from the creating thread
+         */
+        private E await() throws Exception
+        {
+            if (creator == Thread.currentThread())
+                throw new Exception("Recursive request while creating entry");
+            created.await();
+            if (error != null)
+                throw new Exception("Creation failed in other thread", error);
+            return entry;
+        }
+
         @Override
         public String toString()
         {
@@ -73,36 +104,61 @@ public class RefCountMap<K, E>
     // But the computeIfAbsent() mapping function must not itself update the map,
     // which can happen with a formula PV which references and thus creates
     // other PVs.
-    // With plain synchronization, adding a formula takes the synchronization lock,
-    // and while it is held, recursive additions from the same thread are possible.
+    // Next used plain synchronization, calling the creator while holding the lock,
+    // which allows recursive additions from the same thread,
+    // but a slow creator blocked all other threads.
     //
-    // SYNC on access.
-    final private Map<K, ReferencedEntry<E>> map = new HashMap<>();
+    // Now the ConcurrentHashMap is again used, but only to atomically
+    // add a placeholder entry and update reference counts.
+    // The creator is then called outside of any map lock,
+    // so it may recursively add other entries,
+    // and threads that ask for the same key wait for that placeholder.
+    final private ConcurrentHashMap<K, ReferencedEntry<E>> map = new ConcurrentHashMap<>();
 
     /** Get or create item
      *
      *  <p>If item already exists, add reference.
      *  Otherwise create new item with initial reference count of 1.
      *
+     *  <p>When another thread is currently creating the item,
+     *  wait for it to complete.
+     *
      *  @param key Item key
-     *  @param creator Function that will be called atomically to create new items
+     *  @param creator Function that will be called once per key to create new items
      *  @return reference counted entry
      */
     public ReferencedEntry<E> createOrGet(final K key, final Supplier<E> creator)
     {
+        final ReferencedEntry<E> placeholder = new ReferencedEntry<>();
+        // Lock for 'key' is only held to add the reference
+        final ReferencedEntry<E> ref_entry = map.compute(key, (k, existing) ->
+        {
+            final ReferencedEntry<E> ref = existing == null ? placeholder : existing;
+            ref.addRef();
+            return ref;
+        });
+
         try
         {
-            ReferencedEntry<E> ref_entry;
-            synchronized (map)
+            if (ref_entry == placeholder)
             {
-                ref_entry = map.get(key);
-                if (ref_entry == null)
+                try
+                {
+                    final E entry = creator.get();
+                    if (entry == null)
+                        throw new Exception("No entry created");
+                    ref_entry.complete(entry, null);
+                }
+                catch (Throwable ex)
                 {
-                    ref_entry = new ReferencedEntry<>(creator.get());
-                    map.put(key, ref_entry);
+                    // Remove failed entry so that a later call can try again
+                    map.remove(key, ref_entry);
+                    ref_entry.complete(null, ex);
+                    throw ex;
                 }
             }
-            ref_entry.addRef();
+            else
+                ref_entry.await();
             return ref_entry;
         }
         catch (Throwable ex)
@@ -119,31 +175,28 @@ public class RefCountMap<K, E>
     public int release(final K key)
     {
         // System.out.println("Release " + key + " in " + map);
-        synchronized (map)
+        final int[] refs = new int[] { -1 };
+        map.computeIfPresent(key, (k, entry) ->
         {
-            final ReferencedEntry<E> entry = map.get(key);
-            if (entry == null)
-            {
-                logger.log(Level.WARNING, "No reference found for " + key, new Exception("Call stack"));
-                return 0;
-            }
-
-            final int refs = entry.decRef();
-            if (refs <= 0)
-            {   // No more references
-                map.remove(key);
-                return 0;
-            }
-            return refs;
+            refs[0] = entry.decRef();
+            // Remove when there are no more references
+            return refs[0] <= 0 ? null : entry;
+        });
+        if (refs[0] < 0)
+        {
+            logger.log(Level.WARNING, "No reference found for " + key, new Exception("Call stack"));
+            return 0;
         }
+        return refs[0];
     }
 
-    /** @return Entries in map */
+    /** @return Entries in map, skipping those that are still being created */
     public Collection<ReferencedEntry<E>> getEntries()
     {
-        synchronized (map)
-        {
-            return Collections.unmodifiableCollection(map.values());
-        }
+        final List<ReferencedEntry<E>> entries = new ArrayList<>(map.size());
+        for (ReferencedEntry<E> entry : map.values())
+            if (entry.getEntry() != null)
+                entries.add(entry);
+        return Collections.unmodifiableCollection(entries);
     }
 }
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv;
+
+import static org.phoebus.pv.PV.logger;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+
+import org.epics.vtype.VType;
+
+/** Throttled dispatch of a PV's values to subscribers
+ *
+ *  <p>All subscribers that requested the same update period
+ *  share one dispatch.
+ *  Values received faster than the period are conflated
+ *  into the most recent value, which is then sent to all subscribers
+ *  on a shared thread pool.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+class ThrottledValueDispatch implements Runnable
+{
+    /** Threads shared by all PVs for throttled dispatch */
+    private static final ScheduledExecutorService dispatch_threads = Executors.newScheduledThreadPool(
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()/2)),
+            target ->
+            {
+                final Thread thread = new Thread(target, "PVDispatch");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final String name;
+
+    /** Update period in milliseconds, 0 to dispatch latest value ASAP */
+    private final long period_ms;
+
+    /** Counter for values delivered to subscribers */
+    private final AtomicLong delivered;
+
+    /** Counter for values that are replaced by a newer value */
+    private final AtomicLong conflated;
+
+    final List<ValueEventHandler.Subscription> subs = new CopyOnWriteArrayList<>();
+
+    /** Value that's waiting to be sent */
+    private final AtomicReference<VType> pending = new AtomicReference<>();
+
+    /** Is a dispatch scheduled? */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /** Time of last dispatch, only accessed on dispatch thread except for initial scheduling */
+    private volatile long last_dispatch_ms = 0;
+
+    /** @param name PV name
+     *  @param period_ms Update period in milliseconds
+     *  @param delivered Counter for values delivered to subscribers
+     *  @param conflated Counter for values that are replaced by a newer value
+     */
+    ThrottledValueDispatch(final String name, final long period_ms,
+                           final AtomicLong delivered, final AtomicLong conflated)
+    {
+        this.name = name;
+        this.period_ms = period_ms;
+        this.delivered = delivered;
+        this.conflated = conflated;
+    }
+
+    /** @return Update period in milliseconds */
+    long getPeriod()
+    {
+        return period_ms;
+    }
+
+    /** @param value Value to send out once the period allows */
+    void offer(final VType value)
+    {
+        if (pending.getAndSet(value) != null)
+            conflated.incrementAndGet();
+        if (scheduled.compareAndSet(false, true))
+            schedule();
+    }
+
+    private void schedule()
+    {
+        final long delay = last_dispatch_ms + period_ms - System.currentTimeMillis();
+        if (delay > 0)
+            dispatch_threads.schedule(this, delay, TimeUnit.MILLISECONDS);
+        else
+            dispatch_threads.execute(this);
+    }
+
+    /** Send pending value to subscribers */
+    @Override
+    public void run()
+    {
+        last_dispatch_ms = System.currentTimeMillis();
+        final VType value = pending.getAndSet(null);
+        if (value != null)
+            for (ValueEventHandler.Subscription sub : subs)
+            {
+                try
+                {
+                    sub.update(value);
+                    delivered.incrementAndGet();
+                }
+                catch (Throwable ex)
+                {
+                    logger.log(Level.WARNING, name + " value update error", ex);
+                }
+            }
+        scheduled.set(false);
+        // Value might have arrived after getAndSet() but before scheduled.set(false),
+        // which offer() would then not have scheduled
+        if (pending.get() != null  &&  scheduled.compareAndSet(false, true))
+            schedule();
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018-2021 Oak Ridge National Laboratory.
+ * Copyright (c) 2018-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -22,16 +22,27 @@ class ValueEventHandler implements FlowableOnSubscribe<VType>
 {
     private final PV pv;
 
+    /** Update period in milliseconds, -1 for direct updates */
+    private final long period_ms;
+
     class Subscription implements Cancellable
     {
         private final FlowableEmitter<VType> emitter;
 
         public Subscription(final FlowableEmitter<VType> emitter)
         {
-            this.emitter = emitter;
+            // Throttled updates are sent from dispatch thread,
+            // while initial update is sent from subscribing thread
+            this.emitter = period_ms < 0 ? emitter : emitter.serialize();
             pv.addSubscription(this);
         }
 
+        /** @return Requested update period in milliseconds, -1 for direct updates */
+        public long getPeriod()
+        {
+            return period_ms;
+        }
+
         public void update(final VType value)
         {
             if (! (emitter.isCancelled()  ||  emitter.requested() <0))
@@ -46,9 +57,19 @@ class ValueEventHandler implements FlowableOnSubscribe<VType>
         }
     };
 
+    /** @param pv PV that sends each update directly */
     public ValueEventHandler(final PV pv)
+    {
+        this(pv, -1);
+    }
+
+    /** @param pv PV
+     *  @param period_ms Update period in milliseconds, 0 for latest value as soon as possible, -1 for direct updates
+     */
+    public ValueEventHandler(final PV pv, final long period_ms)
     {
         this.pv = pv;
+        this.period_ms = period_ms;
     }
 
     @Override
@@ -24,6 +24,11 @@ import io.reactivex.rxjava3.disposables.Disposable;
  *  <p>Reads a PV, updates formula variable
  *  and triggers formula evaluation.
  *
+ *  <p>When the PV is itself a formula,
+ *  the {@link FormulaScheduler} evaluates this formula
+ *  whenever the input formula has been evaluated,
+ *  and the variable is updated via {@link #refresh()}.
+ *
  *  @author Kay Kasemir
  */
 @SuppressWarnings("nls")
@@ -39,9 +44,11 @@ class FormulaInput
         this.formula_pv = formula_pv;
         this.variable = variable;
         pv = PVPool.getPV(variable.getName());
-        subscription = pv.onValueEvent()
-                         .throttleLatest(FormulaPVPreferences.throttle_ms, TimeUnit.MILLISECONDS)
-                         .subscribe(this::handleUpdate);
+        if (pv instanceof FormulaPV input)
+            input.dependents.add(formula_pv);
+        else
+            subscription = pv.onValueEvent(FormulaPVPreferences.throttle_ms, TimeUnit.MILLISECONDS)
+                             .subscribe(this::handleUpdate);
     }
 
     PV getPV()
@@ -49,6 +56,17 @@ class FormulaInput
         return pv;
     }
 
+    /** Update variable with current value of an input formula */
+    void refresh()
+    {
+        if (pv instanceof FormulaPV input)
+        {
+            final VType value = input.read();
+            if (value != null)
+                variable.setValue(value);
+        }
+    }
+
     private void handleUpdate(final VType value)
     {
         logger.log(Level.FINE, () -> formula_pv.getName() + " updated by " + pv);
@@ -65,6 +83,8 @@ class FormulaInput
         }
         if (pv != null)
         {
+            if (pv instanceof FormulaPV input)
+                input.dependents.remove(formula_pv);
             PVPool.releasePV(pv);
             pv = null;
         }
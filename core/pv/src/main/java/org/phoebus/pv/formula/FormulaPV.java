@@ -10,9 +10,8 @@ package org.phoebus.pv.formula;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 import org.csstudio.apputil.formula.Formula;
@@ -26,23 +25,25 @@ import org.epics.vtype.VType;
 import org.phoebus.pv.PV;
 
 /** Formula-based {@link PV}
+ *
+ *  <p>Evaluated by the {@link FormulaScheduler}.
+ *
  *  @author Kay Kasemir
  */
 @SuppressWarnings("nls")
 public class FormulaPV extends PV
 {
-    /** Evaluate formulas on one thread
-     *  to decouple and throttle input updates
-     */
-    private static final ExecutorService update_thread = Executors.newSingleThreadExecutor(target ->
-    {
-        final Thread thread = new Thread(target, "FormulaPV");
-        thread.setDaemon(true);
-        return thread;
-    });
+    /** Scheduling state, see {@link FormulaScheduler} */
+    final AtomicInteger state = new AtomicInteger(FormulaScheduler.IDLE);
+
+    /** Time when last scheduled, see {@link FormulaScheduler} */
+    volatile long scheduled_ns;
 
-    /** Is there already a pending update? */
-    private AtomicBoolean pending = new AtomicBoolean();
+    /** Formulas that use this formula as an input */
+    final List<FormulaPV> dependents = new CopyOnWriteArrayList<>();
+
+    /** 0 for formula without formula inputs, otherwise one more than the highest level of its formula inputs */
+    private volatile int level = 0;
 
     private Formula formula;
     private volatile FormulaInput[] inputs;
@@ -65,10 +66,12 @@ public class FormulaPV extends PV
             {   // Initialize 'disconnected' until PV sends first value
                 vars[i].setValue(VDouble.of(Double.NaN, Alarm.disconnected(), Time.now(), Display.none()));
                 inputs[i] = new FormulaInput(this, vars[i]);
+                if (inputs[i].getPV() instanceof FormulaPV input)
+                    level = Math.max(level, input.level + 1);
             }
 
             // Set initial value
-            doUpdate();
+            evaluate();
         }
         catch (Exception ex)
         {
@@ -93,24 +96,37 @@ public class FormulaPV extends PV
         return pvs;
     }
 
+    /** @return Level of the formula, higher than the level of all formulas that it uses as inputs */
+    int getLevel()
+    {
+        return level;
+    }
+
     /** Schedule evaluation of formula */
     void update()
     {
-        if (pending.getAndSet(true))
-            logger.log(Level.FINE, () -> getName() + " skips recalc on " + Thread.currentThread());
-        else
-            update_thread.submit(this::doUpdate);
+        FormulaScheduler.schedule(this);
     }
 
-    /** Compute updated value of formula and notify listeners */
-    private void doUpdate()
+    /** Compute updated value of formula and notify listeners
+     *
+     *  <p>Synchronized because a formula may be evaluated
+     *  by its own scheduled update and as a dependent of another formula.
+     */
+    synchronized void evaluate()
     {
-        pending.set(false);
         logger.log(Level.FINE, () -> getName() + " recalc on " + Thread.currentThread());
 
         // Simulate slow evaluation
         // try { Thread.sleep(100); } catch (InterruptedException e) {}
 
+        // Fetch current value of formula inputs
+        final FormulaInput[] safe = inputs;
+        if (safe != null)
+            for (FormulaInput input : safe)
+                if (input != null)
+                    input.refresh();
+
         final VType value = formula.eval();
         notifyListenersOfValue(value);
     }
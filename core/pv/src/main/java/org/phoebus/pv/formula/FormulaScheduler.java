@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.formula;
+
+import static org.phoebus.pv.PV.logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/** Scheduler for the evaluation of {@link FormulaPV}s
+ *
+ *  <p>Formulas are evaluated on a bounded pool of threads.
+ *  A formula is queued at most once.
+ *  Input updates that arrive while it is queued are handled by that one evaluation,
+ *  and updates that arrive while it is being evaluated cause one more evaluation,
+ *  so each formula is evaluated in order, by one thread at a time.
+ *
+ *  <p>When formulas use other formulas as inputs,
+ *  the formulas that depend on an updated formula are
+ *  evaluated in the same pass, in topological order,
+ *  instead of each waiting for its own input updates.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class FormulaScheduler
+{
+    // Scheduling state of a formula
+    static final int IDLE = 0, QUEUED = 1, RUNNING = 2, RERUN = 3;
+
+    private static final AtomicInteger thread_count = new AtomicInteger();
+
+    /** Threads that evaluate formulas */
+    private static final ExecutorService threads = Executors.newFixedThreadPool(
+        FormulaPVPreferences.update_threads > 0
+        ? FormulaPVPreferences.update_threads
+        : Runtime.getRuntime().availableProcessors(),
+        target ->
+        {
+            final Thread thread = new Thread(target, "FormulaPV-" + thread_count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    /** Number of queued formulas */
+    private static final AtomicInteger queue_depth = new AtomicInteger();
+
+    /** Number of formula evaluations */
+    private static final LongAdder evaluations = new LongAdder();
+
+    /** Number of scheduled passes and their total latency */
+    private static final LongAdder passes = new LongAdder(), latency_ns = new LongAdder();
+
+    /** Maximum latency of a pass */
+    private static final AtomicLong max_latency_ns = new AtomicLong();
+
+    private FormulaScheduler()
+    {
+    }
+
+    /** @return Number of formulas that are queued for evaluation */
+    public static int getQueueDepth()
+    {
+        return queue_depth.get();
+    }
+
+    /** @return Number of formula evaluations, including those of dependent formulas */
+    public static long getEvaluations()
+    {
+        return evaluations.sum();
+    }
+
+    /** @return Average time in milliseconds from scheduling a formula until it and its dependents were evaluated */
+    public static double getAverageLatency()
+    {
+        final long count = passes.sum();
+        return count > 0 ? latency_ns.sum() / 1e6 / count : 0.0;
+    }
+
+    /** @return Maximum time in milliseconds from scheduling a formula until it and its dependents were evaluated */
+    public static double getMaxLatency()
+    {
+        return max_latency_ns.get() / 1e6;
+    }
+
+    /** Reset the latency statistics */
+    public static void resetLatency()
+    {
+        passes.reset();
+        latency_ns.reset();
+        max_latency_ns.set(0);
+    }
+
+    /** Schedule evaluation of a formula
+     *  @param formula Formula that needs to be evaluated
+     */
+    static void schedule(final FormulaPV formula)
+    {
+        while (true)
+        {
+            final int state = formula.state.get();
+            if (state == IDLE)
+            {
+                if (formula.state.compareAndSet(IDLE, QUEUED))
+                {
+                    submit(formula);
+                    return;
+                }
+            }
+            else if (state == RUNNING)
+            {
+                if (formula.state.compareAndSet(RUNNING, RERUN))
+                    return;
+            }
+            else
+            {
+                logger.log(Level.FINE, () -> formula.getName() + " skips recalc on " + Thread.currentThread());
+                return;
+            }
+        }
+    }
+
+    private static void submit(final FormulaPV formula)
+    {
+        formula.scheduled_ns = System.nanoTime();
+        queue_depth.incrementAndGet();
+        threads.execute(() -> run(formula));
+    }
+
+    private static void run(final FormulaPV formula)
+    {
+        queue_depth.decrementAndGet();
+        formula.state.set(RUNNING);
+        try
+        {
+            evaluate(formula);
+        }
+        catch (Throwable ex)
+        {
+            logger.log(Level.WARNING, "Error evaluating " + formula.getName(), ex);
+        }
+        final long latency = System.nanoTime() - formula.scheduled_ns;
+        passes.increment();
+        latency_ns.add(latency);
+        max_latency_ns.accumulateAndGet(latency, Math::max);
+
+        // Evaluate again if inputs changed while running
+        if (! formula.state.compareAndSet(RUNNING, IDLE))
+        {
+            formula.state.set(QUEUED);
+            submit(formula);
+        }
+    }
+
+    /** Evaluate a formula and all formulas that depend on it
+     *  @param formula Formula to evaluate
+     */
+    private static void evaluate(final FormulaPV formula)
+    {
+        if (formula.dependents.isEmpty())
+        {
+            formula.evaluate();
+            evaluations.increment();
+            return;
+        }
+
+        // Collect formula and all formulas that depend on it...
+        final List<FormulaPV> pass = new ArrayList<>();
+        final Set<FormulaPV> known = Collections.newSetFromMap(new IdentityHashMap<>());
+        pass.add(formula);
+        known.add(formula);
+        for (int i=0; i<pass.size(); ++i)
+            for (FormulaPV dependent : pass.get(i).dependents)
+                if (known.add(dependent))
+                    pass.add(dependent);
+
+        // .. and evaluate them with inputs before the formulas that use them
+        pass.sort(Comparator.comparingInt(FormulaPV::getLevel));
+        logger.log(Level.FINE, () -> formula.getName() + " updates " + (pass.size() - 1) + " dependent formulas");
+        for (FormulaPV f : pass)
+        {
+            f.evaluate();
+            evaluations.increment();
+        }
+    }
+}
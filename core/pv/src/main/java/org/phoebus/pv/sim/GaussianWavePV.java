@@ -7,8 +7,6 @@
  ******************************************************************************/
 package org.phoebus.pv.sim;
 
-import java.time.Duration;
-import java.time.Instant;
 import java.util.List;
 
 import org.phoebus.pv.PV;
@@ -21,7 +19,7 @@ public class GaussianWavePV extends SimulatedDoubleArrayPV
 {
     private final double period;
     private final double[] shape;
-    private final Instant start = Instant.now();
+    private final long start = System.nanoTime();
 
     /** @param name Name
      *  @param parameters Parameters
@@ -68,8 +66,7 @@ public class GaussianWavePV extends SimulatedDoubleArrayPV
     {
         final double[] value = new double[shape.length];
 
-        final Duration dist = Duration.between(start, Instant.now());
-        final double t = dist.getSeconds() + dist.getNano()*1e-9;
+        final double t = (System.nanoTime() - start) * 1e-9;
         final double periods = period > 0 ? t / period : 0.0;
         final int i0 = (int) ((periods - (int)periods) * value.length);
 
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.sim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.epics.vtype.Alarm;
+import org.epics.vtype.Display;
+import org.phoebus.pv.PV;
+
+/** Simulated PV that generates load
+ *
+ *  <p><code>sim://load(count, update_hz)</code>
+ *  creates <code>count</code> channels which each
+ *  update at <code>update_hz</code> like a <code>sim://sine</code>.
+ *  The value of the PV itself is the number of channel updates
+ *  per second, updated once per second.
+ *
+ *  <p>Meant for benchmarking the PV stack:
+ *  Clients that want to receive the channel updates
+ *  can subscribe to the {@link #getChannels()}.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class LoadPV extends SimulatedDoublePV
+{
+    /** One simulated channel */
+    private class Channel extends SimulatedDoublePV
+    {
+        private static final double STEP = 2.0*Math.PI / 10.0;
+        private double x;
+
+        Channel(final String name, final double phase, final Display display, final double update_seconds)
+        {
+            super(name);
+            x = phase;
+            this.display = display;
+            start(update_seconds);
+        }
+
+        @Override
+        public double compute()
+        {
+            final double value = 5.0 * Math.sin(x);
+            x += STEP;
+            return value;
+        }
+
+        @Override
+        protected void update()
+        {
+            super.update();
+            updates.increment();
+        }
+    }
+
+    private final List<Channel> channels;
+    private final LongAdder updates = new LongAdder();
+    private long last_time = System.nanoTime();
+
+    /** @param name Name
+     *  @param parameters Parameters
+     *  @return PV
+     *  @throws Exception on error
+     */
+    public static PV forParameters(final String name, List<Double> parameters) throws Exception
+    {
+        if (parameters.size() == 2  &&  parameters.get(0) >= 0  &&  parameters.get(1) > 0)
+            return new LoadPV(name, parameters.get(0).intValue(), parameters.get(1));
+        throw new Exception("sim://load needs (count, update_hz)");
+    }
+
+    /** @param name Name
+     *  @param count Number of channels
+     *  @param update_hz Update rate of each channel
+     */
+    public LoadPV(final String name, final int count, final double update_hz)
+    {
+        super(name);
+        final Display channel_display = createDisplay(-5.0, 5.0);
+        final List<Channel> list = new ArrayList<>(count);
+        for (int i=0; i<count; ++i)
+            list.add(new Channel(name + "[" + i + "]", 2.0*Math.PI * i / Math.max(count, 1),
+                                 channel_display, 1.0 / update_hz));
+        channels = Collections.unmodifiableList(list);
+        start(0.0, count * Math.min(update_hz, 1e9 / SimTimer.TICK_NANOS), 1.0);
+    }
+
+    /** @return Simulated channels */
+    public List<? extends PV> getChannels()
+    {
+        return channels;
+    }
+
+    @Override
+    public double compute()
+    {
+        final long now = System.nanoTime();
+        final double rate = updates.sumThenReset() / ((now - last_time) * 1e-9);
+        last_time = now;
+        return rate;
+    }
+
+    @Override
+    protected Alarm alarmFor(final double value)
+    {
+        // Display range is the expected rate, which is not an alarm
+        return Alarm.none();
+    }
+
+    @Override
+    protected void close()
+    {
+        for (Channel channel : channels)
+            channel.close();
+        super.close();
+    }
+}
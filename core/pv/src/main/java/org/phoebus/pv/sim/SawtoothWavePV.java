@@ -7,8 +7,6 @@
  ******************************************************************************/
 package org.phoebus.pv.sim;
 
-import java.time.Duration;
-import java.time.Instant;
 import java.util.List;
 
 import org.phoebus.pv.PV;
@@ -21,7 +19,7 @@ public class SawtoothWavePV extends SimulatedDoubleArrayPV
 {
     private final double min, range, period, wavelength;
     private final int size;
-    private final Instant start = Instant.now();
+    private final long start = System.nanoTime();
 
     /** @param name Name
      *  @param parameters Parameters
@@ -73,8 +71,7 @@ public class SawtoothWavePV extends SimulatedDoubleArrayPV
     @Override
     public double[] compute()
     {
-        final Duration dist = Duration.between(start, Instant.now());
-        final double t = dist.getSeconds() + dist.getNano()*1e-9;
+        final double t = (System.nanoTime() - start) * 1e-9;
         final double x0 = period > 0 ? t / period : 0.0;
 
         final double[] value = new double[size];
@@ -71,6 +71,8 @@ public class SimPVFactory implements PVFactory
             return NoiseWavePV.forParameters(name, parseDoubles(parameters));
         else if (func.equals("flipflop"))
             return FlipFlopPV.forParameters(name, parseDoubles(parameters));
+        else if (func.equals("load"))
+            return LoadPV.forParameters(name, parseDoubles(parameters));
         else if (func.equals("const"))
             return ConstPV.create(name, base_name);
         else
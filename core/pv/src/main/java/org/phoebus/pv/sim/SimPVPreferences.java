@@ -0,0 +1,25 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.sim;
+
+import org.phoebus.framework.preferences.AnnotatedPreferences;
+import org.phoebus.framework.preferences.Preference;
+
+/** Preferences for {@link SimulatedPV}s
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+class SimPVPreferences
+{
+    @Preference public static int update_threads;
+
+    static
+    {
+        AnnotatedPreferences.initialize(SimPVFactory.class, "/pv_sim_preferences.properties");
+    }
+}
@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.sim;
+
+import static org.phoebus.pv.PV.logger;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/** Timer for periodic updates of simulated PVs
+ *
+ *  <p>Each timer thread runs a hashed timing wheel:
+ *  An array of slots, one per tick of {@link #TICK_NANOS},
+ *  each holding a linked list of the tasks due in that tick
+ *  or in a later turn of the wheel.
+ *  The thread wakes once per tick and only visits the tasks of that slot,
+ *  so the cost per tick does not depend on the number of idle tasks.
+ *  Tasks are spread over the threads, each task is always
+ *  executed by the same thread.
+ *
+ *  <p>Deadlines are tracked in nanoseconds, so periods that are not
+ *  a multiple of the tick still result in the correct average rate.
+ *  Scheduling a task allocates it, running it does not allocate.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+class SimTimer
+{
+    /** Duration of one tick, which is also the shortest period */
+    static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /** Number of slots in each wheel, power of 2 */
+    private static final int SLOTS = 512;
+
+    /** When a wheel falls this many ticks behind, it skips ahead */
+    private static final long MAX_LAG = SLOTS / 2;
+
+    /** Periodic task */
+    static class Task
+    {
+        private final Runnable action;
+        private final long period;
+        private final Wheel wheel;
+        private volatile boolean cancelled = false;
+
+        // Only accessed by the wheel's thread
+        private long deadline, due;
+        private Task prev, next;
+        private int slot = -1;
+
+        private Task(final Runnable action, final long period, final Wheel wheel)
+        {
+            this.action = action;
+            this.period = period;
+            this.wheel = wheel;
+        }
+
+        /** @return <code>true</code> if task was cancelled, <code>false</code> if it had already been cancelled */
+        boolean cancel()
+        {
+            if (cancelled)
+                return false;
+            cancelled = true;
+            wheel.count.decrementAndGet();
+            return true;
+        }
+    }
+
+    /** One timing wheel and its thread */
+    private static class Wheel implements Runnable
+    {
+        private final Task[] slots = new Task[SLOTS];
+        private final Queue<Task> added = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger count = new AtomicInteger();
+        private final Thread thread;
+
+        // Only accessed by the wheel's thread
+        /** Time of tick 0 */
+        private long base;
+        /** Current tick */
+        private long tick;
+
+        Wheel(final int index)
+        {
+            thread = new Thread(this, "SimPV-" + index);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void add(final Task task)
+        {
+            count.incrementAndGet();
+            added.add(task);
+            LockSupport.unpark(thread);
+        }
+
+        @Override
+        public void run()
+        {
+            base = System.nanoTime();
+            tick = 0;
+            while (true)
+            {
+                if (count.get() <= 0  &&  added.isEmpty())
+                {   // Idle until a task is added
+                    LockSupport.park(this);
+                    base = System.nanoTime();
+                    tick = 0;
+                    continue;
+                }
+
+                // Wait for next tick
+                final long next = base + (tick+1) * TICK_NANOS;
+                long wait = next - System.nanoTime();
+                while (wait > 0)
+                {
+                    LockSupport.parkNanos(this, wait);
+                    wait = next - System.nanoTime();
+                }
+                ++tick;
+                final long behind = -wait / TICK_NANOS;
+                if (behind > MAX_LAG)
+                {   // Overdue tasks in skipped slots run when their slot is next visited
+                    logger.log(Level.FINE, () -> thread.getName() + " is " + behind + " ticks behind");
+                    tick += behind;
+                }
+
+                Task task;
+                while ((task = added.poll()) != null)
+                    if (! task.cancelled)
+                    {
+                        task.deadline = base + tick * TICK_NANOS + task.period;
+                        link(task, Math.max(tick + 1, dueTick(task.deadline)));
+                    }
+
+                process();
+            }
+        }
+
+        /** @param deadline Time in nanoseconds
+         *  @return First tick at or after that time
+         */
+        private long dueTick(final long deadline)
+        {
+            return Math.floorDiv(deadline - base + TICK_NANOS - 1, TICK_NANOS);
+        }
+
+        /** Run tasks of current slot that are due */
+        private void process()
+        {
+            Task task = slots[(int) (tick & (SLOTS-1))];
+            while (task != null)
+            {
+                final Task next = task.next;
+                if (task.cancelled)
+                    unlink(task);
+                else if (task.due <= tick)
+                {
+                    try
+                    {
+                        task.action.run();
+                    }
+                    catch (Throwable ex)
+                    {
+                        logger.log(Level.WARNING, "Simulated PV update failed", ex);
+                    }
+                    task.deadline += task.period;
+                    // Run at most once per tick, catch up in later ticks
+                    final long due = Math.max(tick + 1, dueTick(task.deadline));
+                    unlink(task);
+                    link(task, due);
+                }
+                task = next;
+            }
+        }
+
+        private void link(final Task task, final long due)
+        {
+            task.due = due;
+            task.slot = (int) (due & (SLOTS-1));
+            task.prev = null;
+            task.next = slots[task.slot];
+            if (task.next != null)
+                task.next.prev = task;
+            slots[task.slot] = task;
+        }
+
+        private void unlink(final Task task)
+        {
+            if (task.prev == null)
+                slots[task.slot] = task.next;
+            else
+                task.prev.next = task.next;
+            if (task.next != null)
+                task.next.prev = task.prev;
+            task.prev = task.next = null;
+        }
+    }
+
+    private static final Wheel[] wheels;
+
+    static
+    {
+        final int count = SimPVPreferences.update_threads > 0
+                        ? SimPVPreferences.update_threads
+                        : Runtime.getRuntime().availableProcessors();
+        wheels = new Wheel[count];
+        for (int i=0; i<count; ++i)
+            wheels[i] = new Wheel(i+1);
+    }
+
+    private SimTimer()
+    {
+    }
+
+    /** @param action Action to run periodically
+     *  @param period_seconds Period, at least one tick
+     *  @return {@link Task} that can be cancelled
+     */
+    static Task schedule(final Runnable action, final double period_seconds)
+    {
+        // Place on the least busy wheel
+        Wheel wheel = wheels[0];
+        for (int i=1; i<wheels.length; ++i)
+            if (wheels[i].count.get() < wheel.count.get())
+                wheel = wheels[i];
+        final long period = Math.max(TICK_NANOS, Math.round(period_seconds * 1e9));
+        final Task task = new Task(action, period, wheel);
+        wheel.add(task);
+        return task;
+    }
+}
@@ -11,6 +11,7 @@ import java.text.NumberFormat;
 
 import org.epics.util.stats.Range;
 import org.epics.util.text.NumberFormats;
+import org.epics.vtype.Alarm;
 import org.epics.vtype.Display;
 import org.epics.vtype.Time;
 import org.epics.vtype.VDouble;
@@ -75,10 +76,27 @@ abstract public class SimulatedDoublePV extends SimulatedPV
     {
         final double value = compute();
         // Creates vtype with alarm according to display warning/alarm ranges
-        final VType vtype = VDouble.of(value, display.newAlarmFor(value), Time.now(), display);
+        final VType vtype = VDouble.of(value, alarmFor(value), Time.now(), display);
         notifyListenersOfValue(vtype);
     }
 
+    /** Same as {@link Display#newAlarmFor(Number)}, but without boxing the value
+     *  @param value Value
+     *  @return Alarm for value according to display warning/alarm ranges
+     */
+    protected Alarm alarmFor(final double value)
+    {
+        if (value <= display.getAlarmRange().getMinimum())
+            return Alarm.lolo();
+        if (value >= display.getAlarmRange().getMaximum())
+            return Alarm.hihi();
+        if (value <= display.getWarningRange().getMinimum())
+            return Alarm.low();
+        if (value >= display.getWarningRange().getMaximum())
+            return Alarm.high();
+        return Alarm.none();
+    }
+
     /** Invoked for periodic update.
      *  @return Current value of the simulated PV
      */
@@ -7,31 +7,21 @@
  ******************************************************************************/
 package org.phoebus.pv.sim;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import org.phoebus.pv.PV;
 
 /** Base for simulated PVs
+ *
+ *  <p>Periodic updates of all simulated PVs are handled by the {@link SimTimer}.
  *
  *  @author Kay Kasemir, based on similar code in org.csstudio.utility.pv and diirt
  */
 @SuppressWarnings("nls")
 abstract public class SimulatedPV extends PV
 {
-    /** Timer for periodic updates */
-    private final static ScheduledExecutorService executor = Executors.newScheduledThreadPool(1, target ->
-    {
-        final Thread thread = new Thread(target, "SimPV");
-        thread.setDaemon(true);
-        return thread;
-    });
-
     /** Task that was submitted for periodic updates */
-    private ScheduledFuture<?> task;
+    private SimTimer.Task task;
 
     /** @param name Full PV name */
     public SimulatedPV(final String name)
@@ -47,9 +37,8 @@ abstract public class SimulatedPV extends PV
      */
     protected void start(final double update_seconds)
     {
-        // Limit rate to 100 Hz
-        final long milli = Math.round(Math.max(update_seconds, 0.01) * 1000);
-        task = executor.scheduleAtFixedRate(this::update, milli, milli, TimeUnit.MILLISECONDS);
+        // Rate is limited to 100 Hz by the timer's tick
+        task = SimTimer.schedule(this::update, update_seconds);
     }
 
     /** Called by periodic timer */
@@ -58,7 +47,7 @@ abstract public class SimulatedPV extends PV
     @Override
     protected void close()
     {
-        if (! task.cancel(false))
+        if (! task.cancel())
             logger.log(Level.WARNING, "Cannot cancel updates for " + getName());
         super.close();
     }
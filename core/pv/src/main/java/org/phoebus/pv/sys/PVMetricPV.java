@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv.sys;
+
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+import org.phoebus.pv.PVMetrics;
+import org.phoebus.pv.PVMetrics.ProtocolMetricsMXBean;
+import org.phoebus.pv.sim.SimulatedDoublePV;
+import org.phoebus.pv.sim.SimulatedStringPV;
+
+/** System PV for {@link PVMetrics}
+ *
+ *  <p><code>sys://pv_updates_per_sec</code> for all PV types,
+ *  <code>sys://pv_updates_per_sec(ca)</code> for one PV type.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class PVMetricPV extends SimulatedDoublePV
+{
+    /** Metrics by system PV name */
+    static final Map<String, ToDoubleFunction<ProtocolMetricsMXBean>> METRICS = Map.of(
+        "pv_channels",          ProtocolMetricsMXBean::getChannels,
+        "pv_connected",         ProtocolMetricsMXBean::getConnected,
+        "pv_updates_per_sec",   ProtocolMetricsMXBean::getUpdatesPerSecond,
+        "pv_delivered_per_sec", ProtocolMetricsMXBean::getDeliveredPerSecond,
+        "pv_conflated_per_sec", ProtocolMetricsMXBean::getConflatedPerSecond,
+        "pv_dropped_per_sec",   ProtocolMetricsMXBean::getDroppedPerSecond,
+        "pv_callback_ms",       ProtocolMetricsMXBean::getCallbackTime,
+        "pv_callback_max_ms",   ProtocolMetricsMXBean::getCallbackTimeMax,
+        "pv_connect_ms",        ProtocolMetricsMXBean::getConnectTime);
+
+    private final ProtocolMetricsMXBean metrics;
+    private final ToDoubleFunction<ProtocolMetricsMXBean> metric;
+
+    /** @param name PV name
+     *  @param metric Name of metric, key of {@link #METRICS}
+     *  @param type PV type or empty for all types
+     */
+    public PVMetricPV(final String name, final String metric, final String type)
+    {
+        super(name);
+        this.metrics = PVMetrics.get(type.isBlank() ? PVMetrics.TOTAL : type.strip());
+        this.metric = METRICS.get(metric);
+        start(0.0, 0.0, 1.0);
+    }
+
+    @Override
+    public double compute()
+    {
+        return metric.applyAsDouble(metrics);
+    }
+
+    /** System PV for the busiest PVs, one "name: rate" per line */
+    public static class Busiest extends SimulatedStringPV
+    {
+        private final ProtocolMetricsMXBean metrics;
+
+        /** @param name PV name
+         *  @param type PV type or empty for all types
+         */
+        public Busiest(final String name, final String type)
+        {
+            super(name);
+            this.metrics = PVMetrics.get(type.isBlank() ? PVMetrics.TOTAL : type.strip());
+            start(1.0);
+        }
+
+        @Override
+        public String compute()
+        {
+            return String.join("\n", metrics.getBusiestPVs());
+        }
+    }
+}
@@ -52,6 +52,10 @@ public class SysPVFactory implements PVFactory
             return new TimePV(name);
         else if (func.equals("timeOffset"))
             return TimeOffsetPV.forParameters(name, List.of(parameters.split(",")).stream().map(String::strip).collect(Collectors.toList()));
+        else if (PVMetricPV.METRICS.containsKey(func))
+            return new PVMetricPV(name, func, parameters);
+        else if (func.equals("pv_busiest"))
+            return new PVMetricPV.Busiest(name, parameters);
         else
             throw new Exception("Unknown system PV " + base_name);
     }
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.epics.vtype.Alarm;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.phoebus.core.vtypes.VTypeHelper;
+
+/** JUnit test of {@link PVPool#readValues}
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class BulkReadTest
+{
+    @Test
+    @Timeout(60)
+    public void testManyPVs() throws Exception
+    {
+        final int count = 50000;
+        final List<String> names = new ArrayList<>(count);
+        for (int i=0; i<count; ++i)
+            names.add("loc://bulk" + i + "(" + i + ")");
+
+        final long start = System.nanoTime();
+        final Map<String, VType> values = PVPool.readValues(names, 30, TimeUnit.SECONDS).get();
+        final double secs = (System.nanoTime() - start) / 1e9;
+        System.out.format("Read %d PVs in %.3f seconds\n", values.size(), secs);
+
+        assertEquals(count, values.size());
+        for (int i=0; i<count; ++i)
+            assertEquals(i, VTypeHelper.toDouble(values.get(names.get(i))), 0.0);
+
+        // All PVs were released
+        for (var ref : PVPool.getPVReferences())
+            assertTrue(! ref.getEntry().getName().startsWith("loc://bulk"), "Not released: " + ref.getEntry());
+    }
+
+    @Test
+    @Timeout(20)
+    public void testTimeout() throws Exception
+    {
+        // PV of unknown type, and PV that never connects
+        final List<String> names = List.of("loc://bulk_ok(42)", "bogus://bulk_bad", "disconnected://bulk_missing");
+
+        final long start = System.nanoTime();
+        final Map<String, VType> values = PVPool.readValues(names, 1, TimeUnit.SECONDS).get();
+        final double secs = (System.nanoTime() - start) / 1e9;
+        System.out.println(values + " after " + secs + " seconds");
+
+        assertEquals(names, List.copyOf(values.keySet()));
+        assertEquals(42.0, VTypeHelper.toDouble(values.get("loc://bulk_ok(42)")), 0.0);
+        assertNull(values.get("bogus://bulk_bad"));
+        assertNull(values.get("disconnected://bulk_missing"));
+        assertTrue(secs >= 0.9  &&  secs < 10);
+
+        for (var ref : PVPool.getPVReferences())
+            assertTrue(! ref.getEntry().getName().startsWith("loc://bulk"), "Not released: " + ref.getEntry());
+    }
+
+    @Test
+    @Timeout(20)
+    public void testConnectTimeout() throws Exception
+    {
+        // PVs that never connect occupy all places for their type,
+        // followed by a PV of the same type that connects late
+        final List<String> names = new ArrayList<>();
+        for (int i=0; i<10; ++i)
+            names.add("disconnected://bulk_dead" + i);
+        names.add("disconnected://bulk_late");
+
+        final int orig_concurrency = PVPool.bulk_read_concurrency;
+        final double orig_timeout = PVPool.bulk_read_connect_timeout;
+        PVPool.bulk_read_concurrency = 2;
+        PVPool.bulk_read_connect_timeout = 0.2;
+        final PV late = PVPool.getPV("disconnected://bulk_late");
+        try
+        {
+            final CompletableFuture<Map<String, VType>> result = PVPool.readValues(names, 3, TimeUnit.SECONDS);
+            // Value arrives after the connect timeout of the late PV,
+            // but is still received since that PV is kept until the deadline
+            Thread.sleep(1500);
+            late.notifyListenersOfValue(VDouble.of(3.14, Alarm.none(), Time.now(), Display.none()));
+            final Map<String, VType> values = result.get();
+            System.out.println(values);
+
+            assertEquals(3.14, VTypeHelper.toDouble(values.get("disconnected://bulk_late")), 0.0);
+            for (int i=0; i<10; ++i)
+                assertNull(values.get("disconnected://bulk_dead" + i));
+        }
+        finally
+        {
+            PVPool.releasePV(late);
+            PVPool.bulk_read_concurrency = orig_concurrency;
+            PVPool.bulk_read_connect_timeout = orig_timeout;
+        }
+
+        for (var ref : PVPool.getPVReferences())
+            assertTrue(! ref.getEntry().getName().startsWith("disconnected://bulk"), "Not released: " + ref.getEntry());
+    }
+}
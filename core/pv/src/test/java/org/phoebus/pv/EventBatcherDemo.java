@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.epics.vtype.Alarm;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+
+/** Benchmark of {@link EventBatcher} against direct dispatch
+ *
+ *  <p>A 'receive' thread simulates the callbacks of a
+ *  Channel Access library for many channels,
+ *  each updating at a fixed rate.
+ *  Events are either converted and published on the receive thread
+ *  or submitted to an {@link EventBatcher}.
+ *  Reports the time spent on the receive thread per event
+ *  and the number of received updates.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class EventBatcherDemo
+{
+    private static class DemoPV extends PV
+    {
+        DemoPV(final String name)
+        {
+            super(name);
+        }
+
+        void handleValue(final double value)
+        {
+            notifyListenersOfValue(VDouble.of(value, Alarm.none(), Time.now(), Display.none()));
+        }
+    }
+
+    private static void run(final EventBatcher batcher, final int count, final int rate, final int seconds) throws Exception
+    {
+        final LongAdder received = new LongAdder();
+        final List<DemoPV> pvs = new ArrayList<>(count);
+        for (int i=0; i<count; ++i)
+        {
+            final DemoPV pv = new DemoPV("demo" + i);
+            pv.onValueEvent().subscribe(value -> received.increment());
+            pvs.add(pv);
+        }
+
+        long events = 0, callback_nanos = 0;
+        final long period = TimeUnit.SECONDS.toNanos(1) / rate;
+        long next = System.nanoTime();
+        final long end = next + TimeUnit.SECONDS.toNanos(seconds);
+        while (next < end)
+        {
+            final long start = System.nanoTime();
+            for (DemoPV pv : pvs)
+            {
+                final double value = events++;
+                if (batcher == null)
+                    pv.handleValue(value);
+                else
+                    batcher.submit(pv, () -> pv.handleValue(value));
+            }
+            callback_nanos += System.nanoTime() - start;
+            next += period;
+            final long delay = next - System.nanoTime();
+            if (delay > 0)
+                TimeUnit.NANOSECONDS.sleep(delay);
+        }
+        TimeUnit.MILLISECONDS.sleep(500);
+
+        System.out.format("%-10s: %d events, %d received, %.2f us per event on receive thread\n",
+                          batcher == null ? "Direct" : "Batched",
+                          events, received.sum(), callback_nanos / 1e3 / events);
+        if (batcher != null)
+        {
+            final EventBatcher.BatchMetricsMXBean metrics = batcher.getMetrics();
+            System.out.format("            %d batches, average size %.1f, max %d, average delay %.2f ms, producer waits %d\n",
+                              metrics.getBatches(), metrics.getAverageBatchSize(), metrics.getMaxBatchSize(),
+                              metrics.getAverageDelayMillis(), metrics.getProducerWaits());
+        }
+        for (PV pv : pvs)
+            pv.close();
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        final int count = args.length > 0 ? Integer.parseInt(args[0]) : 30000;
+        final int rate = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        final int seconds = 10;
+
+        run(null, count, rate, seconds);
+
+        final EventBatcher batcher = new EventBatcher("demo", 2, 10000, 2.0);
+        run(batcher, count, rate, seconds);
+        batcher.close();
+    }
+}
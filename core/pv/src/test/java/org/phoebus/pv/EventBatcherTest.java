@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/** JUnit test of {@link EventBatcher}
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class EventBatcherTest
+{
+    @Test
+    public void testOrder() throws Exception
+    {
+        final EventBatcher batcher = new EventBatcher("test_order", 3, 100, 1.0);
+        try
+        {
+            final int keys = 10, count = 10000;
+            final List<List<Integer>> received = new ArrayList<>();
+            final CountDownLatch done = new CountDownLatch(keys * count);
+            for (int k=0; k<keys; ++k)
+                received.add(new ArrayList<>());
+
+            // Events for each key must arrive in order,
+            // even with small ring buffers that make submitters wait
+            for (int i=0; i<count; ++i)
+                for (int k=0; k<keys; ++k)
+                {
+                    final List<Integer> list = received.get(k);
+                    final int value = i;
+                    batcher.submit(list, () ->
+                    {
+                        list.add(value);
+                        done.countDown();
+                    });
+                }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            for (List<Integer> list : received)
+                for (int i=0; i<count; ++i)
+                    assertEquals(i, list.get(i));
+
+            final EventBatcher.BatchMetricsMXBean metrics = batcher.getMetrics();
+            System.out.println(metrics.getEvents() + " events in " + metrics.getBatches() + " batches, average " +
+                               metrics.getAverageBatchSize() + ", max " + metrics.getMaxBatchSize() +
+                               ", producer waits: " + metrics.getProducerWaits());
+            assertEquals(keys * count, metrics.getEvents());
+            assertTrue(metrics.getAverageBatchSize() > 1.0);
+        }
+        finally
+        {
+            batcher.close();
+        }
+    }
+
+    @Test
+    public void testLatency() throws Exception
+    {
+        final EventBatcher batcher = new EventBatcher("test_latency", 1, 1000, 20.0);
+        try
+        {
+            // Single events are delayed by about the maximum latency, not more
+            for (int i=0; i<5; ++i)
+            {
+                final CountDownLatch done = new CountDownLatch(1);
+                final long start = System.nanoTime();
+                batcher.submit(this, done::countDown);
+                assertTrue(done.await(2, TimeUnit.SECONDS));
+                final double ms = (System.nanoTime() - start) / 1e6;
+                System.out.println("Single event handled after " + ms + " ms");
+                assertTrue(ms < 500);
+            }
+            final EventBatcher.BatchMetricsMXBean metrics = batcher.getMetrics();
+            assertEquals(5, metrics.getBatches());
+            assertEquals(5, metrics.getBatchSizeHistogram()[0]);
+            assertTrue(metrics.getMaxDelayMillis() >= 1.0);
+        }
+        finally
+        {
+            batcher.close();
+        }
+    }
+}
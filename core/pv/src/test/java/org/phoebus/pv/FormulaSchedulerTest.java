@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.phoebus.core.vtypes.VTypeHelper;
+import org.phoebus.pv.formula.FormulaPV;
+import org.phoebus.pv.formula.FormulaScheduler;
+
+import io.reactivex.rxjava3.disposables.Disposable;
+
+/** @author Kay Kasemir */
+@SuppressWarnings("nls")
+public class FormulaSchedulerTest
+{
+    /** @param pv PV
+     *  @param expected Expected value
+     *  @throws Exception on timeout
+     */
+    private static void awaitValue(final PV pv, final double expected) throws Exception
+    {
+        while (VTypeHelper.toDouble(pv.read()) != expected)
+            TimeUnit.MILLISECONDS.sleep(10);
+    }
+
+    @Test
+    @Timeout(20)
+    public void testDependentFormulas() throws Exception
+    {
+        final PV x = PVPool.getPV("loc://sched_x(1)");
+        final PV a = PVPool.getPV("=2*'loc://sched_x(1)'");
+        final PV b = PVPool.getPV("=`=2*'loc://sched_x(1)'` + 1");
+        assertEquals(2.0, VTypeHelper.toDouble(a.read()), 0.0);
+        assertEquals(3.0, VTypeHelper.toDouble(b.read()), 0.0);
+        assertTrue(((FormulaPV) b).getInputs().contains(a));
+
+        final List<Double> a_values = new CopyOnWriteArrayList<>(), b_values = new CopyOnWriteArrayList<>();
+        final Disposable a_flow = a.onValueEvent().subscribe(value -> a_values.add(VTypeHelper.toDouble(value)));
+        final Disposable b_flow = b.onValueEvent().subscribe(value -> b_values.add(VTypeHelper.toDouble(value)));
+
+        final long evaluations = FormulaScheduler.getEvaluations();
+        x.write(5);
+        awaitValue(b, 11.0);
+        assertEquals(10.0, VTypeHelper.toDouble(a.read()), 0.0);
+
+        // 'b' is evaluated in the same pass as 'a',
+        // it doesn't see any value of 'a' except for the initial one and the update
+        System.out.println("a: " + a_values + ", b: " + b_values);
+        for (double value : b_values)
+            assertTrue(value == 3.0  ||  value == 11.0, "Unexpected value " + value);
+        assertTrue(FormulaScheduler.getEvaluations() >= evaluations + 2);
+
+        a_flow.dispose();
+        b_flow.dispose();
+        PVPool.releasePV(b);
+        PVPool.releasePV(a);
+        PVPool.releasePV(x);
+    }
+
+    @Test
+    @Timeout(20)
+    public void testParallelFormulas() throws Exception
+    {
+        final PV x = PVPool.getPV("loc://sched_y(0)");
+        final List<PV> formulas = new ArrayList<>();
+        for (int i=0; i<50; ++i)
+            formulas.add(PVPool.getPV("='loc://sched_y(0)' + " + i));
+
+        for (int value=1; value<=10; ++value)
+            x.write(value);
+
+        // Each formula ends up with the last value
+        for (int i=0; i<formulas.size(); ++i)
+            awaitValue(formulas.get(i), 10.0 + i);
+        while (FormulaScheduler.getQueueDepth() > 0)
+            TimeUnit.MILLISECONDS.sleep(10);
+        System.out.format("Evaluations: %d, average latency %.3f ms, max. %.3f ms\n",
+                          FormulaScheduler.getEvaluations(),
+                          FormulaScheduler.getAverageLatency(),
+                          FormulaScheduler.getMaxLatency());
+        assertTrue(FormulaScheduler.getMaxLatency() >= FormulaScheduler.getAverageLatency());
+
+        for (PV pv : formulas)
+            PVPool.releasePV(pv);
+        PVPool.releasePV(x);
+    }
+}
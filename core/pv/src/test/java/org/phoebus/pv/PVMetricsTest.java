@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+import org.phoebus.core.vtypes.VTypeHelper;
+
+import io.reactivex.rxjava3.disposables.Disposable;
+
+/** JUnit test of {@link PVMetrics}
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class PVMetricsTest
+{
+    @Test
+    public void testMetrics() throws Exception
+    {
+        final List<PV> pvs = new ArrayList<>();
+        final List<Disposable> flows = new ArrayList<>();
+        for (int i=0; i<10; ++i)
+        {
+            final PV pv = PVPool.getPV("loc://metrics" + i + "(0)");
+            pvs.add(pv);
+            flows.add(pv.onValueEvent().subscribe(value -> {}));
+        }
+        final PV channels = PVPool.getPV("sys://pv_channels(loc)");
+
+        // 10 PVs * 250 updates within a few seconds
+        for (int update=1; update<=250; ++update)
+        {
+            for (PV pv : pvs)
+                pv.write(update);
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+
+        final PVMetrics.Protocol loc = PVMetrics.get("loc");
+        System.out.println(loc);
+        assertTrue(loc.getUpdatesPerSecond() > 0);
+        assertEquals(10, loc.getBusiestPVs().length);
+        assertTrue(loc.getBusiestPVs()[0].startsWith("loc://metrics"));
+
+        TimeUnit.MILLISECONDS.sleep(1500);
+        assertEquals(10, loc.getChannels());
+        assertEquals(10, loc.getConnected());
+        assertTrue(loc.getUpdates() >= 2500);
+        long callbacks = 0;
+        for (long count : loc.getCallbackTimeHistogram())
+            callbacks += count;
+        assertTrue(callbacks >= 2500);
+        assertTrue(loc.getConnectTimeMax() >= 0.0);
+
+        final PVMetrics.Protocol all = PVMetrics.get(PVMetrics.TOTAL);
+        System.out.println(all);
+        assertTrue(all.getChannels() >= 11);
+
+        // JMX
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final Object jmx_channels = server.getAttribute(new ObjectName("org.phoebus.pv:type=PVMetrics,name=\"loc\""), "Channels");
+        assertEquals(10, jmx_channels);
+
+        // System PV
+        assertEquals(10.0, VTypeHelper.toDouble(channels.read()), 0.0);
+
+        for (Disposable flow : flows)
+            flow.dispose();
+        PVPool.releasePVs(pvs);
+        PVPool.releasePV(channels);
+
+        // Counts of released PVs are retained
+        TimeUnit.MILLISECONDS.sleep(1500);
+        assertEquals(0, loc.getChannels());
+        assertTrue(loc.getUpdates() >= 2500);
+    }
+}
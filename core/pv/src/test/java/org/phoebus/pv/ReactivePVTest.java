@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018-2021 Oak Ridge National Laboratory.
+ * Copyright (c) 2018-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -254,4 +254,35 @@ public class ReactivePVTest
         PVPool.releasePV(pv);
     }
 
+    @Test
+    public void testThrottledDispatch() throws Exception
+    {
+        final PV pv = PVPool.getPV("loc://throttle_test(0)");
+
+        System.out.println("Two subscribers to a rapidly written PV, sharing one throttled dispatch");
+        final List<AtomicReference<VType>> last = List.of(new AtomicReference<>(), new AtomicReference<>());
+        final CountDownLatch done = new CountDownLatch(2);
+        final List<Disposable> subs = last.stream()
+            .map(ref -> pv.onValueEvent(100, TimeUnit.MILLISECONDS)
+                          .subscribe(value ->
+            {
+                ref.set(value);
+                if (((VNumber) value).getValue().intValue() == 1000)
+                    done.countDown();
+            }))
+            .collect(Collectors.toList());
+
+        for (int i=1; i<=1000; ++i)
+            pv.write(i);
+
+        // Both subscribers receive the final value, most updates were conflated
+        done.await(5, TimeUnit.SECONDS);
+        for (AtomicReference<VType> ref : last)
+            assertThat(((VNumber) ref.get()).getValue().intValue(), equalTo(1000));
+        System.out.println("Delivered " + pv.getDeliveredUpdates() + ", conflated " + pv.getConflatedUpdates());
+        assertThat(pv.getConflatedUpdates() > 900, equalTo(true));
+
+        subs.forEach(Disposable::dispose);
+        PVPool.releasePV(pv);
+    }
 }
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Contention benchmark for the {@link RefCountMap} used by the {@link PVPool}
+ *
+ *  <p>Threads repeatedly get and release entries
+ *  from a shared set of keys
+ *  while another thread keeps creating new entries via a slow creator.
+ *  Total operations per second should scale with the number of threads
+ *  up to the number of cores, and not suffer from the slow creator.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class RefCountMapDemo
+{
+    private static final int KEYS = 2000;
+    private static final long RUNTIME_MS = 2000;
+
+    private static long run(final int threads) throws Exception
+    {
+        final RefCountMap<String, String> map = new RefCountMap<>();
+        final AtomicLong operations = new AtomicLong();
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> workers = new ArrayList<>();
+        final long end = System.currentTimeMillis() + RUNTIME_MS;
+
+        // Keep one reference to all keys
+        for (int i=0; i<KEYS; ++i)
+        {
+            final String key = "pv" + i;
+            map.createOrGet(key, () -> key);
+        }
+
+        // Slow creation of other keys
+        final Thread slow = new Thread(() ->
+        {
+            int i = 0;
+            while (System.currentTimeMillis() < end)
+            {
+                final String key = "slow" + (i++);
+                map.createOrGet(key, () ->
+                {
+                    try
+                    {
+                        TimeUnit.MILLISECONDS.sleep(100);
+                    }
+                    catch (InterruptedException ex)
+                    {
+                        // Ignore
+                    }
+                    return key;
+                });
+                map.release(key);
+            }
+        }, "Slow");
+        slow.start();
+
+        for (int t=0; t<threads; ++t)
+        {
+            final int offset = t * 7;
+            final Thread thread = new Thread(() ->
+            {
+                try
+                {
+                    start.await();
+                }
+                catch (InterruptedException ex)
+                {
+                    return;
+                }
+                long ops = 0;
+                int i = offset;
+                while (System.currentTimeMillis() < end)
+                {
+                    final String key = "pv" + (i++ % KEYS);
+                    map.createOrGet(key, () -> key);
+                    map.release(key);
+                    ++ops;
+                }
+                operations.addAndGet(ops);
+            }, "Worker" + t);
+            workers.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : workers)
+            thread.join();
+        slow.join();
+        return operations.get() * 1000 / RUNTIME_MS;
+    }
+
+    public static void main(final String[] args) throws Exception
+    {
+        final int cores = Runtime.getRuntime().availableProcessors();
+        // Warm up
+        run(cores);
+        for (int threads=1; threads<=2*cores; threads*=2)
+            System.out.format("%3d threads: %,12d get/release per second\n", threads, run(threads));
+    }
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.phoebus.pv.RefCountMap.ReferencedEntry;
+
+/** @author Kay Kasemir */
+@SuppressWarnings("nls")
+public class RefCountMapTest
+{
+    @Test
+    public void testRefCount()
+    {
+        final RefCountMap<String, String> map = new RefCountMap<>();
+        final ReferencedEntry<String> a = map.createOrGet("a", () -> "A");
+        assertEquals(1, a.getReferences());
+        assertSame(a, map.createOrGet("a", () -> "Other A"));
+        assertEquals("A", a.getEntry());
+        assertEquals(2, a.getReferences());
+        assertEquals(1, map.getEntries().size());
+
+        assertEquals(1, map.release("a"));
+        assertEquals(0, map.release("a"));
+        assertEquals(0, map.getEntries().size());
+
+        // Failed creation is not kept in map
+        assertThrows(RuntimeException.class, () -> map.createOrGet("b", () -> null));
+        assertEquals("B", map.createOrGet("b", () -> "B").getEntry());
+    }
+
+    @Test
+    @Timeout(10)
+    public void testRecursiveCreation()
+    {
+        final RefCountMap<String, String> map = new RefCountMap<>();
+        // Creating one entry may create others, like a formula PV
+        final ReferencedEntry<String> outer = map.createOrGet("outer", () -> map.createOrGet("inner", () -> "I").getEntry() + "O");
+        assertEquals("IO", outer.getEntry());
+        assertEquals(2, map.getEntries().size());
+
+        // .. but not itself
+        assertThrows(RuntimeException.class, () -> map.createOrGet("self", () -> map.createOrGet("self", () -> "S").getEntry()));
+    }
+
+    @Test
+    @Timeout(10)
+    public void testSlowCreator() throws Exception
+    {
+        final RefCountMap<String, String> map = new RefCountMap<>();
+        final CountDownLatch slow_started = new CountDownLatch(1);
+        final CountDownLatch slow_may_finish = new CountDownLatch(1);
+        final AtomicInteger slow_calls = new AtomicInteger();
+
+        final ExecutorService pool = Executors.newFixedThreadPool(4);
+        final Future<ReferencedEntry<String>> slow1 = pool.submit(() -> map.createOrGet("slow", () ->
+        {
+            slow_calls.incrementAndGet();
+            slow_started.countDown();
+            try
+            {
+                slow_may_finish.await();
+            }
+            catch (InterruptedException ex)
+            {
+                throw new RuntimeException(ex);
+            }
+            return "Slow";
+        }));
+        assertTrue(slow_started.await(5, TimeUnit.SECONDS));
+
+        // Other thread asking for same key waits
+        final Future<ReferencedEntry<String>> slow2 = pool.submit(() -> map.createOrGet("slow", () ->
+        {
+            slow_calls.incrementAndGet();
+            return "Slow again";
+        }));
+
+        // Other keys are not blocked by the slow one
+        assertEquals("Fast", map.createOrGet("fast", () -> "Fast").getEntry());
+        assertEquals(1, map.getEntries().size());
+
+        slow_may_finish.countDown();
+        assertEquals("Slow", slow1.get().getEntry());
+        assertSame(slow1.get(), slow2.get());
+        assertEquals(2, slow1.get().getReferences());
+        assertEquals(1, slow_calls.get());
+
+        pool.shutdown();
+    }
+}
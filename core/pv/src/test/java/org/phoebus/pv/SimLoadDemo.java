@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.phoebus.pv;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.phoebus.core.vtypes.VTypeHelper;
+import org.phoebus.pv.sim.LoadPV;
+
+import io.reactivex.rxjava3.disposables.Disposable;
+
+/** Benchmark of the PV stack with a <code>sim://load</code> PV
+ *
+ *  <p>Subscribes to each channel of the load PV
+ *  and compares the generated to the received updates.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class SimLoadDemo
+{
+    public static void main(String[] args) throws Exception
+    {
+        final int count = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        final int rate = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+        final LongAdder received = new LongAdder();
+        final PV pv = PVPool.getPV("sim://load(" + count + ", " + rate + ")");
+        for (PV channel : ((LoadPV) pv).getChannels())
+            channel.onValueEvent().subscribe(value -> received.increment());
+
+        final Disposable flow = pv.onValueEvent().subscribe(value ->
+        {
+            System.out.format("Generated %10.0f, received %10d updates/sec, expected %d\n",
+                              VTypeHelper.toDouble(value), received.sumThenReset(), count * rate);
+        });
+        TimeUnit.SECONDS.sleep(20);
+        flow.dispose();
+        PVPool.releasePV(pv);
+    }
+}
@@ -12,8 +12,11 @@ import org.junit.jupiter.api.Test;
 import org.phoebus.core.vtypes.VTypeHelper;
 
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /** @author Kay Kasemir */
 @SuppressWarnings("nls")
@@ -80,4 +83,36 @@ public class SimPVTest
         assertEquals(3.14, VTypeHelper.toDouble(pv.read()), 0.001);
         PVPool.releasePV(pv);
     }
+
+    @Test
+    public void testUpdateRate() throws Exception
+    {
+        // Period is not a multiple of the timer tick
+        final PV pv = PVPool.getPV("sim://ramp(0, 1000, 0.025)");
+        final AtomicInteger updates = new AtomicInteger();
+        final Disposable flow = pv.onValueEvent().subscribe(value -> updates.incrementAndGet());
+        TimeUnit.SECONDS.sleep(2);
+        flow.dispose();
+        PVPool.releasePV(pv);
+        System.out.println("Received " + updates.get() + " updates in 2 seconds, expected 80");
+        assertTrue(updates.get() > 60  &&  updates.get() < 90);
+    }
+
+    @Test
+    public void testLoad() throws Exception
+    {
+        final CountDownLatch done = new CountDownLatch(1);
+        final PV pv = PVPool.getPV("sim://load(1000, 10)");
+        final Disposable flow = pv.onValueEvent()
+                                  .subscribe(value ->
+        {
+            final double rate = VTypeHelper.toDouble(value);
+            System.out.println("Load: " + rate + " updates/sec");
+            if (rate > 8000)
+                done.countDown();
+        });
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        flow.dispose();
+        PVPool.releasePV(pv);
+    }
 }
@@ -26,7 +26,7 @@ public class DisconnectedPVFactory implements PVFactory {
 
     @Override
     public PV createPV(String name, String base_name) throws Exception {
-        return new DisconnectedPV(base_name);
+        return new DisconnectedPV(name);
     }
 
 }
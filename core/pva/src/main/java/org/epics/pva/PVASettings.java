@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019-2025 Oak Ridge National Laboratory.
+ * Copyright (c) 2019-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -105,6 +105,16 @@ public class PVASettings
      */
     public static String EPICS_PVA_NAME_SERVERS = "";
 
+    /** File for caching which server last provided a channel
+     *
+     *  <p>When set, clients remember the server that replied to a search
+     *  and store this in the file for the next client that starts up.
+     *  Channels found in the cache are created directly on that server,
+     *  falling back to a search when that fails.
+     *  Empty to disable the cache.
+     */
+    public static String EPICS_PVA_SEARCH_CACHE = "";
+
     /** PVA client port for sending name searches and receiving beacons */
     public static int EPICS_PVA_BROADCAST_PORT = 5076;
 
@@ -194,12 +204,41 @@ public class PVASettings
     /** TCP buffer size for sending data
      *
      *  <p>Messages are constructed within this buffer,
-     *  so it needs to be pre-configured to hold the maximum
+     *  so it needs to be configured to hold the maximum
      *  package size.
+     *  The buffer starts out smaller and grows up to this size
+     *  as needed.
      */
     // 1 million 'double' plus some protocol overhead
     public static int EPICS_PVA_SEND_BUFFER_SIZE = 8001000;
 
+    /** Maximum number of bytes to combine when sending several queued messages
+     *
+     *  <p>The TCP sender encodes queued messages into the send buffer
+     *  until this size is reached or no more messages are queued,
+     *  then sends them all at once.
+     *  0 to send each message on its own.
+     */
+    public static int EPICS_PVA_SEND_BATCH_BYTES = 64 * 1024;
+
+    /** Maximum time in microseconds that the TCP sender waits for more messages to combine
+     *
+     *  <p>With the default of 0, messages that are already queued
+     *  are combined, but the sender never waits for additional messages.
+     */
+    public static int EPICS_PVA_SEND_BATCH_LATENCY_US = 0;
+
+    /** Use virtual threads for TCP connections?
+     *
+     *  <p>Each TCP connection of client or server uses one thread
+     *  to receive and one thread to send.
+     *  By default, these are platform threads.
+     *  A server with thousands of client connections can instead
+     *  use virtual threads, which only occupy a platform thread
+     *  while they are not blocked in socket I/O.
+     */
+    public static boolean EPICS_PVA_VIRTUAL_THREADS = false;
+
     /** Initial TCP buffer size for receiving data
      *
      *  <p>Buffer grows when larger packages are received.
@@ -213,6 +252,17 @@ public class PVASettings
      */
     public static final int MAX_UDP_UNFRAGMENTED_SEND = 1440;
 
+    /** Maximum number of UDP search packets per second
+     *
+     *  <p>Limits the network bandwidth used by channel searches.
+     *  Each packet of up to {@link #MAX_UDP_UNFRAGMENTED_SEND} bytes
+     *  is sent to every search address.
+     *  When more channels are due to be searched,
+     *  the remaining ones are delayed to the next second.
+     *  0 for no limit.
+     */
+    public static int EPICS_PVA_MAX_SEARCH_PACKETS = 200;
+
     /** UDP maximum receive message size.
      *
      *  <p>MAX_UDP: 65535 (max UDP packet size) - 20/40(IPv4/IPv6) - 8(UDP)
@@ -238,6 +288,16 @@ public class PVASettings
     /** Maximum number of array elements shown when printing data */
     public static int EPICS_PVA_MAX_ARRAY_FORMATTING = 50;
 
+    /** Minimum size in bytes of received arrays that are decoded into pooled direct buffers
+     *
+     *  <p>By default (0), arrays are decoded into newly allocated Java arrays.
+     *  When set to a size like 1000000, received byte, short, int, float and double arrays
+     *  of at least that size are bulk-copied into pooled direct buffers,
+     *  which reduces garbage collection for large images and waveforms.
+     *  See {@link org.epics.pva.data.PooledArray}.
+     */
+    public static int EPICS_PVA_POOLED_ARRAY_THRESHOLD = 0;
+
     /** Range of beacon periods in seconds recognized as "fast, new" beacons
      *  that re-start searches for disconnected channels.
      *
@@ -280,6 +340,7 @@ public class PVASettings
         EPICS_PVA_ADDR_LIST = get("EPICS_PVA_ADDR_LIST", EPICS_PVA_ADDR_LIST);
         EPICS_PVA_AUTO_ADDR_LIST = get("EPICS_PVA_AUTO_ADDR_LIST", EPICS_PVA_AUTO_ADDR_LIST);
         EPICS_PVA_NAME_SERVERS = get("EPICS_PVA_NAME_SERVERS", EPICS_PVA_NAME_SERVERS);
+        EPICS_PVA_SEARCH_CACHE = get("EPICS_PVA_SEARCH_CACHE", EPICS_PVA_SEARCH_CACHE);
         EPICS_PVA_SERVER_PORT = get("EPICS_PVA_SERVER_PORT", EPICS_PVA_SERVER_PORT);
         EPICS_PVAS_TLS_PORT = get("EPICS_PVAS_TLS_PORT", EPICS_PVAS_TLS_PORT);
         EPICS_PVAS_INTF_ADDR_LIST = get("EPICS_PVAS_INTF_ADDR_LIST", EPICS_PVAS_INTF_ADDR_LIST).trim();
@@ -288,6 +349,7 @@ public class PVASettings
         EPICS_PVA_CONN_TMO = get("EPICS_PVA_CONN_TMO", EPICS_PVA_CONN_TMO);
         EPICS_PVA_TCP_SOCKET_TMO = get("EPICS_PVA_TCP_SOCKET_TMO", EPICS_PVA_TCP_SOCKET_TMO);
         EPICS_PVA_MAX_ARRAY_FORMATTING = get("EPICS_PVA_MAX_ARRAY_FORMATTING", EPICS_PVA_MAX_ARRAY_FORMATTING);
+        EPICS_PVA_POOLED_ARRAY_THRESHOLD = get("EPICS_PVA_POOLED_ARRAY_THRESHOLD", EPICS_PVA_POOLED_ARRAY_THRESHOLD);
         EPICS_PVAS_TLS_KEYCHAIN = get("EPICS_PVAS_TLS_KEYCHAIN", EPICS_PVAS_TLS_KEYCHAIN);
         if (EPICS_PVAS_TLS_KEYCHAIN.isEmpty()  &&  !isDefined("EPICS_PVAS_TLS_KEYCHAIN"))
         {
@@ -316,6 +378,10 @@ public class PVASettings
             }
         }
         EPICS_PVA_SEND_BUFFER_SIZE = get("EPICS_PVA_SEND_BUFFER_SIZE", EPICS_PVA_SEND_BUFFER_SIZE);
+        EPICS_PVA_SEND_BATCH_BYTES = get("EPICS_PVA_SEND_BATCH_BYTES", EPICS_PVA_SEND_BATCH_BYTES);
+        EPICS_PVA_SEND_BATCH_LATENCY_US = get("EPICS_PVA_SEND_BATCH_LATENCY_US", EPICS_PVA_SEND_BATCH_LATENCY_US);
+        EPICS_PVA_VIRTUAL_THREADS = get("EPICS_PVA_VIRTUAL_THREADS", EPICS_PVA_VIRTUAL_THREADS);
+        EPICS_PVA_MAX_SEARCH_PACKETS = get("EPICS_PVA_MAX_SEARCH_PACKETS", EPICS_PVA_MAX_SEARCH_PACKETS);
         EPICS_PVA_FAST_BEACON_MIN = get("EPICS_PVA_FAST_BEACON_MIN", EPICS_PVA_FAST_BEACON_MIN);
         EPICS_PVA_FAST_BEACON_MAX = get("EPICS_PVA_FAST_BEACON_MAX", EPICS_PVA_FAST_BEACON_MAX);
         EPICS_PVA_MAX_BEACON_AGE = get("EPICS_PVA_MAX_BEACON_AGE", EPICS_PVA_MAX_BEACON_AGE);
@@ -14,13 +14,12 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
-import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.logging.Level;
@@ -62,6 +61,13 @@ import org.epics.pva.data.PVAString;
  *  known channel to return a positive reply.
  *  TCP searches thus need to be repeated, but compared to the UDP searches they are sent less frequently.
  *
+ *  <p>Channels are scheduled on a timing wheel of search buckets.
+ *  Each bucket is a linked list, so adding a channel to a bucket
+ *  or removing it is O(1) independent of the number of searched channels.
+ *  The search packets for a bucket are filled up to {@link PVASettings#MAX_UDP_UNFRAGMENTED_SEND},
+ *  using channels of the following bucket to fill the last packet,
+ *  and the number of packets per second is limited by {@link PVASettings#EPICS_PVA_MAX_SEARCH_PACKETS}.
+ *
  *  @author Kay Kasemir
  */
 class ChannelSearch
@@ -90,6 +96,14 @@ class ChannelSearch
         final AtomicInteger search_period = new AtomicInteger(1);
         final PVAChannel channel;
 
+        /** Bucket that holds this channel, <code>null</code> if not scheduled.
+         *  Access only while synchronized on ChannelSearch
+         */
+        SearchBucket bucket = null;
+
+        /** Neighbors in bucket */
+        SearchedChannel previous = null, next = null;
+
         SearchedChannel(final PVAChannel channel)
         {
             this.channel = channel;
@@ -128,6 +142,77 @@ class ChannelSearch
         }
     }
 
+    /** Bucket of channels to search in one time slot
+     *
+     *  <p>Linked list of {@link SearchedChannel}s.
+     *  A channel is in at most one bucket.
+     *  Access only while synchronized on ChannelSearch
+     */
+    private static class SearchBucket
+    {
+        private SearchedChannel first = null, last = null;
+        private int size = 0;
+
+        /** @param sc Channel to add to end of this bucket, removing it from previous bucket */
+        void add(final SearchedChannel sc)
+        {
+            if (sc.bucket != null)
+                sc.bucket.remove(sc);
+            sc.previous = last;
+            sc.next = null;
+            if (last == null)
+                first = sc;
+            else
+                last.next = sc;
+            last = sc;
+            sc.bucket = this;
+            ++size;
+        }
+
+        /** @param sc Channel to remove from this bucket */
+        void remove(final SearchedChannel sc)
+        {
+            if (sc.bucket != this)
+                return;
+            if (sc.previous == null)
+                first = sc.next;
+            else
+                sc.previous.next = sc.next;
+            if (sc.next == null)
+                last = sc.previous;
+            else
+                sc.next.previous = sc.previous;
+            sc.previous = sc.next = null;
+            sc.bucket = null;
+            --size;
+        }
+
+        /** @return First channel in bucket or <code>null</code> */
+        SearchedChannel peek()
+        {
+            return first;
+        }
+
+        /** @return First channel, removed from bucket, or <code>null</code> */
+        SearchedChannel poll()
+        {
+            final SearchedChannel sc = first;
+            if (sc != null)
+                remove(sc);
+            return sc;
+        }
+
+        int size()
+        {
+            return size;
+        }
+
+        boolean isEmpty()
+        {
+            return size == 0;
+        }
+    }
+
     // SearchedChannels are tracked in two data structures
     //
     // - searched_channels
@@ -156,9 +241,10 @@ class ChannelSearch
      *  the next search bucket in a ring buffer fashion.
      *
      *  <p>Each searched channel is removed from the current bucket.
+     *  A channel is in at most one bucket at a time.
      *  To be searched again, it is inserted into the appropriate
      *  upcoming bucket, allowing for a maximum search
-     *  period of <code>MAX_SEARCH_PERIOD == search_buckets.size() - 2</code>.
+     *  period of <code>MAX_SEARCH_PERIOD == search_buckets.length - 2</code>.
      *  The search bucket size is <code>MAX_SEARCH_PERIOD + 2</code>
      *  so that a channel in bucket N can be moved to either
      *  <code>N + MAX_SEARCH_PERIOD</code> or
@@ -169,7 +255,7 @@ class ChannelSearch
      *  <p>Access to either {@link #search_buckets} or {@link #current_search_bucket}
      *  must only occur in a 'synchronized' method.
      */
-    private final ArrayList<Set<SearchedChannel>> search_buckets = new ArrayList<>(MAX_SEARCH_PERIOD+2);
+    private final SearchBucket[] search_buckets = new SearchBucket[MAX_SEARCH_PERIOD+2];
 
     /** Index of current search bucket, i.e. the one about to be searched.
      *
@@ -177,6 +263,15 @@ class ChannelSearch
      */
     private final AtomicInteger current_search_bucket = new AtomicInteger();
 
+    /** Number of search packets that may still be sent in the current search period.
+     *
+     *  <p>Access must only occur in a 'synchronized' method.
+     */
+    private int search_budget = getSearchPacketLimit();
+
+    /** Has an immediate search been submitted to the timer? */
+    private final AtomicBoolean jumpstart_pending = new AtomicBoolean();
+
     /** Timer used to periodically check channels and issue search requests */
     private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(run ->
     {
@@ -223,8 +318,8 @@ class ChannelSearch
         this.tls_disabled = tls_disabled;
 
         // Each bucket holds set of channels to search in that time slot
-        for (int i=0; i<MAX_SEARCH_PERIOD+2; ++i)
-            search_buckets.add(new HashSet<>());
+        for (int i=0; i<search_buckets.length; ++i)
+            search_buckets[i] = new SearchBucket();
 
         // Searches sent to multicast (IPv4, IPv6) or broadcast addresses (IPv4) reach every PVA server
         // on that multicast group or bcast subnet.
@@ -271,7 +366,7 @@ class ChannelSearch
                                  4*period/1000.0,
                                  8*period/1000.0,
                                  128*period/1000.0));
-        timer.scheduleAtFixedRate(this::runSearches, period, period, TimeUnit.MILLISECONDS);
+        timer.scheduleAtFixedRate(() -> runSearches(true), period, period, TimeUnit.MILLISECONDS);
     }
 
     /** @param channel Channel that should be searched
@@ -291,13 +386,18 @@ class ChannelSearch
 
             int bucket = current_search_bucket.get();
             if (!now)
-                bucket = (bucket + SEARCH_SOON_DELAY) % search_buckets.size();
-            search_buckets.get(bucket).add(sc);
+                bucket = (bucket + SEARCH_SOON_DELAY) % search_buckets.length;
+            search_buckets[bucket].add(sc);
         }
 
-        // Jumpstart search instead of waiting up to ~1 second for current bucket to be handled
-        if (now)
-            timer.execute(this::runSearches);
+        // Jumpstart search instead of waiting up to ~1 second for current bucket to be handled.
+        // When many channels are registered at once, they share one jumpstart.
+        if (now  &&  ! jumpstart_pending.getAndSet(true))
+            timer.execute(() ->
+            {
+                jumpstart_pending.set(false);
+                runSearches(false);
+            });
     }
 
     /** Stop searching for channel
@@ -310,9 +410,8 @@ class ChannelSearch
         if (searched != null)
         {
             logger.log(Level.FINE, () -> "Unregister search for " + searched.channel.getName() + " " + channel_id);
-            // Remove `searched` from all `search_buckets`.
-            for (Set<SearchedChannel> bucket : search_buckets)
-                bucket.remove(searched);
+            if (searched.bucket != null)
+                searched.bucket.remove(searched);
             return searched.channel;
         }
         return null;
@@ -334,8 +433,7 @@ class ChannelSearch
             {
                 logger.log(Level.FINE, () -> "Restart search for '" + searched.channel.getName() + "'");
 
-                final Set<SearchedChannel> bucket = search_buckets.get(current_search_bucket.get());
-                bucket.add(searched);
+                search_buckets[current_search_bucket.get()].add(searched);
             }
             // Not sending search right now:
             //   search(channel);
@@ -346,95 +444,146 @@ class ChannelSearch
         }
     }
 
-    /** Invoked by timer: Check searched channels for the next one to handle */
-    private void runSearches()
+    /** Invoked by timer: Check searched channels for the next one to handle
+     *  @param tick Is this the periodic search which moves on to the next bucket,
+     *              or an immediate search of the current bucket?
+     */
+    private void runSearches(final boolean tick)
     {
         // Determine current search bucket
-        final int current = current_search_bucket.getAndUpdate(i -> (i + 1) % search_buckets.size());
-        // Collect channels to be searched while sync'ed
-        final ArrayList<SearchRequest.Channel> to_search = new ArrayList<>();
+        final int current = tick
+                          ? current_search_bucket.getAndUpdate(i -> (i + 1) % search_buckets.length)
+                          : current_search_bucket.get();
+        // Collect batches of channels to be searched while sync'ed.
+        // Size of a search request is close to 50 bytes
+        // plus { int cid, string name } for each channel.
+        // Channel count is unsigned short, but we limit
+        // is to a signed short.
+        // Similar to PVXS, further limit payload to 1400 bytes
+        // to stay well below the ~1500 byte ethernet frame
+        final List<List<SearchRequest.Channel>> batches = new ArrayList<>();
         synchronized (this)
         {
-            final Set<SearchedChannel> bucket = search_buckets.get(current);
+            if (tick)
+                search_budget = getSearchPacketLimit();
+
+            final SearchBucket bucket = search_buckets[current];
             if (bucket.isEmpty())
                 return;
             logger.log(Level.FINEST, () -> "Search bucket " + current);
 
+            List<SearchRequest.Channel> batch = null;
+            int payload = 0;
+            SearchedChannel sc;
             // Remove searched channels from the current bucket
-            for (SearchedChannel sc : bucket)
+            while ((sc = bucket.poll()) != null)
             {
-                if (sc.channel.getState() == ClientChannelState.SEARCHING  &&
-                    searched_channels.containsKey(sc.channel.getCID()))
+                if (sc.channel.getState() != ClientChannelState.SEARCHING  ||
+                    ! searched_channels.containsKey(sc.channel.getCID()))
                 {
-                    // Collect channels in 'to_search' for handling outside of sync. section
-                    to_search.add(sc.channel);
-
-                    // Determine next search period
-                    final int period = sc.search_period.updateAndGet(sec -> sec < MAX_SEARCH_PERIOD
-                                                                     ? sec + 1
-                                                                     : MAX_SEARCH_PERIOD);
-
-                    // Add to corresponding search bucket, or delay by one second
-                    // in case that search bucket is quite full
-                    final int i_n   = (current + period) % search_buckets.size();
-                    final int i_n_n = (i_n + 1)          % search_buckets.size();
-                    final Set<SearchedChannel> next      = search_buckets.get(i_n);
-                    final Set<SearchedChannel> next_next = search_buckets.get(i_n_n);
-                    if (i_n == current  ||  i_n_n == current)
-                        throw new IllegalStateException("Current, next and nextnext search indices for " + sc.channel + " are " +
-                                                        current + ", " + i_n + ", " + i_n_n);
-                    if (next_next.size() < next.size())
-                        next_next.add(sc);
-                    else
-                        next.add(sc);
-                }
-                else
                     logger.log(Level.FINE, "Dropping channel from search: " + sc.channel);
+                    continue;
+                }
+
+                final int size = 4 + PVAString.getEncodedSize(sc.channel.getName());
+                if (size >= MAX_SEARCH_PAYLOAD)
+                {   // Can't fit this single name?
+                    logger.log(Level.WARNING, "PV name exceeds search buffer size: " + sc.channel);
+                    searched_channels.remove(sc.channel.getCID());
+                    continue;
+                }
+
+                if (batch == null  ||  payload + size >= MAX_SEARCH_PAYLOAD  ||  batch.size() >= Short.MAX_VALUE-1)
+                {   // Need another packet
+                    if (search_budget <= 0)
+                    {   // Delay remaining channels to the bucket that's searched next
+                        final SearchBucket pending = search_buckets[current_search_bucket.get()];
+                        if (pending != bucket)
+                        {
+                            final int delayed = bucket.size() + 1;
+                            logger.log(Level.FINE, () -> "Search packet limit reached, delaying " + delayed + " channels");
+                            do
+                                pending.add(sc);
+                            while ((sc = bucket.poll()) != null);
+                        }
+                        else
+                            bucket.add(sc);
+                        break;
+                    }
+                    --search_budget;
+                    batch = new ArrayList<>();
+                    batches.add(batch);
+                    payload = 0;
+                }
+
+                // Collect channels in 'batch' for handling outside of sync. section
+                batch.add(sc.channel);
+                payload += size;
+                schedule(sc, current);
             }
-            bucket.clear();
-        }
 
-        // Search batch..
-        // Size of a search request is close to 50 bytes
-        // plus { int cid, string name } for each channel.
-        // Channel count is unsigned short, but we limit
-        // is to a signed short.
-        // Similar to PVXS, further limit payload to 1400 bytes
-        // to stay well below the ~1500 byte ethernet frame
-        int start = 0;
-        while (start < to_search.size())
-        {
-            int payload = 0;
-            int count = 0;
-            while (start + count < to_search.size()  &&  count < Short.MAX_VALUE-1)
+            // Fill the last packet with channels from the next bucket,
+            // which would otherwise need another (small) packet in a second
+            if (tick  &&  batch != null  &&  bucket.isEmpty())
             {
-                final SearchRequest.Channel channel = to_search.get(start + count);
-                int size = 4 + PVAString.getEncodedSize(channel.getName());
-                if (payload + size < MAX_SEARCH_PAYLOAD)
+                final int next_index = (current + 1) % search_buckets.length;
+                final SearchBucket next = search_buckets[next_index];
+                while ((sc = next.peek()) != null)
                 {
-                    ++count;
+                    final int size = 4 + PVAString.getEncodedSize(sc.channel.getName());
+                    if (payload + size >= MAX_SEARCH_PAYLOAD  ||  batch.size() >= Short.MAX_VALUE-1)
+                        break;
+                    next.remove(sc);
+                    if (sc.channel.getState() != ClientChannelState.SEARCHING  ||
+                        ! searched_channels.containsKey(sc.channel.getCID()))
+                        continue;
+                    batch.add(sc.channel);
                     payload += size;
-                }
-                else if (count == 0)
-                {   // Can't fit this single name?
-                    logger.log(Level.WARNING, "PV name exceeds search buffer size: " + channel);
-                    searched_channels.remove(channel.getCID());
-                    to_search.remove(start + count);
-                }
-                else
-                {
-                    logger.log(Level.FINER, () -> "Reached " + MAX_SEARCH_PAYLOAD + " bytes, splitting");
-                    break;
+                    schedule(sc, next_index);
                 }
             }
-            if (count == 0)
-                break;
+        }
 
-            // Submit one batch from 'to_search'
-            final List<SearchRequest.Channel> batch = to_search.subList(start, start + count);
+        // Submit the batches
+        for (List<SearchRequest.Channel> batch : batches)
             search(batch);
-            start += count;
-        }
+    }
+
+    /** @return Maximum number of search packets per search period */
+    private static int getSearchPacketLimit()
+    {
+        return PVASettings.EPICS_PVA_MAX_SEARCH_PACKETS > 0
+             ? PVASettings.EPICS_PVA_MAX_SEARCH_PACKETS
+             : Integer.MAX_VALUE;
+    }
+
+    /** Schedule next search for channel
+     *
+     *  <p>Must be called while synchronized
+     *
+     *  @param sc Channel that's searched now
+     *  @param current Index of the bucket from which the channel was taken
+     */
+    private void schedule(final SearchedChannel sc, final int current)
+    {
+        // Determine next search period
+        final int period = sc.search_period.updateAndGet(sec -> sec < MAX_SEARCH_PERIOD
+                                                         ? sec + 1
+                                                         : MAX_SEARCH_PERIOD);
+
+        // Add to corresponding search bucket, or delay by one second
+        // in case that search bucket is quite full
+        final int i_n   = (current + period) % search_buckets.length;
+        final int i_n_n = (i_n + 1)          % search_buckets.length;
+        final SearchBucket next      = search_buckets[i_n];
+        final SearchBucket next_next = search_buckets[i_n_n];
+        if (i_n == current  ||  i_n_n == current)
+            throw new IllegalStateException("Current, next and nextnext search indices for " + sc.channel + " are " +
+                                            current + ", " + i_n + ", " + i_n_n);
+        if (next_next.size() < next.size())
+            next_next.add(sc);
+        else
+            next.add(sc);
     }
 
     /** Issue a PVA server list request */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019-2025 Oak Ridge National Laboratory.
+ * Copyright (c) 2019-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -425,6 +425,7 @@ class ClientTCPHandler extends TCPHandler
         this.authentication = auth;
         logger.log(Level.FINE, () -> "Sending connection validation response, auth = " + auth);
         // Since send thread is not running, yet, send directly
+        final int size_offset = send_buffer.position() + PVAHeader.HEADER_OFFSET_PAYLOAD_SIZE;
         PVAHeader.encodeMessageHeader(send_buffer, PVAHeader.FLAG_NONE, PVAHeader.CMD_CONNECTION_VALIDATION, 4+2+2+1);
         final int start = send_buffer.position();
 
@@ -443,7 +444,7 @@ class ClientTCPHandler extends TCPHandler
 
         // Correct payload size (depends on auth)
         final int end = send_buffer.position();
-        send_buffer.putInt(PVAHeader.HEADER_OFFSET_PAYLOAD_SIZE, end - start);
+        send_buffer.putInt(size_offset, end - start);
 
         send_buffer.flip();
         send(send_buffer);
@@ -455,6 +456,12 @@ class ClientTCPHandler extends TCPHandler
             startSender();
     }
 
+    /** @return Has the connection to the server been established and validated? */
+    boolean isConnectionValidated()
+    {
+        return connection_validated.get();
+    }
+
     /** Close network socket and threads
      *  @param wait Wait for threads to end?
      */
@@ -50,9 +50,9 @@ class CreateChannelHandler implements CommandHandler<ClientTCPHandler>
         {
             logger.log(Level.WARNING, "Failed to create channel " + channel + ": " + status);
 
-            // Reset channel to init state and search again, after delay
-            channel.setState(ClientChannelState.INIT);
-            tcp.getClient().search.register(channel, false);
+            // Reset channel to init state and search again
+            if (channel.resetConnection())
+                tcp.getClient().searchAgain(channel);
         }
     }
 }
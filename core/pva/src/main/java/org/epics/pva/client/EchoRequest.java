@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019-2025 Oak Ridge National Laboratory.
+ * Copyright (c) 2019-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -36,12 +36,15 @@ class EchoRequest implements RequestEncoder
         }
         else
         {   // Issue next 'echo12'
-            final int count = counter.incrementAndGet();
-            active_check = String.format("echo%02d",  count % 100);
-            final byte[] check = active_check.getBytes();
-            logger.log(Level.FINE, () -> "Sending ECHO request (Version " + version + " '" + active_check + "')");
+            final int count = counter.get() + 1;
+            final String next_check = String.format("echo%02d",  count % 100);
+            final byte[] check = next_check.getBytes();
+            logger.log(Level.FINE, () -> "Sending ECHO request (Version " + version + " '" + next_check + "')");
             PVAHeader.encodeMessageHeader(buffer, PVAHeader.FLAG_NONE, PVAHeader.CMD_ECHO, check.length);
             buffer.put(check);
+            // Only advance once encoded, TCPHandler might call again when buffer overflows
+            counter.set(count);
+            active_check = next_check;
         }
     }
 
@@ -23,6 +23,8 @@ public interface MonitorListener
      *  while inside this method.
      *  For example, the array data of a `PVA*Array`
      *  may be reused after this method has been called.
+     *  The same applies to the <code>changes</code> and <code>overruns</code>,
+     *  which are re-used for the next update.
      *
      *  <p>When the server cancels the subscription,
      *  the changes, overruns and data will be <code>null</code>.
@@ -54,6 +54,11 @@ class MonitorRequest implements AutoCloseable, RequestEncoder, ResponseHandler
 
     private volatile PVAStructure data;
 
+    /** Changes and overruns of the last update.
+     *  Re-used for each update, only accessed by the TCP receive thread
+     */
+    private final BitSet changes = new BitSet(), overrun = new BitSet();
+
     private final AtomicInteger received_updates = new AtomicInteger();
 
     /** @param channel Channel to 'monitor'
@@ -107,9 +112,11 @@ class MonitorRequest implements AutoCloseable, RequestEncoder, ResponseHandler
             buffer.putInt(channel.getSID());
             buffer.putInt(request_id);
 
+            // Keep 'state' unchanged, TCPHandler might call again when buffer overflows
             if (pipeline() > 0)
-                state = (byte) (PVAHeader.CMD_SUB_PIPELINE | PVAHeader.CMD_SUB_INIT);
-            buffer.put(state);
+                buffer.put((byte) (PVAHeader.CMD_SUB_PIPELINE | PVAHeader.CMD_SUB_INIT));
+            else
+                buffer.put(state);
 
             // For pipeline, add record._options.pipeline=true to request
             final FieldRequest field_request = new FieldRequest(recordOptions, request);
@@ -123,13 +130,15 @@ class MonitorRequest implements AutoCloseable, RequestEncoder, ResponseHandler
         }
         else if (state == PVAHeader.CMD_SUB_PIPELINE)
         {
-            final int ack = received_updates.getAndSet(0);
+            final int ack = received_updates.get();
             logger.log(Level.FINE, () -> "Sending monitor pipeline ack of " + ack + " updates, request #" + request_id + " for " + channel);
             PVAHeader.encodeMessageHeader(buffer, PVAHeader.FLAG_NONE, PVAHeader.CMD_MONITOR, 4+4+1+4);
             buffer.putInt(channel.getSID());
             buffer.putInt(request_id);
             buffer.put(PVAHeader.CMD_SUB_PIPELINE);
             buffer.putInt(ack);
+            // Only count as acknowledged once encoded
+            received_updates.addAndGet(-ack);
         }
         else
         {
@@ -240,12 +249,12 @@ class MonitorRequest implements AutoCloseable, RequestEncoder, ResponseHandler
 
         // Decode data from monitor update
         // 1) Bitset that indicates which elements of struct have changed
-        final BitSet changes = PVABitSet.decodeBitSet(buffer);
+        PVABitSet.decodeBitSet(buffer, changes);
 
         // 2) Decode those elements
         data.decodeElements(changes, channel.getTCP().getTypeRegistry(), buffer);
 
-        final BitSet overrun = PVABitSet.decodeBitSet(buffer);
+        PVABitSet.decodeBitSet(buffer, overrun);
         logger.log(Level.FINER, () -> "Overruns: " + overrun);
 
         // Notify listener of latest value
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019-2023 Oak Ridge National Laboratory.
+ * Copyright (c) 2019-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -82,6 +82,9 @@ public class PVAChannel extends SearchRequest.Channel implements AutoCloseable
     /** TCP Handler, set by PVAClient */
     final AtomicReference<ClientTCPHandler> tcp = new AtomicReference<>();
 
+    /** Is the channel being created on a server from the {@link SearchCache}, not found by a search? */
+    volatile boolean from_search_cache = false;
+
     private final CopyOnWriteArrayList<MonitorRequest> subscriptions = new CopyOnWriteArrayList<>();
 
     PVAChannel(final PVAClient client, final String name,
@@ -243,6 +246,7 @@ public class PVAChannel extends SearchRequest.Channel implements AutoCloseable
         if (state.compareAndSet(ClientChannelState.FOUND, ClientChannelState.CONNECTED))
         {
             this.sid = sid;
+            from_search_cache = false;
             logger.log(Level.FINE, () -> "Received create channel reply " + this + ", SID " + sid);
             connected.complete(true);
             synchronized (state)
@@ -268,6 +272,22 @@ public class PVAChannel extends SearchRequest.Channel implements AutoCloseable
         return ClientChannelState.isActive(old_state);
     }
 
+    /** Connection lost, detach from {@link ClientTCPHandler}
+     *  unless channel already moved on
+     *  @param expected Connection that was lost
+     *  @return <code>true</code> if the channel was on that connection and searched or connected,
+     *          <code>false</code> if it was on another connection, closing or closed
+     */
+    boolean resetConnection(final ClientTCPHandler expected)
+    {
+        if (! tcp.compareAndSet(expected, null))
+            return false;
+        expected.removeChannel(this);
+        clearSubscriptions();
+        final ClientChannelState old_state = setState(ClientChannelState.INIT);
+        return ClientChannelState.isActive(old_state);
+    }
+
     /** Read (get) channel's type info from server
      *
      *  <p>Returned {@link PVAStructure} only describes the type,
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019-2025 Oak Ridge National Laboratory.
+ * Copyright (c) 2019-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -54,6 +54,9 @@ public class PVAClient implements AutoCloseable
 
     final ChannelSearch search;
 
+    /** Cache of servers that provided channels, <code>null</code> when disabled */
+    private final SearchCache search_cache = SearchCache.getInstance();
+
     private final ConcurrentHashMap<Guid, ServerInfo> list_replies = new ConcurrentHashMap<>();
 
     /** Channels by client ID */
@@ -206,11 +209,75 @@ public class PVAClient implements AutoCloseable
         final PVAChannel channel = new PVAChannel(this, channel_name, state_listener, access_rights_listener);
         channels_by_id.putIfAbsent(channel.getCID(), channel);
 
-        // Register with search
-        search.register(channel, true);
+        // Create on cached server, or register with search
+        if (! createOnCachedServer(channel))
+            search.register(channel, true);
         return channel;
     }
 
+    /** Create channel on the server that last provided it
+     *  @param channel Channel to create
+     *  @return <code>true</code> if channel is being created on cached server,
+     *          <code>false</code> if channel needs to be searched
+     */
+    private boolean createOnCachedServer(final PVAChannel channel)
+    {
+        if (search_cache == null)
+            return false;
+        final SearchCache.Entry cached = search_cache.get(channel.getName());
+        // TLS server's plain TCP port is not known from a cached TLS reply
+        if (cached == null  ||  (tls_disabled && cached.tls()))
+            return false;
+
+        // ClientTCPHandler connects on its receiver thread,
+        // so this does not block while holding the map entry.
+        // If the connection fails, shutdownConnection() drops all
+        // cache entries for that server and the channels are searched.
+        final ClientTCPHandler tcp = tcp_handlers.computeIfAbsent(cached.server(), addr ->
+        {
+            try
+            {
+                return new ClientTCPHandler(this, addr, cached.guid(), cached.tls());
+            }
+            catch (Exception ex)
+            {
+                logger.log(Level.WARNING, "Cannot connect to TCP " + addr, ex);
+            }
+            return null;
+        });
+        if (tcp == null)
+        {
+            search_cache.remove(channel.getName());
+            return false;
+        }
+
+        logger.log(Level.FINE, () -> "Creating " + channel + " on cached server " + tcp);
+        channel.from_search_cache = true;
+        channel.setState(ClientChannelState.FOUND);
+        channel.registerWithServer(tcp);
+        // Connection may have failed and been shut down
+        // before the channel was added
+        if (tcp_handlers.get(cached.server()) != tcp  &&  channel.resetConnection(tcp))
+            searchAgain(channel);
+        return true;
+    }
+
+    /** Search channel again after it could not be created or lost its connection
+     *  @param channel Channel to search
+     */
+    void searchAgain(final PVAChannel channel)
+    {
+        if (channel.from_search_cache)
+        {   // Cached server did not provide the channel: Forget it, search right away
+            logger.log(Level.FINE, () -> "Cached server failed for " + channel + ", searching");
+            channel.from_search_cache = false;
+            search_cache.remove(channel.getName());
+            search.register(channel, true);
+        }
+        else // Search again after delay
+            search.register(channel, false);
+    }
+
     /** Get channel by client ID
      *  @param cid Channel ID, using client's ID
      *  @return {@link PVAChannel}, may be <code>null</code>
@@ -250,7 +317,11 @@ public class PVAClient implements AutoCloseable
     {
         // Does beacon suggest re-search of missing channels?
         if (beacons.check(guid, server, changes))
+        {
+            if (search_cache != null)
+                search_cache.handleBeacon(guid, server);
             search.boost();
+        }
     }
 
     void handleSearchResponse(final int channel_id, final InetSocketAddress server, final int version, final Guid guid, final boolean tls)
@@ -320,6 +391,8 @@ public class PVAClient implements AutoCloseable
             if (tcp.updateGuid(guid))
                 logger.log(Level.FINE, "Search-only TCP handler received GUID, now " + tcp);
 
+            if (search_cache != null)
+                search_cache.put(channel.getName(), server, guid, use_tls);
             channel.registerWithServer(tcp);
         }
     }
@@ -338,6 +411,10 @@ public class PVAClient implements AutoCloseable
         if (removed != tcp)
             logger.log(Level.WARNING, "Closed unknown " + tcp, new Exception("Call stack"));
 
+        // Never connected? Then don't try that server for other cached channels
+        if (search_cache != null  &&  !tcp.isConnectionValidated())
+            search_cache.removeServer(tcp.getRemoteAddress());
+
         // Reset all channels that used the connection
         for (PVAChannel channel : tcp.getChannels())
         {
@@ -345,8 +422,8 @@ public class PVAClient implements AutoCloseable
             {
                 // Reset channel, detach from TCP.
                 // If the channel was active, search again soon
-                if (channel.resetConnection())
-                    search.register(channel, false);
+                if (channel.resetConnection(tcp))
+                    searchAgain(channel);
             }
             catch (Exception ex)
             {
@@ -375,6 +452,9 @@ public class PVAClient implements AutoCloseable
         // Stop searching for missing channels
         search.close();
 
+        if (search_cache != null)
+            search_cache.save();
+
         // Assume caller has closed channels, wait 2 seconds for that to be confirmed
         int wait = 20;
         while (! channels_by_id.isEmpty())
@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.client;
+
+import static org.epics.pva.PVASettings.logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+import org.epics.pva.PVASettings;
+import org.epics.pva.server.Guid;
+
+/** Cache of the server that last provided a channel
+ *
+ *  <p>Shared by all {@link PVAClient}s in this process.
+ *  Loaded from the {@link PVASettings#EPICS_PVA_SEARCH_CACHE} file
+ *  and saved back when a client is closed,
+ *  so a client that starts up again can create channels
+ *  on their last known server without first searching them.
+ *
+ *  <p>File has one line per channel:
+ *  <pre>
+ *  GUID  IP-address  port  tcp|tls  channel-name
+ *  </pre>
+ *
+ *  <p>Entries for a server are dropped when a beacon indicates that
+ *  the server with that GUID moved to a different address,
+ *  or the address is now used by a server with a different GUID,
+ *  i.e. the server was restarted.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+class SearchCache
+{
+    /** Cached search result
+     *  @param server TCP address of server
+     *  @param guid Server's GUID
+     *  @param tls Use TLS?
+     */
+    record Entry(InetSocketAddress server, Guid guid, boolean tls)
+    {
+    }
+
+    private static SearchCache instance = null;
+
+    private final Path file;
+
+    /** Cached search results by channel name */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /** Have entries changed since loaded from or saved to file? */
+    private final AtomicBoolean changed = new AtomicBoolean();
+
+    /** @return Shared search cache, <code>null</code> when disabled */
+    static synchronized SearchCache getInstance()
+    {
+        if (PVASettings.EPICS_PVA_SEARCH_CACHE.isBlank())
+            return null;
+        final Path file = Path.of(PVASettings.EPICS_PVA_SEARCH_CACHE);
+        if (instance == null  ||  !instance.file.equals(file))
+            instance = new SearchCache(file);
+        return instance;
+    }
+
+    /** @param file File from which to load cache, and where it will be saved */
+    SearchCache(final Path file)
+    {
+        this.file = file;
+        if (Files.exists(file))
+            load();
+    }
+
+    private void load()
+    {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                final String[] fields = line.split("\\s+", 5);
+                if (fields.length != 5)
+                    continue;
+                try
+                {
+                    final Guid guid = Guid.fromText(fields[0]);
+                    final InetSocketAddress server = new InetSocketAddress(InetAddress.getByName(fields[1]),
+                                                                           Integer.parseInt(fields[2]));
+                    entries.put(fields[4], new Entry(server, guid, "tls".equals(fields[3])));
+                }
+                catch (Exception ex)
+                {
+                    logger.log(Level.FINE, "Ignoring search cache entry '" + line + "'", ex);
+                }
+            }
+            logger.log(Level.CONFIG, "Loaded " + entries.size() + " search cache entries from " + file);
+        }
+        catch (Exception ex)
+        {
+            logger.log(Level.WARNING, "Cannot load search cache " + file, ex);
+        }
+    }
+
+    /** @param name Channel name
+     *  @return Cached search result or <code>null</code>
+     */
+    Entry get(final String name)
+    {
+        return entries.get(name);
+    }
+
+    /** @param name Channel name
+     *  @param server Server that replied to search
+     *  @param guid Server's GUID
+     *  @param tls Use TLS?
+     */
+    void put(final String name, final InetSocketAddress server, final Guid guid, final boolean tls)
+    {
+        final Entry entry = new Entry(server, guid, tls);
+        if (! entry.equals(entries.put(name, entry)))
+            changed.set(true);
+    }
+
+    /** @param name Channel name that's no longer provided by the cached server */
+    void remove(final String name)
+    {
+        if (entries.remove(name) != null)
+            changed.set(true);
+    }
+
+    /** @param server Server that cannot be reached, so none of its entries are valid */
+    void removeServer(final InetSocketAddress server)
+    {
+        if (entries.values().removeIf(entry -> entry.server.equals(server)))
+        {
+            logger.log(Level.FINE, () -> "Cannot reach " + server + ", dropped its search cache entries");
+            changed.set(true);
+        }
+    }
+
+    /** Handle beacon that indicated a change in the server landscape
+     *  @param guid Server's GUID
+     *  @param server Server's TCP address
+     */
+    void handleBeacon(final Guid guid, final InetSocketAddress server)
+    {
+        if (entries.values().removeIf(entry -> entry.server.equals(server) != entry.guid.equals(guid)))
+        {
+            logger.log(Level.FINE, () -> "Beacon from " + server + " " + guid + " invalidated search cache entries");
+            changed.set(true);
+        }
+    }
+
+    /** @return Number of cached entries */
+    int size()
+    {
+        return entries.size();
+    }
+
+    /** Save cache to file if it has changed */
+    void save()
+    {
+        if (! changed.getAndSet(false))
+            return;
+        try
+        {
+            // Write to temporary file, then replace the cache file
+            // to avoid partial files when several clients save at the same time
+            final Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8))
+            {
+                for (Map.Entry<String, Entry> e : entries.entrySet())
+                {
+                    final Entry entry = e.getValue();
+                    writer.write(entry.guid.asText());
+                    writer.write(' ');
+                    writer.write(entry.server.getAddress().getHostAddress());
+                    writer.write(' ');
+                    writer.write(Integer.toString(entry.server.getPort()));
+                    writer.write(entry.tls ? " tls " : " tcp ");
+                    writer.write(e.getKey());
+                    writer.newLine();
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.log(Level.FINE, () -> "Saved " + entries.size() + " search cache entries to " + file);
+        }
+        catch (Exception ex)
+        {
+            logger.log(Level.WARNING, "Cannot save search cache " + file, ex);
+        }
+    }
+}
@@ -25,8 +25,15 @@ public interface RequestEncoder
      *
      *  <p>Implementation has ownership of the 'send'
      *  buffer while inside this method.
-     *  When implementation returns, the {@link TCPHandler} flips
-     *  and sends the buffer content, then re-uses the buffer.
+     *  The buffer may already hold other messages,
+     *  so the message must be encoded starting at the current
+     *  buffer position, not assuming a position of 0.
+     *  When implementation returns, the {@link TCPHandler} may
+     *  add more messages, then flips and sends the buffer content,
+     *  and re-uses the buffer.
+     *
+     *  <p>When the buffer overflows, the {@link TCPHandler}
+     *  may call the implementation again with an empty buffer.
      *
      *  @param version Protocol version used by the server
      *  @param buffer Send buffer into which to encode item to send
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019-2025 Oak Ridge National Laboratory.
+ * Copyright (c) 2019-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@ import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketAddress;
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.concurrent.BlockingQueue;
@@ -22,6 +23,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 import org.epics.pva.PVASettings;
@@ -36,6 +38,8 @@ import org.epics.pva.data.PVAString;
  *  and dispatches to derived class.
  *
  *  <p>Maintains send queue.
+ *  Queued messages are combined into one socket write
+ *  where possible.
  *
  *  @author Kay Kasemir
  */
@@ -83,8 +87,13 @@ abstract public class TCPHandler
      */
     private ByteBuffer segments = null;
 
-    /** Buffer used to send data via {@link TCPHandler#send_thread} */
-    protected final ByteBuffer send_buffer = ByteBuffer.allocate(PVASettings.EPICS_PVA_SEND_BUFFER_SIZE);
+    /** Buffer used to send data via {@link TCPHandler#send_thread}
+     *
+     *  <p>Starts small and grows as needed up to {@link PVASettings#EPICS_PVA_SEND_BUFFER_SIZE},
+     *  so servers with many client connections don't reserve the maximum
+     *  buffer size for each connection.
+     */
+    protected volatile ByteBuffer send_buffer = ByteBuffer.allocate(Math.min(PVASettings.TCP_BUFFER_SIZE, PVASettings.EPICS_PVA_SEND_BUFFER_SIZE));
 
     /** Queue of items to send to peer */
     private final BlockingQueue<RequestEncoder> send_items = new LinkedBlockingQueue<>();
@@ -99,14 +108,27 @@ abstract public class TCPHandler
         }
     };
 
-    /** Pool for sender and receiver threads */
-    // Default keeps idle threads for one minute
-    private static final ExecutorService thread_pool = Executors.newCachedThreadPool(runnable ->
-    {
-        final Thread thread = new Thread(runnable);
-        thread.setDaemon(true);
-        return thread;
-    });
+    /** Pool for sender and receiver threads
+     *
+     *  <p>Platform threads, or one virtual thread per task
+     *  when {@link PVASettings#EPICS_PVA_VIRTUAL_THREADS} is set.
+     *  Both receiver and sender block in socket I/O
+     *  respectively on the send queue,
+     *  which for virtual threads frees the carrier thread.
+     */
+    private static final ExecutorService thread_pool = PVASettings.EPICS_PVA_VIRTUAL_THREADS
+        ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("TCP handler ", 1).factory())
+        // Default keeps idle threads for one minute
+        : Executors.newCachedThreadPool(runnable ->
+          {
+              final Thread thread = new Thread(runnable);
+              thread.setDaemon(true);
+              return thread;
+          });
+
+    /** Send statistics */
+    private final AtomicLong sent_messages = new AtomicLong(), flushes = new AtomicLong(),
+                             writes = new AtomicLong(), sent_bytes = new AtomicLong();
 
     /** Thread that runs {@link TCPHandler#receiver()} */
     private volatile Future<Void> receive_thread = null;
@@ -188,40 +210,144 @@ abstract public class TCPHandler
         return false;
     }
 
-    /** Send {@link RequestEncoder} entries off queue */
+    /** Send {@link RequestEncoder} entries off queue
+     *
+     *  <p>Encodes as many queued entries as fit within
+     *  {@link PVASettings#EPICS_PVA_SEND_BATCH_BYTES},
+     *  waiting up to {@link PVASettings#EPICS_PVA_SEND_BATCH_LATENCY_US}
+     *  for more entries, then sends them all at once.
+     */
     private Void sender()
     {
         try
         {
             Thread.currentThread().setName("TCP sender from " + socket.getLocalSocketAddress() + " to " + socket.getRemoteSocketAddress());
             logger.log(Level.FINER, () -> Thread.currentThread().getName() + " started");
-            while (true)
+            final int batch_bytes = PVASettings.EPICS_PVA_SEND_BATCH_BYTES;
+            final long batch_latency_ns = TimeUnit.MICROSECONDS.toNanos(PVASettings.EPICS_PVA_SEND_BATCH_LATENCY_US);
+            boolean done = false;
+            while (! done)
             {
                 send_buffer.clear();
-                final RequestEncoder to_send = send_items.take();
+                RequestEncoder to_send = send_items.take();
                 if (to_send == END_REQUEST)
                     break;
-                try
-                {
-                    to_send.encodeRequest(server_version, send_buffer);
-                }
-                catch (Exception ex)
+                final long deadline = System.nanoTime() + batch_latency_ns;
+                int messages = 0;
+                while (to_send != null)
                 {
-                    logger.log(Level.WARNING, Thread.currentThread().getName() + " request encoding error", ex);
-                    continue;
+                    final int start = send_buffer.position();
+                    try
+                    {
+                        to_send.encodeRequest(server_version, send_buffer);
+                        ++messages;
+                    }
+                    catch (BufferOverflowException ex)
+                    {
+                        send_buffer.position(start);
+                        if (start > 0)
+                        {   // Send what's been combined so far, then retry on its own
+                            flush(messages);
+                            send_buffer.clear();
+                            messages = 0;
+                            continue;
+                        }
+                        if (growSendBuffer())
+                            continue;
+                        logger.log(Level.WARNING, Thread.currentThread().getName() + " request encoding error", ex);
+                    }
+                    catch (Exception ex)
+                    {
+                        // Drop what might have been encoded for this request
+                        send_buffer.position(start);
+                        logger.log(Level.WARNING, Thread.currentThread().getName() + " request encoding error", ex);
+                    }
+
+                    // Combine with more requests?
+                    if (send_buffer.position() >= batch_bytes)
+                        break;
+                    final long wait = deadline - System.nanoTime();
+                    to_send = wait > 0 ? send_items.poll(wait, TimeUnit.NANOSECONDS) : send_items.poll();
+                    if (to_send == END_REQUEST)
+                    {
+                        done = true;
+                        break;
+                    }
                 }
-                send_buffer.flip();
-                send(send_buffer);
+                if (messages > 0)
+                    flush(messages);
             }
         }
         catch (Throwable ex)
         {
             logger.log(Level.WARNING, Thread.currentThread().getName() + " exits because of error", ex);
         }
-        logger.log(Level.FINER, Thread.currentThread().getName() + " done.");
+        logger.log(Level.FINE, () -> Thread.currentThread().getName() + " done. " + getSendStatistics());
         return null;
     }
 
+    /** Double the size of the (empty) send buffer
+     *  @return <code>true</code> if buffer was enlarged,
+     *          <code>false</code> if it's already at the maximum size
+     */
+    private boolean growSendBuffer()
+    {
+        final int capacity = send_buffer.capacity();
+        if (capacity >= PVASettings.EPICS_PVA_SEND_BUFFER_SIZE)
+            return false;
+        final ByteBuffer new_buffer = ByteBuffer.allocate((int) Math.min(2L * capacity, PVASettings.EPICS_PVA_SEND_BUFFER_SIZE));
+        new_buffer.order(send_buffer.order());
+        send_buffer = new_buffer;
+        logger.log(Level.FINE, () -> Thread.currentThread().getName() + " extends send buffer from " + capacity + " to " + new_buffer.capacity());
+        return true;
+    }
+
+    /** Send the encoded requests in the send buffer
+     *  @param messages Number of requests in the send buffer
+     *  @throws Exception on error
+     */
+    private void flush(final int messages) throws Exception
+    {
+        send_buffer.flip();
+        send(send_buffer);
+        sent_messages.addAndGet(messages);
+        flushes.incrementAndGet();
+    }
+
+    /** @return Number of messages sent */
+    public long getSentMessages()
+    {
+        return sent_messages.get();
+    }
+
+    /** @return Number of times that one or more messages were sent */
+    public long getSendFlushes()
+    {
+        return flushes.get();
+    }
+
+    /** @return Number of socket write calls */
+    public long getSendWrites()
+    {
+        return writes.get();
+    }
+
+    /** @return Number of bytes sent */
+    public long getSentBytes()
+    {
+        return sent_bytes.get();
+    }
+
+    /** @return Summary of messages per flush and bytes per socket write */
+    public String getSendStatistics()
+    {
+        final long messages = sent_messages.get(), flushed = flushes.get(),
+                   written = writes.get(), bytes = sent_bytes.get();
+        return String.format("Sent %d messages in %d flushes (%.1f messages/flush), %d bytes in %d writes (%.1f bytes/write)",
+                             messages, flushed, flushed > 0 ? (double) messages / flushed : 0.0,
+                             bytes, written, written > 0 ? (double) bytes / written : 0.0);
+    }
+
     /** Send message
      *
      *  <p>Must only be called by outside code before
@@ -251,6 +377,8 @@ abstract public class TCPHandler
         while (batch > 0)
         {
             out.write(buffer.array(), pos, batch);
+            writes.incrementAndGet();
+            sent_bytes.addAndGet(batch);
             pos += batch;
             buffer.position(pos);
             // Determine next batch
@@ -35,4 +35,27 @@ public class PVABitSet
         buffer.get(bytes);
         return BitSet.valueOf(bytes);
     }
+
+    /** Decode into existing bit set
+     *
+     *  <p>Allows re-using the {@link BitSet}
+     *  instead of allocating a new one for each decode.
+     *
+     *  @param buffer Source buffer
+     *  @param bits BitSet that will be cleared and then set to the decoded bits
+     */
+    public static void decodeBitSet(final ByteBuffer buffer, final BitSet bits)
+    {
+        bits.clear();
+        final int size = PVASize.decodeSize(buffer);
+        for (int i=0; i<size; ++i)
+        {
+            final int b = Byte.toUnsignedInt(buffer.get());
+            if (b == 0)
+                continue;
+            for (int bit=0; bit<8; ++bit)
+                if ((b & (1 << bit)) != 0)
+                    bits.set(i*8 + bit);
+        }
+    }
 }
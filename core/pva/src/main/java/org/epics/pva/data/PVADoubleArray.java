@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019-2020 Oak Ridge National Laboratory.
+ * Copyright (c) 2019-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -22,6 +22,12 @@ public class PVADoubleArray extends PVAData implements PVAArray, PVAValue
 {
     private volatile double[] value;
 
+    /** Pooled data from last decode, or <code>null</code>.
+     *  When set, 'value' is <code>null</code> until first accessed via get().
+     *  SYNC on this when updating 'value' and 'pooled'
+     */
+    private volatile PooledArray pooled;
+
     /** Construct variable-size array
      *  @param name Data item name
      *  @param value Initial value
@@ -35,13 +41,38 @@ public class PVADoubleArray extends PVAData implements PVAArray, PVAValue
     /** @return Current value */
     public double[] get()
     {
-        return value;
+        double[] safe = value;
+        if (safe != null)
+            return safe;
+        synchronized (this)
+        {   // Copy pooled data into array on first access.
+            // Lock prevents decode() from replacing the pooled data
+            // while it's copied, which would then set an outdated 'value'
+            safe = value;
+            if (safe == null  &&  pooled != null)
+                value = safe = pooled.toDoubles();
+            return safe;
+        }
+    }
+
+    /** Get pooled data
+     *
+     *  <p>Large arrays may be decoded into a {@link PooledArray},
+     *  see {@link PVASettings#EPICS_PVA_POOLED_ARRAY_THRESHOLD}.
+     *  Reading the data from there avoids copying it into a Java array.
+     *
+     *  @return Pooled data of the most recently decoded value, or <code>null</code>
+     */
+    public PooledArray getPooled()
+    {
+        return pooled;
     }
 
     /** @param value Desired new value */
-    public void set(final double[] value)
+    public synchronized void set(final double[] value)
     {
         this.value = value;
+        pooled = null;
     }
 
     @Override
@@ -49,8 +80,8 @@ public class PVADoubleArray extends PVAData implements PVAArray, PVAValue
     {
         if (new_value instanceof PVADoubleArray)
         {
-            final double[] other = ((PVADoubleArray) new_value).value;
-            value = Arrays.copyOf(other, other.length);
+            final double[] other = ((PVADoubleArray) new_value).get();
+            set(Arrays.copyOf(other, other.length));
         }
         else if (new_value instanceof double[])
             set(((double[]) new_value));
@@ -67,7 +98,7 @@ public class PVADoubleArray extends PVAData implements PVAArray, PVAValue
                 else
                     throw new Exception("Cannot set " + formatType() + " to " + new_value);
             }
-            value = new_items;
+            set(new_items);
         }
         else
             throw new Exception("Cannot set " + formatType() + " to " + new_value);
@@ -82,7 +113,7 @@ public class PVADoubleArray extends PVAData implements PVAArray, PVAValue
     @Override
     public PVADoubleArray cloneData()
     {
-        return new PVADoubleArray(name, value.clone());
+        return new PVADoubleArray(name, get().clone());
     }
 
     @Override
@@ -98,16 +129,26 @@ public class PVADoubleArray extends PVAData implements PVAArray, PVAValue
     public void decode(final PVATypeRegistry types, final ByteBuffer buffer) throws Exception
     {
         final int size = PVASize.decodeSize(buffer);
+        if (PooledArray.isUsed((long) size * 8))
+        {
+            final PooledArray data = PooledArray.decode(buffer, size, 8);
+            synchronized (this)
+            {
+                pooled = data;
+                value = null;
+            }
+            return;
+        }
         final double[] new_value = new double[size];
         for (int i=0; i<size; ++i)
             new_value[i] = buffer.getDouble();
-        value = new_value;
+        set(new_value);
     }
 
     @Override
     public void encode(final ByteBuffer buffer) throws Exception
     {
-        final double[] copy = value;
+        final double[] copy = get();
         PVASize.encodeSize(copy.length, buffer);
         for (double v : copy) buffer.putDouble(v);
     }
@@ -121,9 +162,9 @@ public class PVADoubleArray extends PVAData implements PVAArray, PVAValue
             // At least for open JDK11,
             // this does use Double.doubleToRawLongBits and thus handles
             // NaN == NaN
-            if (! Arrays.equals(other.value, value))
+            if (! Arrays.equals(other.get(), get()))
             {
-                value = other.value.clone();
+                set(other.get().clone());
                 changes.set(index);
             }
         }
@@ -141,7 +182,7 @@ public class PVADoubleArray extends PVAData implements PVAArray, PVAValue
     {
         formatType(level, buffer);
         buffer.append(" [");
-        final double[] safe = value;
+        final double[] safe = get();
         if (safe == null)
             buffer.append("null");
         else
@@ -170,6 +211,6 @@ public class PVADoubleArray extends PVAData implements PVAArray, PVAValue
         if (! (obj instanceof PVADoubleArray))
             return false;
         final PVADoubleArray other = (PVADoubleArray) obj;
-        return Arrays.equals(other.value, value);
+        return Arrays.equals(other.get(), get());
     }
 }
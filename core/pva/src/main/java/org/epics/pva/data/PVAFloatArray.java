@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019-2022 Oak Ridge National Laboratory.
+ * Copyright (c) 2019-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -22,6 +22,12 @@ public class PVAFloatArray extends PVAData implements PVAArray, PVAValue
 {
     private volatile float[] value;
 
+    /** Pooled data from last decode, or <code>null</code>.
+     *  When set, 'value' is <code>null</code> until first accessed via get().
+     *  SYNC on this when updating 'value' and 'pooled'
+     */
+    private volatile PooledArray pooled;
+
     /** Construct variable-size array
      *  @param name Data item name
      *  @param value Initial value
@@ -35,13 +41,38 @@ public class PVAFloatArray extends PVAData implements PVAArray, PVAValue
     /** @return Current value */
     public float[] get()
     {
-        return value;
+        float[] safe = value;
+        if (safe != null)
+            return safe;
+        synchronized (this)
+        {   // Copy pooled data into array on first access.
+            // Lock prevents decode() from replacing the pooled data
+            // while it's copied, which would then set an outdated 'value'
+            safe = value;
+            if (safe == null  &&  pooled != null)
+                value = safe = pooled.toFloats();
+            return safe;
+        }
+    }
+
+    /** Get pooled data
+     *
+     *  <p>Large arrays may be decoded into a {@link PooledArray},
+     *  see {@link PVASettings#EPICS_PVA_POOLED_ARRAY_THRESHOLD}.
+     *  Reading the data from there avoids copying it into a Java array.
+     *
+     *  @return Pooled data of the most recently decoded value, or <code>null</code>
+     */
+    public PooledArray getPooled()
+    {
+        return pooled;
     }
 
     /** @param value Desired new value */
-    public void set(final float[] value)
+    public synchronized void set(final float[] value)
     {
         this.value = value;
+        pooled = null;
     }
 
     @Override
@@ -50,7 +81,7 @@ public class PVAFloatArray extends PVAData implements PVAArray, PVAValue
         if (new_value instanceof PVAFloatArray)
         {
             final float[] other = ((PVAFloatArray) new_value).get();
-            value = Arrays.copyOf(other, other.length);
+            set(Arrays.copyOf(other, other.length));
         }
         else if (new_value instanceof PVADoubleArray)
             set(Convert.toFloat(((PVADoubleArray) new_value).get()));
@@ -71,7 +102,7 @@ public class PVAFloatArray extends PVAData implements PVAArray, PVAValue
                 else
                     throw new Exception("Cannot set " + formatType() + " to " + new_value);
             }
-            value = new_items;
+            set(new_items);
         }
         else
             throw new Exception("Cannot set " + formatType() + " to " + new_value);
@@ -86,7 +117,7 @@ public class PVAFloatArray extends PVAData implements PVAArray, PVAValue
     @Override
     public PVAFloatArray cloneData()
     {
-        return new PVAFloatArray(name, value.clone());
+        return new PVAFloatArray(name, get().clone());
     }
 
     @Override
@@ -99,16 +130,26 @@ public class PVAFloatArray extends PVAData implements PVAArray, PVAValue
     public void decode(final PVATypeRegistry types, final ByteBuffer buffer) throws Exception
     {
         final int size = PVASize.decodeSize(buffer);
+        if (PooledArray.isUsed((long) size * 4))
+        {
+            final PooledArray data = PooledArray.decode(buffer, size, 4);
+            synchronized (this)
+            {
+                pooled = data;
+                value = null;
+            }
+            return;
+        }
         final float[] new_value = new float[size];
         for (int i=0; i<size; ++i)
             new_value[i] = buffer.getFloat();
-        value = new_value;
+        set(new_value);
     }
 
     @Override
     public void encode(final ByteBuffer buffer) throws Exception
     {
-        final float[] copy = value;
+        final float[] copy = get();
         PVASize.encodeSize(copy.length, buffer);
         for (float v : copy) buffer.putFloat(v);
     }
@@ -122,9 +163,9 @@ public class PVAFloatArray extends PVAData implements PVAArray, PVAValue
             // At least for open JDK11,
             // this does use Float.floatToRawIntBits and thus handles
             // NaN == NaN
-            if (! Arrays.equals(other.value, value))
+            if (! Arrays.equals(other.get(), get()))
             {
-                value = other.value.clone();
+                set(other.get().clone());
                 changes.set(index);
             }
         }
@@ -142,7 +183,7 @@ public class PVAFloatArray extends PVAData implements PVAArray, PVAValue
     {
         formatType(level, buffer);
         buffer.append(" [");
-        final float[] safe = value;
+        final float[] safe = get();
         if (safe == null)
             buffer.append("null");
         else
@@ -171,6 +212,6 @@ public class PVAFloatArray extends PVAData implements PVAArray, PVAValue
         if (! (obj instanceof PVAFloatArray))
             return false;
         final PVAFloatArray other = (PVAFloatArray) obj;
-        return Arrays.equals(other.value, value);
+        return Arrays.equals(other.get(), get());
     }
 }
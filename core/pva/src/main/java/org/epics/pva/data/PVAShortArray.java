@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019-2022 Oak Ridge National Laboratory.
+ * Copyright (c) 2019-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -23,6 +23,12 @@ public class PVAShortArray extends PVAData implements PVAArray, PVAValue
     private final boolean unsigned;
     private volatile short[] value;
 
+    /** Pooled data from last decode, or <code>null</code>.
+     *  When set, 'value' is <code>null</code> until first accessed via get().
+     *  SYNC on this when updating 'value' and 'pooled'
+     */
+    private volatile PooledArray pooled;
+
     /** Construct variable-size array
      *  @param name Data item name
      *  @param unsigned Data signed/unsigned type
@@ -44,13 +50,38 @@ public class PVAShortArray extends PVAData implements PVAArray, PVAValue
     /** @return Current value */
     public short[] get()
     {
-        return value;
+        short[] safe = value;
+        if (safe != null)
+            return safe;
+        synchronized (this)
+        {   // Copy pooled data into array on first access.
+            // Lock prevents decode() from replacing the pooled data
+            // while it's copied, which would then set an outdated 'value'
+            safe = value;
+            if (safe == null  &&  pooled != null)
+                value = safe = pooled.toShorts();
+            return safe;
+        }
+    }
+
+    /** Get pooled data
+     *
+     *  <p>Large arrays may be decoded into a {@link PooledArray},
+     *  see {@link PVASettings#EPICS_PVA_POOLED_ARRAY_THRESHOLD}.
+     *  Reading the data from there avoids copying it into a Java array.
+     *
+     *  @return Pooled data of the most recently decoded value, or <code>null</code>
+     */
+    public PooledArray getPooled()
+    {
+        return pooled;
     }
 
     /** @param value Desired new value */
-    public void set(final short[] value)
+    public synchronized void set(final short[] value)
     {
         this.value = value;
+        pooled = null;
     }
 
     @Override
@@ -58,8 +89,8 @@ public class PVAShortArray extends PVAData implements PVAArray, PVAValue
     {
         if (new_value instanceof PVAShortArray)
         {
-            final short[] other = ((PVAShortArray) new_value).value;
-            value = Arrays.copyOf(other, other.length);
+            final short[] other = ((PVAShortArray) new_value).get();
+            set(Arrays.copyOf(other, other.length));
         }
         else if (new_value instanceof PVADoubleArray)
             set(Convert.toShort(((PVADoubleArray) new_value).get()));
@@ -80,7 +111,7 @@ public class PVAShortArray extends PVAData implements PVAArray, PVAValue
                 else
                     throw new Exception("Cannot set " + formatType() + " to " + new_value);
             }
-            value = new_items;
+            set(new_items);
         }
         else
             throw new Exception("Cannot set " + formatType() + " to " + new_value);
@@ -95,7 +126,7 @@ public class PVAShortArray extends PVAData implements PVAArray, PVAValue
     @Override
     public PVAShortArray cloneData()
     {
-        return new PVAShortArray(name, unsigned, value.clone());
+        return new PVAShortArray(name, unsigned, get().clone());
     }
 
     @Override
@@ -111,6 +142,16 @@ public class PVAShortArray extends PVAData implements PVAArray, PVAValue
     public void decode(final PVATypeRegistry types, final ByteBuffer buffer) throws Exception
     {
         final int size = PVASize.decodeSize(buffer);
+        if (PooledArray.isUsed((long) size * 2))
+        {
+            final PooledArray data = PooledArray.decode(buffer, size, 2);
+            synchronized (this)
+            {
+                pooled = data;
+                value = null;
+            }
+            return;
+        }
         // Try to re-use existing array
         final short[] new_value = new short[size];
         // Considered using
@@ -120,13 +161,13 @@ public class PVAShortArray extends PVAData implements PVAArray, PVAValue
         // Profiler shows that it's overall slower.
         for (int i=0; i<size; ++i)
             new_value[i] = buffer.getShort();
-        value = new_value;
+        set(new_value);
     }
 
     @Override
     public void encode(final ByteBuffer buffer) throws Exception
     {
-        final short[] copy = value;
+        final short[] copy = get();
         PVASize.encodeSize(copy.length, buffer);
         for (short item : copy) buffer.putShort(item);
     }
@@ -137,9 +178,9 @@ public class PVAShortArray extends PVAData implements PVAArray, PVAValue
         if (new_value instanceof PVAShortArray)
         {
             final PVAShortArray other = (PVAShortArray) new_value;
-            if (! Arrays.equals(other.value, value))
+            if (! Arrays.equals(other.get(), get()))
             {
-                value = other.value.clone();
+                set(other.get().clone());
                 changes.set(index);
             }
         }
@@ -159,7 +200,7 @@ public class PVAShortArray extends PVAData implements PVAArray, PVAValue
     {
         formatType(level, buffer);
         buffer.append(" [");
-        final short[] safe = value;
+        final short[] safe = get();
         if (safe == null)
             buffer.append("null");
         else
@@ -191,6 +232,6 @@ public class PVAShortArray extends PVAData implements PVAArray, PVAValue
         if (! (obj instanceof PVAShortArray))
             return false;
         final PVAShortArray other = (PVAShortArray) obj;
-        return Arrays.equals(other.value, value);
+        return Arrays.equals(other.get(), get());
     }
 }
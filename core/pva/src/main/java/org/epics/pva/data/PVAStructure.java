@@ -171,11 +171,13 @@ public class PVAStructure extends PVADataWithID
     public void decodeElements(final BitSet changes, final PVATypeRegistry types, final ByteBuffer buffer) throws Exception
     {
         logger.log(Level.FINER, () -> "Structure elements to decode: " + changes);
-        // Preserve 'changes', operate with copy
-        final BitSet to_decode = (BitSet) changes.clone();
-        for (int index = to_decode.nextSetBit(0);
+        // Elements below 'next' have been read.
+        // Bits for elements inside an already decoded sub-structure are skipped,
+        // which avoids modifying (a copy of) 'changes'
+        int next = 0;
+        for (int index = changes.nextSetBit(0);
              index >= 0;
-             index = to_decode.nextSetBit(index + 1))
+             index = changes.nextSetBit(next))
         {
             // final version of index to allow use in logging lambdas
             final int i = index;
@@ -187,19 +189,18 @@ public class PVAStructure extends PVADataWithID
                 final int count = se.decodeElements(types, buffer);
                 logger.log(Level.FINER, () -> "Decoded elements " + i + ".." + (i + count));
                 // Mark all struct elements i .. i+count (incl.) as read
-                to_decode.clear(i, i + count + 1);
+                next = i + count + 1;
             }
             else
             {
                 logger.log(Level.FINER, () -> "Getting data for indexed element " + i + ": " + element.formatType());
                 element.decode(types, buffer);
-                to_decode.clear(i);
+                next = i + 1;
             }
-            logger.log(Level.FINER, () -> "Remaining elements to read: " + to_decode);
 
             // Javadoc for nextSetBit() suggests checking for MAX_VALUE
             // to avoid index + 1 overflow and thus starting over with first bit
-            if (i == Integer.MAX_VALUE)
+            if (next <= 0)
                 break;
         }
     }
@@ -218,8 +219,10 @@ public class PVAStructure extends PVADataWithID
     {
         logger.log(Level.FINEST, () -> "Decoding structure " + getStructureName() + " " + getName());
         int count = 0;
-        for (PVAData element : elements)
+        final int N = elements.size();
+        for (int e=0; e<N; ++e)
         {
+            final PVAData element = elements.get(e);
             // Count the element itself, be it the whole sub-struct
             // or a basic element
             ++count;
@@ -235,7 +238,8 @@ public class PVAStructure extends PVADataWithID
                 element.decode(types, buffer);
             }
         }
-        logger.log(Level.FINEST, "Decoded " + count + " elements");
+        final int decoded = count;
+        logger.log(Level.FINEST, () -> "Decoded " + decoded + " elements");
         return count;
     }
 
@@ -299,9 +303,14 @@ public class PVAStructure extends PVADataWithID
     @SuppressWarnings("unchecked")
     public <PVA extends PVAData> PVA get(final String element_name)
     {
-        for (PVAData element : elements)
+        // Indexed loop avoids allocating an iterator for each lookup
+        final int N = elements.size();
+        for (int e=0; e<N; ++e)
+        {
+            final PVAData element = elements.get(e);
             if (element.getName().equals(element_name))
                 return (PVA) element;
+        }
         return null;
     }
 
@@ -392,8 +401,10 @@ public class PVAStructure extends PVADataWithID
         if (i == index)
             return this;
         // Check elements
-        for (PVAData element : elements)
+        final int N = elements.size();
+        for (int e=0; e<N; ++e)
         {
+            final PVAData element = elements.get(e);
             ++i;
             if (i == index)
                 return element;
@@ -0,0 +1,351 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.data;
+
+import java.lang.ref.Cleaner;
+import java.lang.ref.Reference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.epics.pva.PVASettings;
+
+/** Read-only array data held in a pooled direct buffer
+ *
+ *  <p>When enabled via {@link PVASettings#EPICS_PVA_POOLED_ARRAY_THRESHOLD},
+ *  large arrays are decoded by bulk-copying the received bytes
+ *  into a direct buffer instead of converting them element by element
+ *  into a newly allocated Java array.
+ *  The data can then be read via the element access methods
+ *  without any further copy.
+ *
+ *  <p>The direct buffer is never exposed.
+ *  Once the {@link PooledArray} is no longer referenced,
+ *  the buffer is returned to a pool and re-used for the
+ *  next large array.
+ *  Methods that read the buffer keep the {@link PooledArray} reachable
+ *  until they are done, because the JIT may otherwise consider it
+ *  unreachable as soon as the 'data' field has been fetched.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public final class PooledArray
+{
+    /** Smallest buffer size class, 2^16 bytes */
+    private static final int MIN_SIZE_BITS = 16;
+
+    /** Maximum number of free buffers kept per size class */
+    private static final int MAX_FREE = 4;
+
+    /** Free buffers by size class, up to 2^30 bytes */
+    @SuppressWarnings("unchecked")
+    private static final Queue<ByteBuffer>[] free = new Queue[31];
+
+    /** Number of free buffers per size class */
+    private static final AtomicInteger[] free_count = new AtomicInteger[31];
+
+    private static final Cleaner cleaner = Cleaner.create();
+
+    private static final AtomicLong allocated = new AtomicLong(), reused = new AtomicLong();
+
+    static
+    {
+        for (int i=0; i<free.length; ++i)
+        {
+            free[i] = new ConcurrentLinkedQueue<>();
+            free_count[i] = new AtomicInteger();
+        }
+    }
+
+    /** Returns buffer to pool once the {@link PooledArray} is unreachable.
+     *  Must not reference the {@link PooledArray}.
+     */
+    private static class Recycler implements Runnable
+    {
+        private final ByteBuffer buffer;
+        private final int size_class;
+
+        Recycler(final ByteBuffer buffer, final int size_class)
+        {
+            this.buffer = buffer;
+            this.size_class = size_class;
+        }
+
+        @Override
+        public void run()
+        {
+            if (free_count[size_class].incrementAndGet() <= MAX_FREE)
+                free[size_class].offer(buffer);
+            else
+                free_count[size_class].decrementAndGet();
+        }
+    }
+
+    /** Read-only view of the data, positioned at 0 */
+    private final ByteBuffer data;
+
+    /** Number of array elements */
+    private final int size;
+
+    /** @param bytes Size of array data in bytes
+     *  @return Should array data be placed in a {@link PooledArray}?
+     */
+    static boolean isUsed(final long bytes)
+    {
+        final int threshold = PVASettings.EPICS_PVA_POOLED_ARRAY_THRESHOLD;
+        return threshold > 0  &&  bytes >= threshold  &&  bytes <= Integer.MAX_VALUE;
+    }
+
+    /** Decode array elements from buffer
+     *  @param buffer Buffer positioned on first array element
+     *  @param size Number of elements
+     *  @param element_bytes Bytes per element
+     *  @return {@link PooledArray}
+     */
+    static PooledArray decode(final ByteBuffer buffer, final int size, final int element_bytes)
+    {
+        final int bytes = size * element_bytes;
+        if (bytes > buffer.remaining())
+            throw new IllegalArgumentException("Array of " + size + " elements needs " + bytes + " bytes, buffer has " + buffer.remaining());
+        return new PooledArray(buffer, size, bytes);
+    }
+
+    private PooledArray(final ByteBuffer buffer, final int size, final int bytes)
+    {
+        // Size class: Smallest power of 2 that holds the bytes
+        final int size_class = Math.max(MIN_SIZE_BITS, 32 - Integer.numberOfLeadingZeros(bytes - 1));
+        ByteBuffer pooled = null;
+        if (size_class < free.length)
+        {
+            pooled = free[size_class].poll();
+            if (pooled != null)
+            {
+                free_count[size_class].decrementAndGet();
+                reused.incrementAndGet();
+            }
+        }
+        if (pooled == null)
+        {
+            pooled = ByteBuffer.allocateDirect(size_class < free.length ? 1 << size_class : bytes);
+            allocated.incrementAndGet();
+        }
+
+        // Bulk copy
+        pooled.clear();
+        final int pos = buffer.position();
+        pooled.put(0, buffer, pos, bytes);
+        buffer.position(pos + bytes);
+
+        this.data = pooled.slice(0, bytes).asReadOnlyBuffer().order(buffer.order());
+        this.size = size;
+        if (size_class < free.length)
+            cleaner.register(this, new Recycler(pooled, size_class));
+    }
+
+    /** @return Number of direct buffers allocated for pooled arrays */
+    public static long getAllocatedBuffers()
+    {
+        return allocated.get();
+    }
+
+    /** @return Number of times that a pooled buffer was re-used */
+    public static long getReusedBuffers()
+    {
+        return reused.get();
+    }
+
+    /** @return Number of array elements */
+    public int size()
+    {
+        return size;
+    }
+
+    /** @return Byte order of the data */
+    public ByteOrder order()
+    {
+        return data.order();
+    }
+
+    /** @param index Element index
+     *  @return Element of a byte array
+     */
+    public byte getByte(final int index)
+    {
+        try
+        {
+            return data.get(index);
+        }
+        finally
+        {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /** @param index Element index
+     *  @return Element of a short array
+     */
+    public short getShort(final int index)
+    {
+        try
+        {
+            return data.getShort(index << 1);
+        }
+        finally
+        {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /** @param index Element index
+     *  @return Element of an int array
+     */
+    public int getInt(final int index)
+    {
+        try
+        {
+            return data.getInt(index << 2);
+        }
+        finally
+        {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /** @param index Element index
+     *  @return Element of a float array
+     */
+    public float getFloat(final int index)
+    {
+        try
+        {
+            return data.getFloat(index << 2);
+        }
+        finally
+        {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /** @param index Element index
+     *  @return Element of a double array
+     */
+    public double getDouble(final int index)
+    {
+        try
+        {
+            return data.getDouble(index << 3);
+        }
+        finally
+        {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /** Copy raw bytes of the data
+     *  @param index Byte offset into the data
+     *  @param dst Destination
+     *  @param offset Offset into destination
+     *  @param length Number of bytes to copy
+     */
+    public void getBytes(final int index, final byte[] dst, final int offset, final int length)
+    {
+        try
+        {
+            data.get(index, dst, offset, length);
+        }
+        finally
+        {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /** @return Copy of byte array data */
+    byte[] toBytes()
+    {
+        final byte[] result = new byte[size];
+        try
+        {
+            data.get(0, result);
+        }
+        finally
+        {
+            Reference.reachabilityFence(this);
+        }
+        return result;
+    }
+
+    /** @return Copy of short array data */
+    short[] toShorts()
+    {
+        final short[] result = new short[size];
+        try
+        {
+            data.asShortBuffer().get(0, result);
+        }
+        finally
+        {
+            Reference.reachabilityFence(this);
+        }
+        return result;
+    }
+
+    /** @return Copy of int array data */
+    int[] toInts()
+    {
+        final int[] result = new int[size];
+        try
+        {
+            data.asIntBuffer().get(0, result);
+        }
+        finally
+        {
+            Reference.reachabilityFence(this);
+        }
+        return result;
+    }
+
+    /** @return Copy of float array data */
+    float[] toFloats()
+    {
+        final float[] result = new float[size];
+        try
+        {
+            data.asFloatBuffer().get(0, result);
+        }
+        finally
+        {
+            Reference.reachabilityFence(this);
+        }
+        return result;
+    }
+
+    /** @return Copy of double array data */
+    double[] toDoubles()
+    {
+        final double[] result = new double[size];
+        try
+        {
+            data.asDoubleBuffer().get(0, result);
+        }
+        finally
+        {
+            Reference.reachabilityFence(this);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PooledArray[" + size + "]";
+    }
+}
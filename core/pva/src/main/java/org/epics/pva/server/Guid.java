@@ -10,6 +10,7 @@ package org.epics.pva.server;
 import java.nio.ByteBuffer;
 import java.security.SecureRandom;
 import java.util.Arrays;
+import java.util.HexFormat;
 
 /** Globally unique ID
  *  @author Kay Kasemir
@@ -52,6 +53,15 @@ public class Guid
         System.arraycopy(value, 0, guid, 0, guid.length);
     }
 
+    /** @param text GUID as "FE1A.." type text, see {@link #asText()}
+     *  @return Guid
+     *  @throws IllegalArgumentException if text is not a valid GUID
+     */
+    public static Guid fromText(final String text)
+    {
+        return new Guid(HexFormat.of().parseHex(text));
+    }
+
     /** @param buffer Buffer into which to encode Guid */
     public void encode(final ByteBuffer buffer)
     {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019-2025 Oak Ridge National Laboratory.
+ * Copyright (c) 2019-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -9,24 +9,32 @@ package org.epics.pva.server;
 
 import static org.epics.pva.PVASettings.logger;
 
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.util.BitSet;
 import java.util.logging.Level;
 
 import org.epics.pva.common.PVAHeader;
 import org.epics.pva.data.PVABitSet;
-import org.epics.pva.data.PVAData;
 import org.epics.pva.data.PVAStructure;
 
 /** One client's subscription to "monitor" a PV
  *
- *  <p>Maintains the most recent value sent to client,
- *  sends changes to that client as the value is updated.
+ *  <p>Sends changes to that client as the value is updated.
+ *
+ *  <p>Updates of the PV are encoded once by the {@link ServerPV}
+ *  into a shared {@link MonitorUpdate}, which is then copied
+ *  into the send buffer of each subscribed client.
+ *  Only when a client falls behind, combining several updates,
+ *  or for the initial update is the data encoded for just this client.
  *
  *  @author Kay Kasemir
  */
 class MonitorSubscription
 {
+    /** Empty overrun bitset */
+    private static final BitSet NO_OVERRUN = new BitSet();
+
     /** ID of monitor request sent by client */
     private final int req;
 
@@ -39,23 +47,25 @@ class MonitorSubscription
     // Clients subscribe at different times,
     // and their TCP connection might be able to handle updates
     // at different rates, so each subscription maintains
-    // the per-client state of the data, changes and overruns.
+    // the per-client state of changes and overruns.
     //
     //   /------------------------------------\
-    //  /--- SYNC on data for the following ---\
+    //  /--- SYNC on this for the following ---\
 
-    /** Most recent value, to be sent to clients
-     *  SYNC on data
+    /** Shared update to send to client as-is,
+     *  or <code>null</code> to encode the PV's current data for the
+     *  combined <code>changes</code>.
+     *  SYNC on this
      */
-    private final PVAStructure data;
+    private MonitorUpdate update = null;
 
-    /** Most recent changes, yet to be sent to clients
-     *  SYNC on data
+    /** Changes yet to be sent to client, used when there's no shared <code>update</code>
+     *  SYNC on this
      */
-    private volatile BitSet changes = new BitSet();
+    private final BitSet changes = new BitSet();
 
     /** Overruns, u.e. updates received between successful transmissions to client
-     *  SYNC on data
+     *  SYNC on this
      */
     private final BitSet overrun = new BitSet();
 
@@ -63,11 +73,11 @@ class MonitorSubscription
      *
      *  <p>Used to prevent scheduling more updates than TCP connection can handle.
      *  Changes from multiple updates are combined, potentially indicating overrun.
-     *  SYNC on data
+     *  SYNC on this
      */
-    private volatile boolean pending = true;
+    private boolean pending = true;
 
-    //  \--- SYNC on data for the above     ---/
+    //  \--- SYNC on this for the above     ---/
     //   \------------------------------------/
 
 
@@ -76,7 +86,6 @@ class MonitorSubscription
         this.req = req;
         this.pv = pv;
         this.tcp = tcp;
-        data = pv.getData();
 
         // Initial update: Send all the data (bit zero)
         // Later we typically send changes to "value" etc.
@@ -95,51 +104,85 @@ class MonitorSubscription
         return this.tcp == tcp  &&  (req == -1 || this.req == req);
     }
 
-    void update(final PVAStructure new_data) throws Exception
+    /** Called by {@link ServerPV} while holding the lock on its data
+     *  @param new_update Update, subscription takes ownership of one reference
+     */
+    void update(final MonitorUpdate new_update)
     {
-        // We update `data`, then submit an `encodeMonitor` run.
+        // We remember the update, then submit an `encodeMonitor` run.
         // As updates arrive, one could occur before or right when
         // `encodeMonitor` runs.
-        // Since we all sync on data, there are several scenarios
+        // Since we all sync on this, there are several scenarios
         // a) Previously submitted `encodeMonitor` is pending,
         //    another `update` adds changes and maybe accumulates overruns.
         //    It will not submit another `encodeMonitor` run
         //    because one is already pending which will eventually
         //    transmit the combined update.
         // c) Previously submitted `encodeMonitor` runs but
-        //    we are able to lock `data` before `encodeMonitor`.
+        //    we are able to lock before `encodeMonitor`.
         //    Plays out just like case a), add changes, detect
         //    a pending `encodeMonitor` run.
         // b) Previously submitted `encodeMonitor` runs and
-        //    syncs on data, we are blocked.
+        //    syncs, we are blocked.
         //    `encodeMonitor` transmits the update, clears `pending`,
-        //    and then we can update data and submit another `encodeMonitor` run.
-        synchronized (data)
+        //    and then we can submit another `encodeMonitor` run.
+        synchronized (this)
         {
-            final BitSet old_changes = changes;
-
-            // Update data, see what's new
-            changes = data.update(new_data);
-
-            // Accumulate overrun:
-            // See what had changed before, and now changed again
-            old_changes.and(changes);
-            overrun.or(old_changes);
-
             // Only submit when there's not already one pending, waiting to be sent out
             if (pending)
+            {
+                // Combine with changes that have not been sent,
+                // which are then encoded from the PV's current data
+                if (update != null)
+                {
+                    changes.or(update.getChanges());
+                    update.release();
+                    update = null;
+                }
+                // Accumulate overrun:
+                // See what had changed before, and now changed again
+                final BitSet new_changes = new_update.getChanges();
+                final BitSet again = (BitSet) changes.clone();
+                again.and(new_changes);
+                overrun.or(again);
+                changes.or(new_changes);
+                new_update.release();
                 logger.log(Level.WARNING, "Skipping already submitted " + this + ", changes " + changes + ", overrun " + overrun);
+            }
             else
             {
+                update = new_update;
                 tcp.submit(this::encodeMonitor);
                 pending = true;
             }
         }
     }
 
+    /** @param buffer Buffer used to send
+     *  @return Shared update that can be sent as-is, or <code>null</code>
+     *  @throws BufferOverflowException if update won't fit, leaving it pending
+     */
+    private MonitorUpdate takeSharedUpdate(final ByteBuffer buffer) throws BufferOverflowException
+    {
+        synchronized (this)
+        {
+            final MonitorUpdate shared = update;
+            if (shared == null  ||  shared.order() != buffer.order())
+                return null;
+            // Check before taking the update, so sender may try again
+            // (update plus empty overrun bitset)
+            if (shared.size() + 1 > buffer.remaining())
+                throw new BufferOverflowException();
+            update = null;
+            pending = false;
+            return shared;
+        }
+    }
+
     private void encodeMonitor(final byte version, final ByteBuffer buffer) throws Exception
     {
 
+        final int size_offset = buffer.position() + PVAHeader.HEADER_OFFSET_PAYLOAD_SIZE;
         PVAHeader.encodeMessageHeader(buffer, PVAHeader.FLAG_SERVER, PVAHeader.CMD_MONITOR, 0);
         final int payload_start = buffer.position();
 
@@ -147,38 +190,49 @@ class MonitorSubscription
         // Subcommand 0 = value update
         buffer.put((byte)0);
 
-        synchronized (data)
+        // Can the shared update be sent as-is?
+        final MonitorUpdate to_send = takeSharedUpdate(buffer);
+        if (to_send != null)
         {
-            logger.log(Level.FINE, () -> "Sending MONITOR value for " + pv + ": changes " + changes + ", overrun " + overrun);
+            logger.log(Level.FINE, () -> "Sending MONITOR value for " + pv + ": " + to_send);
+            to_send.copyTo(buffer);
+            to_send.release();
+            // Overrun is only accumulated when combining changes, so there's none
+            PVABitSet.encodeBitSet(NO_OVERRUN, buffer);
+        }
+        else
+            pv.encodeData(this::encodeChanges, buffer);
+
+        final int payload_end = buffer.position();
+        buffer.putInt(size_offset, payload_end - payload_start);
+    }
 
-            // Encode what changed
-            PVABitSet.encodeBitSet(changes, buffer);
-            // Encode the changed data
-            for (int index = changes.nextSetBit(0);
-                    index >= 0;
-                    index = changes.nextSetBit(index + 1))
+    /** Called by {@link ServerPV} while holding the lock on its data
+     *  @param data Current data of PV
+     *  @param buffer Buffer into which to encode changes and overrun
+     *  @throws Exception on error
+     */
+    private void encodeChanges(final PVAStructure data, final ByteBuffer buffer) throws Exception
+    {
+        synchronized (this)
+        {
+            if (update != null)
             {
-                // final version of index to allow use in logging lambdas
-                final int i = index;
-                final PVAData element = data.get(i);
-                logger.log(Level.FINER, () -> "Encode data for indexed element " + i + ": " + element);
-                element.encode(buffer);
-
-                // Javadoc for nextSetBit() suggests checking for MAX_VALUE
-                // to avoid index + 1 overflow and thus starting over with first bit
-                if (i == Integer.MAX_VALUE)
-                    break;
+                changes.or(update.getChanges());
+                update.release();
+                update = null;
             }
-            changes.clear();
+            logger.log(Level.FINE, () -> "Sending MONITOR value for " + pv + ": changes " + changes + ", overrun " + overrun);
 
+            // TCPHandler may call again after a BufferOverflowException,
+            // so only clear the state once the complete message has been encoded
+            MonitorUpdate.encodeChanges(data, changes, buffer);
             PVABitSet.encodeBitSet(overrun, buffer);
-            overrun.clear();
 
+            changes.clear();
+            overrun.clear();
             pending = false;
         }
-
-        final int payload_end = buffer.position();
-        buffer.putInt(PVAHeader.HEADER_OFFSET_PAYLOAD_SIZE, payload_end - payload_start);
     }
 
     @Override
@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.server;
+
+import static org.epics.pva.PVASettings.logger;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+
+import org.epics.pva.data.PVABitSet;
+import org.epics.pva.data.PVAData;
+import org.epics.pva.data.PVAStructure;
+
+/** Value update of a PV, encoded once and shared by all its subscriptions
+ *
+ *  <p>Holds the encoded 'changed' bitset and the changed data elements.
+ *  Each {@link MonitorSubscription} that can send the update as-is
+ *  copies these bytes into its TCP send buffer.
+ *
+ *  <p>Reference counted:
+ *  Every subscription that receives the update holds a reference
+ *  and releases it once the update has been copied or superseded by a newer one.
+ *  When the last reference is released, the buffer is re-used
+ *  for encoding the next update of the PV.
+ *
+ *  @author Kay Kasemir
+ */
+class MonitorUpdate
+{
+    /** Initial buffer size */
+    private static final int INITIAL_SIZE = 1024;
+
+    /** Elements that changed. Must not be modified */
+    private final BitSet changes;
+
+    /** Encoded changes and elements, positioned at 0, limit at end of data */
+    private final ByteBuffer encoded;
+
+    /** Buffer to re-use */
+    private final AtomicReference<ByteBuffer> spare;
+
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    /** Encode update
+     *
+     *  <p>Caller holds the one initial reference,
+     *  needs to call {@link #addRef()} for each subscription
+     *  and eventually {@link #release()}
+     *
+     *  @param data Current value of the PV
+     *  @param changes Elements of the data that changed
+     *  @param spare Buffer to use for encoding, will receive the buffer once released
+     *  @throws Exception on error
+     */
+    MonitorUpdate(final PVAStructure data, final BitSet changes, final AtomicReference<ByteBuffer> spare) throws Exception
+    {
+        this.changes = changes;
+        this.spare = spare;
+        ByteBuffer buffer = spare.getAndSet(null);
+        if (buffer == null)
+            buffer = ByteBuffer.allocate(INITIAL_SIZE);
+        // Server sends in native byte order, see TCPHandler
+        buffer.order(ByteOrder.nativeOrder());
+        while (true)
+        {
+            try
+            {
+                buffer.clear();
+                encodeChanges(data, changes, buffer);
+                break;
+            }
+            catch (BufferOverflowException ex)
+            {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.order(ByteOrder.nativeOrder());
+            }
+        }
+        buffer.flip();
+        encoded = buffer;
+    }
+
+    /** Encode changes
+     *  @param data Data structure
+     *  @param changes Elements of data that changed
+     *  @param buffer Buffer into which to encode the 'changed' bitset and the changed elements
+     *  @throws Exception on error
+     */
+    static void encodeChanges(final PVAStructure data, final BitSet changes, final ByteBuffer buffer) throws Exception
+    {
+        // Encode what changed
+        PVABitSet.encodeBitSet(changes, buffer);
+        // Encode the changed data
+        for (int index = changes.nextSetBit(0);
+                index >= 0;
+                index = changes.nextSetBit(index + 1))
+        {
+            // final version of index to allow use in logging lambdas
+            final int i = index;
+            final PVAData element = data.get(i);
+            logger.log(Level.FINER, () -> "Encode data for indexed element " + i + ": " + element);
+            element.encode(buffer);
+
+            // Javadoc for nextSetBit() suggests checking for MAX_VALUE
+            // to avoid index + 1 overflow and thus starting over with first bit
+            if (i == Integer.MAX_VALUE)
+                break;
+        }
+    }
+
+    /** @return Elements that changed. Must not be modified */
+    BitSet getChanges()
+    {
+        return changes;
+    }
+
+    /** @return Byte order of the encoded data */
+    ByteOrder order()
+    {
+        return encoded.order();
+    }
+
+    /** @return Size of the encoded data in bytes */
+    int size()
+    {
+        return encoded.limit();
+    }
+
+    /** Copy encoded update into buffer
+     *
+     *  <p>May be called concurrently by several subscriptions
+     *  @param buffer Buffer, position is advanced by the size of the update
+     */
+    void copyTo(final ByteBuffer buffer)
+    {
+        final int size = encoded.limit();
+        final int pos = buffer.position();
+        buffer.put(pos, encoded, 0, size);
+        buffer.position(pos + size);
+    }
+
+    /** Add reference */
+    void addRef()
+    {
+        references.incrementAndGet();
+    }
+
+    /** Release reference */
+    void release()
+    {
+        final int refs = references.decrementAndGet();
+        if (refs == 0)
+            spare.set(encoded);
+        else if (refs < 0)
+            logger.log(Level.WARNING, "Released " + this + " too often", new Exception("Call stack"));
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MonitorUpdate " + changes + ", " + encoded.limit() + " bytes";
+    }
+}
@@ -9,11 +9,13 @@ package org.epics.pva.server;
 
 import static org.epics.pva.PVASettings.logger;
 
+import java.nio.ByteBuffer;
 import java.util.BitSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentHashMap.KeySetView;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 
 import org.epics.pva.common.AccessRightsChange;
@@ -86,6 +88,20 @@ public class ServerPV implements AutoCloseable
     /** All the 'monitor' subscriptions to this PV */
     private final KeySetView<MonitorSubscription, Boolean> subscriptions = ConcurrentHashMap.newKeySet();
 
+    /** Buffer of the last {@link MonitorUpdate}, to be re-used by the next one */
+    private final AtomicReference<ByteBuffer> spare_buffer = new AtomicReference<>();
+
+    /** Encoder for a subscription's changes */
+    @FunctionalInterface
+    interface DataEncoder
+    {
+        /** @param data Current data of the PV
+         *  @param buffer Buffer into which to encode
+         *  @throws Exception on error
+         */
+        void encode(PVAStructure data, ByteBuffer buffer) throws Exception;
+    }
+
     /** Create a PV for serving data
      *  @param name PV name
      *  @param data Initial value
@@ -234,14 +250,39 @@ public class ServerPV implements AutoCloseable
      */
     public void update(final PVAStructure new_data) throws Exception
     {
-        // Update data
         synchronized (data)
         {
-            data.update(new_data);
+            // Update data
+            final BitSet changes = data.update(new_data);
+            if (subscriptions.isEmpty())
+                return;
+
+            // Encode changes once, then hand to all subscriptions
+            final MonitorUpdate update = new MonitorUpdate(data, changes, spare_buffer);
+            for (MonitorSubscription subscription : subscriptions)
+            {
+                update.addRef();
+                subscription.update(update);
+            }
+            update.release();
+        }
+    }
+
+    /** Encode current data
+     *
+     *  <p>Invokes the encoder while holding the lock on the data,
+     *  so no updates are received while it encodes
+     *
+     *  @param encoder Encoder to call with current data
+     *  @param buffer Buffer into which to encode
+     *  @throws Exception on error
+     */
+    void encodeData(final DataEncoder encoder, final ByteBuffer buffer) throws Exception
+    {
+        synchronized (data)
+        {
+            encoder.encode(data, buffer);
         }
-        // Update subscriptions
-        for (MonitorSubscription subscription : subscriptions)
-            subscription.update(new_data);
     }
 
     /** Get current value (thread-safe copy)
@@ -196,8 +196,10 @@ class ServerTCPListener
             // https://stackoverflow.com/questions/37763038/is-there-any-way-to-use-sslcontext-with-serversocketchannel
             //
             // As a workaround we configure a (short) timeout on the sockets
-            // and then take turns 'accept'ing from them
-            if (tcp_server_socket != null)
+            // and then take turns 'accept'ing from them.
+            // With only open TCP, block in 'accept' to avoid
+            // polling delays when many clients connect at once.
+            if (tcp_server_socket != null  &&  tls_server_socket != null)
                 tcp_server_socket.setSoTimeout(10);
             if (tls_server_socket != null)
                 tls_server_socket.setSoTimeout(10);
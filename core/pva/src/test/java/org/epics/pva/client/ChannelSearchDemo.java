@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.client;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import org.epics.pva.PVASettings;
+
+/** Simulation of searching many unresolved channels
+ *
+ *  <p>Creates channels that are never found and
+ *  sends the search requests to a local UDP socket
+ *  which only counts the received packets.
+ *  Prints packets and bytes per second as well as the
+ *  CPU time used by the 'ChannelSearch' thread.
+ *
+ *  <p>Run with -DEPICS_PVA_MAX_SEARCH_PACKETS=0
+ *  to disable the search rate limit.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class ChannelSearchDemo
+{
+    public static void main(String[] args) throws Exception
+    {
+        final int channels = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        final int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+
+        // Receive search requests on a local port
+        final DatagramSocket receiver = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        receiver.setSoTimeout(100);
+        final AtomicLong packets = new AtomicLong(), bytes = new AtomicLong();
+        final Thread counter = new Thread(() ->
+        {
+            final DatagramPacket packet = new DatagramPacket(new byte[65536], 65536);
+            while (! receiver.isClosed())
+            {
+                try
+                {
+                    receiver.receive(packet);
+                    packets.incrementAndGet();
+                    bytes.addAndGet(packet.getLength());
+                }
+                catch (SocketTimeoutException ex)
+                {
+                    // Check if closed
+                }
+                catch (Exception ex)
+                {
+                    if (! receiver.isClosed())
+                        ex.printStackTrace();
+                }
+            }
+        });
+        counter.setDaemon(true);
+        counter.start();
+
+        // Configure client to only search the local receiver
+        System.setProperty("EPICS_PVA_ADDR_LIST", "127.0.0.1:" + receiver.getLocalPort());
+        System.setProperty("EPICS_PVA_AUTO_ADDR_LIST", "NO");
+        PVASettings.logger.setLevel(Level.SEVERE);
+
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        try (final PVAClient pva = new PVAClient())
+        {
+            final long start = System.nanoTime();
+            for (int i=0; i<channels; ++i)
+                pva.getChannel("unresolved:channel:" + i);
+            System.out.format("Created %d channels in %.2f s, sent %d packets\n",
+                              channels, (System.nanoTime() - start) / 1e9, packets.getAndSet(0));
+            bytes.set(0);
+
+            final long search_thread = Thread.getAllStackTraces()
+                                             .keySet()
+                                             .stream()
+                                             .filter(thread -> thread.getName().equals("ChannelSearch"))
+                                             .findFirst()
+                                             .orElseThrow()
+                                             .threadId();
+            long total_packets = 0, total_bytes = 0;
+            for (int sec=1; sec<=seconds; ++sec)
+            {
+                TimeUnit.SECONDS.sleep(1);
+                final long p = packets.getAndSet(0), b = bytes.getAndSet(0);
+                total_packets += p;
+                total_bytes += b;
+                System.out.format("%3d s: %5d packets, %8d bytes, search thread CPU %7.1f ms\n",
+                                  sec, p, b, threads.getThreadCpuTime(search_thread) / 1e6);
+            }
+            System.out.format("Total: %d packets, %d bytes, search thread CPU %.1f ms\n",
+                              total_packets, total_bytes, threads.getThreadCpuTime(search_thread) / 1e6);
+        }
+        receiver.close();
+    }
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.client;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.epics.pva.PVASettings;
+import org.epics.pva.data.PVADouble;
+import org.epics.pva.data.PVAStructure;
+import org.epics.pva.server.PVAServer;
+
+/** Startup time to first value with and without the {@link SearchCache}
+ *
+ *  <p>Serves many PVs, then repeatedly starts a client
+ *  that connects to all of them and reads their value.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class SearchCacheDemo
+{
+    /** @return Seconds to first value of all channels */
+    private static double readAll(final int count) throws Exception
+    {
+        final long start = System.nanoTime();
+        try (PVAClient client = new PVAClient())
+        {
+            final List<PVAChannel> channels = new ArrayList<>(count);
+            for (int i=0; i<count; ++i)
+                channels.add(client.getChannel("cached" + i, (ch, state) -> {}));
+            final List<CompletableFuture<PVAStructure>> values = new ArrayList<>(count);
+            for (PVAChannel channel : channels)
+            {
+                channel.connect().get(30, TimeUnit.SECONDS);
+                values.add(channel.read(""));
+            }
+            for (CompletableFuture<PVAStructure> value : values)
+                value.get(30, TimeUnit.SECONDS);
+            final double secs = (System.nanoTime() - start) / 1e9;
+            for (PVAChannel channel : channels)
+                channel.close();
+            return secs;
+        }
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        final int count = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+
+        // Search only on localhost
+        System.setProperty("EPICS_PVA_ADDR_LIST", "127.0.0.1");
+        System.setProperty("EPICS_PVA_AUTO_ADDR_LIST", "NO");
+        PVASettings.logger.setLevel(Level.WARNING);
+
+        final Path file = Files.createTempFile("search_cache", ".txt");
+        Files.delete(file);
+        try (PVAServer server = new PVAServer())
+        {
+            for (int i=0; i<count; ++i)
+                server.createPV("cached" + i, new PVAStructure("", "epics:nt/NTScalar:1.0", new PVADouble("value", i)));
+
+            PVASettings.EPICS_PVA_SEARCH_CACHE = "";
+            System.out.format("%d channels without cache: %.2f s\n", count, readAll(count));
+
+            PVASettings.EPICS_PVA_SEARCH_CACHE = file.toString();
+            System.out.format("%d channels, filling cache: %.2f s\n", count, readAll(count));
+            System.out.format("%d channels with cache    : %.2f s\n", count, readAll(count));
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.epics.pva.PVASettings;
+import org.epics.pva.server.Guid;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Test of the {@link SearchCache}
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class SearchCacheTest
+{
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testSaveLoad() throws Exception
+    {
+        final Path file = dir.resolve("search_cache");
+        final Guid guid = new Guid();
+        final InetSocketAddress server = new InetSocketAddress("127.0.0.1", 5075);
+        final InetSocketAddress server6 = new InetSocketAddress("::1", 5086);
+
+        SearchCache cache = new SearchCache(file);
+        assertEquals(0, cache.size());
+        cache.put("ramp", server, guid, false);
+        cache.put("name with spaces", server, guid, false);
+        cache.put("secure", server6, guid, true);
+        cache.save();
+        assertTrue(Files.exists(file));
+
+        cache = new SearchCache(file);
+        assertEquals(3, cache.size());
+        assertEquals(new SearchCache.Entry(server, guid, false), cache.get("ramp"));
+        assertEquals(new SearchCache.Entry(server, guid, false), cache.get("name with spaces"));
+        assertEquals(new SearchCache.Entry(server6, guid, true), cache.get("secure"));
+        assertNull(cache.get("unknown"));
+
+        cache.remove("secure");
+        cache.save();
+        assertEquals(2, new SearchCache(file).size());
+    }
+
+    @Test
+    public void testBeacons() throws Exception
+    {
+        final Guid guid_a = new Guid(), guid_b = new Guid();
+        final InetSocketAddress server_a = new InetSocketAddress("127.0.0.1", 5075);
+        final InetSocketAddress server_b = new InetSocketAddress("127.0.0.1", 5076);
+
+        final SearchCache cache = new SearchCache(dir.resolve("search_cache"));
+        cache.put("a1", server_a, guid_a, false);
+        cache.put("a2", server_a, guid_a, false);
+        cache.put("b", server_b, guid_b, false);
+
+        // Beacon from known server doesn't change anything
+        cache.handleBeacon(guid_a, server_a);
+        assertEquals(3, cache.size());
+
+        // Server B was restarted, has new GUID
+        cache.handleBeacon(new Guid(), server_b);
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a1"));
+
+        // Server A moved to another port
+        cache.handleBeacon(guid_a, new InetSocketAddress("127.0.0.1", 5077));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testUnreachableServer() throws Exception
+    {
+        // Port on which nobody listens
+        final int port;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress()))
+        {
+            port = socket.getLocalPort();
+        }
+        final InetSocketAddress gone = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        final Guid guid = new Guid();
+
+        final Path file = dir.resolve("search_cache");
+        final SearchCache cache = new SearchCache(file);
+        cache.put("gone1", gone, guid, false);
+        cache.put("gone2", gone, guid, false);
+        cache.put("other", new InetSocketAddress("127.0.0.1", 5075), guid, false);
+        cache.save();
+
+        final String orig = PVASettings.EPICS_PVA_SEARCH_CACHE;
+        PVASettings.EPICS_PVA_SEARCH_CACHE = file.toString();
+        try (PVAClient client = new PVAClient())
+        {
+            final SearchCache shared = SearchCache.getInstance();
+            assertEquals(3, shared.size());
+
+            // Channel is created on cached server, which fails to connect.
+            // That drops all entries for the server, and channel is searched
+            final PVAChannel channel = client.getChannel("gone1");
+            final long end = System.currentTimeMillis() + 10000;
+            while ((shared.size() > 1  ||  channel.getState() != ClientChannelState.SEARCHING)  &&
+                   System.currentTimeMillis() < end)
+                Thread.sleep(10);
+            assertNull(shared.get("gone1"));
+            assertNull(shared.get("gone2"));
+            assertNotNull(shared.get("other"));
+            assertEquals(ClientChannelState.SEARCHING, channel.getState());
+            channel.close();
+        }
+        finally
+        {
+            PVASettings.EPICS_PVA_SEARCH_CACHE = orig;
+        }
+    }
+
+    @Test
+    public void testGuidText() throws Exception
+    {
+        final Guid guid = new Guid();
+        assertEquals(guid, Guid.fromText(guid.asText()));
+        assertFalse(guid.equals(Guid.fromText(new Guid().asText())));
+    }
+}
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.common;
+
+import java.lang.management.ManagementFactory;
+
+/** Helper for micro benchmarks
+ *
+ *  <p>Runs an operation for some time to warm up,
+ *  then measures operations per second and
+ *  bytes allocated per operation by the calling thread.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class Benchmark
+{
+    /** Operation to benchmark */
+    @FunctionalInterface
+    public interface Operation
+    {
+        /** @throws Exception on error */
+        void run() throws Exception;
+    }
+
+    /** Result of a benchmark */
+    public static class Result
+    {
+        /** Operations per second */
+        public final double ops_per_sec;
+        /** Bytes allocated per operation */
+        public final double bytes_per_op;
+
+        Result(final double ops_per_sec, final double bytes_per_op)
+        {
+            this.ops_per_sec = ops_per_sec;
+            this.bytes_per_op = bytes_per_op;
+        }
+    }
+
+    private static final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static long warmup_ms = Long.getLong("benchmark.warmup_ms", 1000);
+    private static long measure_ms = Long.getLong("benchmark.measure_ms", 2000);
+
+    /** Run benchmark, print result
+     *
+     *  @param name Name of benchmark
+     *  @param bytes_per_op Payload bytes per operation, used to display MB/s, or 0
+     *  @param operation Operation to run
+     *  @return {@link Result}
+     *  @throws Exception on error
+     */
+    public static Result run(final String name, final long bytes_per_op, final Operation operation) throws Exception
+    {
+        loop(warmup_ms, operation);
+
+        final long thread_id = Thread.currentThread().getId();
+        final long alloc_start = threads.getThreadAllocatedBytes(thread_id);
+        final long start = System.nanoTime();
+        final long count = loop(measure_ms, operation);
+        final long nanos = System.nanoTime() - start;
+        final long allocated = threads.getThreadAllocatedBytes(thread_id) - alloc_start;
+
+        final Result result = new Result(count * 1e9 / nanos, (double) allocated / count);
+        if (bytes_per_op > 0)
+            System.out.format("%-45s %,14.1f ops/s %,10.1f MB/s %,14.1f B/op allocated\n",
+                              name, result.ops_per_sec, result.ops_per_sec * bytes_per_op / 1e6, result.bytes_per_op);
+        else
+            System.out.format("%-45s %,14.1f ops/s %,14.1f B/op allocated\n",
+                              name, result.ops_per_sec, result.bytes_per_op);
+        return result;
+    }
+
+    private static long loop(final long millis, final Operation operation) throws Exception
+    {
+        final long end = System.nanoTime() + millis * 1000000L;
+        long count = 0;
+        // Check time only every few operations to limit overhead for fast operations
+        do
+        {
+            for (int i=0; i<16; ++i)
+                operation.run();
+            count += 16;
+        }
+        while (System.nanoTime() < end);
+        return count;
+    }
+}
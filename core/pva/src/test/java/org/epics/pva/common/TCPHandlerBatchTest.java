@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import org.epics.pva.PVASettings;
+import org.junit.jupiter.api.Test;
+
+/** Test combining of queued messages by the {@link TCPHandler} sender
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class TCPHandlerBatchTest
+{
+    private static final int MESSAGES = 1000;
+
+    private static class TestHandler extends TCPHandler
+    {
+        TestHandler(final Socket socket)
+        {
+            super(false);
+            this.socket = socket;
+        }
+
+        @Override
+        protected boolean initializeSocket()
+        {
+            return true;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress()
+        {
+            return (InetSocketAddress) socket.getRemoteSocketAddress();
+        }
+
+        void start() throws Exception
+        {
+            startSender();
+        }
+    }
+
+    /** Send messages, return handler after all have been received
+     *  @param batch_bytes Setting for {@link PVASettings#EPICS_PVA_SEND_BATCH_BYTES}
+     */
+    private TCPHandler sendMessages(final int batch_bytes) throws Exception
+    {
+        return sendMessages(batch_bytes, 4);
+    }
+
+    /** Send messages, return handler after all have been received
+     *  @param batch_bytes Setting for {@link PVASettings#EPICS_PVA_SEND_BATCH_BYTES}
+     *  @param payload Payload bytes per message
+     */
+    private TCPHandler sendMessages(final int batch_bytes, final int payload) throws Exception
+    {
+        final int orig = PVASettings.EPICS_PVA_SEND_BATCH_BYTES;
+        PVASettings.EPICS_PVA_SEND_BATCH_BYTES = batch_bytes;
+        try
+        (
+            final ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+            final Socket client = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort());
+            final Socket peer = server.accept();
+        )
+        {
+            final TestHandler handler = new TestHandler(client);
+            // Queue messages before sender starts, so they can all be combined
+            for (int i=0; i<MESSAGES; ++i)
+            {
+                final int value = i;
+                handler.submit((version, buffer) ->
+                {
+                    PVAHeader.encodeMessageHeader(buffer, PVAHeader.FLAG_NONE, PVAHeader.CMD_ECHO, payload);
+                    for (int p=0; p<payload; p+=4)
+                        buffer.putInt(value);
+                });
+            }
+            handler.start();
+
+            // Read all messages
+            final InputStream in = peer.getInputStream();
+            final byte[] received = new byte[MESSAGES * (PVAHeader.HEADER_SIZE + payload)];
+            int pos = 0;
+            while (pos < received.length)
+            {
+                final int read = in.read(received, pos, received.length - pos);
+                assertTrue(read > 0);
+                pos += read;
+            }
+            handler.close(true);
+
+            assertEquals(MESSAGES, handler.getSentMessages());
+            assertEquals(received.length, handler.getSentBytes());
+            System.out.println(handler.getSendStatistics());
+            return handler;
+        }
+        finally
+        {
+            PVASettings.EPICS_PVA_SEND_BATCH_BYTES = orig;
+        }
+    }
+
+    @Test
+    public void testBatching() throws Exception
+    {
+        final TCPHandler handler = sendMessages(64 * 1024);
+        // Messages that were queued are combined
+        assertTrue(handler.getSendFlushes() < MESSAGES / 10);
+        assertTrue(handler.getSendWrites() < MESSAGES / 10);
+    }
+
+    @Test
+    public void testNoBatching() throws Exception
+    {
+        final TCPHandler handler = sendMessages(0);
+        assertEquals(MESSAGES, handler.getSendFlushes());
+        assertEquals(MESSAGES, handler.getSendWrites());
+    }
+
+    @Test
+    public void testLargeMessages() throws Exception
+    {
+        // Messages larger than the initial send buffer
+        final TCPHandler handler = sendMessages(64 * 1024, 100 * 1024);
+        assertEquals(MESSAGES, handler.getSendFlushes());
+    }
+}
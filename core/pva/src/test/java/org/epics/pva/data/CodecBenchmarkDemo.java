@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.data;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.BitSet;
+
+import org.epics.pva.common.Benchmark;
+import org.epics.pva.data.nt.PVAAlarm;
+import org.epics.pva.data.nt.PVAControl;
+import org.epics.pva.data.nt.PVADisplay;
+import org.epics.pva.data.nt.PVATimeStamp;
+
+/** Benchmark of the PVA data codec
+ *
+ *  <p>Measures type decoding as well as full and partial (bitset)
+ *  value encoding and decoding for normative types,
+ *  printing throughput and bytes allocated per operation.
+ *
+ *  <p>Run before and after changes to the codec
+ *  to check for regressions.
+ *  Use -Dbenchmark.warmup_ms=... and -Dbenchmark.measure_ms=...
+ *  to adjust the run time.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class CodecBenchmarkDemo
+{
+    static PVAStructure createNTScalar()
+    {
+        return new PVAStructure("", "epics:nt/NTScalar:1.0",
+                                new PVADouble("value", 3.14),
+                                new PVAAlarm(),
+                                new PVATimeStamp(),
+                                new PVADisplay(0, 10, "Demo", "mm", 3, PVADisplay.Form.DEFAULT),
+                                new PVAControl(0, 10, 0.1));
+    }
+
+    static PVAStructure createNTScalarArray(final int size)
+    {
+        final double[] value = new double[size];
+        for (int i=0; i<size; ++i)
+            value[i] = Math.sin(i * 0.01);
+        return new PVAStructure("", "epics:nt/NTScalarArray:1.0",
+                                new PVADoubleArray("value", value),
+                                new PVAAlarm(),
+                                new PVATimeStamp(),
+                                new PVADisplay(-1, 1, "Demo", "V", 3, PVADisplay.Form.DEFAULT));
+    }
+
+    static PVAStructure createNTNDArray(final int width, final int height)
+    {
+        final short[] pixel = new short[width * height];
+        for (int i=0; i<pixel.length; ++i)
+            pixel[i] = (short) (i % 4096);
+        final PVAStructure dim1 = new PVAStructure("", "dimension_t",
+                                                   new PVAInt("size", width),
+                                                   new PVAInt("offset", 0),
+                                                   new PVAInt("fullSize", width),
+                                                   new PVAInt("binning", 1),
+                                                   new PVABool("reverse", false));
+        final PVAStructure dim2 = new PVAStructure("", "dimension_t",
+                                                   new PVAInt("size", height),
+                                                   new PVAInt("offset", 0),
+                                                   new PVAInt("fullSize", height),
+                                                   new PVAInt("binning", 1),
+                                                   new PVABool("reverse", false));
+        final PVAUnion value = new PVAUnion("value", "",
+                                            2,
+                                            new PVABoolArray("booleanValue"),
+                                            new PVAByteArray("byteValue", false),
+                                            new PVAShortArray("shortValue", false, pixel),
+                                            new PVAIntArray("intValue", false),
+                                            new PVALongArray("longValue", false),
+                                            new PVAByteArray("ubyteValue", true),
+                                            new PVAShortArray("ushortValue", true),
+                                            new PVAIntArray("uintValue", true),
+                                            new PVALongArray("ulongValue", true),
+                                            new PVAFloatArray("floatValue"),
+                                            new PVADoubleArray("doubleValue"));
+        final PVAStructure attr = new PVAStructure("", "epics:nt/NTAttribute:1.0",
+                                                   new PVAString("name", "ColorMode"),
+                                                   new PVAny("value", new PVAInt("", false, 0)),
+                                                   new PVAString("descriptor", "Color mode"),
+                                                   new PVAInt("sourceType", 0),
+                                                   new PVAString("source", "Driver"));
+        return new PVAStructure("", "epics:nt/NTNDArray:1.0",
+                                value,
+                                new PVAStructure("codec", "codec_t",
+                                                 new PVAString("name", ""),
+                                                 new PVAny("parameters")),
+                                new PVALong("compressedSize", false, 2L * pixel.length),
+                                new PVALong("uncompressedSize", false, 2L * pixel.length),
+                                new PVAStructureArray("dimension", dim1, dim1, dim2),
+                                new PVAInt("uniqueId", false, 0),
+                                new PVATimeStamp("dataTimeStamp"),
+                                new PVAStructureArray("attribute", attr, attr, attr),
+                                new PVAAlarm(),
+                                new PVATimeStamp());
+    }
+
+    private static PVAStructure createNTTable(final String name, final int rows)
+    {
+        final double[] a = new double[rows];
+        final int[] b = new int[rows];
+        final String[] c = new String[rows];
+        for (int i=0; i<rows; ++i)
+        {
+            a[i] = i * 0.5;
+            b[i] = i;
+            c[i] = "Row " + i;
+        }
+        return new PVAStructure(name, "epics:nt/NTTable:1.0",
+                                new PVAStringArray("labels", "A", "B", "C"),
+                                new PVAStructure("value", "",
+                                                 new PVADoubleArray("a", a),
+                                                 new PVAIntArray("b", false, b),
+                                                 new PVAStringArray("c", c)),
+                                new PVAString("descriptor", "Demo"),
+                                new PVAAlarm(),
+                                new PVATimeStamp());
+    }
+
+    /** @param depth Nesting depth
+     *  @param rows Rows per table
+     *  @return Structure with a table and nested sub-structure on each level
+     */
+    static PVAStructure createNestedTables(final int depth, final int rows)
+    {
+        PVAStructure nested = createNTTable("table", rows);
+        for (int level=depth; level>0; --level)
+            nested = new PVAStructure(level == 1 ? "" : "level" + level, "nested_t",
+                                      createNTTable("table", rows),
+                                      new PVAInt("level", level),
+                                      nested);
+        return nested;
+    }
+
+    private static ByteBuffer allocate(final PVAStructure data)
+    {
+        // Estimate: Encode into growing buffer until it fits
+        int size = 1024;
+        while (true)
+        {
+            final ByteBuffer buffer = ByteBuffer.allocate(size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            try
+            {
+                data.encodeType(buffer, new BitSet());
+                data.encode(buffer);
+                return buffer;
+            }
+            catch (Exception ex)
+            {
+                size *= 2;
+            }
+        }
+    }
+
+    private static void encode(final PVAStructure data, final BitSet changes, final ByteBuffer buffer) throws Exception
+    {
+        PVABitSet.encodeBitSet(changes, buffer);
+        for (int i = changes.nextSetBit(0);  i >= 0;  i = changes.nextSetBit(i + 1))
+            data.get(i).encode(buffer);
+    }
+
+    /** Benchmark codec for one structure
+     *  @param name Name of the test
+     *  @param data Data to encode and decode
+     *  @param partial_fields Names of elements to update in the partial case, e.g. "value", "timeStamp.nanoseconds"
+     *  @throws Exception on error
+     */
+    static void benchmark(final String name, final PVAStructure data, final String... partial_fields) throws Exception
+    {
+        final ByteBuffer buffer = allocate(data);
+
+        // Type
+        buffer.clear();
+        data.encodeType(buffer, new BitSet());
+        buffer.flip();
+        Benchmark.run(name + " decodeType", 0, () ->
+        {
+            buffer.rewind();
+            new PVATypeRegistry().decodeType("", buffer);
+        });
+
+        final PVATypeRegistry types = new PVATypeRegistry();
+        buffer.rewind();
+        final PVAStructure copy = (PVAStructure) types.decodeType("", buffer);
+
+        // Full update
+        final BitSet all = new BitSet();
+        all.set(0);
+        buffer.clear();
+        encode(data, all, buffer);
+        final int full_size = buffer.position();
+        Benchmark.run(name + " encode full", full_size, () ->
+        {
+            buffer.clear();
+            encode(data, all, buffer);
+        });
+        Benchmark.run(name + " decode full", full_size, () ->
+        {
+            buffer.rewind();
+            final BitSet changes = PVABitSet.decodeBitSet(buffer);
+            copy.decodeElements(changes, types, buffer);
+        });
+
+        // Partial update
+        final BitSet partial = new BitSet();
+        for (String field : partial_fields)
+            partial.set(data.getIndex(data.locate(field)));
+        buffer.clear();
+        encode(data, partial, buffer);
+        final int partial_size = buffer.position();
+        Benchmark.run(name + " encode " + partial, partial_size, () ->
+        {
+            buffer.clear();
+            encode(data, partial, buffer);
+        });
+        Benchmark.run(name + " decode " + partial, partial_size, () ->
+        {
+            buffer.rewind();
+            final BitSet changes = PVABitSet.decodeBitSet(buffer);
+            copy.decodeElements(changes, types, buffer);
+        });
+
+        if (! copy.equals(data))
+            throw new Exception("Decoded data differs for " + name);
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        benchmark("NTScalar", createNTScalar(),
+                  "value", "timeStamp.secondsPastEpoch", "timeStamp.nanoseconds");
+        for (int size : new int[] { 1000, 10000, 100000, 1000000 })
+            benchmark("NTScalarArray[" + size + "]", createNTScalarArray(size),
+                      "value", "timeStamp.secondsPastEpoch", "timeStamp.nanoseconds");
+        benchmark("NTNDArray[1024x1024]", createNTNDArray(1024, 1024),
+                  "value", "uniqueId", "timeStamp.secondsPastEpoch", "timeStamp.nanoseconds");
+        benchmark("Nested NTTable[5x100]", createNestedTables(5, 100),
+                  "level2.level3.table.value.a", "level2.level3.table.timeStamp.nanoseconds");
+    }
+}
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.data;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.epics.pva.PVASettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Test decoding of arrays into {@link PooledArray}
+ *  @author Kay Kasemir
+ */
+public class PooledArrayTest
+{
+    private int orig_threshold;
+
+    @BeforeEach
+    public void enablePool()
+    {
+        orig_threshold = PVASettings.EPICS_PVA_POOLED_ARRAY_THRESHOLD;
+        PVASettings.EPICS_PVA_POOLED_ARRAY_THRESHOLD = 1000;
+    }
+
+    @AfterEach
+    public void restoreSetting()
+    {
+        PVASettings.EPICS_PVA_POOLED_ARRAY_THRESHOLD = orig_threshold;
+    }
+
+    private static ByteBuffer encode(final PVAData data, final ByteOrder order) throws Exception
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate(1000000);
+        buffer.order(order);
+        data.encode(buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    @Test
+    public void testDoubleArray() throws Exception
+    {
+        final double[] value = new double[1000];
+        for (int i=0; i<value.length; ++i)
+            value[i] = i * 0.5;
+        final PVADoubleArray orig = new PVADoubleArray("value", value);
+
+        for (ByteOrder order : new ByteOrder[] { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN })
+        {
+            final ByteBuffer buffer = encode(orig, order);
+            final PVADoubleArray copy = new PVADoubleArray("value");
+            copy.decode(null, buffer);
+            assertEquals(0, buffer.remaining());
+
+            final PooledArray pooled = copy.getPooled();
+            assertNotNull(pooled);
+            assertEquals(order, pooled.order());
+            assertEquals(value.length, pooled.size());
+            for (int i=0; i<value.length; ++i)
+                assertEquals(value[i], pooled.getDouble(i));
+
+            // Java array is created on demand
+            assertArrayEquals(value, copy.get());
+            assertEquals(orig, copy);
+
+            // Setting a new value replaces the pooled data
+            copy.set(new double[] { 1, 2 });
+            assertNull(copy.getPooled());
+            assertArrayEquals(new double[] { 1, 2 }, copy.get());
+        }
+    }
+
+    @Test
+    public void testShortArray() throws Exception
+    {
+        final short[] value = new short[1000];
+        for (int i=0; i<value.length; ++i)
+            value[i] = (short) (i * 7);
+        final PVAShortArray orig = new PVAShortArray("value", true, value);
+
+        final ByteBuffer buffer = encode(orig, ByteOrder.LITTLE_ENDIAN);
+        final PVAShortArray copy = new PVAShortArray("value", true);
+        copy.decode(null, buffer);
+
+        final PooledArray pooled = copy.getPooled();
+        assertNotNull(pooled);
+        for (int i=0; i<value.length; ++i)
+            assertEquals(value[i], pooled.getShort(i));
+        assertArrayEquals(value, copy.get());
+    }
+
+    @Test
+    public void testSmallArray() throws Exception
+    {
+        // Arrays below the threshold are decoded as before
+        final PVAIntArray orig = new PVAIntArray("value", false, 1, 2, 3);
+        final ByteBuffer buffer = encode(orig, ByteOrder.BIG_ENDIAN);
+        final PVAIntArray copy = new PVAIntArray("value", false);
+        copy.decode(null, buffer);
+        assertNull(copy.getPooled());
+        assertArrayEquals(new int[] { 1, 2, 3 }, copy.get());
+
+        // Small array replaces previously pooled data
+        final int[] large = new int[1000];
+        copy.decode(null, encode(new PVAIntArray("value", false, large), ByteOrder.BIG_ENDIAN));
+        assertNotNull(copy.getPooled());
+        copy.decode(null, encode(orig, ByteOrder.BIG_ENDIAN));
+        assertNull(copy.getPooled());
+        assertArrayEquals(new int[] { 1, 2, 3 }, copy.get());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception
+    {
+        // Encoded arrays where all elements are 0, 1, 2, ..
+        final ByteBuffer[] encoded = new ByteBuffer[10];
+        for (int i=0; i<encoded.length; ++i)
+        {
+            final double[] value = new double[100000];
+            Arrays.fill(value, i);
+            encoded[i] = encode(new PVADoubleArray("value", value), ByteOrder.BIG_ENDIAN);
+        }
+
+        // Reader that keeps fetching the value while it's decoded
+        final PVADoubleArray data = new PVADoubleArray("value");
+        final AtomicBoolean run = new AtomicBoolean(true);
+        final Thread reader = new Thread(() ->
+        {
+            while (run.get())
+                data.get();
+        });
+        reader.start();
+        try
+        {
+            // Value must always reflect the most recent decode(),
+            // not data from a previous decode that the reader
+            // was still copying and then stored as the value
+            for (int run_count=0; run_count<1000; ++run_count)
+            {
+                final int i = run_count % encoded.length;
+                data.decode(null, encoded[i].duplicate());
+                assertEquals(i, data.get()[0]);
+                Thread.sleep(1);
+                assertEquals(i, data.get()[0]);
+                assertEquals(i, data.getPooled().getDouble(9999));
+            }
+        }
+        finally
+        {
+            run.set(false);
+            reader.join();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.server;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.epics.pva.PVASettings;
+import org.epics.pva.common.PVAHeader;
+
+/** Load test: Many loopback clients connected to one {@link PVAServer}
+ *
+ *  <p>Opens the requested number of TCP connections to a PVAServer,
+ *  sends an 'echo' request on each connection and awaits the reply,
+ *  then reports the time taken and the number of platform threads.
+ *
+ *  <p>Clients use plain sockets from a single thread to keep
+ *  the client side out of the measurement.
+ *
+ *  <p>Run with -DEPICS_PVA_VIRTUAL_THREADS=true to compare
+ *  platform and virtual threads on the server.
+ *  Each connection uses two file descriptors in this process,
+ *  so `ulimit -n` needs to allow for 2 x clients.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class ConnectionLoadDemo
+{
+    /** @param in Input stream
+     *  @return Command of next message, after skipping its payload
+     */
+    private static byte readMessage(final DataInputStream in) throws IOException
+    {
+        final byte[] header = new byte[PVAHeader.HEADER_SIZE];
+        in.readFully(header);
+        final ByteBuffer buffer = ByteBuffer.wrap(header);
+        if ((header[PVAHeader.HEADER_OFFSET_FLAGS] & PVAHeader.FLAG_BIG_ENDIAN) == 0)
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+        final boolean control = (header[PVAHeader.HEADER_OFFSET_FLAGS] & PVAHeader.FLAG_CONTROL) != 0;
+        // For control messages, the payload size field is used for other purposes
+        if (! control)
+            in.skipNBytes(buffer.getInt(PVAHeader.HEADER_OFFSET_PAYLOAD_SIZE));
+        return header[PVAHeader.HEADER_OFFSET_COMMAND];
+    }
+
+    private static void sendEcho(final Socket socket, final int id) throws IOException
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate(PVAHeader.HEADER_SIZE + 4);
+        PVAHeader.encodeMessageHeader(buffer, PVAHeader.FLAG_NONE, PVAHeader.CMD_ECHO, 4);
+        buffer.putInt(id);
+        socket.getOutputStream().write(buffer.array());
+    }
+
+    private static void awaitEcho(final Socket socket) throws IOException
+    {
+        final DataInputStream in = new DataInputStream(socket.getInputStream());
+        while (readMessage(in) != PVAHeader.CMD_ECHO)
+            ; // Skip 'set byte order', 'validation request'
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        final int clients = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        final int threads_before = ManagementFactory.getThreadMXBean().getThreadCount();
+        System.out.println("Virtual threads: " + PVASettings.EPICS_PVA_VIRTUAL_THREADS);
+
+        try (final PVAServer server = new PVAServer())
+        {
+            final InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                                                                    server.getTCPAddress(false).getPort());
+            final List<Socket> sockets = new ArrayList<>(clients);
+            try
+            {
+                long start = System.nanoTime();
+                for (int i=0; i<clients; ++i)
+                {
+                    final Socket socket = new Socket();
+                    socket.setTcpNoDelay(true);
+                    socket.setSoTimeout(10000);
+                    socket.connect(address);
+                    sockets.add(socket);
+                }
+                // Wait for server to accept all of them
+                while (server.getClientInfos().size() < clients)
+                    TimeUnit.MILLISECONDS.sleep(10);
+                double secs = (System.nanoTime() - start) / 1e9;
+                System.out.format("Connected %d clients in %.2f s\n", clients, secs);
+
+                start = System.nanoTime();
+                for (int i=0; i<clients; ++i)
+                    sendEcho(sockets.get(i), i);
+                for (Socket socket : sockets)
+                    awaitEcho(socket);
+                secs = (System.nanoTime() - start) / 1e9;
+                System.out.format("Echo on %d clients in %.2f s\n", clients, secs);
+
+                start = System.nanoTime();
+                for (int i=0; i<clients; ++i)
+                    sendEcho(sockets.get(i), i);
+                for (Socket socket : sockets)
+                    awaitEcho(socket);
+                secs = (System.nanoTime() - start) / 1e9;
+                System.out.format("Second echo on %d clients in %.2f s\n", clients, secs);
+
+                final int threads = ManagementFactory.getThreadMXBean().getThreadCount();
+                final Runtime runtime = Runtime.getRuntime();
+                System.gc();
+                System.out.format("Platform threads: %d before, %d with clients connected\n", threads_before, threads);
+                System.out.format("Used memory: %.1f MB\n", (runtime.totalMemory() - runtime.freeMemory()) / 1024.0 / 1024.0);
+            }
+            finally
+            {
+                for (Socket socket : sockets)
+                    socket.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.epics.pva.server;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.epics.pva.common.Benchmark;
+import org.epics.pva.data.PVAData;
+import org.epics.pva.data.PVADouble;
+import org.epics.pva.data.PVADoubleArray;
+import org.epics.pva.data.PVAStructure;
+import org.epics.pva.data.nt.PVAAlarm;
+import org.epics.pva.data.nt.PVADisplay;
+import org.epics.pva.data.nt.PVATimeStamp;
+
+/** Benchmark of monitor serialization for 1, 10, 100 subscribers
+ *
+ *  <p>Compares the CPU cost of one PV update when
+ *  each subscription updates and encodes its own copy of the data
+ *  with encoding the update once into a shared {@link MonitorUpdate}
+ *  that is then copied into each subscriber's send buffer.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class MonitorFanoutBenchmarkDemo
+{
+    private static PVAStructure createData(final int size)
+    {
+        if (size <= 1)
+            return new PVAStructure("", "epics:nt/NTScalar:1.0",
+                                    new PVADouble("value", 3.14),
+                                    new PVAAlarm(),
+                                    new PVATimeStamp(),
+                                    new PVADisplay(0, 10, "Demo", "mm", 3, PVADisplay.Form.DEFAULT));
+        return new PVAStructure("", "epics:nt/NTScalarArray:1.0",
+                                new PVADoubleArray("value", new double[size]),
+                                new PVAAlarm(),
+                                new PVATimeStamp(),
+                                new PVADisplay(-1, 1, "Demo", "V", 3, PVADisplay.Form.DEFAULT));
+    }
+
+    /** Change value and time stamp of data
+     *  @param data Data to change
+     *  @param step Step used to compute new value
+     *  @throws Exception on error
+     */
+    private static void change(final PVAStructure data, final int step) throws Exception
+    {
+        final PVAData element = data.get("value");
+        if (element instanceof PVADouble scalar)
+            scalar.set(step);
+        else
+        {
+            final PVADoubleArray array = (PVADoubleArray) element;
+            final double[] value = array.get();
+            value[step % value.length] = step;
+            // Set (new) array to mark as changed
+            array.set(value.clone());
+        }
+        final PVATimeStamp time = data.get("timeStamp");
+        time.set(Instant.ofEpochSecond(step));
+    }
+
+    private static void benchmark(final int size, final int subscribers) throws Exception
+    {
+        final String name = (size <= 1 ? "NTScalar" : "NTScalarArray[" + size + "]") + ", " + subscribers + " subscribers";
+        final PVAStructure source = createData(size);
+        final ByteBuffer buffer = ByteBuffer.allocate(size * 8 + 10000);
+        buffer.order(ByteOrder.nativeOrder());
+
+        // Each subscription updates its own copy of the data, encodes changes
+        final PVAStructure[] copies = new PVAStructure[subscribers];
+        for (int i=0; i<subscribers; ++i)
+            copies[i] = source.cloneData();
+        final int[] step = new int[] { 0 };
+        Benchmark.run(name + ", encode per subscriber", 0, () ->
+        {
+            change(source, ++step[0]);
+            for (PVAStructure copy : copies)
+            {
+                final BitSet changes = copy.update(source);
+                buffer.clear();
+                MonitorUpdate.encodeChanges(copy, changes, buffer);
+            }
+        });
+
+        // Encode once into shared update, copy for each subscription
+        final PVAStructure data = source.cloneData();
+        final AtomicReference<ByteBuffer> spare = new AtomicReference<>();
+        Benchmark.run(name + ", encode once", 0, () ->
+        {
+            change(source, ++step[0]);
+            final BitSet changes = data.update(source);
+            final MonitorUpdate update = new MonitorUpdate(data, changes, spare);
+            for (int i=0; i<subscribers; ++i)
+                update.addRef();
+            update.release();
+            for (int i=0; i<subscribers; ++i)
+            {
+                buffer.clear();
+                update.copyTo(buffer);
+                update.release();
+            }
+        });
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        for (int size : new int[] { 1, 1000, 100000 })
+            for (int subscribers : new int[] { 1, 10, 100 })
+                benchmark(size, subscribers);
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018-2022 Oak Ridge National Laboratory.
+ * Copyright (c) 2018-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -29,7 +29,13 @@ public class Preferences
     @Preference public static int log_trouble_samples;
     @Preference public static int log_overrun;
     @Preference public static int write_period;
+    @Preference public static int write_threads;
+    @Preference public static String journal_directory;
+    @Preference public static int journal_segment_mb;
+    @Preference public static int journal_max_mb;
+    @Preference public static double journal_high_water;
     @Preference public static int max_repeats;
+    @Preference public static int scan_threads;
     @Preference public static int batch_size;
     @Preference public static double buffer_reserve;
     @Preference public static int ignored_future;
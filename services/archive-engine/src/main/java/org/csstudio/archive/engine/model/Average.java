@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010-2018 Oak Ridge National Laboratory.
+ * Copyright (c) 2010-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,7 +15,8 @@ public class Average
     /** Exponential weight of current size */
     private static final double WEIGHT = 0.1;
 
-    private double average = 0.0;
+    /** Updated by one thread, may be read by others */
+    private volatile double average = 0.0;
 
     /** Reset to 0 */
     public void reset()
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018 Oak Ridge National Laboratory.
+ * Copyright (c) 2018-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -7,58 +7,63 @@
  ******************************************************************************/
 package org.csstudio.archive.engine.model;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /** Buffer statistics
+ *
+ *  <p>Updated by the threads that add samples and by the write thread,
+ *  read by the web server, all without locking.
+ *
  *  @author Kay Kasemir
  */
 public class BufferStats
 {
-    private int max_size = 0;
+    private final AtomicInteger max_size = new AtomicInteger();
 
-    private Average average_size = new Average();
+    private final Average average_size = new Average();
 
-    private int overruns = 0;
+    private final AtomicInteger overruns = new AtomicInteger();
 
     /** @return Maximum queue size so far
      *  @see #reset()
      */
-    synchronized public final int getMaxSize()
+    public final int getMaxSize()
     {
-        return max_size;
+        return max_size.get();
     }
 
     /** @return (Exponential) moving average of queue size. */
-    synchronized public final double getAverageSize()
+    public final double getAverageSize()
     {
         return average_size.get();
     }
 
     /** @return Number of buffer overruns. */
-    synchronized public final int getOverruns()
+    public final int getOverruns()
     {
-        return overruns;
+        return overruns.get();
     }
 
     /** Reset the statistics. */
-    synchronized public void reset()
+    public void reset()
     {
-        max_size = 0;
+        max_size.set(0);
         average_size.reset();
-        overruns = 0;
+        overruns.set(0);
     }
 
     /** Update the buffer stats.
      *  @param size Current buffer size.
      */
-    synchronized public void updateSizes(int size)
+    public void updateSizes(int size)
     {
-        if (size > max_size)
-            max_size = size;
+        max_size.accumulateAndGet(size, Math::max);
         average_size.update(size);
     }
 
     /** Add an overrun. */
-    synchronized public void addOverrun()
+    public void addOverrun()
     {
-        ++overruns;
+        overruns.incrementAndGet();
     }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010-2018 Oak Ridge National Laboratory.
+ * Copyright (c) 2010-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -62,7 +62,7 @@ public class EngineModel
     final List<ArchiveGroup> groups = new ArrayList<>();
 
     /** Scanner for scanned channels */
-    final Scanner scanner = new Scanner();
+    final Scanner scanner = new Scanner(Preferences.scan_threads);
 
     /** Thread that runs the scanner */
     final ScanThread scan_thread = new ScanThread(scanner);
@@ -308,12 +308,36 @@ public class EngineModel
         return writer.getWriteDuration();
     }
 
+    /** @return Partitions of the write thread */
+    public List<WritePartition> getWritePartitions()
+    {
+        return writer.getPartitions();
+    }
+
     /** @see Scanner#getIdlePercentage() */
     public double getIdlePercentage()
     {
         return scanner.getIdlePercentage();
     }
 
+    /** @see Scanner#getLateness(double) */
+    public long getScanLateness(final double percentile)
+    {
+        return scanner.getLateness(percentile);
+    }
+
+    /** @see Scanner#getMaxLateness() */
+    public long getMaxScanLateness()
+    {
+        return scanner.getMaxLateness();
+    }
+
+    /** @see Scanner#getOverruns() */
+    public long getScanOverruns()
+    {
+        return scanner.getOverruns();
+    }
+
     /** Ask the model to stop.
      *  Merely updates the model state.
      *  @see #getState()
@@ -362,6 +386,7 @@ public class EngineModel
         scan_thread.stop();
         // Assert that scanning has stopped before we add 'off' events
         scan_thread.join();
+        scanner.shutdown();
         // Disconnect from network
         logger.info("Stopping archive groups");
         for (ArchiveGroup group : groups)
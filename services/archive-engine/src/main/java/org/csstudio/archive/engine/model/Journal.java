@@ -0,0 +1,820 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.model;
+
+import static org.csstudio.archive.Engine.logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.epics.util.array.ArrayByte;
+import org.epics.util.array.ArrayDouble;
+import org.epics.util.array.ListByte;
+import org.epics.util.array.ListNumber;
+import org.epics.util.stats.Range;
+import org.epics.util.text.NumberFormats;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.AlarmSeverity;
+import org.epics.vtype.AlarmStatus;
+import org.epics.vtype.Display;
+import org.epics.vtype.EnumDisplay;
+import org.epics.vtype.Time;
+import org.epics.vtype.VByteArray;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VDoubleArray;
+import org.epics.vtype.VEnum;
+import org.epics.vtype.VFloat;
+import org.epics.vtype.VLong;
+import org.epics.vtype.VNumber;
+import org.epics.vtype.VNumberArray;
+import org.epics.vtype.VString;
+import org.epics.vtype.VStringArray;
+import org.epics.vtype.VType;
+
+/** Write-ahead journal of samples on disk
+ *
+ *  <p>When the RDB is not reachable or too slow,
+ *  the {@link WritePartition} spills samples into the journal
+ *  instead of letting the sample buffers overrun,
+ *  and later replays them in order.
+ *
+ *  <p>The journal is a directory of memory-mapped segment files.
+ *  Each segment starts with a header that holds the read position,
+ *  updated by {@link #commit()} once replayed samples have been written,
+ *  so that a restarted engine continues the replay where it left off.
+ *  Each record has a length, a CRC32 checksum and the serialized sample.
+ *  A zero length marks the end of the written records.
+ *  Segments that exist on startup are only read.
+ *  New samples are always appended to new segments.
+ *
+ *  <p>Not thread-safe, called by the write thread of one partition,
+ *  except for the statistics.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class Journal implements Closeable
+{
+    /** File header magic, version, read position, reserved */
+    private static final int MAGIC = 0x41524A4C, VERSION = 1, HEADER = 16, READ_POS = 8;
+
+    /** Record length and CRC */
+    private static final int RECORD_HEADER = 8;
+
+    /** Sample types */
+    private static final byte DOUBLE = 1, LONG = 2, ENUM = 3, STRING = 4, DOUBLE_ARRAY = 5, BYTE_ARRAY = 6, STRING_ARRAY = 7;
+
+    private static final AlarmSeverity[] SEVERITIES = AlarmSeverity.values();
+    private static final AlarmStatus[] STATI = AlarmStatus.values();
+
+    /** Sample read from the journal */
+    public static class Entry
+    {
+        /** Channel name */
+        public final String channel;
+        /** Data retention, may be <code>null</code> */
+        public final String retention;
+        /** Sample */
+        public final VType sample;
+
+        Entry(final String channel, final String retention, final VType sample)
+        {
+            this.channel = channel;
+            this.retention = retention;
+            this.sample = sample;
+        }
+    }
+
+    /** One segment file */
+    private static class Segment
+    {
+        final long number;
+        final Path path;
+        final FileChannel file;
+        final MappedByteBuffer buffer;
+        /** End of written records */
+        int write_pos;
+        /** Start of next record to read */
+        int read_pos;
+        /** Read position as of last {@link Journal#commit()} */
+        int committed_pos;
+
+        Segment(final long number, final Path path, final FileChannel file, final MappedByteBuffer buffer)
+        {
+            this.number = number;
+            this.path = path;
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        void close()
+        {
+            try
+            {
+                file.close();
+            }
+            catch (IOException ex)
+            {
+                logger.log(Level.WARNING, "Cannot close " + path, ex);
+            }
+        }
+    }
+
+    private final Path directory;
+    private final int segment_size;
+    private final int max_segments;
+
+    /** Segments, oldest first. Last one is written when it's the write_segment */
+    private final LinkedList<Segment> segments = new LinkedList<>();
+
+    /** Segment created by this instance for appending, or <code>null</code> */
+    private Segment write_segment = null;
+
+    /** Next segment number */
+    private long next_number = 1;
+
+    /** Segments that have been read and can be deleted on commit */
+    private final List<Segment> consumed = new ArrayList<>();
+
+    /** Number of samples read since last commit */
+    private long uncommitted = 0;
+
+    /** Buffer for serializing one record */
+    private ByteBuffer record = ByteBuffer.allocate(4096);
+
+    private final CRC32 crc = new CRC32();
+
+    private final AtomicLong appended = new AtomicLong(), replayed = new AtomicLong(),
+                             rejected = new AtomicLong(), crc_errors = new AtomicLong(),
+                             pending = new AtomicLong();
+
+    /** Open journal, locating existing segments
+     *  @param directory Directory for segment files, created if needed
+     *  @param segment_size Size of each segment file in bytes
+     *  @param max_size Maximum size of all segments in bytes
+     *  @throws IOException on error
+     */
+    public Journal(final Path directory, final int segment_size, final long max_size) throws IOException
+    {
+        this.directory = directory;
+        this.segment_size = Math.max(segment_size, 64*1024);
+        max_segments = (int) Math.max(1, max_size / this.segment_size);
+        Files.createDirectories(directory);
+
+        final List<Path> files = new ArrayList<>();
+        try (Stream<Path> list = Files.list(directory))
+        {
+            list.filter(path -> path.getFileName().toString().endsWith(".journal"))
+                .sorted()
+                .forEach(files::add);
+        }
+        for (Path path : files)
+        {
+            final Segment segment = openSegment(path);
+            if (segment == null)
+                continue;
+            if (segment.read_pos < segment.write_pos)
+            {
+                segments.add(segment);
+                pending.addAndGet(segment.write_pos - segment.read_pos);
+            }
+            else
+            {   // Fully replayed before
+                segment.close();
+                Files.delete(path);
+            }
+            next_number = Math.max(next_number, segment.number + 1);
+        }
+        if (! segments.isEmpty())
+            logger.log(Level.INFO, "Journal " + directory + " has " + segments.size() +
+                                   " segments with " + pending.get() + " bytes to replay");
+    }
+
+    /** @param path Existing segment file
+     *  @return {@link Segment} with read and write positions or <code>null</code> if invalid
+     */
+    private Segment openSegment(final Path path) throws IOException
+    {
+        final long number;
+        try
+        {
+            final String name = path.getFileName().toString();
+            number = Long.parseLong(name.substring(0, name.length() - ".journal".length()));
+        }
+        catch (NumberFormatException ex)
+        {
+            logger.log(Level.WARNING, "Ignoring journal file " + path);
+            return null;
+        }
+        final FileChannel file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final int size = (int) Math.min(file.size(), Integer.MAX_VALUE);
+        if (size < HEADER)
+        {
+            file.close();
+            logger.log(Level.WARNING, "Ignoring truncated journal file " + path);
+            return null;
+        }
+        final MappedByteBuffer buffer = file.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (buffer.getInt(0) != MAGIC  ||  buffer.getInt(4) != VERSION)
+        {
+            file.close();
+            logger.log(Level.WARNING, "Ignoring journal file " + path + " with unknown format");
+            return null;
+        }
+        final Segment segment = new Segment(number, path, file, buffer);
+
+        // Locate end of valid records
+        int pos = HEADER;
+        while (true)
+        {
+            final int length = checkRecord(buffer, pos);
+            if (length <= 0)
+            {
+                if (length < 0)
+                {
+                    crc_errors.incrementAndGet();
+                    logger.log(Level.WARNING, "Journal " + path + " is corrupted at offset " + pos +
+                                              ", remaining " + (size - pos) + " bytes are skipped");
+                }
+                break;
+            }
+            pos += RECORD_HEADER + length;
+        }
+        segment.write_pos = pos;
+
+        final int read_pos = buffer.getInt(READ_POS);
+        segment.read_pos = (read_pos >= HEADER  &&  read_pos <= pos) ? read_pos : HEADER;
+        segment.committed_pos = segment.read_pos;
+        return segment;
+    }
+
+    /** @param buffer Segment buffer
+     *  @param pos Position of a record
+     *  @return Length of valid record, 0 for end of records, -1 for invalid record
+     */
+    private int checkRecord(final ByteBuffer buffer, final int pos)
+    {
+        if (pos + RECORD_HEADER > buffer.limit())
+            return 0;
+        final int length = buffer.getInt(pos);
+        if (length == 0)
+            return 0;
+        if (length < 0  ||  pos + RECORD_HEADER + length > buffer.limit())
+            return -1;
+        crc.reset();
+        crc.update(buffer.slice(pos + RECORD_HEADER, length));
+        if ((int) crc.getValue() != buffer.getInt(pos + 4))
+            return -1;
+        return length;
+    }
+
+    /** @return Directory of the segment files */
+    public Path getDirectory()
+    {
+        return directory;
+    }
+
+    /** @return <code>true</code> if there are no samples to replay */
+    public boolean isEmpty()
+    {
+        return segments.isEmpty();
+    }
+
+    /** @return <code>true</code> if the journal reached its maximum size */
+    public boolean isFull()
+    {
+        return segments.size() >= max_segments  &&
+               (write_segment == null  ||  write_segment.write_pos > segment_size - segment_size / 16);
+    }
+
+    /** @return Number of segment files */
+    public int getSegmentCount()
+    {
+        return segments.size();
+    }
+
+    /** @return Number of bytes waiting to be replayed */
+    public long getPendingBytes()
+    {
+        return pending.get();
+    }
+
+    /** @return Number of samples added to the journal */
+    public long getAppendedSamples()
+    {
+        return appended.get();
+    }
+
+    /** @return Number of samples replayed from the journal */
+    public long getReplayedSamples()
+    {
+        return replayed.get();
+    }
+
+    /** @return Number of samples that were not added because the journal was full or they were too large */
+    public long getRejectedSamples()
+    {
+        return rejected.get();
+    }
+
+    /** @return Number of corrupted records */
+    public long getCRCErrors()
+    {
+        return crc_errors.get();
+    }
+
+    /** Append a sample
+     *  @param channel Channel name
+     *  @param retention Data retention, may be <code>null</code>
+     *  @param sample Sample
+     *  @return <code>true</code> if added, <code>false</code> when there was no room,
+     *          in which case the caller still owns the sample
+     *  @throws IOException on error
+     */
+    public boolean append(final String channel, final String retention, final VType sample) throws IOException
+    {
+        serialize(channel, retention, sample);
+        final int length = record.position();
+        if (HEADER + RECORD_HEADER + length + 4 > segment_size)
+        {
+            logger.log(Level.WARNING, "Sample for " + channel + " is too large for journal");
+            rejected.incrementAndGet();
+            return false;
+        }
+
+        // Need a new segment?
+        if (write_segment == null  ||  write_segment.write_pos + RECORD_HEADER + length + 4 > segment_size)
+        {
+            if (segments.size() >= max_segments)
+            {
+                rejected.incrementAndGet();
+                return false;
+            }
+            createSegment();
+        }
+
+        final ByteBuffer buffer = write_segment.buffer;
+        final int pos = write_segment.write_pos;
+        record.flip();
+        crc.reset();
+        crc.update(record);
+        record.flip();
+        buffer.put(pos + RECORD_HEADER, record, 0, length);
+        buffer.putInt(pos + 4, (int) crc.getValue());
+        // Set length last, it marks the record as valid
+        buffer.putInt(pos, length);
+        write_segment.write_pos = pos + RECORD_HEADER + length;
+        pending.addAndGet(RECORD_HEADER + length);
+        appended.incrementAndGet();
+        return true;
+    }
+
+    private void createSegment() throws IOException
+    {
+        if (write_segment != null)
+            write_segment.buffer.force();
+        final long number = next_number++;
+        final Path path = directory.resolve(String.format("%09d.journal", number));
+        final FileChannel file = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                                                  StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final MappedByteBuffer buffer = file.map(FileChannel.MapMode.READ_WRITE, 0, segment_size);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(READ_POS, HEADER);
+        write_segment = new Segment(number, path, file, buffer);
+        write_segment.write_pos = write_segment.read_pos = write_segment.committed_pos = HEADER;
+        segments.add(write_segment);
+    }
+
+    /** Write appended samples to disk */
+    public void sync()
+    {
+        if (write_segment != null)
+            write_segment.buffer.force();
+    }
+
+    /** Read next sample.
+     *
+     *  <p>Samples that have been read are
+     *  removed from the journal on {@link #commit()},
+     *  or read again after {@link #rollback()}.
+     *
+     *  @return {@link Entry} or <code>null</code> when all samples have been read
+     */
+    public Entry read()
+    {
+        while (true)
+        {
+            final Segment segment = getReadSegment();
+            if (segment == null)
+                return null;
+            final int pos = segment.read_pos;
+            if (pos >= segment.write_pos)
+            {
+                if (segment == write_segment)
+                    return null;
+                // Done with this segment
+                consumed.add(segment);
+                continue;
+            }
+            final int length = checkRecord(segment.buffer, pos);
+            if (length <= 0)
+            {   // Cannot locate next record, skip rest of segment
+                crc_errors.incrementAndGet();
+                logger.log(Level.WARNING, "Journal " + segment.path + " is corrupted at offset " + pos);
+                pending.addAndGet(pos - segment.write_pos);
+                segment.read_pos = segment.write_pos;
+                continue;
+            }
+            segment.read_pos = pos + RECORD_HEADER + length;
+            pending.addAndGet(-(RECORD_HEADER + length));
+            try
+            {
+                final Entry entry = deserialize(segment.buffer.slice(pos + RECORD_HEADER, length));
+                ++uncommitted;
+                return entry;
+            }
+            catch (Exception ex)
+            {   // Valid CRC, but cannot decode, skip record
+                logger.log(Level.WARNING, "Journal " + segment.path + " has invalid record at offset " + pos, ex);
+            }
+        }
+    }
+
+    /** @return First segment that has not been fully read, or <code>null</code> */
+    private Segment getReadSegment()
+    {
+        for (Segment segment : segments)
+            if (! consumed.contains(segment))
+                return segment;
+        return null;
+    }
+
+    /** Mark the samples that have been read as handled
+     *  @throws IOException on error
+     */
+    public void commit() throws IOException
+    {
+        // Delete segments that were fully read
+        for (Segment segment : consumed)
+        {
+            segments.remove(segment);
+            segment.close();
+            Files.deleteIfExists(segment.path);
+        }
+        consumed.clear();
+        replayed.addAndGet(uncommitted);
+        uncommitted = 0;
+
+        // Persist read position of current segment
+        final Segment segment = segments.peekFirst();
+        if (segment == null)
+            return;
+        if (segment == write_segment  &&  segment.read_pos >= segment.write_pos)
+        {   // Completely replayed what was written. Start over with a new segment.
+            segments.remove(segment);
+            segment.close();
+            Files.deleteIfExists(segment.path);
+            write_segment = null;
+        }
+        else
+        {
+            segment.buffer.putInt(READ_POS, segment.read_pos);
+            segment.buffer.force();
+            segment.committed_pos = segment.read_pos;
+        }
+    }
+
+    /** Un-read the samples that have been read since the last {@link #commit()}
+     *
+     *  <p>Called when the samples could not be written,
+     *  so they are read again on the next attempt.
+     */
+    public void rollback()
+    {
+        for (Segment segment : segments)
+        {
+            pending.addAndGet(segment.read_pos - segment.committed_pos);
+            segment.read_pos = segment.committed_pos;
+        }
+        consumed.clear();
+        uncommitted = 0;
+    }
+
+    @Override
+    public void close()
+    {
+        sync();
+        for (Segment segment : segments)
+            segment.close();
+        segments.clear();
+        write_segment = null;
+    }
+
+    // Serialization
+
+    private void ensure(final int bytes)
+    {
+        if (record.remaining() < bytes)
+        {
+            final ByteBuffer bigger = ByteBuffer.allocate(Math.max(record.capacity() * 2, record.position() + bytes));
+            record.flip();
+            bigger.put(record);
+            record = bigger;
+        }
+    }
+
+    private void putByte(final int value)
+    {
+        ensure(1);
+        record.put((byte) value);
+    }
+
+    private void putInt(final int value)
+    {
+        ensure(4);
+        record.putInt(value);
+    }
+
+    private void putLong(final long value)
+    {
+        ensure(8);
+        record.putLong(value);
+    }
+
+    private void putDouble(final double value)
+    {
+        ensure(8);
+        record.putDouble(value);
+    }
+
+    private void putString(final String text)
+    {
+        if (text == null)
+        {
+            putInt(-1);
+            return;
+        }
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        ensure(bytes.length);
+        record.put(bytes);
+    }
+
+    private static String getString(final ByteBuffer buffer)
+    {
+        final int length = buffer.getInt();
+        if (length < 0)
+            return null;
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void putRange(final Range range)
+    {
+        putDouble(range.getMinimum());
+        putDouble(range.getMaximum());
+    }
+
+    private static Range getRange(final ByteBuffer buffer)
+    {
+        final double min = buffer.getDouble(), max = buffer.getDouble();
+        if (Double.isNaN(min)  &&  Double.isNaN(max))
+            return Range.undefined();
+        return Range.of(min, max);
+    }
+
+    private void putDisplay(final Display display)
+    {
+        if (display == null)
+        {
+            putByte(0);
+            return;
+        }
+        putByte(1);
+        putRange(display.getDisplayRange());
+        putRange(display.getAlarmRange());
+        putRange(display.getWarningRange());
+        putRange(display.getControlRange());
+        putString(display.getUnit());
+        // The RDB only stores the precision
+        putInt(display.getFormat() == null ? -1 : display.getFormat().getMinimumFractionDigits());
+        putString(display.getDescription());
+    }
+
+    private static Display getDisplay(final ByteBuffer buffer)
+    {
+        if (buffer.get() == 0)
+            return Display.none();
+        final Range display = getRange(buffer), alarm = getRange(buffer),
+                    warning = getRange(buffer), control = getRange(buffer);
+        final String unit = getString(buffer);
+        final int precision = buffer.getInt();
+        final String description = getString(buffer);
+        return Display.of(display, alarm, warning, control, unit,
+                          precision < 0 ? Display.defaultNumberFormat() : NumberFormats.precisionFormat(precision),
+                          description);
+    }
+
+    private void serialize(final String channel, final String retention, final VType sample)
+    {
+        record.clear();
+        putString(channel);
+        putString(retention);
+
+        final byte type;
+        if (sample instanceof VDouble  ||  sample instanceof VFloat)
+            type = DOUBLE;
+        else if (sample instanceof VNumber)
+        {   // Custom VNumber may still hold floating point
+            final Number number = ((VNumber) sample).getValue();
+            type = (number instanceof Double  ||  number instanceof Float) ? DOUBLE : LONG;
+        }
+        else if (sample instanceof VEnum)
+            type = ENUM;
+        else if (sample instanceof VByteArray)
+            type = BYTE_ARRAY;
+        else if (sample instanceof VNumberArray)
+            type = DOUBLE_ARRAY;
+        else if (sample instanceof VStringArray)
+            type = STRING_ARRAY;
+        else
+            type = STRING;
+        putByte(type);
+
+        final Time time = Time.timeOf(sample);
+        if (time == null)
+        {
+            putLong(0);
+            putInt(0);
+            putByte(0);
+        }
+        else
+        {
+            putLong(time.getTimestamp().getEpochSecond());
+            putInt(time.getTimestamp().getNano());
+            putByte(time.isValid() ? 1 : 0);
+        }
+
+        final Alarm alarm = Alarm.alarmOf(sample);
+        if (alarm == null)
+        {
+            putByte(AlarmSeverity.NONE.ordinal());
+            putByte(AlarmStatus.NONE.ordinal());
+            putString("");
+        }
+        else
+        {
+            putByte(alarm.getSeverity().ordinal());
+            putByte(alarm.getStatus().ordinal());
+            putString(alarm.getName());
+        }
+
+        switch (type)
+        {
+        case DOUBLE:
+            putDouble(((VNumber) sample).getValue().doubleValue());
+            putDisplay(((VNumber) sample).getDisplay());
+            break;
+        case LONG:
+            putLong(((VNumber) sample).getValue().longValue());
+            putDisplay(((VNumber) sample).getDisplay());
+            break;
+        case ENUM:
+        {
+            final VEnum value = (VEnum) sample;
+            putInt(value.getIndex());
+            final List<String> labels = value.getDisplay().getChoices();
+            putInt(labels.size());
+            for (String label : labels)
+                putString(label);
+            break;
+        }
+        case BYTE_ARRAY:
+        {
+            final ListByte data = ((VByteArray) sample).getData();
+            final int size = data.size();
+            putInt(size);
+            ensure(size);
+            for (int i=0; i<size; ++i)
+                record.put(data.getByte(i));
+            putDisplay(((VByteArray) sample).getDisplay());
+            break;
+        }
+        case DOUBLE_ARRAY:
+        {
+            final ListNumber data = ((VNumberArray) sample).getData();
+            final int size = data.size();
+            putInt(size);
+            ensure(size * 8);
+            for (int i=0; i<size; ++i)
+                record.putDouble(data.getDouble(i));
+            putDisplay(((VNumberArray) sample).getDisplay());
+            break;
+        }
+        case STRING_ARRAY:
+        {
+            final List<String> data = ((VStringArray) sample).getData();
+            putInt(data.size());
+            for (String text : data)
+                putString(text);
+            break;
+        }
+        default:
+            putString(sample instanceof VString ? ((VString) sample).getValue() : sample.toString());
+        }
+    }
+
+    private static Entry deserialize(final ByteBuffer buffer) throws BufferUnderflowException
+    {
+        final String channel = getString(buffer);
+        final String retention = getString(buffer);
+        final byte type = buffer.get();
+        final long seconds = buffer.getLong();
+        final int nanos = buffer.getInt();
+        final boolean valid = buffer.get() != 0;
+        final Time time = Time.of(Instant.ofEpochSecond(seconds, nanos), null, valid);
+        final AlarmSeverity severity = SEVERITIES[buffer.get()];
+        final AlarmStatus status = STATI[buffer.get()];
+        final Alarm alarm = Alarm.of(severity, status, getString(buffer));
+
+        final VType sample;
+        switch (type)
+        {
+        case DOUBLE:
+        {
+            final double value = buffer.getDouble();
+            sample = VDouble.of(value, alarm, time, getDisplay(buffer));
+            break;
+        }
+        case LONG:
+        {
+            final long value = buffer.getLong();
+            sample = VLong.of(value, alarm, time, getDisplay(buffer));
+            break;
+        }
+        case ENUM:
+        {
+            final int index = buffer.getInt();
+            final int count = buffer.getInt();
+            final List<String> labels = new ArrayList<>(count);
+            for (int i=0; i<count; ++i)
+                labels.add(getString(buffer));
+            sample = VEnum.of(index, EnumDisplay.of(labels), alarm, time);
+            break;
+        }
+        case BYTE_ARRAY:
+        {
+            final byte[] data = new byte[buffer.getInt()];
+            buffer.get(data);
+            sample = VByteArray.of(ArrayByte.of(data), alarm, time, getDisplay(buffer));
+            break;
+        }
+        case DOUBLE_ARRAY:
+        {
+            final double[] data = new double[buffer.getInt()];
+            for (int i=0; i<data.length; ++i)
+                data[i] = buffer.getDouble();
+            sample = VDoubleArray.of(ArrayDouble.of(data), alarm, time, getDisplay(buffer));
+            break;
+        }
+        case STRING_ARRAY:
+        {
+            final int count = buffer.getInt();
+            final List<String> data = new ArrayList<>(count);
+            for (int i=0; i<count; ++i)
+                data.add(getString(buffer));
+            sample = VStringArray.of(data, alarm, time);
+            break;
+        }
+        case STRING:
+            sample = VString.of(getString(buffer), alarm, time);
+            break;
+        default:
+            throw new IllegalStateException("Unknown sample type " + type);
+        }
+        return new Entry(channel, retention, sample);
+    }
+}
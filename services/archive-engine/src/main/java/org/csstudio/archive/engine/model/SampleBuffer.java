@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010-2018 Oak Ridge National Laboratory.
+ * Copyright (c) 2010-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,7 +12,6 @@ import java.util.logging.Level;
 import org.csstudio.archive.Preferences;
 import org.csstudio.archive.ThrottledLogger;
 import org.epics.vtype.VType;
-import org.phoebus.framework.util.RingBuffer;
 
 /** Buffer for the samples of one channel.
  *
@@ -20,6 +19,11 @@ import org.phoebus.framework.util.RingBuffer;
  *  thread removes them.
  *  When the queue size is reached, older samples get dropped.
  *
+ *  <p>Scalar numeric samples are held in primitive arrays,
+ *  see {@link SampleRing}.
+ *  Threads that add samples are serialized,
+ *  while the write thread removes samples without locking.
+ *
  *  @author Kay Kasemir
  */
 public class SampleBuffer
@@ -35,8 +39,10 @@ public class SampleBuffer
      */
     final private String retention;
 
-    /** The actual samples in a thread-save queue. */
-    final private RingBuffer<VType> samples;
+    /** The actual samples.
+     *  Synchronize on it to add, but not to remove samples.
+     */
+    final private SampleRing samples;
 
     /** Statistics */
     final private BufferStats stats = new BufferStats();
@@ -66,7 +72,7 @@ public class SampleBuffer
     {
         this.channel_name = channel_name;
         this.retention = retention;
-        samples = new RingBuffer<>(capacity);
+        samples = new SampleRing(capacity);
     }
 
     /** @return channel name of this buffer */
@@ -84,19 +90,13 @@ public class SampleBuffer
     /** @return Queue capacity, i.e. maximum queue size. */
     public int getCapacity()
     {
-        synchronized (samples)
-        {
-            return samples.getCapacity();
-        }
+        return samples.getCapacity();
     }
 
     /** @return Current queue size, i.e. number of samples in the queue. */
     public int getQueueSize()
     {
-        synchronized (samples)
-        {
-            return samples.size();
-        }
+        return samples.size();
     }
 
     /** @return <code>true</code> if currently experiencing write errors */
@@ -117,8 +117,8 @@ public class SampleBuffer
     {
         synchronized (samples)
         {
-            if (samples.isFull())
-            {   // Note start of overruns, then drop older sample
+            if (samples.add(value))
+            {   // Note start of overruns, older sample was dropped
                 if (start_of_overruns == null)
                     start_of_overruns = stats.getOverruns();
                 stats.addOverrun();
@@ -129,17 +129,13 @@ public class SampleBuffer
                 overrun_msg.log(channel_name + ": " + overruns + " overruns");
                 start_of_overruns = null;
             }
-            samples.add(value);
         }
     }
 
     /** @return latest sample in queue or <code>null</code> if empty */
     VType remove()
     {
-        synchronized (samples)
-        {
-            return samples.remove();
-        }
+        return samples.remove();
     }
 
     /** Update stats with current values */
@@ -0,0 +1,288 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.model;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.epics.vtype.Alarm;
+import org.epics.vtype.AlarmSeverity;
+import org.epics.vtype.AlarmStatus;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VByte;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VFloat;
+import org.epics.vtype.VInt;
+import org.epics.vtype.VLong;
+import org.epics.vtype.VNumber;
+import org.epics.vtype.VShort;
+import org.epics.vtype.VType;
+
+/** Ring buffer for the samples of one channel
+ *
+ *  <p>Scalar numeric samples are not kept as {@link VType} objects.
+ *  Their time stamp, alarm and value are stored in primitive arrays,
+ *  and the {@link VType} is re-created when the sample is removed.
+ *  Alarm messages and {@link Display} information rarely change,
+ *  so each slot merely holds an index into a small per-channel table.
+ *  Other samples like arrays, strings or enums,
+ *  or a scalar whose alarm message or display doesn't fit the tables,
+ *  are kept as objects in the same ring to preserve the order of samples.
+ *
+ *  <p>Samples are added by one producer at a time.
+ *  The caller must serialize calls to {@link #add(VType)},
+ *  but {@link #remove()} does not lock,
+ *  so the write thread and the producer never wait for each other.
+ *  When the ring is full, the producer drops the oldest sample
+ *  by advancing the <code>head</code>, competing with a concurrent
+ *  {@link #remove()} via compare-and-set.
+ *
+ *  @author Kay Kasemir
+ */
+class SampleRing
+{
+    /** Kinds of samples */
+    private static final byte OBJECT = 0, DOUBLE = 1, FLOAT = 2, LONG = 3, INT = 4, SHORT = 5, BYTE = 6;
+
+    /** Maximum number of alarm messages or displays per channel */
+    private static final int MAX_META = 128;
+
+    private static final AlarmSeverity[] SEVERITIES = AlarmSeverity.values();
+    private static final AlarmStatus[] STATI = AlarmStatus.values();
+
+    /** Latest time stamp, in epoch seconds, that fits into nanoseconds as a long */
+    private static final long MAX_SECONDS = Long.MAX_VALUE / 1000000000L - 1;
+
+    private final int capacity;
+
+    /** Kind of sample in each slot */
+    private final byte[] kinds;
+
+    /** Time stamp in epoch nanoseconds */
+    private final long[] times;
+
+    /** Value, raw bits of a double or a long */
+    private final long[] values;
+
+    /** Alarm severity and status ordinals */
+    private final byte[] severities, stati;
+
+    /** Indices into name_table and display_table */
+    private final byte[] names, displays;
+
+    /** Samples of kind OBJECT */
+    private final AtomicReferenceArray<VType> objects;
+
+    /** Alarm messages and displays referenced by slots.
+     *  Only appended by the producer before it publishes
+     *  a slot that uses a new entry.
+     */
+    private final String[] name_table = new String[MAX_META];
+    private final Display[] display_table = new Display[MAX_META];
+    private int name_count = 0, display_count = 0, last_name = 0, last_display = 0;
+
+    /** Index of the oldest sample. Advanced by consumer, or by producer when dropping samples */
+    private final AtomicLong head = new AtomicLong();
+
+    /** Index for the next sample. Only advanced by producer */
+    private volatile long tail = 0;
+
+    /** @param capacity Number of samples to buffer */
+    SampleRing(final int capacity)
+    {
+        this.capacity = Math.max(1, capacity);
+        kinds = new byte[this.capacity];
+        times = new long[this.capacity];
+        values = new long[this.capacity];
+        severities = new byte[this.capacity];
+        stati = new byte[this.capacity];
+        names = new byte[this.capacity];
+        displays = new byte[this.capacity];
+        objects = new AtomicReferenceArray<>(this.capacity);
+    }
+
+    /** @return Maximum number of samples */
+    int getCapacity()
+    {
+        return capacity;
+    }
+
+    /** @return Number of samples in the ring */
+    int size()
+    {
+        final long h = head.get();
+        final long size = tail - h;
+        return (int) Math.max(0, Math.min(capacity, size));
+    }
+
+    /** Add a sample.
+     *  Must only be called by one thread at a time.
+     *  @param value Sample to add
+     *  @return <code>true</code> if the oldest sample was dropped to make room
+     */
+    boolean add(final VType value)
+    {
+        final long t = tail;
+        boolean dropped = false;
+        final long h = head.get();
+        // When full, drop the oldest sample.
+        // If that fails, remove() just made room.
+        if (t - h >= capacity)
+            dropped = head.compareAndSet(h, h+1);
+
+        final int i = (int) (t % capacity);
+        if (store(i, value))
+            objects.lazySet(i, null);
+        else
+        {
+            kinds[i] = OBJECT;
+            objects.set(i, value);
+        }
+        // Publish the slot
+        tail = t + 1;
+        return dropped;
+    }
+
+    /** @param i Slot
+     *  @param value Sample to store in primitive arrays
+     *  @return <code>true</code> if stored, <code>false</code> if value must be kept as object
+     */
+    private boolean store(final int i, final VType value)
+    {
+        final byte kind;
+        if (value instanceof VDouble)
+            kind = DOUBLE;
+        else if (value instanceof VFloat)
+            kind = FLOAT;
+        else if (value instanceof VLong)
+            kind = LONG;
+        else if (value instanceof VInt)
+            kind = INT;
+        else if (value instanceof VShort)
+            kind = SHORT;
+        else if (value instanceof VByte)
+            kind = BYTE;
+        else
+            return false;
+        final VNumber number = (VNumber) value;
+
+        final Time time = number.getTime();
+        if (! time.isValid()  ||  time.getUserTag() != null)
+            return false;
+        final Instant stamp = time.getTimestamp();
+        if (stamp.getEpochSecond() < 0  ||  stamp.getEpochSecond() > MAX_SECONDS)
+            return false;
+
+        final Alarm alarm = number.getAlarm();
+        final int name = findName(alarm.getName());
+        if (name < 0)
+            return false;
+        final int display = findDisplay(number.getDisplay());
+        if (display < 0)
+            return false;
+
+        kinds[i] = kind;
+        times[i] = stamp.getEpochSecond() * 1000000000L + stamp.getNano();
+        if (kind == DOUBLE  ||  kind == FLOAT)
+            values[i] = Double.doubleToRawLongBits(number.getValue().doubleValue());
+        else
+            values[i] = number.getValue().longValue();
+        severities[i] = (byte) alarm.getSeverity().ordinal();
+        stati[i] = (byte) alarm.getStatus().ordinal();
+        names[i] = (byte) name;
+        displays[i] = (byte) display;
+        return true;
+    }
+
+    /** @param name Alarm message
+     *  @return Index in name_table or -1 if table is full or name is <code>null</code>
+     */
+    private int findName(final String name)
+    {
+        if (name == null)
+            return -1;
+        if (name_count > 0  &&  name_table[last_name].equals(name))
+            return last_name;
+        for (int i=0; i<name_count; ++i)
+            if (name_table[i].equals(name))
+                return last_name = i;
+        if (name_count >= MAX_META)
+            return -1;
+        name_table[name_count] = name;
+        return last_name = name_count++;
+    }
+
+    /** @param display Display
+     *  @return Index in display_table or -1 if table is full or display is <code>null</code>
+     */
+    private int findDisplay(final Display display)
+    {
+        if (display == null)
+            return -1;
+        if (display_count > 0  &&  display_table[last_display] == display)
+            return last_display;
+        for (int i=0; i<display_count; ++i)
+            if (display_table[i] == display  ||  display_table[i].equals(display))
+                return last_display = i;
+        if (display_count >= MAX_META)
+            return -1;
+        display_table[display_count] = display;
+        return last_display = display_count++;
+    }
+
+    /** @return Oldest sample or <code>null</code> if empty */
+    VType remove()
+    {
+        while (true)
+        {
+            final long h = head.get();
+            if (h >= tail)
+                return null;
+            final int i = (int) (h % capacity);
+            final byte kind = kinds[i];
+            final VType object = objects.get(i);
+            final long time = times[i], value = values[i];
+            final byte severity = severities[i], status = stati[i], name = names[i], display = displays[i];
+            if (head.compareAndSet(h, h+1))
+            {
+                if (kind == OBJECT)
+                {   // Release the object unless producer already re-used the slot
+                    objects.compareAndSet(i, object, null);
+                    return object;
+                }
+                return create(kind, time, value, severity, status, name, display);
+            }
+            // Else: Producer dropped that sample while we read it, try the next one
+        }
+    }
+
+    private VType create(final byte kind, final long nanos, final long value,
+                         final byte severity, final byte status, final byte name, final byte display)
+    {
+        final Alarm alarm = Alarm.of(SEVERITIES[severity], STATI[status], name_table[name]);
+        final Time time = Time.of(Instant.ofEpochSecond(nanos / 1000000000L, nanos % 1000000000L));
+        final Display meta = display_table[display];
+        switch (kind)
+        {
+        case DOUBLE:
+            return VDouble.of(Double.longBitsToDouble(value), alarm, time, meta);
+        case FLOAT:
+            return VFloat.of((float) Double.longBitsToDouble(value), alarm, time, meta);
+        case LONG:
+            return VLong.of(value, alarm, time, meta);
+        case INT:
+            return VInt.of((int) value, alarm, time, meta);
+        case SHORT:
+            return VShort.of((short) value, alarm, time, meta);
+        default:
+            return VByte.of((byte) value, alarm, time, meta);
+        }
+    }
+}
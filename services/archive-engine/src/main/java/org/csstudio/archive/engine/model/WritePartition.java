@@ -0,0 +1,581 @@
+/*******************************************************************************
+ * Copyright (c) 2010-2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.model;
+
+import static org.csstudio.archive.Engine.logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+import org.csstudio.archive.Preferences;
+import org.csstudio.archive.writer.ArchiveWriter;
+import org.csstudio.archive.writer.ArchiveWriterFactory;
+import org.csstudio.archive.writer.WriteChannel;
+import org.epics.vtype.VType;
+
+/** One partition of the {@link WriteThread}
+ *
+ *  <p>Writes the samples of a fixed set of channels,
+ *  using its own thread and {@link ArchiveWriter},
+ *  i.e. its own RDB connection.
+ *  <p>
+ *  When there are write errors, it sets the error state
+ *  and tries to reconnect to the database and write again until successful.
+ *  Since the Oracle batch mechanism doesn't tell us what exactly failed
+ *  in a batch, all the samples that were part of the batch might
+ *  be lost.
+ *  The channels that add samples to the sample buffer supposedly notice
+ *  the error condition and add a special indicator once we recover.
+ *  <p>
+ *  With a {@link Journal}, samples are moved from the sample buffers
+ *  into the journal while writes fail,
+ *  or when a sample buffer passes the high-water mark because
+ *  writing is too slow.
+ *  As long as the journal holds samples, newer samples are
+ *  also added to the journal, and the journal is replayed
+ *  to keep the samples of each channel in order.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class WritePartition implements Runnable
+{
+    /** {@link WriteThread} that combines the error states */
+    private final WriteThread parent;
+
+    /** Name of this partition, also used for its thread */
+    private final String name;
+
+    /** Server to which this thread writes. */
+    private ArchiveWriter writer;
+
+    /** All the sample buffers this thread writes. */
+    final private List<SampleBuffer> buffers = new ArrayList<>();
+
+    /** Flag that tells the write thread to run or quit. */
+    private volatile boolean do_run;
+
+    /** Is this partition experiencing write errors? */
+    private volatile boolean write_error = false;
+
+    /** Synchronization block for waiting.
+     *  Signaled in stop().
+     */
+    private Object wait_block = new Object();
+
+    /** Delay between write runs. */
+    private long millisec_delay = 5000;
+
+    /** Number of values to place into one batch */
+    private int batch_size = 500;
+
+    /** Time of end of last write run */
+    private volatile Instant last_write_stamp = null;
+
+    /** Start time of last write run in millis, 0 if unknown */
+    private long last_start = 0;
+
+    /** Average number of values per write run */
+    private Average write_count = new Average();
+
+    /** Average duration of write run */
+    private Average write_time = new Average();
+
+    /** Average number of values written per second */
+    private Average write_rate = new Average();
+
+    /** Average duration of a flush */
+    private Average flush_time = new Average();
+
+    /** Average number of values replayed from journal per second */
+    private Average replay_rate = new Average();
+
+    /** Journal for samples that cannot be written right now, or <code>null</code> */
+    private volatile Journal journal = null;
+
+    /** Sample that was removed from its sample buffer but did not fit into the journal.
+     *  Added to the journal before any other sample, or written before the sample buffers.
+     */
+    private Journal.Entry unjournaled = null;
+
+    /** Time of last high-water mark check in millis */
+    private long last_high_water_check = 0;
+
+    /** Thread the executes this.run() */
+    private Thread thread;
+
+    /** @param parent {@link WriteThread}
+     *  @param name Name of this partition
+     */
+    WritePartition(final WriteThread parent, final String name)
+    {
+        this.parent = parent;
+        this.name = name;
+    }
+
+    /** @return Name of this partition */
+    public String getName()
+    {
+        return name;
+    }
+
+    /** Add a sample buffer that this thread reads */
+    void addSampleBuffer(final SampleBuffer buffer)
+    {
+        synchronized (buffers)
+        {
+            buffers.add(buffer);
+        }
+    }
+
+    /** @return Number of channels written by this partition */
+    public int getChannelCount()
+    {
+        synchronized (buffers)
+        {
+            return buffers.size();
+        }
+    }
+
+    /** @return Number of samples currently waiting to be written */
+    public int getBacklog()
+    {
+        int backlog = 0;
+        synchronized (buffers)
+        {
+            for (SampleBuffer buffer : buffers)
+                backlog += buffer.getQueueSize();
+        }
+        return backlog;
+    }
+
+    /** Open the journal, if configured.
+     *  Call before {@link #start(long, int)}.
+     */
+    void openJournal()
+    {
+        if (Preferences.journal_directory.isBlank())
+            return;
+        final Path directory = Path.of(Preferences.journal_directory, name);
+        try
+        {
+            journal = new Journal(directory,
+                                  Preferences.journal_segment_mb * 1024 * 1024,
+                                  Preferences.journal_max_mb * 1024L * 1024L);
+        }
+        catch (Exception ex)
+        {
+            logger.log(Level.SEVERE, name + " cannot open journal " + directory, ex);
+        }
+    }
+
+    /** Start the write thread.
+     *  @param millisec_delay Period between writes in milliseconds
+     *  @param batch_size Number of values to batch
+     */
+    void start(final long millisec_delay, final int batch_size)
+    {
+        this.millisec_delay = millisec_delay;
+        this.batch_size = batch_size;
+        thread = new Thread(this, name);
+        thread.start();
+    }
+
+    /** Reset statistics */
+    void reset()
+    {
+        write_count.reset();
+        write_time.reset();
+        write_rate.reset();
+        flush_time.reset();
+        replay_rate.reset();
+    }
+
+    /** Ask the write thread to stop ASAP. */
+    void stop()
+    {
+        do_run = false;
+        synchronized (wait_block)
+        {
+            wait_block.notify();
+        }
+    }
+
+    /** @return <code>true</code> if currently experiencing write errors */
+    public boolean isInErrorState()
+    {
+        return write_error;
+    }
+
+    /** @return Timestamp of end of last write run */
+    public Instant getLastWriteTime()
+    {
+        return last_write_stamp;
+    }
+
+    /** @return Average number of values per write run */
+    public double getWriteCount()
+    {
+        return write_count.get();
+    }
+
+    /** @return  Average duration of write run in seconds */
+    public double getWriteDuration()
+    {
+        return write_time.get();
+    }
+
+    /** @return Average number of values written per second */
+    public double getWriteRate()
+    {
+        return write_rate.get();
+    }
+
+    /** @return {@link Journal} or <code>null</code> */
+    public Journal getJournal()
+    {
+        return journal;
+    }
+
+    /** @return Average number of values replayed from the journal per second */
+    public double getReplayRate()
+    {
+        return replay_rate.get();
+    }
+
+    /** @return Average duration of one flush in seconds */
+    public double getFlushDuration()
+    {
+        return flush_time.get();
+    }
+
+    /** 'Main loop' of the write thread.
+     *  <p>
+     *  Writes all values out, then waits.
+     *  The idea is that waiting a little for values
+     *  to accumulate actually helps, because then
+     *  we may write a few values per channel,
+     *  so the effort for locating a channel's ID
+     *  and the batching actually pays off.
+     *  <p>
+     *  Since the wait time can be considerable (30 seconds?),
+     *  we wait on a semaphore (wait_block), which
+     *  can be notified in stop() to cause an ASAP exit.
+     */
+    @Override
+    public void run()
+    {
+        logger.info(name + " starts");
+        do_run = true;
+        while (do_run)
+        {
+            long delay;
+            try
+            {
+                // If there was an error before...
+                if (write_error)
+                {   // .. try to reconnect
+                    if (writer != null)
+                    {
+                        writer.close();
+                        writer = null;
+                    }
+                    // If we get here, all is OK so far ...
+                    write_error = false;
+                    // .. and we continue to write.
+                }
+                if (writer == null)
+                    writer = ArchiveWriterFactory.getArchiveWriter();
+                final long start = System.currentTimeMillis();
+                // In case of a network problem, we can hang in here
+                // for a long time...
+                final long written = (journal != null  &&  ! journal.isEmpty())
+                                   ? replay(start)
+                                   : write();
+                final long milli = System.currentTimeMillis() - start;
+                last_write_stamp = Instant.now();
+                write_count.update(written);
+                write_time.update(milli / 1000.0);
+                // Rate relative to the previous run, which includes the wait
+                if (last_start > 0  &&  start > last_start)
+                    write_rate.update(written * 1000.0 / (start - last_start));
+                last_start = start;
+                // How much of the scheduled delay is left after write()?
+                delay = millisec_delay - milli;
+            }
+            catch (Exception ex)
+            {   // Error in write() or the preceding reconnect()...
+                logger.log(Level.WARNING, name + " error, will try to reconnect", ex);
+                // Use max. delay
+                delay = millisec_delay;
+                write_error = true;
+                // Keep samples in the journal until we can write again
+                spill();
+            }
+            parent.updateErrorState();
+            // See if there's any time left to wait,
+            // or if we already used all that time in the last 'write'
+            if (delay > 0)
+            {
+                synchronized (wait_block)
+                {
+                    try
+                    {
+                        if (do_run)
+                            wait_block.wait(delay);
+                    }
+                    catch (InterruptedException ex)
+                    {
+                        logger.log(Level.WARNING, "Interrupted wait", ex);
+                    }
+                }
+            }
+        }
+        logger.info(name + " exists");
+    }
+
+    /** Wait for the write thread to end, then perform a final write.
+     *  @throws Exception on error in final write
+     */
+    void shutdown() throws Exception
+    {
+        if (thread != null)
+            thread.join();
+        // Then write once more.
+        // Errors in this last write are passed up.
+        try
+        {
+            if (journal != null  &&  ! journal.isEmpty())
+                spill(); // Don't delay shutdown to replay; add to journal for next start
+            else
+            {
+                if (writer == null)
+                    writer = ArchiveWriterFactory.getArchiveWriter();
+                write();
+            }
+        }
+        catch (Exception ex)
+        {
+            if (journal == null)
+                throw ex;
+            logger.log(Level.WARNING, name + " final write failed, adding samples to journal", ex);
+            spill();
+        }
+        finally
+        {
+            if (writer != null)
+            {
+                writer.close();
+                writer = null;
+            }
+            if (journal != null)
+            {
+                final int lost = getBacklog() + (unjournaled != null ? 1 : 0);
+                if (lost > 0)
+                    logger.log(Level.WARNING, name + " journal is full, losing " + lost + " samples");
+                journal.close();
+            }
+        }
+    }
+
+    /** Write right now until all sample buffers are empty
+     *  @return number of samples written
+     */
+    private long write() throws Exception
+    {
+        final SampleBuffer[] to_write = getBuffers();
+        int total_count = 0;
+        int count = 0;
+        // Sample that didn't fit into the journal is older than those in the buffers
+        if (unjournaled != null)
+        {
+            writer.addSample(writer.getChannel(unjournaled.channel, unjournaled.retention), unjournaled.sample);
+            unjournaled = null;
+            ++count;
+        }
+        for (SampleBuffer buffer : to_write)
+        {
+            // Update max buffer length etc. before we start to remove samples
+            buffer.updateStats();
+            // Write samples for one channel
+            final String channel_name = buffer.getChannelName();
+            final String retention = buffer.getArchiveDataRetention();
+            final WriteChannel channel = writer.getChannel(channel_name, retention);
+            VType sample = buffer.remove();
+            while (sample != null)
+            {   // Write one value
+                writer.addSample(channel, sample);
+                // Note: count across different sample buffers!
+                ++count;
+                if (count > batch_size)
+                {
+                    total_count += count;
+                    count = 0;
+                    flush();
+                    if (isAboveHighWater(to_write))
+                    {   // Move remaining samples to journal, replay in next run
+                        logger.log(Level.WARNING, name + " cannot keep up, adding samples to journal");
+                        spill();
+                        return total_count;
+                    }
+                }
+                // next
+                sample = buffer.remove();
+            }
+        }
+        // Flush remaining samples (less than batch_size)
+        flush();
+        total_count += count;
+        return total_count;
+    }
+
+    /** @return Snapshot of the sample buffers */
+    private SampleBuffer[] getBuffers()
+    {
+        synchronized (buffers)
+        {
+            return buffers.toArray(new SampleBuffer[buffers.size()]);
+        }
+    }
+
+    /** Check if a sample buffer is so full that
+     *  samples should be moved to the journal.
+     *  Checks at most once per second.
+     *  @param to_write Sample buffers
+     *  @return <code>true</code> if a buffer is above the high-water mark
+     */
+    private boolean isAboveHighWater(final SampleBuffer[] to_write)
+    {
+        if (journal == null  ||  journal.isFull())
+            return false;
+        final long now = System.currentTimeMillis();
+        if (now - last_high_water_check < 1000)
+            return false;
+        last_high_water_check = now;
+        for (SampleBuffer buffer : to_write)
+            if (buffer.getQueueSize() > Preferences.journal_high_water * buffer.getCapacity())
+                return true;
+        return false;
+    }
+
+    /** Move all samples from the sample buffers into the journal,
+     *  as far as it has room
+     *
+     *  <p>A sample that does not fit is kept as <code>unjournaled</code>
+     *  and spilling stops, so the remaining samples stay in the sample buffers.
+     */
+    private void spill()
+    {
+        if (journal == null)
+            return;
+        long count = 0;
+        try
+        {
+            if (unjournaled != null)
+            {
+                if (! journal.append(unjournaled.channel, unjournaled.retention, unjournaled.sample))
+                    return;
+                unjournaled = null;
+                ++count;
+            }
+            for (SampleBuffer buffer : getBuffers())
+            {
+                buffer.updateStats();
+                final String channel = buffer.getChannelName();
+                final String retention = buffer.getArchiveDataRetention();
+                while (! journal.isFull())
+                {
+                    final VType sample = buffer.remove();
+                    if (sample == null)
+                        break;
+                    // Hold on to the sample until it's in the journal
+                    unjournaled = new Journal.Entry(channel, retention, sample);
+                    if (! journal.append(channel, retention, sample))
+                        break;
+                    unjournaled = null;
+                    ++count;
+                }
+                if (unjournaled != null)
+                    break;
+            }
+            journal.sync();
+        }
+        catch (IOException ex)
+        {
+            logger.log(Level.SEVERE, name + " cannot write to journal " + journal.getDirectory(), ex);
+        }
+        if (count > 0)
+            logger.log(Level.FINE, () -> name + " added samples to journal, " + journal.getPendingBytes() + " bytes pending");
+    }
+
+    /** Replay samples from the journal
+     *
+     *  <p>Newer samples are first added to the journal
+     *  to preserve their order.
+     *  Replays for up to one write period.
+     *  Once the journal is empty, the sample buffers are written.
+     *
+     *  @param start Start time of this run in millis
+     *  @return number of samples written
+     */
+    private long replay(final long start) throws Exception
+    {
+        spill();
+        long total_count = 0;
+        int count = 0;
+        try
+        {
+            Journal.Entry entry;
+            while ((entry = journal.read()) != null)
+            {
+                writer.addSample(writer.getChannel(entry.channel, entry.retention), entry.sample);
+                ++count;
+                if (count > batch_size)
+                {
+                    total_count += count;
+                    count = 0;
+                    flush();
+                    journal.commit();
+                    if (System.currentTimeMillis() - start > millisec_delay)
+                        break;
+                }
+            }
+            flush();
+            journal.commit();
+        }
+        catch (Exception ex)
+        {   // Samples read since last commit were not written, replay them again
+            journal.rollback();
+            throw ex;
+        }
+        total_count += count;
+
+        final long millis = System.currentTimeMillis() - start;
+        if (millis > 0)
+            replay_rate.update(total_count * 1000.0 / millis);
+
+        if (journal.isEmpty())
+        {
+            logger.log(Level.INFO, name + " replayed journal");
+            total_count += write();
+        }
+        return total_count;
+    }
+
+    /** Flush the writer, updating the flush statistics */
+    private void flush() throws Exception
+    {
+        final long start = System.nanoTime();
+        writer.flush();
+        flush_time.update((System.nanoTime() - start) / 1e9);
+    }
+}
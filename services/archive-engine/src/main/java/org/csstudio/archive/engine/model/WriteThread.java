@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010-2018 Oak Ridge National Laboratory.
+ * Copyright (c) 2010-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -9,65 +9,70 @@ package org.csstudio.archive.engine.model;
 
 import static org.csstudio.archive.Engine.logger;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
+import java.util.stream.Stream;
 
-import org.csstudio.archive.writer.ArchiveWriter;
-import org.csstudio.archive.writer.ArchiveWriterFactory;
-import org.csstudio.archive.writer.WriteChannel;
-import org.epics.vtype.VType;
+import org.csstudio.archive.Preferences;
 
-/** Thread that writes values from multiple <code>SampleBuffer</code>s
+/** Writes values from multiple <code>SampleBuffer</code>s
  *  to an <code>RDBArchiveServer</code>.
  *  <p>
- *  When there are write errors, it sets the sample buffer error state
- *  and tries to reconnect to the database and write again until successful.
- *  Since the Oracle batch mechanism doesn't tell us what exactly failed
- *  in a batch, all the samples that were part of the batch might
- *  be lost.
- *  The channels that add samples to the sample buffer supposedly notice
- *  the error condition and add a special indicator once we recover.
+ *  The channels are partitioned into {@link Preferences#write_threads}
+ *  {@link WritePartition}s.
+ *  Each partition has its own thread and RDB connection,
+ *  so a slow flush in one partition does not delay the others.
+ *  A channel always ends up in the same partition,
+ *  so its samples are written in order.
+ *  <p>
+ *  When the number of partitions changes, journals of partitions
+ *  that no longer exist are moved into the journals of the current
+ *  partitions on start, so they are still replayed.
  *
  *  @author Kay Kasemir
  */
-public class WriteThread implements Runnable
+public class WriteThread
 {
     /** Minimum write period [seconds] */
     private static final double MIN_WRITE_PERIOD = 5.0;
 
-    /** Server to which this thread writes. */
-    private ArchiveWriter writer;
+    /** Partitions, each writing a subset of the channels */
+    private final WritePartition[] partitions;
 
-    /** All the sample buffers this thread writes. */
-    final private ArrayList<SampleBuffer> buffers =
-        new ArrayList<>();
+    /** Create write thread with the configured number of partitions */
+    public WriteThread()
+    {
+        this(Preferences.write_threads);
+    }
 
-    /** Flag that tells the write thread to run or quit. */
-    private boolean do_run;
+    /** @param threads Number of partitions */
+    @SuppressWarnings("nls")
+    WriteThread(final int threads)
+    {
+        partitions = new WritePartition[Math.max(1, threads)];
+        if (partitions.length == 1)
+            partitions[0] = new WritePartition(this, "WriteThread");
+        else
+            for (int i=0; i<partitions.length; ++i)
+                partitions[i] = new WritePartition(this, "WriteThread-" + (i+1));
+    }
 
-    /** Synchronization block for waiting.
-     *  Signaled in stop().
+    /** @param channel_name Channel name
+     *  @param partitions Number of partitions
+     *  @return Index of the partition for that channel
      */
-    private Object wait_block = new Object();
-
-    /** Delay between write runs. */
-    private long millisec_delay = 5000;
-
-    /** Number of values to place into one batch */
-    private int batch_size = 500;
-
-    /** Time of end of last write run */
-    private Instant last_write_stamp = null;
-
-    /** Average number of values per write run */
-    private Average write_count = new Average();
-
-    /** Average duration of write run */
-    private Average write_time = new Average();
-
-    /** Thread the executes this.run() */
-    private Thread thread;
+    static int getPartition(final String channel_name, final int partitions)
+    {
+        // String.hashCode() is specified, so the assignment is stable across restarts
+        return Math.floorMod(channel_name.hashCode(), partitions);
+    }
 
     /** Add a channel's buffer that this thread reads */
     public void addChannel(final ArchiveChannel channel)
@@ -78,7 +83,13 @@ public class WriteThread implements Runnable
     /** Add a sample buffer that this thread reads */
     void addSampleBuffer(final SampleBuffer buffer)
     {
-        buffers.add(buffer);
+        partitions[getPartition(buffer.getChannelName(), partitions.length)].addSampleBuffer(buffer);
+    }
+
+    /** @return Partitions of the write thread */
+    public List<WritePartition> getPartitions()
+    {
+        return List.of(partitions);
     }
 
     /** Start the write thread.
@@ -94,182 +105,197 @@ public class WriteThread implements Runnable
                 new Object[] { write_period, MIN_WRITE_PERIOD });
             write_period = MIN_WRITE_PERIOD;
         }
-        millisec_delay = (int)(1000.0 * write_period);
-        this.batch_size = batch_size;
-        thread = new Thread(this, "WriteThread");
-        thread.start();
+        final long millisec_delay = (long)(1000.0 * write_period);
+        openJournals();
+        for (WritePartition partition : partitions)
+            partition.start(millisec_delay, batch_size);
     }
 
-    /** Reset statistics */
-    public void reset()
+    /** Open the journals of all partitions, if configured,
+     *  and move samples from journals that don't belong to a partition
+     *  into them.
+     *
+     *  <p>Called before the partitions start,
+     *  so the samples are replayed ahead of newer samples.
+     */
+    @SuppressWarnings("nls")
+    void openJournals()
     {
-        write_count.reset();
-        write_time.reset();
+        for (WritePartition partition : partitions)
+            partition.openJournal();
+        if (Preferences.journal_directory.isBlank())
+            return;
+        final Path root = Path.of(Preferences.journal_directory);
+        if (! Files.isDirectory(root))
+            return;
+        final Set<String> names = new HashSet<>();
+        for (WritePartition partition : partitions)
+            names.add(partition.getName());
+        final List<Path> orphans = new ArrayList<>();
+        try (Stream<Path> list = Files.list(root))
+        {
+            list.filter(Files::isDirectory)
+                .filter(dir -> ! names.contains(dir.getFileName().toString()))
+                .sorted()
+                .forEach(orphans::add);
+        }
+        catch (IOException ex)
+        {
+            logger.log(Level.SEVERE, "Cannot list journal directory " + root, ex);
+            return;
+        }
+        for (Path directory : orphans)
+            adoptJournal(directory);
     }
 
-    /** Ask the write thread to stop ASAP. */
-    private void stop()
+    /** Move samples from a journal into the journals of the partitions for their channels
+     *  @param directory Journal directory that doesn't belong to a partition
+     */
+    @SuppressWarnings("nls")
+    private void adoptJournal(final Path directory)
     {
-        do_run = false;
-        synchronized (wait_block)
+        try (Journal orphan = new Journal(directory,
+                                          Preferences.journal_segment_mb * 1024 * 1024,
+                                          Preferences.journal_max_mb * 1024L * 1024L))
         {
-            wait_block.notify();
+            long moved = 0;
+            int uncommitted = 0;
+            Journal.Entry entry;
+            while ((entry = orphan.read()) != null)
+            {
+                final Journal journal = partitions[getPartition(entry.channel, partitions.length)].getJournal();
+                if (journal == null  ||  ! journal.append(entry.channel, entry.retention, entry.sample))
+                {   // Keep this and the following samples in the orphaned journal.
+                    // Read again what's already been moved, then mark that as handled.
+                    orphan.rollback();
+                    for (int i=0; i<uncommitted; ++i)
+                        orphan.read();
+                    syncJournals();
+                    orphan.commit();
+                    logger.log(Level.SEVERE, "Journal " + directory + " does not belong to any write thread. Moved " +
+                               moved + " samples, but " + orphan.getPendingBytes() +
+                               " bytes remain because the journals of the write threads are full. Will try again on next start.");
+                    return;
+                }
+                ++moved;
+                if (++uncommitted >= 1000)
+                {
+                    syncJournals();
+                    orphan.commit();
+                    uncommitted = 0;
+                }
+            }
+            syncJournals();
+            orphan.commit();
+            if (moved > 0)
+                logger.log(Level.WARNING, "Journal " + directory + " does not belong to any write thread. Moved " +
+                           moved + " samples into the journals of the write threads");
+        }
+        catch (IOException ex)
+        {
+            logger.log(Level.SEVERE, "Cannot move samples from journal " + directory, ex);
+            return;
+        }
+        // Remove the empty directory
+        try
+        {
+            Files.delete(directory);
+        }
+        catch (IOException ex)
+        {
+            logger.log(Level.WARNING, "Cannot remove journal directory " + directory, ex);
         }
     }
 
-    /** @return Timestamp of end of last write run */
-    public Instant getLastWriteTime()
+    /** Write appended samples of all partition journals to disk */
+    private void syncJournals()
     {
-        return last_write_stamp;
+        for (WritePartition partition : partitions)
+        {
+            final Journal journal = partition.getJournal();
+            if (journal != null)
+                journal.sync();
+        }
     }
 
-    /** @return Average number of values per write run */
-    public double getWriteCount()
+    /** Reset statistics */
+    public void reset()
     {
-        return write_count.get();
+        for (WritePartition partition : partitions)
+            partition.reset();
     }
 
-    /** @return  Average duration of write run in seconds */
-    public double getWriteDuration()
+    /** Update the sample buffer error state from all partitions */
+    void updateErrorState()
     {
-        return write_time.get();
+        boolean error = false;
+        for (WritePartition partition : partitions)
+            if (partition.isInErrorState())
+            {
+                error = true;
+                break;
+            }
+        SampleBuffer.setErrorState(error);
     }
 
-    /** 'Main loop' of the write thread.
-     *  <p>
-     *  Writes all values out, then waits.
-     *  The idea is that waiting a little for values
-     *  to accumulate actually helps, because then
-     *  we may write a few values per channel,
-     *  so the effort for locating a channel's ID
-     *  and the batching actually pays off.
-     *  <p>
-     *  Since the wait time can be considerable (30 seconds?),
-     *  we wait on a semaphore (wait_block), which
-     *  can be notified in stop() to cause an ASAP exit.
-     */
-    @Override
-    @SuppressWarnings("nls")
-    public void run()
+    /** @return Timestamp of end of last write run, oldest of all partitions */
+    public Instant getLastWriteTime()
     {
-        logger.info("WriteThread starts");
-        boolean write_error = false;
-        do_run = true;
-        while (do_run)
+        Instant oldest = null;
+        for (WritePartition partition : partitions)
         {
-            long delay;
-            try
-            {
-                // If there was an error before...
-                if (write_error)
-                {   // .. try to reconnect
-                    if (writer != null)
-                    {
-                        writer.close();
-                        writer = null;
-                    }
-                    // If we get here, all is OK so far ...
-                    write_error = false;
-                    // .. and we continue to write.
-                }
-                if (writer == null)
-                    writer = ArchiveWriterFactory.getArchiveWriter();
-                final long start = System.currentTimeMillis();
-                // In case of a network problem, we can hang in here
-                // for a long time...
-                final long written = write();
-                final long milli = System.currentTimeMillis() - start;
-                last_write_stamp = Instant.now();
-                write_count.update(written);
-                write_time.update(milli / 1000.0);
-                // How much of the scheduled delay is left after write()?
-                delay = millisec_delay - milli;
-            }
-            catch (Exception ex)
-            {   // Error in write() or the preceding reconnect()...
-                logger.log(Level.WARNING, "Error, will try to reconnect", ex);
-                // Use max. delay
-                delay = millisec_delay;
-                write_error = true;
-            }
-            SampleBuffer.setErrorState(write_error);
-            // See if there's any time left to wait,
-            // or if we already used all that time in the last 'write'
-            if (delay > 0)
-            {
-                synchronized (wait_block)
-                {
-                    try
-                    {
-                        wait_block.wait(delay);
-                    }
-                    catch (InterruptedException ex)
-                    {
-                        logger.log(Level.WARNING, "Interrupted wait", ex);
-                    }
-                }
-            }
+            final Instant stamp = partition.getLastWriteTime();
+            if (stamp == null)
+                return null;
+            if (oldest == null  ||  stamp.isBefore(oldest))
+                oldest = stamp;
         }
-        logger.info("WriteThread exists");
+        return oldest;
+    }
+
+    /** @return Average number of values per write run, summed over all partitions */
+    public double getWriteCount()
+    {
+        double count = 0;
+        for (WritePartition partition : partitions)
+            count += partition.getWriteCount();
+        return count;
+    }
+
+    /** @return  Average duration of write run in seconds, longest of all partitions */
+    public double getWriteDuration()
+    {
+        double duration = 0;
+        for (WritePartition partition : partitions)
+            duration = Math.max(duration, partition.getWriteDuration());
+        return duration;
     }
 
     /** Stop the write thread, performing a final write. */
     public void shutdown() throws Exception
     {
-        // Stop the thread
-        stop();
-        // Wait for it to end
-        thread.join();
-        // Then write once more.
-        // Errors in this last write are passed up.
-        try
+        // Stop all threads
+        for (WritePartition partition : partitions)
+            partition.stop();
+        // Wait for each to end and write once more.
+        // Errors in this last write are passed up,
+        // but only after all partitions had a chance to write.
+        Exception error = null;
+        for (WritePartition partition : partitions)
         {
-            write();
-        }
-        finally
-        {
-            if (writer != null)
+            try
             {
-                writer.close();
-                writer = null;
+                partition.shutdown();
             }
-        }
-    }
-
-    /** Write right now until all sample buffers are empty
-     *  @return number of samples written
-     */
-    private long write() throws Exception
-    {
-        int total_count = 0;
-        int count = 0;
-        for (SampleBuffer buffer : buffers)
-        {
-            // Update max buffer length etc. before we start to remove samples
-            buffer.updateStats();
-            // Write samples for one channel
-            final String name = buffer.getChannelName();
-            final String retention = buffer.getArchiveDataRetention();
-            final WriteChannel channel = writer.getChannel(name, retention);
-            VType sample = buffer.remove();
-            while (sample != null)
-            {   // Write one value
-                writer.addSample(channel, sample);
-                // Note: count across different sample buffers!
-                ++count;
-                if (count > batch_size)
-                {
-                    total_count += count;
-                    count = 0;
-                    writer.flush();
-                }
-                // next
-                sample = buffer.remove();
+            catch (Exception ex)
+            {
+                if (error == null)
+                    error = ex;
+                else
+                    error.addSuppressed(ex);
             }
         }
-        // Flush remaining samples (less than batch_size)
-        writer.flush();
-        total_count += count;
-        return total_count;
+        if (error != null)
+            throw error;
     }
 }
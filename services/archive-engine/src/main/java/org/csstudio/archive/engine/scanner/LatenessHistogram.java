@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.scanner;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** Histogram of scan lateness in milliseconds
+ *
+ *  <p>Values below 16ms are counted exactly.
+ *  Larger values are counted in 8 linear sub-buckets
+ *  for each power of two, i.e. with about 12% resolution.
+ *  May be updated and read by several threads.
+ *
+ *  @author Kay Kasemir
+ */
+class LatenessHistogram
+{
+    /** Values below this are counted exactly */
+    private static final int LINEAR = 16;
+
+    /** Sub-buckets per power of two, must be power of two */
+    private static final int SUB_BUCKETS = 8;
+    private static final int SUB_BITS = 3;
+
+    /** Powers of two above LINEAR, covers up to 2^(4+40) ms */
+    private static final int MAX_EXPONENT = 44;
+
+    private final AtomicLongArray counts = new AtomicLongArray(LINEAR + (MAX_EXPONENT - 4) * SUB_BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+
+    /** @param millis Value
+     *  @return Bucket index
+     */
+    static int getBucket(final long millis)
+    {
+        if (millis < LINEAR)
+            return (int) Math.max(0, millis);
+        final int exponent = 63 - Long.numberOfLeadingZeros(millis);
+        final int sub = (int) (millis >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR + (exponent - 4) * SUB_BUCKETS + sub;
+    }
+
+    /** @param bucket Bucket index
+     *  @return Largest value counted in that bucket
+     */
+    static long getUpperBound(final int bucket)
+    {
+        if (bucket < LINEAR)
+            return bucket;
+        final int exponent = (bucket - LINEAR) / SUB_BUCKETS + 4;
+        final int sub = (bucket - LINEAR) % SUB_BUCKETS;
+        final long width = 1L << (exponent - SUB_BITS);
+        return (1L << exponent) + (sub + 1) * width - 1;
+    }
+
+    /** @param millis Lateness to add */
+    void add(final long millis)
+    {
+        counts.incrementAndGet(Math.min(getBucket(millis), counts.length() - 1));
+        max.accumulateAndGet(millis, Math::max);
+    }
+
+    /** @return Number of values */
+    long getCount()
+    {
+        long total = 0;
+        for (int i=0; i<counts.length(); ++i)
+            total += counts.get(i);
+        return total;
+    }
+
+    /** @param percentile Percentile, 0..100
+     *  @return Lateness in ms that was not exceeded by that percentage of values, 0 if nothing recorded
+     */
+    long getPercentile(final double percentile)
+    {
+        final long total = getCount();
+        if (total <= 0)
+            return 0;
+        final long threshold = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long sum = 0;
+        for (int i=0; i<counts.length(); ++i)
+        {
+            sum += counts.get(i);
+            if (sum >= threshold)
+                return Math.min(getUpperBound(i), max.get());
+        }
+        return max.get();
+    }
+
+    /** @return Largest lateness in ms */
+    long getMax()
+    {
+        return max.get();
+    }
+
+    /** Clear all values */
+    void reset()
+    {
+        for (int i=0; i<counts.length(); ++i)
+            counts.set(i, 0);
+        max.set(0);
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010-2018 Oak Ridge National Laboratory.
+ * Copyright (c) 2010-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -56,6 +56,9 @@ public class ScanThread implements Runnable
         {
             scanner.scanOnce();
         }
+        // Scans may still be running on the scanner's threads
+        if (! scanner.awaitScans(10000))
+            logger.warning("Scans still running");
         logger.info("Scan Thread ends");
     }
 
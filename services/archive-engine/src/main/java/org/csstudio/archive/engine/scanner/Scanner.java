@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010-2018 Oak Ridge National Laboratory.
+ * Copyright (c) 2010-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,206 +10,414 @@ package org.csstudio.archive.engine.scanner;
 import static org.csstudio.archive.Engine.logger;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 import org.csstudio.archive.engine.model.Average;
+import org.phoebus.framework.jobs.NamedThreadFactory;
 
 /** Helper for scanning something.
- *  <p>
- *  Places runnable items on scan lists,
- *  determines how long to wait to the scan next.
+ *
+ *  <p>Items are kept on a hashed timing wheel.
+ *  Each tick of the wheel covers {@link #TICK_MILLIS},
+ *  and each bucket holds the items due within that tick.
+ *  Items with the same period are spread over the ticks of their period,
+ *  so a large number of items with the same period
+ *  does not turn into a burst of scans on the same tick.
+ *
+ *  <p>The thread that calls {@link #scanOnce()} only advances the wheel.
+ *  Due items are handed to a pool of scan threads.
+ *  An item that's still being scanned when it's due again
+ *  skips that scan and counts as an overrun.
+ *
  *  @author Kay Kasemir
  */
-public class Scanner implements Scheduleable
+@SuppressWarnings("nls")
+public class Scanner
 {
-    /** Granularity in seconds for the supported lists. */
-    final private static double GRANULARITY = 0.1;
+    /** Duration of one tick of the wheel, also the granularity of scan periods */
+    final static long TICK_MILLIS = 100;
+
+    /** Number of buckets in wheel, must be power of 2 */
+    final private static int WHEEL_SIZE = 512;
 
     /** Default idle delay */
     final private static long DEFAULT_IDLE_DELAY = 500;
 
-    /** Time to wait in system millis when nothing to do */
-    final private long idle_delay;
+    /** Item on the wheel */
+    private static class ScanItem
+    {
+        final Runnable item;
+        final long period_ticks;
 
-    /** All the single-period scan lists.
-     *  <p>
-     *  Note that we don't keep empty lists around,
-     *  so every list should have a valid 'due time'.
-     */
-    final private ArrayList<ScanList> lists = new ArrayList<>();
+        /** Tick at which item is due */
+        long due_tick;
+
+        /** Time of the scan that's handed to the pool, in system millis */
+        volatile long scheduled;
+
+        /** Set while scan is pending or running on pool */
+        final AtomicBoolean busy = new AtomicBoolean();
+
+        /** Set when item has been removed */
+        volatile boolean cancelled = false;
+
+        ScanItem(final Runnable item, final long period_ticks, final long due_tick)
+        {
+            this.item = item;
+            this.period_ticks = period_ticks;
+            this.due_tick = due_tick;
+        }
+    }
+
+    /** Number of ticks after which the idle percentage is updated */
+    final private long idle_ticks;
+
+    /** Wheel buckets, access synchronized on this */
+    @SuppressWarnings("unchecked")
+    final private List<ScanItem>[] wheel = new List[WHEEL_SIZE];
 
-    /** Next due time in system millis */
-    private long next_due_time;
+    /** Items by runnable, access synchronized on this */
+    final private Map<Runnable, ScanItem> items = new HashMap<>();
+
+    /** Count of items per period, used to spread them over the ticks, access synchronized on this */
+    final private Map<Long, Long> period_counts = new HashMap<>();
+
+    /** System millis of tick 0 */
+    final private long start = System.currentTimeMillis();
+
+    /** Next tick to process */
+    private volatile long tick = 1;
+
+    /** Threads that perform the scans */
+    final private int threads;
+    final private ExecutorService pool;
+
+    /** Number of scans handed to pool but not completed */
+    private int pending = 0;
+    final private Object pending_lock = new Object();
+
+    /** Time spent in scans, for computing idle time */
+    final private AtomicLong busy_nanos = new AtomicLong();
+    private long last_idle_check = System.nanoTime();
 
     /** Average idle time in percent. */
     final private Average idle_percentage = new Average();
 
+    /** Lateness of scans relative to their due time */
+    final private LatenessHistogram lateness = new LatenessHistogram();
+
+    /** Number of scans skipped because previous scan was still busy */
+    final private AtomicLong overruns = new AtomicLong();
+
     /** Construct scanner
-     *  @param idle_delay Time to wait in system millis when nothing to do
+     *  @param idle_delay Period in system millis for updating the idle percentage
+     *  @param threads Number of scan threads
      */
-    public Scanner(final long idle_delay)
+    public Scanner(final long idle_delay, final int threads)
     {
-        this.idle_delay = idle_delay;
+        idle_ticks = Math.max(1, idle_delay / TICK_MILLIS);
+        this.threads = Math.max(1, threads);
+        pool = Executors.newFixedThreadPool(this.threads, new NamedThreadFactory("Scan"));
+        for (int i=0; i<WHEEL_SIZE; ++i)
+            wheel[i] = new ArrayList<>();
     }
 
-    /** Construct scanner with default idle delay */
-    public Scanner()
+    /** Construct scanner with default idle delay
+     *  @param threads Number of scan threads
+     */
+    public Scanner(final int threads)
     {
-        this(DEFAULT_IDLE_DELAY);
+        this(DEFAULT_IDLE_DELAY, threads);
     }
 
-    /** Add an item to the scanner, placing it on a suitable scan list.
-     *  @param item Item to scan
-     *  @param period Scan period in seconds
+    /** @param time System millis
+     *  @return Tick that covers the time
      */
-    public void add(final Runnable item, final double period)
+    private long getTick(final long time)
     {
-        // Avoid duplicates by removing what might be there
-        remove(item);
-
-        // Locate suitable scan list
-        ScanList the_list = null;
-        for (ScanList list : lists)
-        {
-            if (Math.abs(list.getPeriod() - period) < GRANULARITY)
-            {
-                the_list = list;
-                break;
-            }
-        }
-        // Nothing found?
-        if (the_list == null)
-        {   // Create new scan list
-            the_list = new ScanList(Math.round(period / GRANULARITY) * GRANULARITY);
-            lists.add(the_list);
-        }
-        // Add item to list
-        the_list.add(item);
-        computeDueTime();
+        return (time - start) / TICK_MILLIS;
     }
 
-    /** Remove an item from the scanner */
-    public void remove(final Runnable item)
+    /** @param tick Tick
+     *  @return System millis at start of tick
+     */
+    private long getTime(final long tick)
     {
-        // Brute-force remove from all lists,
-        // stopping as soon as item was found
-        for (ScanList list : lists)
-            if (list.remove(item))
-            {
-                // If this leaves an empty list, remove it.
-                if (! list.isDueAtAll())
-                    lists.remove(list);
-                return;
-            }
+        return start + tick * TICK_MILLIS;
     }
 
-    /** Remove all items from this scanner */
-    public void clear()
+    /** Add an item to the scanner
+     *  @param item Item to scan
+     *  @param period Scan period in seconds, rounded to {@link #TICK_MILLIS}
+     */
+    public synchronized void add(final Runnable item, final double period)
     {
-        lists.clear();
-    }
+        // Avoid duplicates by removing what might be there
+        remove(item);
 
-    /** @return Number of scan lists. */
-    public long size()
-    {
-        return lists.size();
+        final long period_ticks = Math.max(1, Math.round(period * 1000.0 / TICK_MILLIS));
+        // First scan after one period, plus an offset
+        // that places consecutive items with the same period
+        // on consecutive ticks
+        final long count = period_counts.merge(period_ticks, 1L, Long::sum);
+        final long offset = (count - 1) % period_ticks;
+        final long now = Math.max(tick, getTick(System.currentTimeMillis()));
+        final ScanItem scan_item = new ScanItem(item, period_ticks, now + period_ticks + offset);
+        items.put(item, scan_item);
+        schedule(scan_item);
     }
 
-    /** @return One of the scan lists. */
-    public ScanList get(final int index)
+    /** @param item Item to place in wheel bucket for its due tick */
+    private void schedule(final ScanItem item)
     {
-        return lists.get(index);
+        wheel[(int) (item.due_tick & (WHEEL_SIZE - 1))].add(item);
     }
 
-    /** {@inheritDoc} */
-    @Override
-    public boolean isDueAtAll()
+    /** Remove an item from the scanner
+     *  @param item Item to remove
+     */
+    public synchronized void remove(final Runnable item)
     {
-        return lists.size() > 0;
+        final ScanItem scan_item = items.remove(item);
+        if (scan_item == null)
+            return;
+        // Item will be dropped from wheel when its bucket is processed
+        scan_item.cancelled = true;
+        period_counts.computeIfPresent(scan_item.period_ticks, (period, count) -> count > 1 ? count - 1 : null);
     }
 
-    /** {@inheritDoc} */
-    @Override
-    public long getNextDueTime()
+    /** Remove all items from this scanner */
+    public synchronized void clear()
     {
-        if (lists.size() == 0)
-            throw new Error("Scanner never due"); //$NON-NLS-1$
-        return next_due_time;
+        for (ScanItem item : items.values())
+            item.cancelled = true;
+        items.clear();
+        period_counts.clear();
+        for (List<ScanItem> bucket : wheel)
+            bucket.clear();
     }
 
-    /** Scan all the scan lists which are currently due */
-    void scanDueScanLists()
+    /** @return Number of scanned items */
+    public synchronized int size()
     {
-        final long now = System.currentTimeMillis();
-        next_due_time = Long.MAX_VALUE;
-        for (ScanList list : lists)
-        {   // Scan (run) what's due now, and update the next due time
-            if (list.getNextDueTime() <= now)
-                list.scanItems();
-            // Update the next due time - which could change in run()
-            if (list.getNextDueTime() < next_due_time)
-                next_due_time = list.getNextDueTime();
-        }
+        return items.size();
     }
 
-    /** Compute the next due time */
-    private void computeDueTime()
+    /** @return Number of scan threads */
+    public int getThreadCount()
     {
-        next_due_time = Long.MAX_VALUE;
-        for (ScanList list : lists)
-            next_due_time = Math.min(list.getNextDueTime(), next_due_time);
+        return threads;
     }
 
-    /** Average idle time in percent.
+    /** Average idle time of the scan threads in percent.
      *  <p>
      *  100 means: Nothing to do, always waiting.<br>
-     *   50 means: using about half the allocated time for the scan<br>
+     *   50 means: using about half the available time for the scan<br>
      *    0 means: Busy all the time, actually missing scans<br>
+     *  @return Idle percentage
      */
     public double getIdlePercentage()
     {
         return idle_percentage.get();
     }
 
+    /** @param percentile Percentile, 0..100
+     *  @return Scan lateness in ms not exceeded by that percentage of scans
+     */
+    public long getLateness(final double percentile)
+    {
+        return lateness.getPercentile(percentile);
+    }
+
+    /** @return Largest scan lateness in ms */
+    public long getMaxLateness()
+    {
+        return lateness.getMax();
+    }
+
+    /** @return Number of scans skipped because the previous scan of the item was still running */
+    public long getOverruns()
+    {
+        return overruns.get();
+    }
+
     /** Reset statistics */
     public void reset()
     {
         idle_percentage.reset();
+        lateness.reset();
+        overruns.set(0);
     }
 
-    /** Perform one scan: Wait for the next scan, perform it. */
+    /** Perform one scan: Wait for the next tick, scan what's due. */
     public void scanOnce()
     {
         try
         {
-            if (isDueAtAll())
+            final long delay = getTime(tick) - System.currentTimeMillis();
+            if (delay > 0)
+                Thread.sleep(delay);
+            // Process the tick. If behind, next call will catch up without waiting
+            scanTick(tick);
+            ++tick;
+            if (tick % idle_ticks == 0)
+                updateIdlePercentage();
+        }
+        catch (InterruptedException ex)
+        {
+            logger.log(Level.WARNING, "Scanner interrupted", ex);
+        }
+    }
+
+    /** Hand items that are due in a tick to the scan threads
+     *  @param tick Tick to process
+     */
+    private void scanTick(final long tick)
+    {
+        final List<ScanItem> due = new ArrayList<>();
+        final List<ScanItem> to_scan = new ArrayList<>();
+        synchronized (this)
+        {
+            final List<ScanItem> bucket = wheel[(int) (tick & (WHEEL_SIZE - 1))];
+            final Iterator<ScanItem> iter = bucket.iterator();
+            while (iter.hasNext())
             {
-                final long delay = getNextDueTime() - System.currentTimeMillis();
-                if (delay > idle_delay)
-                {   // Nothing due within idle time
-                    idle_percentage.update(100.0);
-                    Thread.sleep(idle_delay);
-                    return;
+                final ScanItem item = iter.next();
+                if (item.cancelled)
+                    iter.remove();
+                else if (item.due_tick <= tick)
+                {
+                    iter.remove();
+                    due.add(item);
                 }
-                if (delay > 0)
-                {   // Need to wait a little, then run scan
-                    idle_percentage.update(delay*100.0/idle_delay);
-                    Thread.sleep(delay);
-                    scanDueScanLists();
-                    return;
+                // else: Due in a later round of the wheel
+            }
+            // Re-schedule at fixed rate, skipping what's already missed
+            final long now = Math.max(tick, getTick(System.currentTimeMillis()));
+            for (ScanItem item : due)
+            {
+                final long scheduled = item.due_tick;
+                item.due_tick += item.period_ticks;
+                if (item.due_tick <= now)
+                    item.due_tick += ((now - item.due_tick) / item.period_ticks + 1) * item.period_ticks;
+                schedule(item);
+                // Pass scan to pool unless still busy with previous scan
+                if (item.busy.compareAndSet(false, true))
+                {
+                    item.scheduled = getTime(scheduled);
+                    to_scan.add(item);
                 }
-                // High noon
-                idle_percentage.update(0.0);
-                scanDueScanLists();
-                return;
+                else
+                    overruns.incrementAndGet();
             }
-            // Nothing to do, ever. Just wait.
-            idle_percentage.update(100.0);
-            Thread.sleep(idle_delay);
         }
-        catch (InterruptedException ex)
+        if (to_scan.isEmpty())
+            return;
+        // Split the items into one batch per thread
+        final int batch_size = (to_scan.size() + threads - 1) / threads;
+        for (int i=0; i<to_scan.size(); i+=batch_size)
         {
-            logger.log(Level.WARNING, "Scanner interrupted", ex); //$NON-NLS-1$
+            final List<ScanItem> batch = to_scan.subList(i, Math.min(to_scan.size(), i + batch_size));
+            synchronized (pending_lock)
+            {
+                ++pending;
+            }
+            pool.execute(() -> scanItems(batch));
         }
     }
+
+    /** Scan items, invoked on scan thread
+     *  @param batch Items to scan
+     */
+    private void scanItems(final List<ScanItem> batch)
+    {
+        final long start = System.nanoTime();
+        try
+        {
+            for (ScanItem item : batch)
+            {
+                try
+                {
+                    lateness.add(System.currentTimeMillis() - item.scheduled);
+                    if (! item.cancelled)
+                        item.item.run();
+                }
+                catch (Throwable ex)
+                {
+                    logger.log(Level.SEVERE, "Scan error for " + item.item, ex);
+                }
+                finally
+                {
+                    item.busy.set(false);
+                }
+            }
+        }
+        finally
+        {
+            busy_nanos.addAndGet(System.nanoTime() - start);
+            synchronized (pending_lock)
+            {
+                --pending;
+                pending_lock.notifyAll();
+            }
+        }
+    }
+
+    /** Update idle percentage from the time spent scanning since last call */
+    private void updateIdlePercentage()
+    {
+        final long now = System.nanoTime();
+        final long available = (now - last_idle_check) * threads;
+        last_idle_check = now;
+        if (available <= 0)
+            return;
+        final double busy = 100.0 * busy_nanos.getAndSet(0) / available;
+        idle_percentage.update(Math.max(0.0, 100.0 - busy));
+    }
+
+    /** Wait for scans that have been handed to the scan threads
+     *  @param timeout_ms Maximum time to wait
+     *  @return <code>true</code> if all scans completed
+     */
+    public boolean awaitScans(final long timeout_ms)
+    {
+        final long end = System.currentTimeMillis() + timeout_ms;
+        synchronized (pending_lock)
+        {
+            try
+            {
+                while (pending > 0)
+                {
+                    final long wait = end - System.currentTimeMillis();
+                    if (wait <= 0)
+                        return false;
+                    pending_lock.wait(wait);
+                }
+            }
+            catch (InterruptedException ex)
+            {
+                logger.log(Level.WARNING, "Scanner interrupted", ex);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Stop the scan threads.
+     *
+     *  <p>Call after the {@link ScanThread} has been stopped.
+     *  Scanner cannot be used after shutdown.
+     */
+    public void shutdown()
+    {
+        pool.shutdown();
+    }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018 Oak Ridge National Laboratory.
+ * Copyright (c) 2018-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,7 +20,9 @@ import org.csstudio.archive.Engine;
 import org.csstudio.archive.Preferences;
 import org.csstudio.archive.engine.model.ArchiveGroup;
 import org.csstudio.archive.engine.model.EngineModel;
+import org.csstudio.archive.engine.model.Journal;
 import org.csstudio.archive.engine.model.SampleBuffer;
+import org.csstudio.archive.engine.model.WritePartition;
 import org.csstudio.archive.writer.rdb.TimestampHelper;
 import org.phoebus.util.time.SecondsParser;
 import org.phoebus.util.time.TimeDuration;
@@ -94,6 +96,41 @@ public class MainServlet extends HttpServlet
             jg.writeNumberField(Messages.HTTP_WriteCount, model.getWriteCount());
             jg.writeNumberField(Messages.HTTP_WriteDuration, model.getWriteDuration());
             jg.writeNumberField(Messages.HTTP_Idletime, model.getIdlePercentage());
+            jg.writeObjectFieldStart(Messages.HTTP_ScanLateness);
+            jg.writeNumberField("p50", model.getScanLateness(50));
+            jg.writeNumberField("p90", model.getScanLateness(90));
+            jg.writeNumberField("p99", model.getScanLateness(99));
+            jg.writeNumberField("max", model.getMaxScanLateness());
+            jg.writeEndObject();
+            jg.writeNumberField(Messages.HTTP_ScanOverruns, model.getScanOverruns());
+
+            jg.writeArrayFieldStart(Messages.HTTP_WriteThreads);
+            for (WritePartition partition : model.getWritePartitions())
+            {
+                final Instant last = partition.getLastWriteTime();
+                jg.writeStartObject();
+                jg.writeStringField(Messages.HTTP_WriteThread, partition.getName());
+                jg.writeNumberField(Messages.HTTP_ChannelCount, partition.getChannelCount());
+                jg.writeStringField(Messages.HTTP_WriteState, (partition.isInErrorState()
+                        ? Messages.HTTP_WriteError : "OK"));
+                jg.writeNumberField(Messages.HTTP_WriteRate, partition.getWriteRate());
+                jg.writeNumberField(Messages.HTTP_FlushDuration, partition.getFlushDuration());
+                jg.writeNumberField(Messages.HTTP_Backlog, partition.getBacklog());
+                jg.writeStringField(Messages.HTTP_LastWriteTime, last == null ? "Never" : TimestampHelper.format(last));
+                final Journal journal = partition.getJournal();
+                if (journal != null)
+                {
+                    jg.writeNumberField(Messages.HTTP_JournalBytes, journal.getPendingBytes());
+                    jg.writeNumberField(Messages.HTTP_JournalSegments, journal.getSegmentCount());
+                    jg.writeNumberField(Messages.HTTP_JournalAppended, journal.getAppendedSamples());
+                    jg.writeNumberField(Messages.HTTP_JournalReplayed, journal.getReplayedSamples());
+                    jg.writeNumberField(Messages.HTTP_JournalRejected, journal.getRejectedSamples());
+                    jg.writeNumberField(Messages.HTTP_JournalCRCErrors, journal.getCRCErrors());
+                    jg.writeNumberField(Messages.HTTP_ReplayRate, partition.getReplayRate());
+                }
+                jg.writeEndObject();
+            }
+            jg.writeEndArray();
 
             final Runtime runtime = Runtime.getRuntime();
             final double used_mem = runtime.totalMemory() / MB;
@@ -141,6 +178,12 @@ public class MainServlet extends HttpServlet
             html.tableLine(Messages.HTTP_WriteDuration, String.format("%.1f sec", model.getWriteDuration()));
 
             html.tableLine(Messages.HTTP_Idletime, String.format("%.1f %%", model.getIdlePercentage()));
+            html.tableLine(Messages.HTTP_ScanLateness, String.format("p50 %d ms, p90 %d ms, p99 %d ms, max %d ms",
+                                                                     model.getScanLateness(50),
+                                                                     model.getScanLateness(90),
+                                                                     model.getScanLateness(99),
+                                                                     model.getMaxScanLateness()));
+            html.tableLine(Messages.HTTP_ScanOverruns, Long.toString(model.getScanOverruns()));
 
             final Runtime runtime = Runtime.getRuntime();
             final double used_mem = runtime.totalMemory() / MB;
@@ -150,7 +193,54 @@ public class MainServlet extends HttpServlet
             html.tableLine("Memory", String.format("%.1f MB of %.1f MB used (%.1f %%)", used_mem, max_mem, perc_mem));
 
             html.closeTable();
+
+            html.h2(Messages.HTTP_WriteThreads);
+            html.openTable(1,
+                Messages.HTTP_WriteThread,
+                Messages.HTTP_ChannelCount,
+                Messages.HTTP_WriteState,
+                Messages.HTTP_WriteRate,
+                Messages.HTTP_FlushDuration,
+                Messages.HTTP_Backlog,
+                Messages.HTTP_LastWriteTime,
+                Messages.HTTP_Journal);
+            for (WritePartition partition : model.getWritePartitions())
+            {
+                final Instant last = partition.getLastWriteTime();
+                html.tableLine(
+                    partition.getName(),
+                    Integer.toString(partition.getChannelCount()),
+                    partition.isInErrorState() ? HTMLWriter.makeRedText(Messages.HTTP_WriteError) : "OK",
+                    String.format("%.1f samples/sec", partition.getWriteRate()),
+                    String.format("%.3f sec", partition.getFlushDuration()),
+                    partition.getBacklog() + " samples",
+                    last == null ? "Never" : TimestampHelper.format(last),
+                    formatJournal(partition));
+            }
+            html.closeTable();
+
             html.close();
         }
     }
+
+    /** @param partition {@link WritePartition}
+     *  @return Journal info for HTML
+     */
+    private static String formatJournal(final WritePartition partition)
+    {
+        final Journal journal = partition.getJournal();
+        if (journal == null)
+            return "-";
+        final StringBuilder buf = new StringBuilder();
+        buf.append(String.format("%.1f MB in %d segments", journal.getPendingBytes() / MB, journal.getSegmentCount()));
+        if (! journal.isEmpty())
+            buf.append(String.format(", replay %.1f samples/sec", partition.getReplayRate()));
+        buf.append("<br>").append(journal.getAppendedSamples()).append(" added, ")
+           .append(journal.getReplayedSamples()).append(" replayed");
+        if (journal.getRejectedSamples() > 0)
+            buf.append(", ").append(HTMLWriter.makeRedText(journal.getRejectedSamples() + " rejected"));
+        if (journal.getCRCErrors() > 0)
+            buf.append(", ").append(HTMLWriter.makeRedText(journal.getCRCErrors() + " CRC errors"));
+        return buf.toString();
+    }
 }
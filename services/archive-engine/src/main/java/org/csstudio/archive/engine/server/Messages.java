@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010-2018 Oak Ridge National Laboratory.
+ * Copyright (c) 2010-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -32,6 +32,13 @@ public class Messages
     final public static String HTTP_Host = "HTTP Server";
     final public static String HTTP_Idletime = "Idle Time";
     final public static String HTTP_InternalState = "Internal State";
+    final public static String HTTP_Journal = "Journal";
+    final public static String HTTP_JournalAppended = "Journal Added";
+    final public static String HTTP_JournalBytes = "Journal Bytes";
+    final public static String HTTP_JournalCRCErrors = "Journal CRC Errors";
+    final public static String HTTP_JournalRejected = "Journal Rejected";
+    final public static String HTTP_JournalReplayed = "Journal Replayed";
+    final public static String HTTP_JournalSegments = "Journal Segments";
     final public static String HTTP_CurrentValue = "Current Value";
     final public static String HTTP_LastArchivedValue = "Last Archived Value";
     final public static String HTTP_LastWriteTime = "Last Written";
@@ -44,6 +51,9 @@ public class Messages
     final public static String HTTP_QueueCapacity = "Capacity";
     final public static String HTTP_QueueOverruns = "Overruns";
     final public static String HTTP_ReceivedValues = "Received Values";
+    final public static String HTTP_ReplayRate = "Replay Rate";
+    final public static String HTTP_ScanLateness = "Scan Lateness";
+    final public static String HTTP_ScanOverruns = "Scan Overruns";
     final public static String HTTP_StartTime = "Start Time";
     final public static String HTTP_State = "State";
     final public static String HTTP_Status = "Status";
@@ -51,9 +61,14 @@ public class Messages
     final public static String HTTP_Uptime = "Uptime";
     final public static String HTTP_Version = "Version";
     final public static String HTTP_Workspace = "Workspace";
+    final public static String HTTP_Backlog = "Backlog";
+    final public static String HTTP_FlushDuration = "Flush Duration";
     final public static String HTTP_WriteCount = "Write Count";
     final public static String HTTP_WriteDuration = "Write Duration";
     final public static String HTTP_WriteError = "Write Error";
     final public static String HTTP_WritePeriod = "Write Period";
+    final public static String HTTP_WriteRate = "Write Rate";
     final public static String HTTP_WriteState = "Write State";
+    final public static String HTTP_WriteThread = "Write Thread";
+    final public static String HTTP_WriteThreads = "Write Threads";
 }
@@ -0,0 +1,303 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.rdb;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+/** Write samples to PostgreSQL via binary COPY
+ *
+ *  <p>Scalar samples and array blobs of all types are collected
+ *  as rows of the sample table, array elements of the original
+ *  array_val table as rows of that table.
+ *  Each {@link #flush()} sends at most one COPY for each table.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+class PGBinaryCopy
+{
+    private static final String[] SAMPLE_COLUMNS =
+    {
+        "channel_id", "smpl_time", "nanosecs", "severity_id", "status_id", "num_val", "float_val", "str_val"
+    };
+
+    private static final String[] BLOB_COLUMNS =
+    {
+        "channel_id", "smpl_time", "nanosecs", "severity_id", "status_id", "num_val", "float_val", "str_val", "datatype", "array_val"
+    };
+
+    private static final String[] ARRAY_COLUMNS =
+    {
+        "channel_id", "smpl_time", "nanosecs", "seq_nbr", "float_val"
+    };
+
+    private final Connection connection;
+    private final boolean use_array_blob;
+    private final PGCopyEncoder samples;
+    private final PGCopyEncoder array_elements;
+
+    /** @param connection PostgreSQL connection
+     *  @param schema Schema, may be empty
+     *  @param sample_table Name of sample table
+     *  @param use_array_blob Write array samples as blob into sample table, or use array_val table?
+     *  @throws Exception on error
+     */
+    PGBinaryCopy(final Connection connection, final String schema, final String sample_table,
+                 final boolean use_array_blob) throws Exception
+    {
+        this.connection = connection;
+        this.use_array_blob = use_array_blob;
+        samples = createEncoder(schema, sample_table, use_array_blob ? BLOB_COLUMNS : SAMPLE_COLUMNS);
+        array_elements = use_array_blob ? null : createEncoder(schema, "array_val", ARRAY_COLUMNS);
+    }
+
+    /** Create encoder for columns of a table
+     *  @param schema Schema, may be empty
+     *  @param table Table name
+     *  @param columns Columns to write
+     *  @return {@link PGCopyEncoder}
+     *  @throws Exception on error, including unknown table or column
+     */
+    private PGCopyEncoder createEncoder(final String schema, final String table, final String[] columns) throws Exception
+    {
+        // PostgreSQL folds unquoted names to lower case
+        final Map<String, String> type_names = new HashMap<>();
+        try
+        (
+            ResultSet result = connection.getMetaData().getColumns(null,
+                    schema == null  ||  schema.isEmpty() ? null : schema.toLowerCase(),
+                    table.toLowerCase(), null);
+        )
+        {
+            while (result.next())
+                type_names.put(result.getString("COLUMN_NAME").toLowerCase(), result.getString("TYPE_NAME"));
+        }
+        if (type_names.isEmpty())
+            throw new Exception("Cannot locate table '" + table + "'");
+
+        final PGCopyEncoder.Type[] types = new PGCopyEncoder.Type[columns.length];
+        for (int i=0; i<columns.length; ++i)
+        {
+            final String type_name = type_names.get(columns[i]);
+            if (type_name == null)
+                throw new Exception("Table '" + table + "' lacks column '" + columns[i] + "'");
+            types[i] = PGCopyEncoder.getType(type_name);
+        }
+
+        final String full_name = schema == null  ||  schema.isEmpty() ? table : schema + "." + table;
+        return new PGCopyEncoder(full_name, columns, types);
+    }
+
+    /** @return Number of rows to write on next flush */
+    int getPendingRows()
+    {
+        return samples.getRows() + (array_elements == null ? 0 : array_elements.getRows());
+    }
+
+    /** Start sample row, set the common columns
+     *  @param channel_id Channel ID
+     *  @param stamp Time stamp
+     *  @param severity_id Severity ID
+     *  @param status_id Status ID
+     *  @throws SQLException on error
+     */
+    private void startSample(final int channel_id, final Timestamp stamp,
+                             final int severity_id, final int status_id) throws SQLException
+    {
+        samples.startRow();
+        samples.addLong(channel_id);
+        addTime(samples, stamp);
+        samples.addLong(severity_id);
+        samples.addLong(status_id);
+    }
+
+    /** Add time stamp as seconds and nanosecs columns
+     *  @param encoder {@link PGCopyEncoder}
+     *  @param stamp Time stamp
+     *  @throws SQLException on error
+     */
+    private static void addTime(final PGCopyEncoder encoder, final Timestamp stamp) throws SQLException
+    {
+        // Like the INSERT-based code, truncate the time stamp to seconds
+        // and set the nanos in a separate column
+        final Instant instant = stamp.toInstant();
+        encoder.addTimestamp(Instant.ofEpochSecond(instant.getEpochSecond()));
+        encoder.addLong(stamp.getNanos());
+    }
+
+    /** Complete sample row for scalar
+     *  @throws SQLException on error
+     */
+    private void completeScalar() throws SQLException
+    {
+        if (use_array_blob)
+        {
+            samples.addText(" ");
+            samples.addNull();
+        }
+    }
+
+    /** Add floating point sample
+     *  @param channel_id Channel ID
+     *  @param stamp Time stamp
+     *  @param severity_id Severity ID
+     *  @param status_id Status ID
+     *  @param value Value, or first array element
+     *  @param array_blob Encoded array elements or <code>null</code> for scalar
+     *  @throws SQLException on error
+     */
+    void addDouble(final int channel_id, final Timestamp stamp,
+                   final int severity_id, final int status_id,
+                   final double value, final byte[] array_blob) throws SQLException
+    {
+        try
+        {
+            startSample(channel_id, stamp, severity_id, status_id);
+            samples.addNull();
+            samples.addDouble(value);
+            samples.addNull();
+            if (array_blob == null)
+                completeScalar();
+            else
+            {
+                if (! use_array_blob)
+                    throw new SQLException("Array blob requires blob column");
+                samples.addText("d");
+                samples.addBytes(array_blob);
+            }
+        }
+        catch (SQLException ex)
+        {
+            samples.cancelRow();
+            throw ex;
+        }
+    }
+
+    /** Add integer sample
+     *  @param channel_id Channel ID
+     *  @param stamp Time stamp
+     *  @param severity_id Severity ID
+     *  @param status_id Status ID
+     *  @param value Value
+     *  @throws SQLException on error
+     */
+    void addLong(final int channel_id, final Timestamp stamp,
+                 final int severity_id, final int status_id,
+                 final long value) throws SQLException
+    {
+        try
+        {
+            startSample(channel_id, stamp, severity_id, status_id);
+            samples.addLong(value);
+            samples.addNull();
+            samples.addNull();
+            completeScalar();
+        }
+        catch (SQLException ex)
+        {
+            samples.cancelRow();
+            throw ex;
+        }
+    }
+
+    /** Add text sample
+     *  @param channel_id Channel ID
+     *  @param stamp Time stamp
+     *  @param severity_id Severity ID
+     *  @param status_id Status ID
+     *  @param text Value
+     *  @throws SQLException on error
+     */
+    void addText(final int channel_id, final Timestamp stamp,
+                 final int severity_id, final int status_id,
+                 final String text) throws SQLException
+    {
+        try
+        {
+            startSample(channel_id, stamp, severity_id, status_id);
+            samples.addNull();
+            samples.addNull();
+            samples.addText(text);
+            completeScalar();
+        }
+        catch (SQLException ex)
+        {
+            samples.cancelRow();
+            throw ex;
+        }
+    }
+
+    /** Add array element to array_val table
+     *  @param channel_id Channel ID
+     *  @param stamp Time stamp of the array sample
+     *  @param index Index of the element, starting at 1 for the 2nd element
+     *  @param value Value of the element
+     *  @throws SQLException on error
+     */
+    void addArrayElement(final int channel_id, final Timestamp stamp,
+                         final int index, final double value) throws SQLException
+    {
+        if (array_elements == null)
+            throw new SQLException("Array elements require array_val table");
+        try
+        {
+            array_elements.startRow();
+            array_elements.addLong(channel_id);
+            addTime(array_elements, stamp);
+            array_elements.addLong(index);
+            array_elements.addDouble(value);
+        }
+        catch (SQLException ex)
+        {
+            array_elements.cancelRow();
+            throw ex;
+        }
+    }
+
+    /** Send pending rows to the database.
+     *
+     *  <p>Caller needs to commit.
+     *  On error, caller needs to roll back and {@link #clear()}.
+     *
+     *  @return Number of rows written
+     *  @throws Exception on error
+     */
+    long flush() throws Exception
+    {
+        final CopyManager copy = connection.unwrap(PGConnection.class).getCopyAPI();
+        long count = 0;
+        if (samples.getRows() > 0)
+        {
+            count += copy.copyIn(samples.getSQL(), samples.getData());
+            samples.clear();
+        }
+        if (array_elements != null  &&  array_elements.getRows() > 0)
+        {
+            count += copy.copyIn(array_elements.getSQL(), array_elements.getData());
+            array_elements.clear();
+        }
+        return count;
+    }
+
+    /** Drop pending rows */
+    void clear()
+    {
+        samples.clear();
+        if (array_elements != null)
+            array_elements.clear();
+    }
+}
@@ -0,0 +1,372 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.rdb;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/** Encoder for the PostgreSQL binary COPY format
+ *
+ *  <p>Collects rows for one table, to be sent via
+ *  <code>COPY table (columns..) FROM STDIN WITH (FORMAT binary)</code>.
+ *  The binary format requires that each value matches
+ *  the exact type of its column, so the encoder is created
+ *  with the column types as reported by the database.
+ *
+ *  <p>Rows are added via {@link #startRow()},
+ *  followed by one <code>add..</code> call for each column,
+ *  in the order of the columns.
+ *  When a value cannot be added, {@link #cancelRow()}
+ *  removes the incomplete row.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+class PGCopyEncoder
+{
+    /** Header signature of the binary COPY format */
+    private static final byte[] SIGNATURE = { 'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0 };
+
+    /** Size of header: Signature, flags, header extension length */
+    private static final int HEADER_SIZE = SIGNATURE.length + 4 + 4;
+
+    /** PostgreSQL time stamps count microseconds since 2000-01-01 */
+    private static final long PG_EPOCH_SECONDS = 946684800L;
+
+    /** Column types that can be encoded */
+    enum Type
+    {
+        INT2, INT4, INT8, FLOAT4, FLOAT8, TIMESTAMP, TIMESTAMPTZ, TEXT, BYTEA
+    }
+
+    private final String table;
+    private final String[] columns;
+    private final Type[] types;
+    private final String sql;
+
+    /** Time zone used for 'TIMESTAMP' columns, which lack time zone info */
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    /** Encoded data, starting with header */
+    private byte[] buf = new byte[64 * 1024];
+
+    /** Bytes used in buf */
+    private int size;
+
+    /** Number of rows */
+    private int rows = 0;
+
+    /** Index of next column in current row */
+    private int column;
+
+    /** Start of current row in buf */
+    private int row_start;
+
+    /** @param type_name Type name as reported by database meta data
+     *  @return {@link Type}
+     *  @throws SQLException if type is not supported
+     */
+    static Type getType(final String type_name) throws SQLException
+    {
+        switch (type_name.toLowerCase())
+        {
+        case "int2":
+        case "smallint":
+        case "smallserial":
+            return Type.INT2;
+        case "int4":
+        case "int":
+        case "integer":
+        case "serial":
+            return Type.INT4;
+        case "int8":
+        case "bigint":
+        case "bigserial":
+            return Type.INT8;
+        case "float4":
+        case "real":
+            return Type.FLOAT4;
+        case "float8":
+        case "double precision":
+            return Type.FLOAT8;
+        case "timestamp":
+            return Type.TIMESTAMP;
+        case "timestamptz":
+            return Type.TIMESTAMPTZ;
+        case "text":
+        case "varchar":
+        case "bpchar":
+        case "char":
+            return Type.TEXT;
+        case "bytea":
+            return Type.BYTEA;
+        default:
+            throw new SQLException("Unsupported column type '" + type_name + "'");
+        }
+    }
+
+    /** @param table Table name, may include schema
+     *  @param columns Column names
+     *  @param types Column types
+     */
+    PGCopyEncoder(final String table, final String[] columns, final Type[] types)
+    {
+        if (columns.length != types.length)
+            throw new IllegalArgumentException("Got " + columns.length + " columns but " + types.length + " types");
+        this.table = table;
+        this.columns = columns;
+        this.types = types;
+        sql = "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT binary)";
+        clear();
+    }
+
+    /** @return Table name */
+    String getTable()
+    {
+        return table;
+    }
+
+    /** @return SQL for the COPY command */
+    String getSQL()
+    {
+        return sql;
+    }
+
+    /** @return Number of rows */
+    int getRows()
+    {
+        return rows;
+    }
+
+    /** Remove all rows */
+    void clear()
+    {
+        size = 0;
+        ensure(HEADER_SIZE);
+        System.arraycopy(SIGNATURE, 0, buf, 0, SIGNATURE.length);
+        size = SIGNATURE.length;
+        putInt(0); // Flags
+        putInt(0); // Header extension length
+        rows = 0;
+        column = columns.length;
+    }
+
+    /** Start a new row
+     *  @throws SQLException if the previous row is incomplete
+     */
+    void startRow() throws SQLException
+    {
+        checkRowComplete();
+        row_start = size;
+        ensure(2);
+        putShort(columns.length);
+        column = 0;
+        ++rows;
+    }
+
+    /** Remove the current row, for example after
+     *  an error while adding its values
+     */
+    void cancelRow()
+    {
+        if (column < columns.length)
+        {
+            size = row_start;
+            --rows;
+            column = columns.length;
+        }
+    }
+
+    /** @throws SQLException if the current row is incomplete */
+    private void checkRowComplete() throws SQLException
+    {
+        if (column != columns.length)
+            throw new SQLException(table + " row " + rows + " lacks value for column " + columns[column]);
+    }
+
+    /** @return Type of next column
+     *  @throws SQLException if all columns have been set
+     */
+    private Type nextColumn() throws SQLException
+    {
+        if (column >= columns.length)
+            throw new SQLException(table + " row " + rows + " has too many values");
+        return types[column++];
+    }
+
+    private SQLException typeError(final Type type, final Object value)
+    {
+        return new SQLException(table + "." + columns[column-1] + " of type " + type + " cannot hold " + value);
+    }
+
+    /** Add NULL value */
+    void addNull() throws SQLException
+    {
+        nextColumn();
+        ensure(4);
+        putInt(-1);
+    }
+
+    /** @param value Integer value for numeric column */
+    void addLong(final long value) throws SQLException
+    {
+        final Type type = nextColumn();
+        switch (type)
+        {
+        case INT2:
+            if (value < Short.MIN_VALUE  ||  value > Short.MAX_VALUE)
+                throw typeError(type, value);
+            ensure(4 + 2);
+            putInt(2);
+            putShort((int) value);
+            break;
+        case INT4:
+            if (value < Integer.MIN_VALUE  ||  value > Integer.MAX_VALUE)
+                throw typeError(type, value);
+            ensure(4 + 4);
+            putInt(4);
+            putInt((int) value);
+            break;
+        case INT8:
+            ensure(4 + 8);
+            putInt(8);
+            putLong(value);
+            break;
+        case FLOAT4:
+        case FLOAT8:
+            --column;
+            addDouble(value);
+            break;
+        default:
+            throw typeError(type, value);
+        }
+    }
+
+    /** @param value Floating point value for FLOAT4 or FLOAT8 column */
+    void addDouble(final double value) throws SQLException
+    {
+        final Type type = nextColumn();
+        if (type == Type.FLOAT8)
+        {
+            ensure(4 + 8);
+            putInt(8);
+            putLong(Double.doubleToLongBits(value));
+        }
+        else if (type == Type.FLOAT4)
+        {
+            ensure(4 + 4);
+            putInt(4);
+            putInt(Float.floatToIntBits((float) value));
+        }
+        else
+            throw typeError(type, value);
+    }
+
+    /** @param stamp Time stamp for TIMESTAMP or TIMESTAMPTZ column.
+     *               Sub-microsecond detail is truncated.
+     */
+    void addTimestamp(final Instant stamp) throws SQLException
+    {
+        final Type type = nextColumn();
+        final long seconds;
+        if (type == Type.TIMESTAMPTZ)
+            seconds = stamp.getEpochSecond();
+        else if (type == Type.TIMESTAMP)
+            seconds = LocalDateTime.ofInstant(stamp, zone).toEpochSecond(ZoneOffset.UTC);
+        else
+            throw typeError(type, stamp);
+        ensure(4 + 8);
+        putInt(8);
+        putLong((seconds - PG_EPOCH_SECONDS) * 1000000L + stamp.getNano() / 1000);
+    }
+
+    /** @param text Text for TEXT column, <code>null</code> for NULL */
+    void addText(final String text) throws SQLException
+    {
+        if (text == null)
+        {
+            addNull();
+            return;
+        }
+        final Type type = nextColumn();
+        if (type != Type.TEXT)
+            throw typeError(type, text);
+        putBytes(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** @param data Data for BYTEA column, <code>null</code> for NULL */
+    void addBytes(final byte[] data) throws SQLException
+    {
+        if (data == null)
+        {
+            addNull();
+            return;
+        }
+        final Type type = nextColumn();
+        if (type != Type.BYTEA)
+            throw typeError(type, data.length + " bytes");
+        putBytes(data);
+    }
+
+    /** Complete the data, remaining rows can be cleared or further rows may be added
+     *  @return Stream for the encoded rows including header and trailer
+     *  @throws SQLException if the last row is incomplete
+     */
+    InputStream getData() throws SQLException
+    {
+        checkRowComplete();
+        ensure(2);
+        // Trailer that follows the rows is not counted in 'size'
+        buf[size] = (byte) 0xFF;
+        buf[size+1] = (byte) 0xFF;
+        return new ByteArrayInputStream(buf, 0, size + 2);
+    }
+
+    private void ensure(final int needed)
+    {
+        // Keep room for trailer
+        final int total = size + needed + 2;
+        if (total > buf.length)
+            buf = Arrays.copyOf(buf, Math.max(total, 2 * buf.length));
+    }
+
+    private void putBytes(final byte[] data)
+    {
+        ensure(4 + data.length);
+        putInt(data.length);
+        System.arraycopy(data, 0, buf, size, data.length);
+        size += data.length;
+    }
+
+    private void putShort(final int value)
+    {
+        buf[size++] = (byte) (value >>> 8);
+        buf[size++] = (byte) value;
+    }
+
+    private void putInt(final int value)
+    {
+        buf[size++] = (byte) (value >>> 24);
+        buf[size++] = (byte) (value >>> 16);
+        buf[size++] = (byte) (value >>> 8);
+        buf[size++] = (byte) value;
+    }
+
+    private void putLong(final long value)
+    {
+        putInt((int) (value >>> 32));
+        putInt((int) value);
+    }
+}
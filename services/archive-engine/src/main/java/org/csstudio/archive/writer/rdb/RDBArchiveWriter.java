@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011-2025 Oak Ridge National Laboratory.
+ * Copyright (c) 2011-2026 Oak Ridge National Laboratory.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,6 +20,7 @@ import java.sql.Types;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
@@ -94,6 +95,12 @@ public class RDBArchiveWriter implements ArchiveWriter
 
     private final PreparedStatement insert_double_sample, insert_array_sample, insert_long_sample, insert_txt_sample;
 
+    /** Binary COPY for PostgreSQL, used instead of the insert statements, or <code>null</code> */
+    private final PGBinaryCopy copy;
+
+    /** Meta data changes (Display or enum labels) to write on flush when using COPY */
+    private final Map<RDBWriteChannel, Object> pending_metadata = new LinkedHashMap<>();
+
     /** Initialize
      *  @param url RDB URL
      *  @param user .. user name
@@ -125,26 +132,23 @@ public class RDBArchiveWriter implements ArchiveWriter
         insert_array_sample = connection.prepareStatement(sql.sample_insert_double_array_element);
         insert_long_sample = createInsertPrepareStatement(sql.sample_insert_int);
         insert_txt_sample = createInsertPrepareStatement(sql.sample_insert_string);
+
+        // For PostgreSQL, optionally use binary COPY instead of INSERT
+        if (dialect == Dialect.PostgreSQL  &&  Preferences.use_postgres_copy)
+            copy = new PGBinaryCopy(connection, schema, Preferences.write_sample_table, use_array_blob);
+        else
+            copy = null;
     }
 
-    /** Create a new prepared statement. For PostgreSQL connections, this method
-     *  create a PGCopyPreparedStatement to improve insert speed using COPY
-     *  instead of INSERT.
+    /** Create a new prepared statement for inserting samples
      *
-     *  @param sqlQuery
-     *  @return
-     *  @throws SQLException
-     *  @throws Exception
+     *  @param sqlQuery SQL
+     *  @return {@link PreparedStatement}
+     *  @throws SQLException on error
      */
-    @SuppressWarnings("resource")
-    private PreparedStatement createInsertPrepareStatement(final String sqlQuery)
-            throws SQLException, Exception
+    private PreparedStatement createInsertPrepareStatement(final String sqlQuery) throws SQLException
     {
-        final PreparedStatement statement;
-        if (dialect == Dialect.PostgreSQL  &&  Preferences.use_postgres_copy)
-            statement = new PGCopyPreparedStatement(connection, sqlQuery);
-        else
-            statement = connection.prepareStatement(sqlQuery);
+        final PreparedStatement statement = connection.prepareStatement(sqlQuery);
         if (Preferences.timeout_secs > 0)
             statement.setQueryTimeout(Preferences.timeout_secs);
         return statement;
@@ -213,12 +217,7 @@ public class RDBArchiveWriter implements ArchiveWriter
             if (MetaDataHelper.equals(labels, channel.getMetadata()))
                 return;
 
-            // Clear numeric meta data, set enumerated in RDB
-            NumericMetaDataHelper.delete(connection, sql, channel);
-            EnumMetaDataHelper.delete(connection, sql, channel);
-            EnumMetaDataHelper.insert(connection, sql, channel, labels);
-            channel.setMetaData(labels);
-
+            updateMetaData(channel, labels);
             return;
         }
 
@@ -230,11 +229,50 @@ public class RDBArchiveWriter implements ArchiveWriter
             if (MetaDataHelper.equals(display, channel.getMetadata()))
                 return;
 
+            updateMetaData(channel, display);
+        }
+    }
+
+    /** Update meta data of channel.
+     *
+     *  <p>When using COPY, the change is collected
+     *  and written on {@link #flush()},
+     *  otherwise it's written right away.
+     *
+     *  @param channel Channel for which to write the meta data
+     *  @param meta {@link Display} or enum labels
+     *  @throws Exception on error
+     */
+    private void updateMetaData(final RDBWriteChannel channel, final Object meta) throws Exception
+    {
+        if (copy != null)
+            pending_metadata.put(channel, meta);
+        else
+            storeMetaData(channel, meta);
+        channel.setMetaData(meta);
+    }
+
+    /** Replace meta data of channel in RDB
+     *  @param channel Channel for which to write the meta data
+     *  @param meta {@link Display} or enum labels
+     *  @throws Exception on error
+     */
+    @SuppressWarnings("unchecked")
+    private void storeMetaData(final RDBWriteChannel channel, final Object meta) throws Exception
+    {
+        if (meta instanceof Display)
+        {
             // Clear enumerated meta data, replace numeric
             EnumMetaDataHelper.delete(connection, sql, channel);
             NumericMetaDataHelper.delete(connection, sql, channel);
-            NumericMetaDataHelper.insert(connection, sql, channel, display);
-            channel.setMetaData(display);
+            NumericMetaDataHelper.insert(connection, sql, channel, (Display) meta);
+        }
+        else
+        {
+            // Clear numeric meta data, set enumerated in RDB
+            NumericMetaDataHelper.delete(connection, sql, channel);
+            EnumMetaDataHelper.delete(connection, sql, channel);
+            EnumMetaDataHelper.insert(connection, sql, channel, (List<String>) meta);
         }
     }
 
@@ -331,7 +369,9 @@ public class RDBArchiveWriter implements ArchiveWriter
             final Timestamp stamp, final int severity,
             final Status status, final double dbl, final ListNumber additional) throws Exception
     {
-        if (use_array_blob)
+        if (copy != null)
+            copyDoubleSamples(channel, stamp, severity, status, dbl, additional);
+        else if (use_array_blob)
             batchBlobbedDoubleSample(channel, stamp, severity, status, dbl, additional);
         else
             oldBatchDoubleSamples(channel, stamp, severity, status, dbl, additional);
@@ -375,16 +415,7 @@ public class RDBArchiveWriter implements ArchiveWriter
         }
         else
         {   // More array elements
-            final ByteArrayOutputStream bout = new ByteArrayOutputStream();
-            final DataOutputStream dout = new DataOutputStream(bout);
-            // Indicate 'Double' as data type
-            final int N = additional.size();
-            dout.writeInt(N);
-            // Write binary data for array elements
-            for (int i=0; i<N; ++i)
-                dout.writeDouble(additional.getDouble(i));
-            dout.close();
-            final byte[] asBytes = bout.toByteArray();
+            final byte[] asBytes = encodeArrayBlob(additional);
             if (dialect == Dialect.Oracle)
             {
                 insert_double_sample.setString(6, "d");
@@ -401,6 +432,54 @@ public class RDBArchiveWriter implements ArchiveWriter
         ++batched_double_inserts;
     }
 
+    /** @param data Array elements
+     *  @return Array elements encoded for the 'array_val' blob
+     *  @throws Exception on error
+     */
+    private static byte[] encodeArrayBlob(final ListNumber data) throws Exception
+    {
+        final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        final DataOutputStream dout = new DataOutputStream(bout);
+        // Indicate 'Double' as data type
+        final int N = data.size();
+        dout.writeInt(N);
+        // Write binary data for array elements
+        for (int i=0; i<N; ++i)
+            dout.writeDouble(data.getDouble(i));
+        dout.close();
+        return bout.toByteArray();
+    }
+
+    /** Helper for batchSample: Add double sample(s) to binary COPY,
+     *  using blob or array_val table for array elements
+     */
+    private void copyDoubleSamples(final RDBWriteChannel channel,
+            final Timestamp stamp, int severity,
+            Status status, double dbl, final ListNumber additional) throws Exception
+    {
+        // Patch not-a-number like the INSERT-based code
+        if (Double.isNaN(dbl))
+        {
+            dbl = 0.0;
+            severity = severities.findOrCreate(AlarmSeverity.UNDEFINED);
+            status = stati.findOrCreate(NOT_A_NUMBER_STATUS);
+        }
+        if (additional == null)
+            copy.addDouble(channel.getId(), stamp, severity, status.getId(), dbl, null);
+        else if (use_array_blob)
+            copy.addDouble(channel.getId(), stamp, severity, status.getId(), dbl, encodeArrayBlob(additional));
+        else
+        {
+            copy.addDouble(channel.getId(), stamp, severity, status.getId(), dbl, null);
+            final int N = additional.size();
+            for (int i = 1; i < N; i++)
+            {
+                final double element = additional.getDouble(i);
+                copy.addArrayElement(channel.getId(), stamp, i, Double.isNaN(element) ? 0.0 : element);
+            }
+        }
+    }
+
     /** Add 'insert' for double samples to batch, handling arrays
      *  via the original array_val table
      */
@@ -466,6 +545,11 @@ public class RDBArchiveWriter implements ArchiveWriter
             final Timestamp stamp, final int severity,
             final Status status, final long num) throws Exception
     {
+        if (copy != null)
+        {
+            copy.addLong(channel.getId(), stamp, severity, status.getId(), num);
+            return;
+        }
         insert_long_sample.setLong(5, num);
         completeAndBatchInsert(insert_long_sample, channel, stamp, severity, status);
         ++batched_long_inserts;
@@ -483,6 +567,11 @@ public class RDBArchiveWriter implements ArchiveWriter
                 new Object[] { channel.getName(), Preferences.max_text_sample_length, txt });
             txt = txt.substring(0, Preferences.max_text_sample_length);
         }
+        if (copy != null)
+        {
+            copy.addText(channel.getId(), stamp, severity, status.getId(), txt);
+            return;
+        }
         insert_txt_sample.setString(5, txt);
         completeAndBatchInsert(insert_txt_sample, channel, stamp, severity, status);
         ++batched_txt_inserts;
@@ -524,6 +613,10 @@ public class RDBArchiveWriter implements ArchiveWriter
     {
         try
         {
+            if (! pending_metadata.isEmpty())
+                flushMetaData();
+            if (copy != null  &&  copy.getPendingRows() > 0)
+                flushCopy();
             if (batched_double_inserts > 0)
             {
                 try
@@ -586,6 +679,61 @@ public class RDBArchiveWriter implements ArchiveWriter
         }
     }
 
+    /** Write collected meta data changes in their own transaction,
+     *  so samples are written even if the meta data cannot be updated
+     */
+    private void flushMetaData()
+    {
+        try
+        {
+            for (Map.Entry<RDBWriteChannel, Object> entry : pending_metadata.entrySet())
+                storeMetaData(entry.getKey(), entry.getValue());
+            connection.commit();
+        }
+        catch (Exception ex)
+        {
+            logger.log(Level.WARNING, "Cannot write meta data for " + pending_metadata.keySet(), ex);
+            try
+            {
+                connection.rollback();
+            }
+            catch (Exception nested)
+            {
+                logger.log(Level.WARNING, "rollback() error after meta data issue", nested);
+            }
+            // Write again with next sample
+            for (RDBWriteChannel channel : pending_metadata.keySet())
+                channel.setMetaData(null);
+        }
+        finally
+        {
+            pending_metadata.clear();
+        }
+    }
+
+    /** Submit and clear the binary COPY, or roll back on error */
+    private void flushCopy() throws Exception
+    {
+        try
+        {
+            copy.flush();
+            connection.commit();
+        }
+        catch (final Exception ex)
+        {
+            copy.clear();
+            try
+            {
+                connection.rollback();
+            }
+            catch (Exception nested)
+            {
+                logger.log(Level.WARNING, "rollback() error after COPY issue", nested);
+            }
+            throw ex;
+        }
+    }
+
     /** Submit and clear the batch, or roll back on error */
     private void checkBatchExecution(final PreparedStatement insert) throws Exception
     {
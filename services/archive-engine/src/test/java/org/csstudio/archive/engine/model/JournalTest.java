@@ -0,0 +1,266 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.epics.util.array.ArrayDouble;
+import org.epics.util.stats.Range;
+import org.epics.util.text.NumberFormats;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.AlarmSeverity;
+import org.epics.vtype.AlarmStatus;
+import org.epics.vtype.Display;
+import org.epics.vtype.EnumDisplay;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VDoubleArray;
+import org.epics.vtype.VEnum;
+import org.epics.vtype.VInt;
+import org.epics.vtype.VLong;
+import org.epics.vtype.VString;
+import org.epics.vtype.VStringArray;
+import org.epics.vtype.VType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.phoebus.core.vtypes.VTypeHelper;
+
+/** JUnit test of the {@link Journal}
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class JournalTest
+{
+    private static final Time TIME = Time.of(Instant.ofEpochSecond(1700000000L, 42));
+    private static final Alarm ALARM = Alarm.of(AlarmSeverity.MAJOR, AlarmStatus.RECORD, "HIHI");
+    private static final Display DISPLAY = Display.of(Range.of(0, 10), Range.of(1, 9), Range.of(2, 8), Range.undefined(),
+                                                      "mm", NumberFormats.precisionFormat(3), "Test");
+
+    private static VType sample(final int i)
+    {
+        return VDouble.of(i, Alarm.none(), TIME, Display.none());
+    }
+
+    @Test
+    public void testSampleTypes(@TempDir final Path dir) throws Exception
+    {
+        final List<VType> samples = List.of(
+            VDouble.of(3.14, ALARM, TIME, DISPLAY),
+            VLong.of(Long.MIN_VALUE, ALARM, TIME, DISPLAY),
+            VInt.of(42, Alarm.none(), TIME, Display.none()),
+            VEnum.of(1, EnumDisplay.of("Off", "On"), ALARM, TIME),
+            VString.of("Disconnected", Alarm.disconnected(), TIME),
+            VDoubleArray.of(ArrayDouble.of(1, 2, 3), ALARM, TIME, DISPLAY),
+            VStringArray.of(List.of("a", "b"), ALARM, TIME));
+
+        try (Journal journal = new Journal(dir, 64*1024, 1024*1024))
+        {
+            assertTrue(journal.isEmpty());
+            for (VType sample : samples)
+                assertTrue(journal.append("test", null, sample));
+            assertFalse(journal.isEmpty());
+
+            for (VType sample : samples)
+            {
+                final Journal.Entry entry = journal.read();
+                assertEquals("test", entry.channel);
+                assertNull(entry.retention);
+                final VType copy = entry.sample;
+                System.out.println(copy);
+                assertEquals(VTypeHelper.toString(sample), VTypeHelper.toString(copy));
+                assertEquals(Alarm.alarmOf(sample), Alarm.alarmOf(copy));
+                assertEquals(Time.timeOf(sample).getTimestamp(), Time.timeOf(copy).getTimestamp());
+                if (! (sample instanceof VString  ||  sample instanceof VEnum  ||  sample instanceof VStringArray))
+                {
+                    final Display display = Display.displayOf(sample), other = Display.displayOf(copy);
+                    assertEquals(display.getDisplayRange(), other.getDisplayRange());
+                    assertEquals(display.getAlarmRange(), other.getAlarmRange());
+                    assertEquals(display.getWarningRange(), other.getWarningRange());
+                    assertEquals(display.getUnit(), other.getUnit());
+                    assertEquals(display.getFormat().getMinimumFractionDigits(), other.getFormat().getMinimumFractionDigits());
+                }
+            }
+            assertNull(journal.read());
+            journal.commit();
+            assertTrue(journal.isEmpty());
+            assertEquals(0, journal.getPendingBytes());
+        }
+        // Segment files were removed
+        try (Stream<Path> files = Files.list(dir))
+        {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void testRestart(@TempDir final Path dir) throws Exception
+    {
+        final int count = 10000;
+        try (Journal journal = new Journal(dir, 64*1024, 10*1024*1024))
+        {
+            for (int i=0; i<count; ++i)
+                assertTrue(journal.append("test", "forever", sample(i)));
+            assertTrue(journal.getSegmentCount() > 1);
+
+            // Replay some, but only commit part of them
+            for (int i=0; i<3000; ++i)
+                assertEquals(i, VTypeHelper.toDouble(journal.read().sample));
+            journal.commit();
+            for (int i=3000; i<3500; ++i)
+                journal.read();
+        }
+
+        // Continue after last commit
+        try (Journal journal = new Journal(dir, 64*1024, 10*1024*1024))
+        {
+            assertFalse(journal.isEmpty());
+            for (int i=3000; i<count; ++i)
+            {
+                final Journal.Entry entry = journal.read();
+                assertEquals("forever", entry.retention);
+                assertEquals(i, VTypeHelper.toDouble(entry.sample));
+            }
+            assertNull(journal.read());
+            journal.commit();
+            assertTrue(journal.isEmpty());
+        }
+    }
+
+    @Test
+    public void testRollback(@TempDir final Path dir) throws Exception
+    {
+        final int count = 10000, batch = 1000;
+        final List<Integer> written = new ArrayList<>();
+        try (Journal journal = new Journal(dir, 64*1024, 10*1024*1024))
+        {
+            for (int i=0; i<count; ++i)
+                assertTrue(journal.append("test", null, sample(i)));
+            assertTrue(journal.getSegmentCount() > 2);
+
+            // Replay like the WritePartition, with the flush of the 3rd batch failing.
+            // That batch spans segments, so a segment is consumed but must not be deleted,
+            // and the next attempt replays the same samples.
+            int batches = 0;
+            long pending = journal.getPendingBytes();
+            final List<Integer> batch_samples = new ArrayList<>();
+            Journal.Entry entry;
+            while ((entry = journal.read()) != null)
+            {
+                batch_samples.add((int) VTypeHelper.toDouble(entry.sample));
+                if (batch_samples.size() < batch)
+                    continue;
+                if (++batches == 3)
+                {   // Flush fails, samples of this batch were not written
+                    batch_samples.clear();
+                    journal.rollback();
+                    assertEquals(pending, journal.getPendingBytes());
+                    continue;
+                }
+                written.addAll(batch_samples);
+                batch_samples.clear();
+                journal.commit();
+                pending = journal.getPendingBytes();
+                // Stop in the middle of the replay
+                if (written.size() >= 4 * batch)
+                    break;
+            }
+            assertEquals(4 * batch, written.size());
+            assertEquals(4 * batch, journal.getReplayedSamples());
+        }
+
+        // Restart, which continues after the last commit
+        try (Journal journal = new Journal(dir, 64*1024, 10*1024*1024))
+        {
+            Journal.Entry entry;
+            while ((entry = journal.read()) != null)
+                written.add((int) VTypeHelper.toDouble(entry.sample));
+            journal.commit();
+            assertTrue(journal.isEmpty());
+        }
+
+        // Nothing lost, nothing duplicated
+        assertEquals(count, written.size());
+        for (int i=0; i<count; ++i)
+            assertEquals(i, written.get(i));
+    }
+
+    @Test
+    public void testCorruption(@TempDir final Path dir) throws Exception
+    {
+        try (Journal journal = new Journal(dir, 64*1024, 1024*1024))
+        {
+            for (int i=0; i<10; ++i)
+                journal.append("test", null, sample(i));
+        }
+
+        // Damage the 6th record's data
+        final Path file;
+        try (Stream<Path> files = Files.list(dir))
+        {
+            file = files.findFirst().get();
+        }
+        int record_size;
+        try (Journal journal = new Journal(dir, 64*1024, 1024*1024))
+        {
+            record_size = (int) (journal.getPendingBytes() / 10);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw"))
+        {
+            final long pos = 16 + 5 * record_size + 12;
+            raf.seek(pos);
+            final int b = raf.read();
+            raf.seek(pos);
+            raf.write(b ^ 0xFF);
+        }
+
+        // Records before the damage are replayed
+        try (Journal journal = new Journal(dir, 64*1024, 1024*1024))
+        {
+            assertEquals(1, journal.getCRCErrors());
+            for (int i=0; i<5; ++i)
+                assertEquals(i, VTypeHelper.toDouble(journal.read().sample));
+            assertNull(journal.read());
+        }
+    }
+
+    @Test
+    public void testMaximumSize(@TempDir final Path dir) throws Exception
+    {
+        try (Journal journal = new Journal(dir, 64*1024, 2*64*1024))
+        {
+            int added = 0;
+            while (! journal.isFull())
+            {
+                assertTrue(journal.append("test", null, sample(added)));
+                ++added;
+            }
+            assertEquals(2, journal.getSegmentCount());
+            System.out.println("Journal holds " + added + " samples");
+
+            // Replaying frees the space
+            int read = 0;
+            while (journal.read() != null)
+                ++read;
+            journal.commit();
+            assertEquals(added, read);
+            assertTrue(journal.isEmpty());
+            assertFalse(journal.isFull());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.epics.util.array.ArrayDouble;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.AlarmSeverity;
+import org.epics.vtype.AlarmStatus;
+import org.epics.vtype.Display;
+import org.epics.vtype.EnumDisplay;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+import org.epics.vtype.VDoubleArray;
+import org.epics.vtype.VEnum;
+import org.epics.vtype.VFloat;
+import org.epics.vtype.VInt;
+import org.epics.vtype.VLong;
+import org.epics.vtype.VNumber;
+import org.epics.vtype.VString;
+import org.epics.vtype.VType;
+import org.junit.jupiter.api.Test;
+
+/** JUnit test of the {@link SampleBuffer}
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class SampleBufferTest
+{
+    private static void assertSameNumber(final VNumber expected, final VType actual)
+    {
+        assertSame(expected.getClass(), actual.getClass());
+        final VNumber number = (VNumber) actual;
+        assertEquals(expected.getValue(), number.getValue());
+        assertEquals(expected.getAlarm(), number.getAlarm());
+        assertEquals(expected.getTime().getTimestamp(), number.getTime().getTimestamp());
+        assertEquals(expected.getDisplay(), number.getDisplay());
+    }
+
+    @Test
+    public void testSampleTypes()
+    {
+        final SampleBuffer buffer = new SampleBuffer("test", null, 10);
+        final Time time = Time.of(Instant.ofEpochSecond(1700000000L, 123456789));
+        final Alarm alarm = Alarm.of(AlarmSeverity.MINOR, AlarmStatus.RECORD, "HIGH");
+        final Display display = Display.of(org.epics.util.stats.Range.of(0, 10), org.epics.util.stats.Range.undefined(),
+                                           org.epics.util.stats.Range.undefined(), org.epics.util.stats.Range.undefined(),
+                                           "mm", Display.defaultNumberFormat());
+        final List<VType> samples = List.of(
+            VDouble.of(3.14, alarm, time, display),
+            VFloat.of(2.5f, Alarm.none(), time, Display.none()),
+            VLong.of(Long.MAX_VALUE, alarm, time, display),
+            VInt.of(-42, Alarm.none(), time, display),
+            VString.of("Disconnected", Alarm.disconnected(), time),
+            VDoubleArray.of(ArrayDouble.of(1, 2, 3), alarm, time, display),
+            VEnum.of(1, EnumDisplay.of("Off", "On"), alarm, time),
+            VDouble.of(Double.NaN, Alarm.none(), Time.of(Instant.EPOCH, 0, false), display));
+
+        for (VType sample : samples)
+            buffer.add(sample);
+        assertEquals(samples.size(), buffer.getQueueSize());
+
+        for (VType sample : samples)
+        {
+            final VType removed = buffer.remove();
+            if (sample instanceof VNumber)
+                assertSameNumber((VNumber) sample, removed);
+            else // Kept as is
+                assertSame(sample, removed);
+        }
+        assertNull(buffer.remove());
+        assertEquals(0, buffer.getQueueSize());
+    }
+
+    @Test
+    public void testOverrun()
+    {
+        final SampleBuffer buffer = new SampleBuffer("test", null, 10);
+        final Time time = Time.now();
+        for (int i=0; i<25; ++i)
+            buffer.add(VDouble.of(i, Alarm.none(), time, Display.none()));
+        assertEquals(10, buffer.getQueueSize());
+        assertEquals(15, buffer.getBufferStats().getOverruns());
+
+        // Oldest samples were dropped
+        for (int i=15; i<25; ++i)
+            assertEquals(i, ((VDouble) buffer.remove()).getValue().intValue());
+        assertNull(buffer.remove());
+    }
+
+    @Test
+    public void testConcurrentWriter() throws Exception
+    {
+        final SampleBuffer buffer = new SampleBuffer("test", null, 1000);
+        final int count = 1000000;
+        final AtomicLong received = new AtomicLong();
+        final Thread writer = new Thread(() ->
+        {
+            double last = -1;
+            while (last < count - 1)
+            {
+                final VType sample = buffer.remove();
+                if (sample == null)
+                {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                // Samples arrive in order, maybe with gaps from overruns
+                final double value = ((VDouble) sample).getValue();
+                assertTrue(value > last, value + " after " + last);
+                last = value;
+                received.incrementAndGet();
+            }
+        });
+        writer.start();
+
+        final Time time = Time.now();
+        for (int i=0; i<count; ++i)
+            buffer.add(VDouble.of(i, Alarm.none(), time, Display.none()));
+        writer.join(30000);
+
+        final int overruns = buffer.getBufferStats().getOverruns();
+        System.out.println("Received " + received.get() + " samples, " + overruns + " overruns");
+        assertEquals(count, received.get() + overruns);
+    }
+}
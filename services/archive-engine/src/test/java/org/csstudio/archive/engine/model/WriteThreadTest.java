@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.csstudio.archive.Preferences;
+import org.epics.vtype.Alarm;
+import org.epics.vtype.Display;
+import org.epics.vtype.Time;
+import org.epics.vtype.VDouble;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.phoebus.core.vtypes.VTypeHelper;
+
+/** JUnit test of the {@link WriteThread} journals
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class WriteThreadTest
+{
+    @Test
+    public void testAdoptJournals(@TempDir final Path dir) throws Exception
+    {
+        final String orig_directory = Preferences.journal_directory;
+        Preferences.journal_directory = dir.toString();
+        try
+        {
+            // Journal of a former "WriteThread-3", i.e. engine used to have 3 write threads
+            final Path orphan = dir.resolve("WriteThread-3");
+            final int count = 2500;
+            try (Journal journal = new Journal(orphan, 64*1024, 10*1024*1024))
+            {
+                for (int i=0; i<count; ++i)
+                    assertTrue(journal.append("pv" + (i % 10), null,
+                                              VDouble.of(i, Alarm.none(), Time.of(Instant.ofEpochSecond(1700000000L + i)), Display.none())));
+            }
+
+            // Now there are only 2 write threads
+            final WriteThread write_thread = new WriteThread(2);
+            write_thread.openJournals();
+            final List<WritePartition> partitions = write_thread.getPartitions();
+
+            // Samples moved into the journal of the partition for their channel, in order
+            final List<Integer> replayed = new ArrayList<>();
+            for (int p=0; p<partitions.size(); ++p)
+            {
+                final Journal journal = partitions.get(p).getJournal();
+                assertFalse(journal.isEmpty());
+                final int[] last = new int[10];
+                Arrays.fill(last, -1);
+                Journal.Entry entry;
+                while ((entry = journal.read()) != null)
+                {
+                    assertEquals(p, WriteThread.getPartition(entry.channel, partitions.size()));
+                    final int i = (int) VTypeHelper.toDouble(entry.sample);
+                    assertEquals("pv" + (i % 10), entry.channel);
+                    assertTrue(i > last[i % 10]);
+                    last[i % 10] = i;
+                    replayed.add(i);
+                }
+                assertNull(journal.read());
+                journal.commit();
+                journal.close();
+            }
+            assertEquals(count, replayed.size());
+
+            // Orphaned journal was removed
+            assertFalse(Files.exists(orphan));
+        }
+        finally
+        {
+            Preferences.journal_directory = orig_directory;
+        }
+    }
+
+    @Test
+    public void testAdoptIntoFullJournals(@TempDir final Path dir) throws Exception
+    {
+        final String orig_directory = Preferences.journal_directory;
+        final int orig_segment = Preferences.journal_segment_mb, orig_max = Preferences.journal_max_mb;
+        Preferences.journal_directory = dir.toString();
+        Preferences.journal_segment_mb = 1;
+        Preferences.journal_max_mb = 1;
+        try
+        {
+            // Orphaned journal is larger than the journal of the one remaining write thread
+            final Path orphan = dir.resolve("WriteThread-2");
+            final int count = 50000;
+            try (Journal journal = new Journal(orphan, 1024*1024, 10*1024*1024))
+            {
+                for (int i=0; i<count; ++i)
+                    assertTrue(journal.append("pv", null, VDouble.of(i, Alarm.none(), Time.now(), Display.none())));
+            }
+
+            final WriteThread write_thread = new WriteThread(1);
+            write_thread.openJournals();
+            final List<Integer> replayed = new ArrayList<>();
+            try (Journal journal = write_thread.getPartitions().get(0).getJournal())
+            {
+                Journal.Entry entry;
+                while ((entry = journal.read()) != null)
+                    replayed.add((int) VTypeHelper.toDouble(entry.sample));
+                journal.commit();
+            }
+            assertTrue(replayed.size() > 0);
+            assertTrue(replayed.size() < count);
+
+            // Remaining samples stay in the orphaned journal, nothing lost or duplicated
+            assertTrue(Files.exists(orphan));
+            try (Journal journal = new Journal(orphan, 1024*1024, 10*1024*1024))
+            {
+                Journal.Entry entry;
+                while ((entry = journal.read()) != null)
+                    replayed.add((int) VTypeHelper.toDouble(entry.sample));
+            }
+            assertEquals(count, replayed.size());
+            for (int i=0; i<count; ++i)
+                assertEquals(i, replayed.get(i));
+        }
+        finally
+        {
+            Preferences.journal_directory = orig_directory;
+            Preferences.journal_segment_mb = orig_segment;
+            Preferences.journal_max_mb = orig_max;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.scanner;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/** Demo of {@link Scanner} with many items
+ *
+ *  <p>Scans 100000 items at various periods
+ *  and reports the lateness of the scans.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class ScannerDemo
+{
+    @Test
+    public void demoManyItems() throws Exception
+    {
+        final int count = 100000;
+        final double[] periods = { 1.0, 2.0, 5.0, 10.0 };
+        final Scanner scanner = new Scanner(2);
+        final AtomicLong scans = new AtomicLong();
+        // Some work for each scan, similar to checking a value for repeats
+        final double[] values = new double[count];
+        for (int i=0; i<count; ++i)
+        {
+            final int index = i;
+            scanner.add(() ->
+            {
+                values[index] = Math.sqrt(values[index] + index);
+                scans.incrementAndGet();
+            }, periods[i % periods.length]);
+        }
+
+        final ScanThread thread = new ScanThread(scanner);
+        thread.start();
+        for (int sec=0; sec<20; ++sec)
+        {
+            Thread.sleep(1000);
+            System.out.format("%6d scans/sec, idle %5.1f %%, lateness p50 %d ms, p90 %d ms, p99 %d ms, max %d ms, %d overruns\n",
+                              scans.getAndSet(0), scanner.getIdlePercentage(),
+                              scanner.getLateness(50), scanner.getLateness(90), scanner.getLateness(99),
+                              scanner.getMaxLateness(), scanner.getOverruns());
+        }
+        thread.stop();
+        thread.join();
+        scanner.shutdown();
+    }
+}
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.scanner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/** JUnit test of the {@link Scanner}
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class ScannerTest
+{
+    private static void run(final Scanner scanner, final long millis) throws Exception
+    {
+        final ScanThread thread = new ScanThread(scanner);
+        thread.start();
+        Thread.sleep(millis);
+        thread.stop();
+        thread.join();
+    }
+
+    @Test
+    public void testHistogram()
+    {
+        // Buckets cover all values without gaps
+        long expected = 0;
+        for (int bucket=0; bucket<100; ++bucket)
+        {
+            assertEquals(bucket, LatenessHistogram.getBucket(expected));
+            final long upper = LatenessHistogram.getUpperBound(bucket);
+            assertEquals(bucket, LatenessHistogram.getBucket(upper));
+            expected = upper + 1;
+        }
+
+        final LatenessHistogram histogram = new LatenessHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+        for (int i=1; i<=100; ++i)
+            histogram.add(i);
+        assertEquals(100, histogram.getCount());
+        assertEquals(100, histogram.getMax());
+        // Percentiles within the ~12% resolution of the buckets
+        final long p50 = histogram.getPercentile(50), p90 = histogram.getPercentile(90);
+        assertTrue(p50 >= 50  &&  p50 <= 56, "p50: " + p50);
+        assertTrue(p90 >= 90  &&  p90 <= 100, "p90: " + p90);
+        assertEquals(100, histogram.getPercentile(100));
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+    }
+
+    @Test
+    public void testSpread() throws Exception
+    {
+        // 100 items with 1 second period, i.e. 10 ticks
+        final Scanner scanner = new Scanner(2);
+        final Map<Integer, Long> first_scan = new ConcurrentHashMap<>();
+        for (int i=0; i<100; ++i)
+        {
+            final int id = i;
+            scanner.add(() -> first_scan.putIfAbsent(id, System.currentTimeMillis() / Scanner.TICK_MILLIS), 1.0);
+        }
+        assertEquals(100, scanner.size());
+        run(scanner, 2500);
+
+        assertEquals(100, first_scan.size());
+        // Items are spread over the ticks, about 10 per tick,
+        // not all scanned on the same tick.
+        // Allowing for a slow start where the scanner needs to catch up
+        // and processes several ticks at once.
+        final Map<Long, Integer> per_tick = new ConcurrentHashMap<>();
+        for (long tick : first_scan.values())
+            per_tick.merge(tick, 1, Integer::sum);
+        System.out.println("Items per tick: " + per_tick.values());
+        assertTrue(per_tick.size() >= 5, "Spread over " + per_tick.size() + " ticks");
+        for (int count : per_tick.values())
+            assertTrue(count <= 50, count + " items on one tick");
+        scanner.shutdown();
+    }
+
+    @Test
+    public void testRate() throws Exception
+    {
+        final Scanner scanner = new Scanner(2);
+        final AtomicInteger fast = new AtomicInteger(), slow = new AtomicInteger();
+        scanner.add(fast::incrementAndGet, 0.1);
+        scanner.add(slow::incrementAndGet, 0.5);
+        run(scanner, 2000);
+        System.out.println("Scans at 0.1 sec: " + fast.get() + ", at 0.5 sec: " + slow.get());
+        System.out.println("Lateness p50 " + scanner.getLateness(50) + " ms, p99 " + scanner.getLateness(99) + " ms, max " + scanner.getMaxLateness() + " ms");
+        assertTrue(fast.get() >= 15  &&  fast.get() <= 21, "Fast scans: " + fast.get());
+        assertTrue(slow.get() >= 2  &&  slow.get() <= 4, "Slow scans: " + slow.get());
+        assertEquals(0, scanner.getOverruns());
+
+        // Removed items are no longer scanned
+        scanner.clear();
+        assertEquals(0, scanner.size());
+        final int scans = fast.get();
+        run(scanner, 500);
+        assertEquals(scans, fast.get());
+        scanner.shutdown();
+    }
+
+    @Test
+    public void testOverrun() throws Exception
+    {
+        final Scanner scanner = new Scanner(4);
+        final AtomicInteger active = new AtomicInteger(), max_active = new AtomicInteger(), scans = new AtomicInteger();
+        scanner.add(() ->
+        {
+            max_active.accumulateAndGet(active.incrementAndGet(), Math::max);
+            scans.incrementAndGet();
+            try
+            {
+                Thread.sleep(250);
+            }
+            catch (InterruptedException ex)
+            {
+                // Ignore
+            }
+            active.decrementAndGet();
+        }, 0.1);
+        run(scanner, 2000);
+        System.out.println("Slow item scanned " + scans.get() + " times, " + scanner.getOverruns() + " overruns");
+        // Never scanned concurrently, skipped scans are counted
+        assertEquals(1, max_active.get());
+        assertTrue(scanner.getOverruns() > 0);
+        // ScanThread waited for the last scan
+        assertEquals(0, active.get());
+        scanner.shutdown();
+    }
+
+    /** @return Number of scan pool threads */
+    private static long countScanThreads()
+    {
+        return Thread.getAllStackTraces().keySet()
+                     .stream()
+                     .filter(thread -> thread.isAlive()  &&  thread.getName().matches("Scan[0-9]*"))
+                     .count();
+    }
+
+    @Test
+    public void testShutdown() throws Exception
+    {
+        // Same as engine restarts: New scanner, run, stop, ..
+        for (int restart=0; restart<3; ++restart)
+        {
+            final Scanner scanner = new Scanner(4);
+            for (int i=0; i<100; ++i)
+                scanner.add(() -> {}, 0.1);
+            run(scanner, 500);
+            assertTrue(countScanThreads() > 0);
+            scanner.shutdown();
+        }
+        // Scan threads of all scanners have ended
+        final long end = System.currentTimeMillis() + 5000;
+        while (countScanThreads() > 0  &&  System.currentTimeMillis() < end)
+            Thread.sleep(100);
+        assertEquals(0, countScanThreads());
+    }
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.rdb;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.csstudio.archive.Preferences;
+import org.csstudio.archive.writer.rdb.PGCopyEncoder.Type;
+import org.junit.jupiter.api.Test;
+import org.phoebus.framework.rdb.RDBInfo;
+import org.phoebus.framework.rdb.RDBInfo.Dialect;
+
+/** Benchmark of binary COPY
+ *
+ *  <p>Always measures the encoding of samples.
+ *  When the archive preferences point to a PostgreSQL database,
+ *  also compares COPY with batched INSERT
+ *  into a temporary table that has the layout of the sample table.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class PGBinaryCopyDemo
+{
+    private static final int[] FLUSH_SIZES = { 10000, 100000, 1000000 };
+
+    private static final String TABLE = "copy_demo_sample";
+
+    private static void report(final String what, final int rows, final long start)
+    {
+        final double secs = (System.nanoTime() - start) / 1e9;
+        System.out.format("%-8s %8d rows: %8.3f s, %12.0f rows/s\n", what, rows, secs, rows / secs);
+    }
+
+    @Test
+    public void benchmarkEncoding() throws Exception
+    {
+        final String[] columns = { "channel_id", "smpl_time", "nanosecs", "severity_id", "status_id", "num_val", "float_val", "str_val", "datatype", "array_val" };
+        final Type[] types = { Type.INT8, Type.TIMESTAMPTZ, Type.INT8, Type.INT8, Type.INT8, Type.INT4, Type.FLOAT8, Type.TEXT, Type.TEXT, Type.BYTEA };
+        final PGCopyEncoder encoder = new PGCopyEncoder(TABLE, columns, types);
+        final Instant now = Instant.now();
+        for (int run=0; run<3; ++run)
+            for (int rows : FLUSH_SIZES)
+            {
+                final long start = System.nanoTime();
+                for (int i=0; i<rows; ++i)
+                {
+                    encoder.startRow();
+                    encoder.addLong(1);
+                    encoder.addTimestamp(now.plusSeconds(i));
+                    encoder.addLong(0);
+                    encoder.addLong(1);
+                    encoder.addLong(1);
+                    encoder.addNull();
+                    encoder.addDouble(i);
+                    encoder.addNull();
+                    encoder.addText(" ");
+                    encoder.addNull();
+                }
+                try (InputStream data = encoder.getData())
+                {
+                    data.skip(data.available());
+                }
+                report("Encode", rows, start);
+                encoder.clear();
+            }
+    }
+
+    @Test
+    public void benchmarkDatabase() throws Exception
+    {
+        final RDBInfo info = new RDBInfo(Preferences.url, Preferences.user, Preferences.password);
+        if (info.getDialect() != Dialect.PostgreSQL)
+        {
+            System.out.println("Skipping COPY vs. INSERT, " + Preferences.url + " is not PostgreSQL");
+            return;
+        }
+
+        try
+        (
+            Connection connection = info.connect();
+            Statement statement = connection.createStatement();
+        )
+        {
+            connection.setAutoCommit(false);
+            statement.execute("CREATE TEMPORARY TABLE " + TABLE + "(" +
+                              "channel_id BIGINT NOT NULL, smpl_time TIMESTAMPTZ NOT NULL, nanosecs BIGINT NOT NULL," +
+                              "severity_id BIGINT NOT NULL, status_id BIGINT NOT NULL, num_val INT NULL," +
+                              "float_val double precision NULL, str_val VARCHAR(120) NULL," +
+                              "datatype CHAR(1) NULL DEFAULT ' ', array_val BYTEA NULL)");
+            connection.commit();
+
+            final PGBinaryCopy copy = new PGBinaryCopy(connection, "", TABLE, true);
+            final Instant now = Instant.now();
+            for (int rows : FLUSH_SIZES)
+            {
+                long start = System.nanoTime();
+                for (int i=0; i<rows; ++i)
+                    copy.addDouble(1, Timestamp.from(now.plusSeconds(i)), 1, 1, i, null);
+                copy.flush();
+                connection.commit();
+                report("COPY", rows, start);
+
+                start = System.nanoTime();
+                try
+                (
+                    PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO " + TABLE + " (channel_id, smpl_time, severity_id, status_id, float_val, nanosecs)" +
+                        " VALUES (?,?,?,?,?,?)");
+                )
+                {
+                    for (int i=0; i<rows; ++i)
+                    {
+                        insert.setInt(1, 1);
+                        insert.setTimestamp(2, Timestamp.from(now.plusSeconds(i)));
+                        insert.setInt(3, 1);
+                        insert.setInt(4, 1);
+                        insert.setDouble(5, i);
+                        insert.setInt(6, 0);
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                    connection.commit();
+                }
+                report("INSERT", rows, start);
+
+                statement.execute("TRUNCATE " + TABLE);
+                connection.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.rdb;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.DataInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Instant;
+
+import org.csstudio.archive.writer.rdb.PGCopyEncoder.Type;
+import org.junit.jupiter.api.Test;
+
+/** JUnit test of the {@link PGCopyEncoder}
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class PGCopyEncoderTest
+{
+    private static final String[] COLUMNS = { "channel_id", "smpl_time", "num_val", "float_val", "str_val", "array_val" };
+    private static final Type[] TYPES = { Type.INT8, Type.TIMESTAMPTZ, Type.INT4, Type.FLOAT8, Type.TEXT, Type.BYTEA };
+
+    @Test
+    public void testTypes() throws Exception
+    {
+        assertEquals(Type.INT8, PGCopyEncoder.getType("int8"));
+        assertEquals(Type.INT8, PGCopyEncoder.getType("bigserial"));
+        assertEquals(Type.INT4, PGCopyEncoder.getType("int4"));
+        assertEquals(Type.FLOAT8, PGCopyEncoder.getType("float8"));
+        assertEquals(Type.TIMESTAMPTZ, PGCopyEncoder.getType("timestamptz"));
+        assertEquals(Type.TEXT, PGCopyEncoder.getType("bpchar"));
+        assertEquals(Type.BYTEA, PGCopyEncoder.getType("bytea"));
+        assertThrows(SQLException.class, () -> PGCopyEncoder.getType("numeric"));
+    }
+
+    @Test
+    public void testEncoding() throws Exception
+    {
+        final PGCopyEncoder encoder = new PGCopyEncoder("archive.sample", COLUMNS, TYPES);
+        assertEquals("COPY archive.sample (channel_id, smpl_time, num_val, float_val, str_val, array_val) FROM STDIN WITH (FORMAT binary)",
+                     encoder.getSQL());
+
+        // 2000-01-01 00:00:01.5 UTC
+        final Instant stamp = Instant.ofEpochSecond(946684801L, 500000000);
+
+        encoder.startRow();
+        encoder.addLong(42);
+        encoder.addTimestamp(stamp);
+        encoder.addNull();
+        encoder.addDouble(3.14);
+        encoder.addText(null);
+        encoder.addBytes(new byte[] { 1, 2, 3 });
+
+        encoder.startRow();
+        encoder.addLong(43);
+        encoder.addTimestamp(stamp);
+        encoder.addLong(-7);
+        encoder.addNull();
+        encoder.addText("Hällo");
+        encoder.addNull();
+        assertEquals(2, encoder.getRows());
+
+        final DataInputStream in = new DataInputStream(encoder.getData());
+        final byte[] signature = new byte[11];
+        in.readFully(signature);
+        assertArrayEquals(new byte[] { 'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0 }, signature);
+        assertEquals(0, in.readInt());
+        assertEquals(0, in.readInt());
+
+        // Row 1
+        assertEquals(6, in.readShort());
+        assertEquals(8, in.readInt());
+        assertEquals(42, in.readLong());
+        assertEquals(8, in.readInt());
+        assertEquals(1500000, in.readLong());
+        assertEquals(-1, in.readInt());
+        assertEquals(8, in.readInt());
+        assertEquals(3.14, in.readDouble());
+        assertEquals(-1, in.readInt());
+        assertEquals(3, in.readInt());
+        assertEquals(1, in.readByte());
+        assertEquals(2, in.readByte());
+        assertEquals(3, in.readByte());
+
+        // Row 2
+        assertEquals(6, in.readShort());
+        assertEquals(8, in.readInt());
+        assertEquals(43, in.readLong());
+        assertEquals(8, in.readInt());
+        assertEquals(1500000, in.readLong());
+        assertEquals(4, in.readInt());
+        assertEquals(-7, in.readInt());
+        assertEquals(-1, in.readInt());
+        final byte[] text = "Hällo".getBytes(StandardCharsets.UTF_8);
+        assertEquals(text.length, in.readInt());
+        final byte[] read = new byte[text.length];
+        in.readFully(read);
+        assertArrayEquals(text, read);
+        assertEquals(-1, in.readInt());
+
+        // Trailer
+        assertEquals(-1, in.readShort());
+        assertEquals(-1, in.read());
+
+        encoder.clear();
+        assertEquals(0, encoder.getRows());
+        assertEquals(11 + 4 + 4 + 2, encoder.getData().available());
+    }
+
+    @Test
+    public void testErrors() throws Exception
+    {
+        final PGCopyEncoder encoder = new PGCopyEncoder("sample", COLUMNS, TYPES);
+
+        encoder.startRow();
+        encoder.addLong(1);
+        // Wrong type
+        assertThrows(SQLException.class, () -> encoder.addText("now"));
+        encoder.cancelRow();
+        assertEquals(0, encoder.getRows());
+
+        encoder.startRow();
+        encoder.addLong(1);
+        encoder.addTimestamp(Instant.now());
+        // Out of range for INT4
+        assertThrows(SQLException.class, () -> encoder.addLong(Long.MAX_VALUE));
+        encoder.cancelRow();
+
+        // Incomplete row
+        encoder.startRow();
+        encoder.addLong(1);
+        assertThrows(SQLException.class, () -> encoder.getData());
+        assertThrows(SQLException.class, () -> encoder.startRow());
+        encoder.cancelRow();
+        assertEquals(0, encoder.getRows());
+        assertEquals(11 + 4 + 4 + 2, encoder.getData().available());
+    }
+}